@@ -0,0 +1,91 @@
+package benchmark;
+
+import dao.GroupKey;
+import dao.GroupStats;
+import dao.PaymentAggregation;
+import dao.PaymentColumns;
+import dao.PaymentDAOImpl;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import util.ConnectionPool;
+
+import java.sql.SQLException;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Масштабування PaymentAggregation з кількістю потоків
+ * USER - десятки тисяч груп (важке злиття), CATEGORY - кілька груп,
+ * DAY - сотні груп; знімок завантажується один раз у setUp.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx4g"})
+public class AggregationBenchmark {
+
+    @Param({"20000"})
+    public int users;
+
+    @Param({"100"})
+    public int paymentsPerUser;
+
+    @Param({"1", "4", "16"})
+    public int threads;
+
+    @Param({"USER", "CATEGORY", "DAY"})
+    public GroupKey key;
+
+    private static final int STATUS_COMPLETED = 3;
+
+    private ConnectionPool pool;
+    private PaymentColumns columns;
+    private ForkJoinPool forkJoinPool;
+
+    @Setup
+    public void setUp() throws SQLException {
+        BenchmarkDatabase.silenceConsole();
+        pool = BenchmarkDatabase.createPool(4, ConnectionPool.DEFAULT_STATEMENT_CACHE_SIZE);
+        BenchmarkDatabase.createSchema(pool);
+        BenchmarkDatabase.seed(pool, users, 2, paymentsPerUser);
+        columns = new PaymentDAOImpl(pool).getPaymentColumns();
+        forkJoinPool = new ForkJoinPool(threads);
+        System.err.println(columns + ", потоків: " + threads);
+    }
+
+    @TearDown
+    public void tearDown() {
+        forkJoinPool.shutdown();
+        BenchmarkDatabase.drop(pool);
+    }
+
+    @Benchmark
+    public Map<Integer, Map<String, GroupStats>> aggregate() {
+        return PaymentAggregation.by(key).run(columns, forkJoinPool);
+    }
+
+    @Benchmark
+    public Map<Integer, Map<String, GroupStats>> aggregateCompleted() {
+        return PaymentAggregation.by(key)
+                .filter(PaymentColumns.Filter.all().status(STATUS_COMPLETED))
+                .run(columns, forkJoinPool);
+    }
+
+    @Benchmark
+    public Map<Integer, Map<String, GroupStats>> aggregateWithPercentiles() {
+        return PaymentAggregation.by(key).withPercentiles().run(columns, forkJoinPool);
+    }
+}
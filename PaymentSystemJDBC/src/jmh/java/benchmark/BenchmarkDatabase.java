@@ -0,0 +1,173 @@
+package benchmark;
+
+import dao.DAOLog;
+import util.ConnectionPool;
+import util.SchemaMigrator;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Вбудована БД H2 (режим MySQL) зі схемою payment_system для бенчмарків
+ * Кожен виклик createPool() створює окрему базу в пам'яті.
+ */
+public final class BenchmarkDatabase {
+
+    public static final String[] LAST_NAMES = {
+            "Шевченко", "Коваленко", "Бондаренко", "Ткаченко", "Кравченко",
+            "Олійник", "Шевчук", "Поліщук", "Бойко", "Мельник"
+    };
+    public static final int CATEGORY_COUNT = 10;
+    public static final int STATUS_COUNT = 5;
+
+    private static final AtomicInteger DATABASE_COUNTER = new AtomicInteger();
+
+    private BenchmarkDatabase() {
+    }
+
+    /**
+     * Створити пул до нової порожньої бази в пам'яті
+     */
+    public static ConnectionPool createPool(int poolSize, int statementCacheSize) {
+        String url = "jdbc:h2:mem:bench" + DATABASE_COUNTER.incrementAndGet() +
+                ";MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1";
+        return new ConnectionPool(url, "sa", "", poolSize, 30_000, 600_000, 2, statementCacheSize);
+    }
+
+    /**
+     * Створити схему тими самими міграціями, що й застосунок, і додати категорії
+     * (статуси вносить сама міграція)
+     */
+    public static void createSchema(ConnectionPool pool) throws SQLException {
+        SchemaMigrator.migrate(pool);
+        try (Connection connection = pool.getConnection();
+             Statement stmt = connection.createStatement()) {
+            for (int i = 1; i <= CATEGORY_COUNT; i++) {
+                stmt.execute("INSERT INTO payment_categories VALUES (" + i + ", 'Категорія " + i + "')");
+            }
+        }
+    }
+
+    /**
+     * Заповнити базу тестовими даними
+     * Користувач i має email user{i}@bench.test і рахунки з ID (i-1)*accountsPerUser+1..i*accountsPerUser
+     * @param users - кількість користувачів
+     * @param accountsPerUser - рахунків на користувача
+     * @param paymentsPerUser - платежів на користувача
+     */
+    public static void seed(ConnectionPool pool, int users, int accountsPerUser, int paymentsPerUser)
+            throws SQLException {
+        SplittableRandom random = new SplittableRandom(42);
+        long now = System.currentTimeMillis();
+        int accounts = users * accountsPerUser;
+
+        try (Connection connection = pool.getConnection()) {
+            connection.setAutoCommit(false);
+
+            try (PreparedStatement stmt = connection.prepareStatement(
+                    "INSERT INTO users (first_name, last_name, email, phone, password_hash, is_active) " +
+                            "VALUES (?, ?, ?, ?, ?, ?)")) {
+                for (int i = 1; i <= users; i++) {
+                    stmt.setString(1, "Ім'я" + i);
+                    stmt.setString(2, LAST_NAMES[i % LAST_NAMES.length] + i);
+                    stmt.setString(3, "user" + i + "@bench.test");
+                    stmt.setString(4, "+380" + (500000000 + i));
+                    stmt.setString(5, "hash");
+                    stmt.setBoolean(6, i % 10 != 0);
+                    stmt.addBatch();
+                    if (i % 1000 == 0) {
+                        stmt.executeBatch();
+                    }
+                }
+                stmt.executeBatch();
+            }
+
+            try (PreparedStatement stmt = connection.prepareStatement(
+                    "INSERT INTO accounts (user_id, account_number, balance) VALUES (?, ?, ?)")) {
+                for (int i = 1; i <= accounts; i++) {
+                    stmt.setInt(1, (i - 1) / accountsPerUser + 1);
+                    stmt.setString(2, "UA" + (100000000L + i));
+                    stmt.setBigDecimal(3, BigDecimal.valueOf(1_000_000, 2));
+                    stmt.addBatch();
+                    if (i % 1000 == 0) {
+                        stmt.executeBatch();
+                    }
+                }
+                stmt.executeBatch();
+            }
+
+            try (PreparedStatement stmt = connection.prepareStatement(
+                    "INSERT INTO payments (sender_account_id, recipient_account_id, category_id, status_id, " +
+                            "amount, description, payment_date, commission, reference_number) " +
+                            "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)")) {
+                int total = users * paymentsPerUser;
+                for (int i = 1; i <= total; i++) {
+                    int userId = (i - 1) / paymentsPerUser + 1;
+                    stmt.setInt(1, (userId - 1) * accountsPerUser + 1 + random.nextInt(accountsPerUser));
+                    if (random.nextInt(4) == 0) {
+                        stmt.setNull(2, Types.INTEGER);
+                    } else {
+                        stmt.setInt(2, random.nextInt(accounts) + 1);
+                    }
+                    stmt.setInt(3, random.nextInt(CATEGORY_COUNT) + 1);
+                    stmt.setInt(4, random.nextInt(STATUS_COUNT) + 1);
+                    stmt.setBigDecimal(5, BigDecimal.valueOf(random.nextInt(1, 10_000_00), 2));
+                    stmt.setString(6, "Платіж " + i);
+                    stmt.setTimestamp(7, new Timestamp(now - random.nextLong(TimeUnit.DAYS.toMillis(365))));
+                    stmt.setBigDecimal(8, BigDecimal.ZERO);
+                    stmt.setString(9, "SEED-" + i);
+                    stmt.addBatch();
+                    if (i % 1000 == 0) {
+                        stmt.executeBatch();
+                    }
+                }
+                stmt.executeBatch();
+            }
+
+            try (Statement stmt = connection.createStatement()) {
+                stmt.executeUpdate("INSERT INTO account_payment_totals (account_id, completed_total, completed_count) " +
+                        "SELECT sender_account_id, SUM(amount), COUNT(*) FROM payments WHERE status_id = 3 " +
+                        "GROUP BY sender_account_id");
+                stmt.executeUpdate("INSERT INTO user_payment_totals (user_id, completed_total, completed_count) " +
+                        "SELECT a.user_id, SUM(p.amount), COUNT(*) FROM payments p " +
+                        "JOIN accounts a ON p.sender_account_id = a.account_id WHERE p.status_id = 3 " +
+                        "GROUP BY a.user_id");
+            }
+
+            connection.commit();
+        }
+    }
+
+    /**
+     * Видалити базу після прогону
+     */
+    public static void drop(ConnectionPool pool) {
+        try (Connection connection = pool.getConnection();
+             Statement stmt = connection.createStatement()) {
+            stmt.execute("DROP ALL OBJECTS");
+        } catch (SQLException e) {
+            System.err.println("❌ Помилка при видаленні тестової БД: " + e.getMessage());
+        }
+        pool.close();
+    }
+
+    /**
+     * DAO пишуть у консоль на кожну операцію - у бенчмарку це лише шум
+     * Вимикаємо вивід DAO на джерелі (без побудови рядків і блокування System.out),
+     * а решту повідомлень (міграції, пул) - підміною System.out
+     */
+    public static void silenceConsole() {
+        DAOLog.setConsoleEnabled(false);
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+    }
+}
@@ -0,0 +1,101 @@
+package benchmark;
+
+import dao.AsyncDAO;
+import dao.DAOExecutor;
+import dao.PaymentDAO;
+import dao.PaymentDAOImpl;
+import dao.UserDAO;
+import dao.UserDAOImpl;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import util.ConnectionPool;
+
+import java.sql.SQLException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Навантажувальний тест DAOExecutor: inFlight одночасних запитів
+ * (читання користувача і його платежів) на віртуальних потоках проти
+ * пулу звичайних потоків розміром platformThreads.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class DAOExecutorBenchmark {
+
+    @Param({"virtual", "platform"})
+    public String executorType;
+
+    @Param({"1000", "10000"})
+    public int inFlight;
+
+    @Param({"16"})
+    public int poolSize;
+
+    // Розмір пулу звичайних потоків для executorType=platform
+    @Param({"200"})
+    public int platformThreads;
+
+    @Param({"1000"})
+    public int users;
+
+    private ConnectionPool pool;
+    private DAOExecutor executor;
+    private AsyncDAO<UserDAO> userDao;
+    private AsyncDAO<PaymentDAO> paymentDao;
+
+    @Setup
+    public void setUp() throws SQLException {
+        BenchmarkDatabase.silenceConsole();
+        pool = BenchmarkDatabase.createPool(poolSize, 64);
+        BenchmarkDatabase.createSchema(pool);
+        BenchmarkDatabase.seed(pool, users, 2, 10);
+
+        executor = "virtual".equals(executorType)
+                ? new DAOExecutor(pool)
+                : new DAOExecutor(Executors.newFixedThreadPool(platformThreads), poolSize);
+        userDao = new AsyncDAO<>(new UserDAOImpl(pool), executor);
+        paymentDao = new AsyncDAO<>(new PaymentDAOImpl(pool), executor);
+    }
+
+    @TearDown
+    public void tearDown() {
+        executor.close();
+        System.err.println(executor);
+        System.err.println(pool.getStats());
+        BenchmarkDatabase.drop(pool);
+    }
+
+    /**
+     * Одна операція - inFlight запитів, відправлених разом, і очікування всіх відповідей
+     */
+    @Benchmark
+    public int concurrentRequests() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        CompletableFuture<?>[] futures = new CompletableFuture<?>[inFlight];
+        for (int i = 0; i < inFlight; i++) {
+            int userId = random.nextInt(users) + 1;
+            futures[i] = i % 2 == 0
+                    ? userDao.call(dao -> dao.getUserById(userId))
+                    : paymentDao.call(dao -> dao.getPaymentsByUser(userId));
+        }
+        CompletableFuture.allOf(futures).join();
+        return futures.length;
+    }
+}
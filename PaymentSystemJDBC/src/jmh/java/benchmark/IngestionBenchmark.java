@@ -0,0 +1,97 @@
+package benchmark;
+
+import dao.PaymentDAO;
+import dao.PaymentDAOImpl;
+import dao.PaymentIngestionQueue;
+import model.Payment;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import util.ConnectionPool;
+
+import java.math.BigDecimal;
+import java.sql.SQLException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Прийом платежів: createPayment (commit на кожен платіж) проти
+ * PaymentIngestionQueue (груповий commit). Кожен виклик чекає на ID,
+ * тож SampleTime показує і ціну очікування на добір пакета.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(32)
+@Fork(1)
+public class IngestionBenchmark {
+
+    @Param({"100"})
+    public int users;
+
+    @Param({"16"})
+    public int poolSize;
+
+    @Param({"10000"})
+    public int capacity;
+
+    @Param({"100"})
+    public int batchSize;
+
+    @Param({"2"})
+    public long maxDelayMillis;
+
+    @Param({"2"})
+    public int writerThreads;
+
+    private ConnectionPool pool;
+    private PaymentDAO dao;
+    private PaymentIngestionQueue queue;
+
+    @Setup
+    public void setUp() throws SQLException {
+        BenchmarkDatabase.silenceConsole();
+        pool = BenchmarkDatabase.createPool(poolSize, 64);
+        BenchmarkDatabase.createSchema(pool);
+        BenchmarkDatabase.seed(pool, users, 1, 0);
+        dao = new PaymentDAOImpl(pool);
+        queue = new PaymentIngestionQueue(dao, capacity, batchSize, maxDelayMillis, writerThreads);
+    }
+
+    @TearDown
+    public void tearDown() {
+        queue.close();
+        System.err.println(queue.getStats());
+        System.err.println(pool.getStats());
+        BenchmarkDatabase.drop(pool);
+    }
+
+    private Payment newPayment() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        return new Payment(random.nextInt(users) + 1, random.nextInt(users) + 1,
+                random.nextInt(BenchmarkDatabase.CATEGORY_COUNT) + 1, 1,
+                BigDecimal.valueOf(random.nextInt(1, 100_000), 2), "Бенчмарк");
+    }
+
+    @Benchmark
+    public boolean createPayment() {
+        return dao.createPayment(newPayment());
+    }
+
+    @Benchmark
+    public Integer queuedCreatePayment() throws InterruptedException {
+        return queue.submit(newPayment()).join();
+    }
+}
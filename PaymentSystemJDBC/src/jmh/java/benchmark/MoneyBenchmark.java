@@ -0,0 +1,119 @@
+package benchmark;
+
+import model.Money;
+import model.MoneyTotals;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.math.BigDecimal;
+import java.util.Currency;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Підсумовування сум: BigDecimal проти long у мінорних одиницях (Money/MoneyTotals)
+ * Одна валюта - проста сума; кілька - суми окремо за валютами, як у
+ * статистиці за категоріями. Алокації - з -prof gc.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MoneyBenchmark {
+
+    private static final String[] CURRENCY_CODES = {"UAH", "USD", "EUR", "PLN"};
+
+    @Param({"1000000"})
+    public int size;
+
+    // Скільки різних валют серед сум
+    @Param({"1", "4"})
+    public int currencies;
+
+    private BigDecimal[] decimalAmounts;
+    private String[] currencyCodes;
+    private long[] minorAmounts;
+    private Currency[] rowCurrencies;
+
+    @Setup
+    public void setUp() {
+        SplittableRandom random = new SplittableRandom(42);
+        decimalAmounts = new BigDecimal[size];
+        currencyCodes = new String[size];
+        minorAmounts = new long[size];
+        rowCurrencies = new Currency[size];
+        for (int i = 0; i < size; i++) {
+            // Від 1.00 до 10 000.00
+            long minor = random.nextLong(100, 1_000_001);
+            String code = CURRENCY_CODES[random.nextInt(currencies)];
+            decimalAmounts[i] = BigDecimal.valueOf(minor, Money.SCALE);
+            currencyCodes[i] = code;
+            minorAmounts[i] = minor;
+            rowCurrencies[i] = Money.currency(code);
+        }
+    }
+
+    @Benchmark
+    public BigDecimal bigDecimalSum() {
+        BigDecimal sum = BigDecimal.ZERO;
+        for (BigDecimal amount : decimalAmounts) {
+            sum = sum.add(amount);
+        }
+        return sum;
+    }
+
+    @Benchmark
+    public long minorUnitsSum() {
+        long sum = 0;
+        for (long amount : minorAmounts) {
+            sum = Math.addExact(sum, amount);
+        }
+        return sum;
+    }
+
+    /**
+     * Суми за валютами так, як їх рахували раніше: Map код -> BigDecimal
+     */
+    @Benchmark
+    public Map<String, BigDecimal> bigDecimalByCurrency() {
+        Map<String, BigDecimal> totals = new HashMap<>();
+        for (int i = 0; i < size; i++) {
+            totals.merge(currencyCodes[i], decimalAmounts[i], BigDecimal::add);
+        }
+        return totals;
+    }
+
+    @Benchmark
+    public MoneyTotals moneyTotalsByCurrency() {
+        MoneyTotals totals = new MoneyTotals();
+        for (int i = 0; i < size; i++) {
+            totals.add(rowCurrencies[i], minorAmounts[i]);
+        }
+        return totals;
+    }
+
+    /**
+     * MoneyTotals, коли суми приходять як BigDecimal (рядок ResultSet, Payment)
+     */
+    @Benchmark
+    public MoneyTotals moneyTotalsFromBigDecimal() {
+        MoneyTotals totals = new MoneyTotals();
+        for (int i = 0; i < size; i++) {
+            totals.add(currencyCodes[i], decimalAmounts[i]);
+        }
+        return totals;
+    }
+}
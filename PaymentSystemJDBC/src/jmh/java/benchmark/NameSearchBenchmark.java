@@ -0,0 +1,117 @@
+package benchmark;
+
+import dao.NameMatch;
+import dao.UserDAOImpl;
+import dao.UserNameIndex;
+import model.User;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import util.ConnectionPool;
+
+import java.sql.SQLException;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Пошук користувачів за іменем: SQL LIKE проти триграмного індексу в пам'яті
+ * broad - фрагмент спільного прізвища (десятки відсотків користувачів),
+ * selective - фрагмент, що вказує на одиниці користувачів
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx4g"})
+public class NameSearchBenchmark {
+
+    @Param({"1000000"})
+    public int users;
+
+    @Param({"broad", "selective"})
+    public String selectivity;
+
+    @Param({"PREFIX", "SUBSTRING"})
+    public NameMatch match;
+
+    @Param({"50"})
+    public int limit;
+
+    private ConnectionPool pool;
+    private UserDAOImpl sqlDao;
+    private UserDAOImpl indexedDao;
+
+    @Setup
+    public void setUp() throws SQLException {
+        BenchmarkDatabase.silenceConsole();
+        pool = BenchmarkDatabase.createPool(16, ConnectionPool.DEFAULT_STATEMENT_CACHE_SIZE);
+        BenchmarkDatabase.createSchema(pool);
+        BenchmarkDatabase.seed(pool, users, 1, 0);
+        sqlDao = new UserDAOImpl(pool);
+        indexedDao = new UserDAOImpl(pool);
+
+        Runtime runtime = Runtime.getRuntime();
+        System.gc();
+        long heapBefore = runtime.totalMemory() - runtime.freeMemory();
+        long started = System.nanoTime();
+        UserNameIndex index = indexedDao.enableNameIndex();
+        long buildMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started);
+        System.gc();
+        long heapAfter = runtime.totalMemory() - runtime.freeMemory();
+        System.err.println(index + ": побудова " + buildMillis + " мс, ~" +
+                (heapAfter - heapBefore) / (1024 * 1024) + " МБ купи");
+    }
+
+    @TearDown
+    public void tearDown() {
+        BenchmarkDatabase.drop(pool);
+    }
+
+    /**
+     * Фрагмент прізвища випадкового користувача (прізвища в seed - LAST_NAMES[i % 10] + i)
+     */
+    private String query() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int userId = random.nextInt(users) + 1;
+        String lastName = BenchmarkDatabase.LAST_NAMES[userId % BenchmarkDatabase.LAST_NAMES.length];
+        if (selectivity.equals("broad")) {
+            return match == NameMatch.PREFIX ? lastName.substring(0, 4) : lastName.substring(1, 5);
+        }
+        String full = lastName + userId;
+        return match == NameMatch.PREFIX ? full : full.substring(3);
+    }
+
+    @Benchmark
+    public List<User> searchByNameSql() {
+        return sqlDao.searchByName(query(), match, limit);
+    }
+
+    @Benchmark
+    public List<User> searchByNameIndex() {
+        return indexedDao.searchByName(query(), match, limit);
+    }
+
+    /**
+     * Без ліміту: LIKE '%x%' за прізвищем, як у searchByLastName
+     */
+    @Benchmark
+    public List<User> searchByLastNameSql() {
+        return sqlDao.searchByLastName(query());
+    }
+
+    @Benchmark
+    public List<User> searchByLastNameIndex() {
+        return indexedDao.searchByLastName(query());
+    }
+}
@@ -0,0 +1,140 @@
+package benchmark;
+
+import dao.PaymentColumns;
+import dao.PaymentDAOImpl;
+import model.Payment;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import util.ConnectionPool;
+
+import java.math.BigDecimal;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Аналітичні сканування: List<Payment> з getAllPayments проти PaymentColumns
+ * Обидва представлення будуються один раз у setUp (там же виводиться, скільки
+ * купи займає кожне), далі міряється лише сканування в пам'яті.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx4g"})
+public class PaymentColumnsBenchmark {
+
+    @Param({"10000"})
+    public int users;
+
+    @Param({"100"})
+    public int paymentsPerUser;
+
+    private static final int STATUS_COMPLETED = 3;
+
+    private ConnectionPool pool;
+    private List<Payment> payments;
+    private PaymentColumns columns;
+    private Timestamp from;
+    private Timestamp to;
+
+    @Setup
+    public void setUp() throws SQLException {
+        BenchmarkDatabase.silenceConsole();
+        pool = BenchmarkDatabase.createPool(4, ConnectionPool.DEFAULT_STATEMENT_CACHE_SIZE);
+        BenchmarkDatabase.createSchema(pool);
+        BenchmarkDatabase.seed(pool, users, 2, paymentsPerUser);
+        PaymentDAOImpl dao = new PaymentDAOImpl(pool);
+
+        long heapBefore = usedHeap();
+        payments = dao.getAllPayments();
+        long listBytes = usedHeap() - heapBefore;
+        heapBefore = usedHeap();
+        columns = dao.getPaymentColumns();
+        long columnsBytes = usedHeap() - heapBefore;
+        System.err.printf("List<Payment>: %d платежів, ~%d МБ купи; %s: ~%d МБ купи (у %.1f раза менше)%n",
+                payments.size(), listBytes >> 20, columns, columnsBytes >> 20,
+                (double) listBytes / Math.max(columnsBytes, 1));
+
+        // Останні 90 днів (дані засіяно рівномірно за рік)
+        long now = System.currentTimeMillis();
+        from = new Timestamp(now - TimeUnit.DAYS.toMillis(90));
+        to = new Timestamp(now);
+    }
+
+    @TearDown
+    public void tearDown() {
+        BenchmarkDatabase.drop(pool);
+    }
+
+    private static long usedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        System.gc();
+        System.gc();
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+    @Benchmark
+    public BigDecimal completedTotalList() {
+        BigDecimal total = BigDecimal.ZERO;
+        for (Payment payment : payments) {
+            if (payment.getStatusId() == STATUS_COMPLETED) {
+                total = total.add(payment.getAmount());
+            }
+        }
+        return total;
+    }
+
+    @Benchmark
+    public BigDecimal completedTotalColumns() {
+        return columns.totalAmount(PaymentColumns.Filter.all().status(STATUS_COMPLETED));
+    }
+
+    @Benchmark
+    public int recentCompletedCountList() {
+        long fromMillis = from.getTime();
+        long toMillis = to.getTime();
+        int count = 0;
+        for (Payment payment : payments) {
+            long date = payment.getPaymentDate().getTime();
+            if (payment.getStatusId() == STATUS_COMPLETED && date >= fromMillis && date < toMillis) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    @Benchmark
+    public int recentCompletedCountColumns() {
+        return columns.count(PaymentColumns.Filter.all().status(STATUS_COMPLETED).between(from, to));
+    }
+
+    @Benchmark
+    public Map<Integer, Map<String, BigDecimal>> totalsByCategoryList() {
+        Map<Integer, Map<String, BigDecimal>> totals = new TreeMap<>();
+        for (Payment payment : payments) {
+            totals.computeIfAbsent(payment.getCategoryId(), key -> new TreeMap<>())
+                    .merge(payment.getCurrency(), payment.getAmount(), BigDecimal::add);
+        }
+        return totals;
+    }
+
+    @Benchmark
+    public Map<Integer, Map<String, PaymentColumns.Aggregate>> totalsByCategoryColumns() {
+        return columns.aggregateByCategory(PaymentColumns.Filter.all());
+    }
+}
@@ -0,0 +1,436 @@
+package benchmark;
+
+import dao.PaymentDAO;
+import dao.InstrumentedDAO;
+import dao.PaymentDAOImpl;
+import dao.PaymentPage;
+import dao.QueryPlanCheck;
+import dao.RecentPaymentsCache;
+import dao.StatisticsWindow;
+import model.CategoryStatistics;
+import model.Payment;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import util.ConnectionPool;
+import util.MetricsRegistry;
+
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Бенчмарки всіх методів PaymentDAO
+ * Пропускна здатність і розподіл затримок; з конкурентністю - через -t N
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PaymentDAOBenchmark {
+
+    @Param({"1000"})
+    public int users;
+
+    @Param({"2"})
+    public int accountsPerUser;
+
+    @Param({"20"})
+    public int paymentsPerUser;
+
+    // 0 - без кешу підготовлених запитів
+    @Param({"64"})
+    public int statementCacheSize;
+
+    @Param({"16"})
+    public int poolSize;
+
+    // Кількість платежів на одну операцію пакетного створення
+    @Param({"100"})
+    public int batchSize;
+
+    // Номер сторінки (по 50 платежів) для глибокої keyset-пагінації
+    @Param({"100"})
+    public int deepPage;
+
+    // Активні рахунки: на них припадає 90% читань історії рахунку
+    @Param({"200"})
+    public int hotAccounts;
+
+    private ConnectionPool pool;
+    private PaymentDAO dao;
+    // Той самий DAO за InstrumentedDAO - ціна запису метрик
+    private PaymentDAO instrumentedDao;
+    private MetricsRegistry metrics;
+    // Окремий DAO з увімкненими лічильниками статусів
+    private PaymentDAO countingDao;
+    // Окремий DAO з історією останніх платежів у пам'яті
+    private PaymentDAO recentDao;
+    private RecentPaymentsCache recentPayments;
+    private int seededPayments;
+    private String deepPageToken;
+
+    @Setup
+    public void setUp() throws SQLException {
+        BenchmarkDatabase.silenceConsole();
+        pool = BenchmarkDatabase.createPool(poolSize, statementCacheSize);
+        BenchmarkDatabase.createSchema(pool);
+        BenchmarkDatabase.seed(pool, users, accountsPerUser, paymentsPerUser);
+        // Попередження про повні перегляди йдуть у System.err - видно в лозі прогону
+        QueryPlanCheck.run(pool);
+        dao = new PaymentDAOImpl(pool);
+        metrics = new MetricsRegistry(null);
+        instrumentedDao = InstrumentedDAO.wrap(PaymentDAO.class, dao, metrics);
+        PaymentDAOImpl counting = new PaymentDAOImpl(pool);
+        counting.enableStatusCounters();
+        countingDao = counting;
+        PaymentDAOImpl recent = new PaymentDAOImpl(pool);
+        recentPayments = recent.enableRecentPayments(5000, 100, TimeUnit.MINUTES.toMillis(10));
+        recentDao = recent;
+        seededPayments = users * paymentsPerUser;
+
+        String token = null;
+        for (int i = 0; i < deepPage; i++) {
+            token = dao.getAllPaymentsPage(50, token).getNextPageToken();
+        }
+        deepPageToken = token;
+    }
+
+    @TearDown
+    public void tearDown() {
+        List<String> mismatches = dao.verifyPaymentTotals();
+        if (mismatches == null || !mismatches.isEmpty()) {
+            throw new IllegalStateException("❌ Накопичені суми розійшлися з payments: " + mismatches);
+        }
+        System.err.println(pool.getStats());
+        System.err.print(metrics.dump());
+        System.err.println(recentPayments.getStats());
+        BenchmarkDatabase.drop(pool);
+    }
+
+    private Payment newPayment() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int accounts = users * accountsPerUser;
+        return new Payment(random.nextInt(accounts) + 1, random.nextInt(accounts) + 1,
+                random.nextInt(BenchmarkDatabase.CATEGORY_COUNT) + 1, 1,
+                BigDecimal.valueOf(random.nextInt(1, 100_000), 2), "Бенчмарк");
+    }
+
+    private int randomPaymentId() {
+        return ThreadLocalRandom.current().nextInt(seededPayments) + 1;
+    }
+
+    private int randomUserId() {
+        return ThreadLocalRandom.current().nextInt(users) + 1;
+    }
+
+    private int randomAccountId() {
+        return ThreadLocalRandom.current().nextInt(users * accountsPerUser) + 1;
+    }
+
+    private int randomHotAccountId() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int accounts = users * accountsPerUser;
+        return random.nextInt(10) < 9 ? random.nextInt(Math.min(hotAccounts, accounts)) + 1
+                : random.nextInt(accounts) + 1;
+    }
+
+    private int randomStatusId() {
+        return ThreadLocalRandom.current().nextInt(BenchmarkDatabase.STATUS_COUNT) + 1;
+    }
+
+    private int randomCategoryId() {
+        return ThreadLocalRandom.current().nextInt(BenchmarkDatabase.CATEGORY_COUNT) + 1;
+    }
+
+    @Benchmark
+    public boolean createPayment() {
+        return dao.createPayment(newPayment());
+    }
+
+    /**
+     * batchSize платежів по одному - база для порівняння з createPaymentsBatch
+     */
+    @Benchmark
+    public int createPaymentsSingleRow() {
+        int created = 0;
+        for (int i = 0; i < batchSize; i++) {
+            if (dao.createPayment(newPayment())) {
+                created++;
+            }
+        }
+        return created;
+    }
+
+    @Benchmark
+    public int createPaymentsBatch() {
+        List<Payment> payments = new ArrayList<>(batchSize);
+        for (int i = 0; i < batchSize; i++) {
+            payments.add(newPayment());
+        }
+        return dao.createPayments(payments, batchSize);
+    }
+
+    @Benchmark
+    public Payment getPaymentById() {
+        return dao.getPaymentById(randomPaymentId());
+    }
+
+    @Benchmark
+    public Payment getPaymentByIdInstrumented() {
+        return instrumentedDao.getPaymentById(randomPaymentId());
+    }
+
+    @Benchmark
+    public PaymentPage getPaymentsByAccountPageInstrumented() {
+        return instrumentedDao.getPaymentsByAccountPage(randomAccountId(), 50, null);
+    }
+
+    @Benchmark
+    public List<Payment> getAllPayments() {
+        return dao.getAllPayments();
+    }
+
+    @Benchmark
+    public long streamAllPayments() {
+        try (Stream<Payment> payments = dao.streamAllPayments()) {
+            return payments.count();
+        }
+    }
+
+    @Benchmark
+    public PaymentPage getAllPaymentsFirstPage() {
+        return dao.getAllPaymentsPage(50, null);
+    }
+
+    @Benchmark
+    public PaymentPage getAllPaymentsDeepPage() {
+        return dao.getAllPaymentsPage(50, deepPageToken);
+    }
+
+    @Benchmark
+    public List<Payment> getPaymentsByStatus() {
+        return dao.getPaymentsByStatus(randomStatusId());
+    }
+
+    @Benchmark
+    public long streamPaymentsByStatus() {
+        try (Stream<Payment> payments = dao.streamPaymentsByStatus(randomStatusId())) {
+            return payments.count();
+        }
+    }
+
+    @Benchmark
+    public PaymentPage getPaymentsByStatusPage() {
+        return dao.getPaymentsByStatusPage(randomStatusId(), 50, null);
+    }
+
+    @Benchmark
+    public List<Payment> getPaymentsByUser() {
+        return dao.getPaymentsByUser(randomUserId());
+    }
+
+    /**
+     * Запит getPaymentsByUser у первісному вигляді: p.* і JOIN довідників заради назв
+     */
+    @Benchmark
+    public List<Payment> getPaymentsByUserWithReferenceJoins() throws SQLException {
+        String sql = "SELECT p.*, pc.category_name, ps.status_name, " +
+                "CONCAT(u1.first_name, ' ', u1.last_name) AS sender_name, " +
+                "CONCAT(u2.first_name, ' ', u2.last_name) AS recipient_name " +
+                "FROM payments p " +
+                "JOIN payment_categories pc ON p.category_id = pc.category_id " +
+                "JOIN payment_statuses ps ON p.status_id = ps.status_id " +
+                "JOIN accounts a1 ON p.sender_account_id = a1.account_id " +
+                "JOIN users u1 ON a1.user_id = u1.user_id " +
+                "LEFT JOIN accounts a2 ON p.recipient_account_id = a2.account_id " +
+                "LEFT JOIN users u2 ON a2.user_id = u2.user_id " +
+                "WHERE a1.user_id = ? " +
+                "ORDER BY p.payment_date DESC";
+
+        List<Payment> payments = new ArrayList<>();
+        try (Connection connection = pool.getConnection();
+             PreparedStatement stmt = connection.prepareStatement(sql)) {
+            stmt.setInt(1, randomUserId());
+            ResultSet rs = stmt.executeQuery();
+            while (rs.next()) {
+                Payment payment = new Payment();
+                payment.setPaymentId(rs.getInt("payment_id"));
+                payment.setCategoryId(rs.getInt("category_id"));
+                payment.setStatusId(rs.getInt("status_id"));
+                payment.setAmount(rs.getBigDecimal("amount"));
+                payment.setPaymentDate(rs.getTimestamp("payment_date"));
+                payment.setCategoryName(rs.getString("category_name"));
+                payment.setStatusName(rs.getString("status_name"));
+                payment.setSenderName(rs.getString("sender_name"));
+                payment.setRecipientName(rs.getString("recipient_name"));
+                payments.add(payment);
+            }
+        }
+        return payments;
+    }
+
+    @Benchmark
+    public PaymentPage getPaymentsByUserPage() {
+        return dao.getPaymentsByUserPage(randomUserId(), 50, null);
+    }
+
+    @Benchmark
+    public List<Payment> getPaymentsByAccount() {
+        return dao.getPaymentsByAccount(randomAccountId());
+    }
+
+    @Benchmark
+    public PaymentPage getPaymentsByAccountPage() {
+        return dao.getPaymentsByAccountPage(randomAccountId(), 50, null);
+    }
+
+    @Benchmark
+    public PaymentPage getPaymentsByAccountPageHot() {
+        return dao.getPaymentsByAccountPage(randomHotAccountId(), 50, null);
+    }
+
+    @Benchmark
+    public PaymentPage getPaymentsByAccountPageRecent() {
+        return recentDao.getPaymentsByAccountPage(randomHotAccountId(), 50, null);
+    }
+
+    @Benchmark
+    public List<Payment> getPaymentsByAccountRecent() {
+        return recentDao.getPaymentsByAccount(randomHotAccountId());
+    }
+
+    @Benchmark
+    public List<Payment> getPaymentsByCategory() {
+        return dao.getPaymentsByCategory(randomCategoryId());
+    }
+
+    @Benchmark
+    public long streamPaymentsByCategory() {
+        try (Stream<Payment> payments = dao.streamPaymentsByCategory(randomCategoryId())) {
+            return payments.count();
+        }
+    }
+
+    @Benchmark
+    public PaymentPage getPaymentsByCategoryPage() {
+        return dao.getPaymentsByCategoryPage(randomCategoryId(), 50, null);
+    }
+
+    @Benchmark
+    public boolean updatePaymentStatus() {
+        return dao.updatePaymentStatus(randomPaymentId(), randomStatusId());
+    }
+
+    @Benchmark
+    public boolean cancelPayment() {
+        return dao.cancelPayment(randomPaymentId());
+    }
+
+    @Benchmark
+    public BigDecimal getTotalPaymentsByUser() {
+        return dao.getTotalPaymentsByUser(randomUserId());
+    }
+
+    /**
+     * Первісний getTotalPaymentsByUser: SUM по всій історії користувача
+     */
+    @Benchmark
+    public BigDecimal getTotalPaymentsByUserWithSum() throws SQLException {
+        String sql = "SELECT SUM(p.amount) AS total FROM payments p " +
+                "JOIN accounts a ON p.sender_account_id = a.account_id " +
+                "WHERE a.user_id = ? AND p.status_id = 3";
+        try (Connection connection = pool.getConnection();
+             PreparedStatement stmt = connection.prepareStatement(sql)) {
+            stmt.setInt(1, randomUserId());
+            ResultSet rs = stmt.executeQuery();
+            return rs.next() ? rs.getBigDecimal("total") : null;
+        }
+    }
+
+    @Benchmark
+    public BigDecimal getTotalPaymentsByAccount() {
+        return dao.getTotalPaymentsByAccount(randomAccountId());
+    }
+
+    @Benchmark
+    public List<String> getPaymentStatisticsByCategory() {
+        return dao.getPaymentStatisticsByCategory();
+    }
+
+    /**
+     * Первісний getPaymentStatisticsByCategory: GROUP BY по всіх платежах на кожен виклик
+     */
+    @Benchmark
+    public List<String> getPaymentStatisticsByCategoryWithGroupBy() throws SQLException {
+        String sql = "SELECT pc.category_name, COUNT(p.payment_id) AS count, SUM(p.amount) AS total " +
+                "FROM payment_categories pc " +
+                "LEFT JOIN payments p ON pc.category_id = p.category_id AND p.status_id = 3 " +
+                "GROUP BY pc.category_id, pc.category_name ORDER BY total DESC";
+        List<String> stats = new ArrayList<>();
+        try (Connection connection = pool.getConnection();
+             PreparedStatement stmt = connection.prepareStatement(sql);
+             ResultSet rs = stmt.executeQuery()) {
+            while (rs.next()) {
+                stats.add(rs.getString("category_name") + ": " + rs.getInt("count") + ", " + rs.getBigDecimal("total"));
+            }
+        }
+        return stats;
+    }
+
+    @Benchmark
+    public List<CategoryStatistics> getCategoryStatisticsAllTime() {
+        return dao.getCategoryStatistics(StatisticsWindow.ALL_TIME);
+    }
+
+    @Benchmark
+    public List<CategoryStatistics> getCategoryStatisticsLastMonth() {
+        return dao.getCategoryStatistics(StatisticsWindow.LAST_MONTH);
+    }
+
+    @Benchmark
+    public int countPaymentsByStatus() {
+        return dao.countPaymentsByStatus(randomStatusId());
+    }
+
+    /**
+     * Первісний Main.showStatistics: COUNT(*) на кожен статус
+     */
+    @Benchmark
+    public int countPaymentsByStatusLoop() {
+        int total = 0;
+        for (int statusId = 1; statusId <= BenchmarkDatabase.STATUS_COUNT; statusId++) {
+            total += dao.countPaymentsByStatus(statusId);
+        }
+        return total;
+    }
+
+    @Benchmark
+    public Map<Integer, Integer> countPaymentsByAllStatuses() {
+        return dao.countPaymentsByAllStatuses();
+    }
+
+    @Benchmark
+    public Map<Integer, Integer> countPaymentsByAllStatusesCounters() {
+        return countingDao.countPaymentsByAllStatuses();
+    }
+}
@@ -0,0 +1,110 @@
+package benchmark;
+
+import dao.ReferenceNumberGenerator;
+import dao.TimeOrderedReferenceNumberGenerator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Генерація референс-номерів: первісний формат (дата + Math.random) проти
+ * TimeOrderedReferenceNumberGenerator. Алокації - з -prof gc, конкурентність - з -t N.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ReferenceNumberBenchmark {
+
+    private final ReferenceNumberGenerator generator = new TimeOrderedReferenceNumberGenerator(1);
+
+    /**
+     * Первісна реалізація PaymentDAOImpl.generateReferenceNumber()
+     */
+    private static String legacyReferenceNumber() {
+        DateTimeFormatter formatter = DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss");
+        String timestamp = LocalDateTime.now().format(formatter);
+        int random = (int) (Math.random() * 1000);
+        return String.format("PAY-%s-%03d", timestamp, random);
+    }
+
+    @Benchmark
+    public String legacy() {
+        return legacyReferenceNumber();
+    }
+
+    @Benchmark
+    public String timeOrdered() {
+        return generator.nextReferenceNumber();
+    }
+
+    /**
+     * Перевірка унікальності під конкуренцією: threads потоків видають по
+     * perThread номерів одним генератором, кожен номер має бути новим.
+     * Запуск: -f 1 ReferenceNumberBenchmark.UniquenessCheck
+     */
+    @State(Scope.Benchmark)
+    @BenchmarkMode(Mode.SingleShotTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    @Warmup(iterations = 1)
+    @Measurement(iterations = 5)
+    @Fork(1)
+    public static class UniquenessCheck {
+
+        @Param({"16"})
+        public int threads;
+
+        @Param({"200000"})
+        public int perThread;
+
+        private ReferenceNumberGenerator generator;
+        private Set<String> issued;
+
+        @Setup(Level.Iteration)
+        public void setUp() {
+            generator = new TimeOrderedReferenceNumberGenerator(1);
+            issued = ConcurrentHashMap.newKeySet(threads * perThread);
+        }
+
+        @Benchmark
+        public int generateConcurrently() throws InterruptedException {
+            Thread[] workers = new Thread[threads];
+            for (int t = 0; t < threads; t++) {
+                workers[t] = new Thread(() -> {
+                    for (int i = 0; i < perThread; i++) {
+                        String reference = generator.nextReferenceNumber();
+                        if (!issued.add(reference)) {
+                            throw new IllegalStateException("❌ Повторний референс-номер: " + reference);
+                        }
+                    }
+                });
+                workers[t].start();
+            }
+            for (Thread worker : workers) {
+                worker.join();
+            }
+            if (issued.size() != threads * perThread) {
+                throw new IllegalStateException("❌ Видано " + issued.size() + " унікальних номерів замість " +
+                        threads * perThread);
+            }
+            return issued.size();
+        }
+    }
+}
@@ -0,0 +1,265 @@
+package benchmark;
+
+import dao.PaymentDAOImpl;
+import dao.ReferenceDataCache;
+import dao.UserDAOImpl;
+import model.Payment;
+import model.User;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import util.ConnectionPool;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Ціна відображення рядків на великих результатах: пошук колонок за назвою
+ * на кожне поле (первісні extract*FromResultSet) проти індексів, визначених
+ * один раз на запит (ColumnMapper у DAO).
+ * scan* - той самий запит без відображення; різниця з ним - ціна відображення,
+ * поділена на кількість рядків (виводиться в setUp) - ціна рядка.
+ * Алокації - з -prof gc.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx2g"})
+public class RowMappingBenchmark {
+
+    @Param({"20000"})
+    public int users;
+
+    @Param({"25"})
+    public int paymentsPerUser;
+
+    private static final int CATEGORY_ID = 1;
+    private static final int FETCH_SIZE = 500;
+
+    // Ті самі запити, що виконують streamAllPayments, streamPaymentsByCategory і streamAllUsers
+    private static final String PAYMENT_COLUMNS = "p.payment_id, p.sender_account_id, p.recipient_account_id, " +
+            "p.category_id, p.status_id, p.amount, p.currency, p.description, p.payment_date, " +
+            "p.completion_date, p.commission, p.reference_number";
+
+    private static final String ALL_PAYMENTS_SQL = "SELECT " + PAYMENT_COLUMNS + ", " +
+            "CONCAT(u1.first_name, ' ', u1.last_name) AS sender_name, " +
+            "CONCAT(u2.first_name, ' ', u2.last_name) AS recipient_name " +
+            "FROM payments p " +
+            "JOIN accounts a1 ON p.sender_account_id = a1.account_id " +
+            "JOIN users u1 ON a1.user_id = u1.user_id " +
+            "LEFT JOIN accounts a2 ON p.recipient_account_id = a2.account_id " +
+            "LEFT JOIN users u2 ON a2.user_id = u2.user_id " +
+            "ORDER BY p.payment_date DESC";
+
+    private static final String PAYMENTS_BY_CATEGORY_SQL = "SELECT " + PAYMENT_COLUMNS + " FROM payments p " +
+            "WHERE p.category_id = ? ORDER BY p.payment_date DESC";
+
+    private static final String ALL_USERS_SQL = "SELECT * FROM users ORDER BY user_id";
+
+    private ConnectionPool pool;
+    private ReferenceDataCache referenceData;
+    private PaymentDAOImpl paymentDao;
+    private UserDAOImpl userDao;
+
+    @Setup
+    public void setUp() throws SQLException {
+        BenchmarkDatabase.silenceConsole();
+        pool = BenchmarkDatabase.createPool(4, ConnectionPool.DEFAULT_STATEMENT_CACHE_SIZE);
+        BenchmarkDatabase.createSchema(pool);
+        BenchmarkDatabase.seed(pool, users, 2, paymentsPerUser);
+        referenceData = new ReferenceDataCache(pool, 0);
+        paymentDao = new PaymentDAOImpl(pool, referenceData);
+        userDao = new UserDAOImpl(pool);
+        System.err.printf("Рядків: платежів %d, категорії %d - %d, користувачів %d%n",
+                (long) users * paymentsPerUser, CATEGORY_ID, countRows(PAYMENTS_BY_CATEGORY_SQL), users);
+    }
+
+    @TearDown
+    public void tearDown() {
+        referenceData.close();
+        BenchmarkDatabase.drop(pool);
+    }
+
+    private long countRows(String sql) throws SQLException {
+        long rows = 0;
+        try (Connection connection = pool.getConnection();
+             PreparedStatement stmt = query(connection, sql);
+             ResultSet rs = stmt.executeQuery()) {
+            while (rs.next()) {
+                rows++;
+            }
+        }
+        return rows;
+    }
+
+    private static PreparedStatement query(Connection connection, String sql) throws SQLException {
+        PreparedStatement stmt = connection.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY,
+                ResultSet.CONCUR_READ_ONLY);
+        stmt.setFetchSize(FETCH_SIZE);
+        if (sql.equals(PAYMENTS_BY_CATEGORY_SQL)) {
+            stmt.setInt(1, CATEGORY_ID);
+        }
+        return stmt;
+    }
+
+    /**
+     * Первісний PaymentDAOImpl.extractPaymentFromResultSet
+     */
+    private Payment legacyPayment(ResultSet rs) throws SQLException {
+        Payment payment = new Payment();
+        payment.setPaymentId(rs.getInt("payment_id"));
+        payment.setSenderAccountId(rs.getInt("sender_account_id"));
+
+        int recipientId = rs.getInt("recipient_account_id");
+        payment.setRecipientAccountId(rs.wasNull() ? null : recipientId);
+
+        payment.setCategoryId(rs.getInt("category_id"));
+        payment.setStatusId(rs.getInt("status_id"));
+        payment.setAmount(rs.getBigDecimal("amount"));
+        payment.setCurrency(rs.getString("currency"));
+        payment.setDescription(rs.getString("description"));
+        payment.setPaymentDate(rs.getTimestamp("payment_date"));
+        payment.setCompletionDate(rs.getTimestamp("completion_date"));
+        payment.setCommission(rs.getBigDecimal("commission"));
+        payment.setReferenceNumber(rs.getString("reference_number"));
+
+        payment.setCategoryName(referenceData.getCategoryName(payment.getCategoryId()));
+        payment.setStatusName(referenceData.getStatusName(payment.getStatusId()));
+
+        try {
+            payment.setSenderName(rs.getString("sender_name"));
+            payment.setRecipientName(rs.getString("recipient_name"));
+        } catch (SQLException e) {
+            // Ігноруємо, якщо поля не існують у запиті
+        }
+        return payment;
+    }
+
+    /**
+     * Первісний UserDAOImpl.extractUserFromResultSet
+     */
+    private static User legacyUser(ResultSet rs) throws SQLException {
+        User user = new User();
+        user.setUserId(rs.getInt("user_id"));
+        user.setFirstName(rs.getString("first_name"));
+        user.setLastName(rs.getString("last_name"));
+        user.setEmail(rs.getString("email"));
+        user.setPhone(rs.getString("phone"));
+        user.setPasswordHash(rs.getString("password_hash"));
+        user.setDateOfBirth(rs.getDate("date_of_birth"));
+        user.setRegistrationDate(rs.getTimestamp("registration_date"));
+        user.setLastLogin(rs.getTimestamp("last_login"));
+        user.setActive(rs.getBoolean("is_active"));
+        return user;
+    }
+
+    private long scan(String sql, Blackhole blackhole) throws SQLException {
+        long rows = 0;
+        try (Connection connection = pool.getConnection();
+             PreparedStatement stmt = query(connection, sql);
+             ResultSet rs = stmt.executeQuery()) {
+            while (rs.next()) {
+                blackhole.consume(rs);
+                rows++;
+            }
+        }
+        return rows;
+    }
+
+    private long mapPaymentsByName(String sql, Blackhole blackhole) throws SQLException {
+        long rows = 0;
+        try (Connection connection = pool.getConnection();
+             PreparedStatement stmt = query(connection, sql);
+             ResultSet rs = stmt.executeQuery()) {
+            while (rs.next()) {
+                blackhole.consume(legacyPayment(rs));
+                rows++;
+            }
+        }
+        return rows;
+    }
+
+    private static <T> long drain(Stream<T> stream, Blackhole blackhole) {
+        long[] rows = new long[1];
+        try (Stream<T> rowsStream = stream) {
+            rowsStream.forEach(row -> {
+                blackhole.consume(row);
+                rows[0]++;
+            });
+        }
+        return rows[0];
+    }
+
+    @Benchmark
+    public long scanPaymentsWithNames(Blackhole blackhole) throws SQLException {
+        return scan(ALL_PAYMENTS_SQL, blackhole);
+    }
+
+    @Benchmark
+    public long paymentsWithNamesByName(Blackhole blackhole) throws SQLException {
+        return mapPaymentsByName(ALL_PAYMENTS_SQL, blackhole);
+    }
+
+    @Benchmark
+    public long paymentsWithNamesByIndex(Blackhole blackhole) {
+        return drain(paymentDao.streamAllPayments(), blackhole);
+    }
+
+    @Benchmark
+    public long scanPayments(Blackhole blackhole) throws SQLException {
+        return scan(PAYMENTS_BY_CATEGORY_SQL, blackhole);
+    }
+
+    /**
+     * Запит без sender_name/recipient_name: первісний код кидав і ловив SQLException на кожен рядок
+     */
+    @Benchmark
+    public long paymentsByName(Blackhole blackhole) throws SQLException {
+        return mapPaymentsByName(PAYMENTS_BY_CATEGORY_SQL, blackhole);
+    }
+
+    @Benchmark
+    public long paymentsByIndex(Blackhole blackhole) {
+        return drain(paymentDao.streamPaymentsByCategory(CATEGORY_ID), blackhole);
+    }
+
+    @Benchmark
+    public long scanUsers(Blackhole blackhole) throws SQLException {
+        return scan(ALL_USERS_SQL, blackhole);
+    }
+
+    @Benchmark
+    public long usersByName(Blackhole blackhole) throws SQLException {
+        long rows = 0;
+        try (Connection connection = pool.getConnection();
+             PreparedStatement stmt = query(connection, ALL_USERS_SQL);
+             ResultSet rs = stmt.executeQuery()) {
+            while (rs.next()) {
+                blackhole.consume(legacyUser(rs));
+                rows++;
+            }
+        }
+        return rows;
+    }
+
+    @Benchmark
+    public long usersByIndex(Blackhole blackhole) {
+        return drain(userDao.streamAllUsers(), blackhole);
+    }
+}
@@ -0,0 +1,107 @@
+package benchmark;
+
+import dao.PaymentDAO;
+import dao.PaymentDAOImpl;
+import model.Payment;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import util.ConnectionPool;
+
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Перекази під конкуренцією: усі потоки переводять кошти між hotAccounts
+ * рахунками у випадкових напрямках. hotAccounts=2 - найгірший випадок,
+ * коли кожен переказ чекає на блокування тих самих двох рядків.
+ * Після прогону перевіряється, що сума балансів не змінилась (з урахуванням комісій).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(16)
+@Fork(1)
+public class TransferBenchmark {
+
+    @Param({"2", "16", "1000"})
+    public int hotAccounts;
+
+    @Param({"16"})
+    public int poolSize;
+
+    private static final BigDecimal COMMISSION = new BigDecimal("0.01");
+
+    private ConnectionPool pool;
+    private PaymentDAO dao;
+    private BigDecimal initialTotal;
+
+    @Setup
+    public void setUp() throws SQLException {
+        BenchmarkDatabase.silenceConsole();
+        pool = BenchmarkDatabase.createPool(poolSize, 64);
+        BenchmarkDatabase.createSchema(pool);
+        BenchmarkDatabase.seed(pool, hotAccounts, 1, 0);
+        dao = new PaymentDAOImpl(pool);
+        initialTotal = totalBalance();
+    }
+
+    @TearDown
+    public void tearDown() throws SQLException {
+        BigDecimal commissions = BigDecimal.ZERO;
+        try (Connection connection = pool.getConnection();
+             Statement stmt = connection.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT COALESCE(SUM(commission), 0) FROM payments")) {
+            if (rs.next()) {
+                commissions = rs.getBigDecimal(1);
+            }
+        }
+        BigDecimal total = totalBalance();
+        if (total.add(commissions).compareTo(initialTotal) != 0) {
+            throw new IllegalStateException("❌ Баланс не зійшовся: було " + initialTotal +
+                    ", стало " + total + " + комісії " + commissions);
+        }
+        System.err.println(pool.getStats());
+        BenchmarkDatabase.drop(pool);
+    }
+
+    private BigDecimal totalBalance() throws SQLException {
+        try (Connection connection = pool.getConnection();
+             Statement stmt = connection.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT SUM(balance) FROM accounts")) {
+            rs.next();
+            return rs.getBigDecimal(1);
+        }
+    }
+
+    @Benchmark
+    public boolean transfer() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int sender = random.nextInt(hotAccounts) + 1;
+        int recipient = random.nextInt(hotAccounts - 1) + 1;
+        if (recipient >= sender) {
+            recipient++;
+        }
+        Payment payment = new Payment(sender, recipient, 1, 1,
+                BigDecimal.valueOf(random.nextInt(1, 1000), 2), "Переказ");
+        payment.setCommission(COMMISSION);
+        return dao.transfer(payment);
+    }
+}
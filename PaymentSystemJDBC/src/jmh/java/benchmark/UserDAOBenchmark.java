@@ -0,0 +1,186 @@
+package benchmark;
+
+import dao.CachingUserDAO;
+import dao.UserDAO;
+import dao.UserDAOImpl;
+import dao.UserImportResult;
+import model.User;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import util.ConnectionPool;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+/**
+ * Бенчмарки всіх методів UserDAO та кешуючого декоратора
+ * Пропускна здатність і розподіл затримок; з конкурентністю - через -t N
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class UserDAOBenchmark {
+
+    @Param({"10000"})
+    public int users;
+
+    @Param({"64"})
+    public int statementCacheSize;
+
+    @Param({"16"})
+    public int poolSize;
+
+    // Кількість користувачів на одну операцію масового імпорту
+    @Param({"1000"})
+    public int importSize;
+
+    // Розмір кешу CachingUserDAO (частка від users задає hit ratio)
+    @Param({"2000"})
+    public int cacheSize;
+
+    private ConnectionPool pool;
+    private UserDAO dao;
+    private CachingUserDAO cachingDao;
+    private final AtomicLong emailCounter = new AtomicLong();
+
+    @Setup
+    public void setUp() throws SQLException {
+        BenchmarkDatabase.silenceConsole();
+        pool = BenchmarkDatabase.createPool(poolSize, statementCacheSize);
+        BenchmarkDatabase.createSchema(pool);
+        BenchmarkDatabase.seed(pool, users, 1, 0);
+        dao = new UserDAOImpl(pool);
+        cachingDao = new CachingUserDAO(dao, cacheSize, TimeUnit.MINUTES.toMillis(5));
+    }
+
+    @TearDown
+    public void tearDown() {
+        System.err.println(pool.getStats());
+        System.err.println(cachingDao.getStats());
+        BenchmarkDatabase.drop(pool);
+    }
+
+    private User newUser() {
+        User user = new User("Бенч", "Марк", "new" + emailCounter.incrementAndGet() + "@bench.test", "+380000000000");
+        user.setPasswordHash("hash");
+        user.setActive(true);
+        return user;
+    }
+
+    private int randomUserId() {
+        return ThreadLocalRandom.current().nextInt(users) + 1;
+    }
+
+    /**
+     * 80% звернень припадає на 20% користувачів - типовий "гарячий" набір
+     */
+    private int skewedUserId() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int hot = Math.max(1, users / 5);
+        return random.nextInt(10) < 8 ? random.nextInt(hot) + 1 : random.nextInt(users) + 1;
+    }
+
+    @Benchmark
+    public boolean addUser() {
+        return dao.addUser(newUser());
+    }
+
+    @Benchmark
+    public UserImportResult addUsers() {
+        List<User> batch = new ArrayList<>(importSize);
+        for (int i = 0; i < importSize; i++) {
+            batch.add(newUser());
+        }
+        return dao.addUsers(batch);
+    }
+
+    @Benchmark
+    public User getUserById() {
+        return dao.getUserById(skewedUserId());
+    }
+
+    @Benchmark
+    public User getUserByIdCached() {
+        return cachingDao.getUserById(skewedUserId());
+    }
+
+    @Benchmark
+    public User getUserByEmail() {
+        return dao.getUserByEmail("user" + skewedUserId() + "@bench.test");
+    }
+
+    @Benchmark
+    public User getUserByEmailCached() {
+        return cachingDao.getUserByEmail("user" + skewedUserId() + "@bench.test");
+    }
+
+    @Benchmark
+    public List<User> getAllUsers() {
+        return dao.getAllUsers();
+    }
+
+    @Benchmark
+    public long streamAllUsers() {
+        try (Stream<User> stream = dao.streamAllUsers()) {
+            return stream.count();
+        }
+    }
+
+    @Benchmark
+    public List<User> getActiveUsers() {
+        return dao.getActiveUsers();
+    }
+
+    @Benchmark
+    public boolean updateUser() {
+        int userId = randomUserId();
+        User user = new User(userId, "Ім'я" + userId, BenchmarkDatabase.LAST_NAMES[userId % 10] + userId,
+                "user" + userId + "@bench.test", "+380" + (500000000 + userId), "hash",
+                null, null, null, userId % 10 != 0);
+        return cachingDao.updateUser(user);
+    }
+
+    @Benchmark
+    public boolean deactivateUser() {
+        return cachingDao.deactivateUser(randomUserId());
+    }
+
+    /**
+     * Видаляємо щойно доданого користувача, щоб не виснажити набір даних
+     */
+    @Benchmark
+    public boolean addAndDeleteUser() {
+        User user = newUser();
+        dao.addUser(user);
+        return cachingDao.deleteUser(user.getUserId());
+    }
+
+    @Benchmark
+    public List<User> searchByLastName() {
+        String lastName = BenchmarkDatabase.LAST_NAMES[ThreadLocalRandom.current().nextInt(10)];
+        return dao.searchByLastName(lastName.substring(1, 5));
+    }
+
+    @Benchmark
+    public int countUsers() {
+        return dao.countUsers();
+    }
+}
@@ -0,0 +1,44 @@
+package dao;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
+
+/**
+ * Асинхронний фасад над DAO: будь-який метод DAO виконується через DAOExecutor
+ * Приклад:
+ *   AsyncDAO&lt;PaymentDAO&gt; payments = new AsyncDAO&lt;&gt;(paymentDAO, executor);
+ *   payments.call(dao -&gt; dao.getPaymentsByUser(userId)).thenAccept(...);
+ * Кілька фасадів над DAO одного пулу мають ділити один DAOExecutor,
+ * щоб обмеження одночасних викликів було спільним.
+ * @param <D> - інтерфейс DAO (PaymentDAO, UserDAO)
+ */
+public class AsyncDAO<D> {
+
+    private final D dao;
+    private final DAOExecutor executor;
+
+    /**
+     * @param dao - потокобезпечний DAO
+     * @param executor - виконавець викликів
+     */
+    public AsyncDAO(D dao, DAOExecutor executor) {
+        this.dao = dao;
+        this.executor = executor;
+    }
+
+    /**
+     * Викликати метод DAO асинхронно
+     * @param operation - виклик, напр. dao -&gt; dao.getUserById(id)
+     * @return результат методу
+     */
+    public <T> CompletableFuture<T> call(Function<? super D, ? extends T> operation) {
+        return executor.submit(() -> operation.apply(dao));
+    }
+
+    /**
+     * DAO, над яким побудовано фасад (для синхронних викликів)
+     */
+    public D getDelegate() {
+        return dao;
+    }
+}
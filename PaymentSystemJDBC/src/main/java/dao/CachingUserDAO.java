@@ -0,0 +1,291 @@
+package dao;
+
+import model.User;
+
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Stream;
+
+/**
+ * Кешуючий декоратор над UserDAO
+ * Кешує getUserById та getUserByEmail (з вторинним індексом за email),
+ * обмежує розмір кешу і час життя записів, а зміни через updateUser,
+ * deleteUser та deactivateUser одразу скидають відповідні записи.
+ * Читання не блокують одне одного; решта методів делегується як є.
+ */
+public class CachingUserDAO implements UserDAO {
+
+    private final UserDAO delegate;
+
+    // Записи за ID з витісненням CLOCK (наближення LRU без блокування читань)
+    private final ClockCache<Integer, Entry> byId;
+    private final ConcurrentHashMap<String, Integer> byEmail = new ConcurrentHashMap<>();
+
+    // Збільшується при кожному записі: завантаження, що перетнулось із записом, не кешується
+    private final AtomicLong writeEpoch = new AtomicLong();
+
+    // Метрики
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    /**
+     * Створити кешуючий DAO
+     * @param delegate - DAO, що працює з БД
+     * @param maxSize - максимальна кількість користувачів у кеші
+     * @param ttlMillis - час життя запису в кеші
+     */
+    public CachingUserDAO(UserDAO delegate, int maxSize, long ttlMillis) {
+        this.delegate = delegate;
+        // Email у вторинному індексі з'являється і зникає разом із записом, під замком кешу:
+        // інакше витіснення між put і byEmail.put лишило б у індексі email без запису
+        this.byId = new ClockCache<>(maxSize, ttlMillis, (userId, entry) -> {
+            if (entry.email != null) {
+                byEmail.put(entry.email, userId);
+            }
+        }, (userId, entry) -> {
+            if (entry.email != null) {
+                byEmail.remove(entry.email, userId);
+            }
+        });
+    }
+
+    @Override
+    public User getUserById(int userId) {
+        User cached = lookup(userId);
+        if (cached != null) {
+            hits.increment();
+            return copy(cached);
+        }
+        misses.increment();
+
+        long epoch = writeEpoch.get();
+        User user = delegate.getUserById(userId);
+        if (user != null) {
+            store(user, epoch);
+        }
+        return user;
+    }
+
+    @Override
+    public User getUserByEmail(String email) {
+        if (email != null) {
+            Integer userId = byEmail.get(normalize(email));
+            User cached = userId != null ? lookup(userId) : null;
+            if (cached != null && email.equalsIgnoreCase(cached.getEmail())) {
+                hits.increment();
+                return copy(cached);
+            }
+        }
+        misses.increment();
+
+        long epoch = writeEpoch.get();
+        User user = delegate.getUserByEmail(email);
+        if (user != null) {
+            store(user, epoch);
+        }
+        return user;
+    }
+
+    @Override
+    public boolean updateUser(User user) {
+        boolean updated = delegate.updateUser(user);
+        invalidate(user.getUserId());
+        if (user.getEmail() != null) {
+            byEmail.remove(normalize(user.getEmail()));
+        }
+        return updated;
+    }
+
+    @Override
+    public boolean deleteUser(int userId) {
+        boolean deleted = delegate.deleteUser(userId);
+        invalidate(userId);
+        return deleted;
+    }
+
+    @Override
+    public boolean deactivateUser(int userId) {
+        boolean deactivated = delegate.deactivateUser(userId);
+        invalidate(userId);
+        return deactivated;
+    }
+
+    @Override
+    public boolean addUser(User user) {
+        return delegate.addUser(user);
+    }
+
+    @Override
+    public UserImportResult addUsers(Iterable<User> users) {
+        return delegate.addUsers(users);
+    }
+
+    @Override
+    public List<User> getAllUsers() {
+        return delegate.getAllUsers();
+    }
+
+    @Override
+    public Stream<User> streamAllUsers() {
+        return delegate.streamAllUsers();
+    }
+
+    @Override
+    public List<User> getActiveUsers() {
+        return delegate.getActiveUsers();
+    }
+
+    @Override
+    public List<User> searchByLastName(String lastName) {
+        return delegate.searchByLastName(lastName);
+    }
+
+    @Override
+    public List<User> searchByName(String text, NameMatch match, int limit) {
+        return delegate.searchByName(text, match, limit);
+    }
+
+    @Override
+    public int countUsers() {
+        return delegate.countUsers();
+    }
+
+    /**
+     * Скинути весь кеш
+     */
+    public void clear() {
+        writeEpoch.incrementAndGet();
+        byId.clear();
+        byEmail.clear();
+    }
+
+    /**
+     * Отримати метрики кешу
+     * @return знімок метрик
+     */
+    public Stats getStats() {
+        return new Stats(byId.size(), byId.maxSize(), hits.sum(), misses.sum(),
+                byId.evictions(), byId.expirations());
+    }
+
+    /**
+     * Скільки записів кеш тримає в пам'яті (не більше maxSize за будь-якої
+     * кількості скидань і перезавантажень)
+     */
+    int retainedEntries() {
+        return byId.retained();
+    }
+
+    /**
+     * Скільки email тримає вторинний індекс (не більше записів у кеші)
+     */
+    int emailIndexSize() {
+        return byEmail.size();
+    }
+
+    /**
+     * Знайти живий запис у кеші (без блокувань)
+     */
+    private User lookup(int userId) {
+        Entry entry = byId.get(userId);
+        return entry != null ? entry.user : null;
+    }
+
+    private void store(User user, long epoch) {
+        Entry entry = new Entry(copy(user));
+        byId.put(user.getUserId(), entry);
+        // Якщо під час завантаження відбувся запис - дані могли застаріти
+        if (writeEpoch.get() != epoch) {
+            byId.remove(user.getUserId(), entry);
+        }
+    }
+
+    /**
+     * Скинути запис після запису в БД
+     * Лічильник збільшується після зміни даних, тож паралельне завантаження,
+     * що могло прочитати старі дані, не потрапить у кеш
+     */
+    private void invalidate(int userId) {
+        writeEpoch.incrementAndGet();
+        byId.remove(userId);
+    }
+
+    private static String normalize(String email) {
+        return email.toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Кеш віддає копії, щоб зміни об'єкта викликачем не псували кешований запис
+     */
+    private static User copy(User user) {
+        return new User(user.getUserId(), user.getFirstName(), user.getLastName(), user.getEmail(),
+                user.getPhone(), user.getPasswordHash(), user.getDateOfBirth(),
+                user.getRegistrationDate(), user.getLastLogin(), user.isActive());
+    }
+
+    private static final class Entry {
+        final User user;
+        final String email;
+
+        Entry(User user) {
+            this.user = user;
+            this.email = user.getEmail() != null ? normalize(user.getEmail()) : null;
+        }
+    }
+
+    /**
+     * Знімок метрик кешу
+     */
+    public static final class Stats {
+        private final int size;
+        private final int maxSize;
+        private final long hits;
+        private final long misses;
+        private final long evictions;
+        private final long expirations;
+
+        Stats(int size, int maxSize, long hits, long misses, long evictions, long expirations) {
+            this.size = size;
+            this.maxSize = maxSize;
+            this.hits = hits;
+            this.misses = misses;
+            this.evictions = evictions;
+            this.expirations = expirations;
+        }
+
+        public int getSize() {
+            return size;
+        }
+
+        public long getHits() {
+            return hits;
+        }
+
+        public long getMisses() {
+            return misses;
+        }
+
+        public long getEvictions() {
+            return evictions;
+        }
+
+        public long getExpirations() {
+            return expirations;
+        }
+
+        public double getHitRatio() {
+            long total = hits + misses;
+            return total == 0 ? 0 : (double) hits / total;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("UserCache{розмір=%d/%d, влучань=%d, промахів=%d (%.1f%%), " +
+                            "витіснено=%d, прострочено=%d}",
+                    size, maxSize, hits, misses, getHitRatio() * 100, evictions, expirations);
+        }
+    }
+}
@@ -0,0 +1,522 @@
+package dao;
+
+import model.CategoryStatistics;
+import model.Money;
+import model.MoneyTotals;
+import model.Payment;
+import util.ConnectionPool;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Currency;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.Lock;
+
+/**
+ * Статистика виконаних платежів за категоріями в пам'яті
+ * Будується один раз з БД, далі оновлюється подіями PaymentChangeListener,
+ * тож читання статистики ніколи не звертається до БД. Для часових вікон
+ * платежі розкладено по хвилинних (останні 2 години) і годинних (31 день)
+ * кошиках. Періодичний перерахунок з БД виправляє зміни, зроблені в обхід
+ * DAO, та події, що збіглися з попереднім перерахунком.
+ *
+ * Кошик тримає кількість, суму, мінімум і максимум окремо за валютами
+ * (long у мінорних одиницях Money.SCALE), тож подія не створює BigDecimal
+ * на кожен платіж, а суми різних валют ніде не складаються. Загальна сума
+ * категорії і порядок категорій - за перерахунком у валюту звітності
+ * (ExchangeRateCache).
+ *
+ * Коли виконаний платіж скасовують, кошики часових вікон лишаються точними:
+ * кожен тримає відсортовану мультимножину сум, тож новий мінімум/максимум
+ * береться з неї без звернення до БД (пам'ять - запис на кожну різну суму
+ * кошика). Кошик за весь час мультимножини не тримає: якщо скасовано саме
+ * крайню суму категорії у валюті, позачергово запускається перерахунок у
+ * фоні, а доти видаються попередні мінімум/максимум.
+ *
+ * Перерахунок читає БД і підмінює агрегати під writeLock змін DAO (як
+ * enableStatusCounters): жоден запис не комітиться і не повідомляє слухачів,
+ * поки триває читання, тож подія не може ні загубитись, ні врахуватись двічі.
+ */
+public class CategoryStatisticsCache implements PaymentChangeListener, AutoCloseable {
+
+    private static final int STATUS_COMPLETED = 3;
+
+    private static final long MINUTE_MILLIS = TimeUnit.MINUTES.toMillis(1);
+    private static final long HOUR_MILLIS = TimeUnit.HOURS.toMillis(1);
+    private static final long MINUTE_RETENTION_MILLIS = TimeUnit.HOURS.toMillis(2);
+    private static final long HOUR_RETENTION_MILLIS = TimeUnit.DAYS.toMillis(31);
+
+    private static final String ALL_TIME_SQL = "SELECT category_id, currency, COUNT(*) AS cnt, SUM(amount) AS total, " +
+            "MIN(amount) AS min_amount, MAX(amount) AS max_amount " +
+            "FROM payments WHERE status_id = 3 GROUP BY category_id, currency";
+
+    private static final String RECENT_SQL = "SELECT category_id, amount, currency, payment_date " +
+            "FROM payments WHERE status_id = 3 AND payment_date >= ?";
+
+    private final ConnectionPool pool;
+    private final ReferenceDataCache referenceData;
+    private final ExchangeRateCache exchangeRates;
+    private final Currency reportingCurrency;
+    private final Lock changeGate;
+    private final long refreshIntervalMillis;
+    private final ScheduledExecutorService refresher;
+    private final AtomicBoolean rebuildScheduled = new AtomicBoolean();
+
+    // Захищено this
+    private Map<Integer, CategoryAggregate> aggregates = new HashMap<>();
+
+    /**
+     * Створити порожній кеш; статистика будується викликом start()
+     * @param pool - пул підключень
+     * @param referenceData - назви категорій
+     * @param exchangeRates - курси для загальної суми категорії
+     * @param reportingCurrency - валюта загальної суми
+     * @param changeGate - writeLock змін DAO: поки він захоплений, записи не комітяться
+     * @param refreshIntervalMillis - період повного перерахунку з БД (0 - без перерахунку)
+     */
+    public CategoryStatisticsCache(ConnectionPool pool, ReferenceDataCache referenceData,
+                                   ExchangeRateCache exchangeRates, Currency reportingCurrency,
+                                   Lock changeGate, long refreshIntervalMillis) {
+        this.pool = pool;
+        this.referenceData = referenceData;
+        this.exchangeRates = exchangeRates;
+        this.reportingCurrency = reportingCurrency;
+        this.changeGate = changeGate;
+        this.refreshIntervalMillis = refreshIntervalMillis;
+        this.refresher = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "category-statistics-refresher");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Побудувати статистику і запустити періодичний перерахунок
+     * Викликати після підписки кешу на події DAO, інакше записи між
+     * побудовою і підпискою в статистику не потраплять.
+     * @return true якщо статистику побудовано
+     */
+    public boolean start() {
+        boolean built = rebuild();
+        if (refreshIntervalMillis > 0) {
+            refresher.scheduleAtFixedRate(this::refresh, refreshIntervalMillis,
+                    refreshIntervalMillis, TimeUnit.MILLISECONDS);
+        }
+        return built;
+    }
+
+    /**
+     * Запит за часовим вікном для QueryPlanCheck (ALL_TIME - повний GROUP BY, не перевіряється)
+     */
+    static List<QueryPlanCheck.PlannedQuery> plannedQueries() {
+        Timestamp since = new Timestamp(System.currentTimeMillis() - HOUR_RETENTION_MILLIS);
+        return List.of(new QueryPlanCheck.PlannedQuery("getCategoryStatistics", RECENT_SQL, since));
+    }
+
+    /**
+     * Статистика за категоріями, від найбільшої суми у валюті звітності
+     * Категорії без платежів теж входять у результат (з нулями), категорії,
+     * для валют яких немає курсу, - у кінці
+     */
+    public List<CategoryStatistics> getStatistics(StatisticsWindow window) {
+        long now = System.currentTimeMillis();
+        Map<Integer, Bucket> merged = new HashMap<>();
+
+        synchronized (this) {
+            for (Map.Entry<Integer, CategoryAggregate> entry : aggregates.entrySet()) {
+                merged.put(entry.getKey(), entry.getValue().window(window, now));
+            }
+        }
+
+        TreeSet<Integer> categoryIds = new TreeSet<>(merged.keySet());
+        for (int categoryId : referenceData.getCategoryIds()) {
+            categoryIds.add(categoryId);
+        }
+
+        List<CategoryStatistics> result = new ArrayList<>(categoryIds.size());
+        for (int categoryId : categoryIds) {
+            Bucket bucket = merged.getOrDefault(categoryId, new Bucket(false));
+            List<CategoryStatistics.CurrencyStatistics> byCurrency = bucket.toStatistics();
+            MoneyTotals totals = new MoneyTotals();
+            for (CategoryStatistics.CurrencyStatistics statistics : byCurrency) {
+                totals.add(statistics.getTotal());
+            }
+            result.add(new CategoryStatistics(categoryId, referenceData.getCategoryName(categoryId),
+                    byCurrency, exchangeRates.total(totals, reportingCurrency)));
+        }
+        // Усі загальні суми - в одній валюті, тож порівнюються напряму
+        result.sort(Comparator.comparing(CategoryStatistics::getReportedTotal,
+                Comparator.nullsLast(Comparator.<Money>reverseOrder())));
+        return result;
+    }
+
+    @Override
+    public void paymentCreated(Payment payment) {
+        if (payment.getStatusId() == STATUS_COMPLETED) {
+            Money money = moneyOf(payment);
+            if (money == null) {
+                return;
+            }
+            synchronized (this) {
+                aggregate(payment.getCategoryId()).add(timeOf(payment), money.getCurrency(), money.getMinorUnits());
+            }
+        }
+    }
+
+    @Override
+    public void paymentStatusChanged(Payment payment, int oldStatusId) {
+        boolean completed = payment.getStatusId() == STATUS_COMPLETED;
+        if (completed == (oldStatusId == STATUS_COMPLETED)) {
+            return;
+        }
+        Money money = moneyOf(payment);
+        if (money == null) {
+            return;
+        }
+        boolean extremesLost = false;
+        synchronized (this) {
+            CategoryAggregate aggregate = aggregate(payment.getCategoryId());
+            if (completed) {
+                aggregate.add(timeOf(payment), money.getCurrency(), money.getMinorUnits());
+            } else {
+                extremesLost = aggregate.remove(timeOf(payment), money.getCurrency(), money.getMinorUnits());
+            }
+        }
+        if (extremesLost) {
+            scheduleRebuild();
+        }
+    }
+
+    /**
+     * Сума платежу; null, якщо її не перевести в Money (невідома валюта, більше 2 знаків)
+     * Такий платіж не врахувати інкрементно - статистику перераховуємо з БД, де rebuild пропускає його рядок
+     */
+    private Money moneyOf(Payment payment) {
+        try {
+            return payment.getMoney();
+        } catch (IllegalArgumentException | ArithmeticException | NullPointerException e) {
+            DAOLog.warn("Платіж " + payment.getPaymentId() + " не враховано в статистиці: " + e.getMessage());
+            scheduleRebuild();
+            return null;
+        }
+    }
+
+    private CategoryAggregate aggregate(int categoryId) {
+        return aggregates.computeIfAbsent(categoryId, id -> new CategoryAggregate());
+    }
+
+    private static long timeOf(Payment payment) {
+        return payment.getPaymentDate() != null ? payment.getPaymentDate().getTime() : System.currentTimeMillis();
+    }
+
+    private void scheduleRebuild() {
+        if (rebuildScheduled.compareAndSet(false, true)) {
+            refresher.execute(() -> {
+                rebuildScheduled.set(false);
+                refresh();
+            });
+        }
+    }
+
+    /**
+     * Перерахувати статистику з БД і підмінити поточну
+     * Не викликати з потоку, що сам виконує запис через DAO (тримає readLock змін)
+     * @return true якщо успішно
+     */
+    public boolean rebuild() {
+        long now = System.currentTimeMillis();
+        Map<Integer, CategoryAggregate> fresh = new HashMap<>();
+
+        // Записи беруть readLock до підключення, тож тут порядок той самий: спершу блокування
+        changeGate.lock();
+        try (Connection connection = pool.getConnection()) {
+            connection.setAutoCommit(false);
+            connection.setReadOnly(true);
+
+            try (PreparedStatement stmt = connection.prepareStatement(ALL_TIME_SQL);
+                 ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    // Рядок на пару (категорія, валюта) - окремі лічильники валюти в кошику категорії
+                    Currency currency;
+                    Tally tally = new Tally(false);
+                    try {
+                        currency = Money.currency(rs.getString("currency"));
+                        tally.count = rs.getLong("cnt");
+                        tally.sum = Money.toMinor(rs.getBigDecimal("total"));
+                        tally.min = Money.toMinor(rs.getBigDecimal("min_amount"));
+                        tally.max = Money.toMinor(rs.getBigDecimal("max_amount"));
+                    } catch (IllegalArgumentException | ArithmeticException e) {
+                        skipRow(rs, e);
+                        continue;
+                    }
+                    fresh.computeIfAbsent(rs.getInt("category_id"), id -> new CategoryAggregate())
+                            .allTime.merge(currency, tally);
+                }
+            }
+
+            try (PreparedStatement stmt = connection.prepareStatement(RECENT_SQL)) {
+                stmt.setFetchSize(ResultSetStreams.FETCH_SIZE);
+                stmt.setTimestamp(1, new Timestamp(now - HOUR_RETENTION_MILLIS));
+                try (ResultSet rs = stmt.executeQuery()) {
+                    while (rs.next()) {
+                        Currency currency;
+                        long amount;
+                        try {
+                            currency = Money.currency(rs.getString("currency"));
+                            amount = Money.toMinor(rs.getBigDecimal("amount"));
+                        } catch (IllegalArgumentException | ArithmeticException e) {
+                            skipRow(rs, e);
+                            continue;
+                        }
+                        fresh.computeIfAbsent(rs.getInt("category_id"), id -> new CategoryAggregate())
+                                .addToWindows(rs.getTimestamp("payment_date").getTime(), currency, amount);
+                    }
+                }
+            }
+            connection.commit();
+            // Підміна - ще під блокуванням: події записів, що чекають на нього, підуть уже в fresh
+            synchronized (this) {
+                aggregates = fresh;
+            }
+        } catch (SQLException e) {
+            DAOLog.error("Помилка при побудові статистики за категоріями", e);
+            return false;
+        } finally {
+            changeGate.unlock();
+        }
+        return true;
+    }
+
+    /**
+     * Рядок з невідомою валютою чи сумою поза long не враховується, решта статистики будується
+     */
+    private static void skipRow(ResultSet rs, RuntimeException e) throws SQLException {
+        DAOLog.error("Пропущено рядок статистики категорії " + rs.getInt("category_id")
+                + " (" + rs.getString("currency") + "): " + e.getMessage());
+    }
+
+    /**
+     * Фоновий перерахунок: виняток з задачі scheduleAtFixedRate
+     * мовчки скасував би всі наступні запуски
+     */
+    private void refresh() {
+        try {
+            rebuild();
+        } catch (RuntimeException e) {
+            DAOLog.error("Помилка при побудові статистики за категоріями", e);
+        }
+    }
+
+    /**
+     * Зупинити періодичний перерахунок
+     */
+    @Override
+    public void close() {
+        refresher.shutdownNow();
+    }
+
+    /**
+     * Агрегати однієї категорії: за весь час і по часових кошиках
+     */
+    private static final class CategoryAggregate {
+        final Bucket allTime = new Bucket(false);
+        final TreeMap<Long, Bucket> minutes = new TreeMap<>();
+        final TreeMap<Long, Bucket> hours = new TreeMap<>();
+
+        void add(long time, Currency currency, long amount) {
+            allTime.add(currency, amount);
+            addToWindows(time, currency, amount);
+        }
+
+        void addToWindows(long time, Currency currency, long amount) {
+            long now = System.currentTimeMillis();
+            if (time >= now - MINUTE_RETENTION_MILLIS) {
+                minutes.computeIfAbsent(time / MINUTE_MILLIS, key -> new Bucket(true)).add(currency, amount);
+            }
+            if (time >= now - HOUR_RETENTION_MILLIS) {
+                hours.computeIfAbsent(time / HOUR_MILLIS, key -> new Bucket(true)).add(currency, amount);
+            }
+            prune(now);
+        }
+
+        /**
+         * @return true якщо сума була мінімумом чи максимумом за весь час
+         *         (кошики вікон перераховують крайні суми самі)
+         */
+        boolean remove(long time, Currency currency, long amount) {
+            Bucket minute = minutes.get(time / MINUTE_MILLIS);
+            if (minute != null) {
+                minute.remove(currency, amount);
+            }
+            Bucket hour = hours.get(time / HOUR_MILLIS);
+            if (hour != null) {
+                hour.remove(currency, amount);
+            }
+            return allTime.remove(currency, amount);
+        }
+
+        private void prune(long now) {
+            minutes.headMap((now - MINUTE_RETENTION_MILLIS) / MINUTE_MILLIS).clear();
+            hours.headMap((now - HOUR_RETENTION_MILLIS) / HOUR_MILLIS).clear();
+        }
+
+        Bucket window(StatisticsWindow window, long now) {
+            switch (window) {
+                case LAST_HOUR:
+                    return merge(minutes.tailMap(now / MINUTE_MILLIS - 59, true));
+                case LAST_DAY:
+                    return merge(hours.tailMap(now / HOUR_MILLIS - 23, true));
+                case LAST_MONTH:
+                    return merge(hours.tailMap(now / HOUR_MILLIS - 30 * 24 + 1, true));
+                default:
+                    return new Bucket(false).merge(allTime);
+            }
+        }
+
+        private static Bucket merge(NavigableMap<Long, Bucket> buckets) {
+            Bucket result = new Bucket(false);
+            for (Bucket bucket : buckets.values()) {
+                result.merge(bucket);
+            }
+            return result;
+        }
+    }
+
+    /**
+     * Виконані платежі кошика окремо за валютами
+     */
+    private static final class Bucket {
+        // Валют зазвичай одна-дві
+        final Map<Currency, Tally> byCurrency = new HashMap<>(4);
+        // Тримати суми для точних мінімуму/максимуму після скасувань
+        private final boolean exact;
+
+        Bucket(boolean exact) {
+            this.exact = exact;
+        }
+
+        void add(Currency currency, long amount) {
+            byCurrency.computeIfAbsent(currency, key -> new Tally(exact)).add(amount);
+        }
+
+        /**
+         * @return true якщо мінімум чи максимум валюти більше не точні
+         */
+        boolean remove(Currency currency, long amount) {
+            Tally tally = byCurrency.get(currency);
+            if (tally == null) {
+                return false;
+            }
+            boolean extremesLost = tally.remove(amount);
+            if (tally.count == 0) {
+                byCurrency.remove(currency);
+            }
+            return extremesLost;
+        }
+
+        void merge(Currency currency, Tally tally) {
+            byCurrency.computeIfAbsent(currency, key -> new Tally(exact)).merge(tally);
+        }
+
+        Bucket merge(Bucket other) {
+            for (Map.Entry<Currency, Tally> entry : other.byCurrency.entrySet()) {
+                merge(entry.getKey(), entry.getValue());
+            }
+            return this;
+        }
+
+        /**
+         * Статистика за валютами в порядку кодів
+         */
+        List<CategoryStatistics.CurrencyStatistics> toStatistics() {
+            List<CategoryStatistics.CurrencyStatistics> result = new ArrayList<>(byCurrency.size());
+            for (Map.Entry<Currency, Tally> entry : byCurrency.entrySet()) {
+                Currency currency = entry.getKey();
+                Tally tally = entry.getValue();
+                result.add(new CategoryStatistics.CurrencyStatistics(tally.count,
+                        Money.ofMinor(tally.sum, currency), Money.ofMinor(tally.min, currency),
+                        Money.ofMinor(tally.max, currency)));
+            }
+            result.sort(Comparator.comparing(statistics -> statistics.getCurrency().getCurrencyCode()));
+            return result;
+        }
+    }
+
+    /**
+     * Кількість, сума, мінімум і максимум платежів однієї валюти (мінорні одиниці)
+     */
+    private static final class Tally {
+        long count;
+        long sum;
+        long min;
+        long max;
+        // Сума -> кількість платежів з нею або null, якщо кошик не тримає сум
+        private final TreeMap<Long, Integer> amounts;
+
+        Tally(boolean exact) {
+            this.amounts = exact ? new TreeMap<>() : null;
+        }
+
+        void add(long amount) {
+            min = count == 0 || amount < min ? amount : min;
+            max = count == 0 || amount > max ? amount : max;
+            count++;
+            sum += amount;
+            if (amounts != null) {
+                amounts.merge(amount, 1, Integer::sum);
+            }
+        }
+
+        /**
+         * @return true якщо мінімум чи максимум більше не точні
+         */
+        boolean remove(long amount) {
+            count--;
+            sum -= amount;
+            if (count <= 0) {
+                count = 0;
+                sum = 0;
+                if (amounts != null) {
+                    amounts.clear();
+                }
+                return false;
+            }
+            if (amounts != null) {
+                amounts.computeIfPresent(amount, (key, n) -> n > 1 ? n - 1 : null);
+                if (!amounts.isEmpty()) {
+                    min = amounts.firstKey();
+                    max = amounts.lastKey();
+                }
+                return false;
+            }
+            return amount == min || amount == max;
+        }
+
+        void merge(Tally other) {
+            if (other.count == 0) {
+                return;
+            }
+            min = count == 0 || other.min < min ? other.min : min;
+            max = count == 0 || other.max > max ? other.max : max;
+            count += other.count;
+            sum += other.sum;
+            if (amounts != null && other.amounts != null) {
+                other.amounts.forEach((amount, n) -> amounts.merge(amount, n, Integer::sum));
+            }
+        }
+    }
+}
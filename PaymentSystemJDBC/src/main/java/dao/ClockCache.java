@@ -0,0 +1,283 @@
+package dao;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.BiConsumer;
+
+/**
+ * Обмежений кеш ключ -> значення з часом життя і витісненням CLOCK
+ * Кожен запис займає один слот масиву розміром maxSize; стрілка CLOCK
+ * обходить слоти, і запис, який читали після її останнього проходу,
+ * отримує другий шанс. Скинутий, прострочений чи замінений запис одразу
+ * звільняє свій слот, тож кеш ніколи не тримає більше maxSize записів -
+ * і живих, і тих, що вже не видно в мапі.
+ *
+ * Читання не блокуються; додавання і видалення змінюють мапу і слоти
+ * під одним замком (вони йдуть після читання з БД, тож замок не помітний).
+ * Колбеки onInsert і onRemoval виконуються під тим самим замком, тож
+ * вторинний індекс, який вони ведуть, не розходиться з кешем.
+ */
+final class ClockCache<K, V> {
+
+    private final int maxSize;
+    private final long ttlNanos;
+    // Викликається під замком для кожного доданого запису (після заміни старого)
+    private final BiConsumer<K, V> onInsert;
+    // Викликається під замком для кожного запису, що зник з кешу (крім clear())
+    private final BiConsumer<K, V> onRemoval;
+
+    private final ConcurrentHashMap<K, Node<K, V>> map = new ConcurrentHashMap<>();
+    private final ReentrantLock lock = new ReentrantLock();
+    // Стан нижче змінюється лише під lock
+    private final Node<K, V>[] slots;
+    private final int[] freeSlots;
+    private int freeCount;
+    private int hand;
+
+    private final LongAdder evictions = new LongAdder();
+    private final LongAdder expirations = new LongAdder();
+
+    /**
+     * @param maxSize - максимальна кількість записів
+     * @param ttlMillis - час життя запису
+     * @param onRemoval - що зробити із записом, який витіснено, прострочено, замінено або скинуто (може бути null)
+     */
+    ClockCache(int maxSize, long ttlMillis, BiConsumer<K, V> onRemoval) {
+        this(maxSize, ttlMillis, null, onRemoval);
+    }
+
+    /**
+     * @param maxSize - максимальна кількість записів
+     * @param ttlMillis - час життя запису
+     * @param onInsert - що зробити з доданим записом (може бути null)
+     * @param onRemoval - що зробити із записом, який витіснено, прострочено, замінено або скинуто (може бути null)
+     */
+    @SuppressWarnings("unchecked")
+    ClockCache(int maxSize, long ttlMillis, BiConsumer<K, V> onInsert, BiConsumer<K, V> onRemoval) {
+        if (maxSize <= 0) {
+            throw new IllegalArgumentException("Розмір кешу має бути додатним: " + maxSize);
+        }
+        this.maxSize = maxSize;
+        this.ttlNanos = TimeUnit.MILLISECONDS.toNanos(ttlMillis);
+        this.onInsert = onInsert;
+        this.onRemoval = onRemoval;
+        this.slots = (Node<K, V>[]) new Node<?, ?>[maxSize];
+        this.freeSlots = new int[maxSize];
+        resetSlots();
+    }
+
+    /**
+     * Живе значення за ключем (без блокувань); прострочений запис прибирається
+     * @return значення або null
+     */
+    V get(K key) {
+        Node<K, V> node = map.get(key);
+        if (node == null) {
+            return null;
+        }
+        if (System.nanoTime() - node.expiresAt >= 0) {
+            if (remove(node)) {
+                expirations.increment();
+            }
+            return null;
+        }
+        node.referenced = true;
+        return node.value;
+    }
+
+    /**
+     * Значення за ключем без перевірки часу життя і без позначки читання
+     * (для оновлення запису подіями)
+     */
+    V peek(K key) {
+        Node<K, V> node = map.get(key);
+        return node != null ? node.value : null;
+    }
+
+    /**
+     * Додати або замінити запис; якщо вільних слотів немає - витіснити один
+     */
+    void put(K key, V value) {
+        lock.lock();
+        try {
+            Node<K, V> old = map.get(key);
+            if (old != null) {
+                unlink(old);
+            }
+            long now = System.nanoTime();
+            if (freeCount == 0) {
+                evictOne(now);
+            }
+            Node<K, V> node = new Node<>(key, value, now + ttlNanos, freeSlots[--freeCount]);
+            slots[node.slot] = node;
+            map.put(key, node);
+            if (onInsert != null) {
+                onInsert.accept(key, value);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Скинути запис за ключем
+     * @return true якщо запис був у кеші
+     */
+    boolean remove(K key) {
+        lock.lock();
+        try {
+            Node<K, V> node = map.get(key);
+            if (node == null) {
+                return false;
+            }
+            unlink(node);
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Скинути запис, лише якщо за ключем досі саме це значення
+     * @return true якщо запис скинуто
+     */
+    boolean remove(K key, V value) {
+        lock.lock();
+        try {
+            Node<K, V> node = map.get(key);
+            if (node == null || node.value != value) {
+                return false;
+            }
+            unlink(node);
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private boolean remove(Node<K, V> node) {
+        lock.lock();
+        try {
+            if (map.get(node.key) != node) {
+                return false;   // Запис уже скинуто або замінено
+            }
+            unlink(node);
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Скинути всі записи (onRemoval не викликається)
+     */
+    void clear() {
+        lock.lock();
+        try {
+            map.clear();
+            Arrays.fill(slots, null);
+            resetSlots();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    int size() {
+        return map.size();
+    }
+
+    int maxSize() {
+        return maxSize;
+    }
+
+    /**
+     * Знімок значень кешу
+     */
+    List<V> values() {
+        List<V> values = new ArrayList<>(map.size());
+        for (Node<K, V> node : map.values()) {
+            values.add(node.value);
+        }
+        return values;
+    }
+
+    long evictions() {
+        return evictions.sum();
+    }
+
+    long expirations() {
+        return expirations.sum();
+    }
+
+    /**
+     * Скільки записів кеш тримає в слотах (для перевірки, що пам'ять обмежена)
+     */
+    int retained() {
+        lock.lock();
+        try {
+            return maxSize - freeCount;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * CLOCK: усі слоти зайняті - стрілка шукає запис, який не читали з її
+     * останнього проходу (прострочений забирається першим). Не більше двох обертів.
+     */
+    private void evictOne(long now) {
+        while (true) {
+            Node<K, V> node = slots[hand];
+            hand = (hand + 1) % maxSize;
+            if (now - node.expiresAt >= 0) {
+                unlink(node);
+                expirations.increment();
+                return;
+            }
+            if (node.referenced) {
+                node.referenced = false;
+            } else {
+                unlink(node);
+                evictions.increment();
+                return;
+            }
+        }
+    }
+
+    private void unlink(Node<K, V> node) {
+        map.remove(node.key, node);
+        slots[node.slot] = null;
+        freeSlots[freeCount++] = node.slot;
+        if (onRemoval != null) {
+            onRemoval.accept(node.key, node.value);
+        }
+    }
+
+    private void resetSlots() {
+        for (int i = 0; i < maxSize; i++) {
+            freeSlots[i] = maxSize - 1 - i;
+        }
+        freeCount = maxSize;
+        hand = 0;
+    }
+
+    private static final class Node<K, V> {
+        final K key;
+        final V value;
+        final long expiresAt;
+        final int slot;
+        volatile boolean referenced;
+
+        Node(K key, V value, long expiresAt, int slot) {
+            this.key = key;
+            this.value = value;
+            this.expiresAt = expiresAt;
+            this.slot = slot;
+        }
+    }
+}
@@ -0,0 +1,108 @@
+package dao;
+
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.util.Locale;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Перетворення рядків ResultSet в об'єкти за індексами колонок
+ * Індекси колонок визначаються з ResultSetMetaData один раз на текст запиту
+ * і кешуються, тож рядок читається через getX(int) без пошуку колонки за
+ * назвою в драйвері на кожне поле. Необов'язкова колонка, якої немає в
+ * запиті, отримує індекс ABSENT і просто пропускається - без винятків.
+ *
+ * Приклад: RowMapper<Payment> mapper = paymentMapper.bind(sql, rs);
+ *          while (rs.next()) payments.add(mapper.map(rs));
+ */
+abstract class ColumnMapper<T> {
+
+    // Індекс колонки, якої немає в запиті (JDBC рахує колонки з 1)
+    static final int ABSENT = 0;
+
+    // Запити будуються з констант, тож їх небагато; більше - не кешуємо
+    private static final int MAX_CACHED_QUERIES = 256;
+
+    private final String[] required;
+    private final String[] optional;
+    // Текст запиту -> індекси колонок
+    private final ConcurrentHashMap<String, int[]> layouts = new ConcurrentHashMap<>();
+
+    /**
+     * @param required - колонки, без яких рядок не відобразити
+     * @param optional - колонки, яких у частині запитів немає
+     */
+    ColumnMapper(String[] required, String... optional) {
+        this.required = required;
+        this.optional = optional;
+    }
+
+    /**
+     * Відобразити поточний рядок
+     * @param columns - індекси колонок у порядку required, потім optional (ABSENT - колонки немає)
+     */
+    abstract T map(ResultSet rs, int[] columns) throws SQLException;
+
+    /**
+     * Прив'язати до результату запиту sql: індекси беруться з кешу,
+     * а при першому виконанні запиту - з метаданих ResultSet
+     */
+    final ResultSetStreams.RowMapper<T> bind(String sql, ResultSet rs) throws SQLException {
+        int[] columns = columns(sql, rs);
+        return row -> map(row, columns);
+    }
+
+    /**
+     * Відобразити один поточний рядок результату запиту sql
+     */
+    final T mapRow(String sql, ResultSet rs) throws SQLException {
+        return map(rs, columns(sql, rs));
+    }
+
+    /**
+     * Індекси колонок результату запиту sql
+     * @param sql - текст запиту; запити, що відрізняються лише умовою
+     *              (змінна кількість параметрів), можуть передавати спільний ключ
+     * @throws SQLException якщо обов'язкової колонки немає в запиті
+     */
+    final int[] columns(String sql, ResultSet rs) throws SQLException {
+        int[] columns = layouts.get(sql);
+        if (columns == null) {
+            columns = resolve(rs.getMetaData());
+            if (layouts.size() < MAX_CACHED_QUERIES) {
+                layouts.putIfAbsent(sql, columns);
+            }
+        }
+        return columns;
+    }
+
+    private int[] resolve(ResultSetMetaData metaData) throws SQLException {
+        int count = metaData.getColumnCount();
+        String[] labels = new String[count + 1];
+        for (int i = 1; i <= count; i++) {
+            labels[i] = metaData.getColumnLabel(i).toLowerCase(Locale.ROOT);
+        }
+
+        int[] columns = new int[required.length + optional.length];
+        for (int c = 0; c < required.length; c++) {
+            columns[c] = indexOf(labels, required[c]);
+            if (columns[c] == ABSENT) {
+                throw new SQLException("Колонки " + required[c] + " немає в результаті запиту");
+            }
+        }
+        for (int c = 0; c < optional.length; c++) {
+            columns[required.length + c] = indexOf(labels, optional[c]);
+        }
+        return columns;
+    }
+
+    private static int indexOf(String[] labels, String column) {
+        for (int i = 1; i < labels.length; i++) {
+            if (labels[i].equals(column)) {
+                return i;
+            }
+        }
+        return ABSENT;
+    }
+}
@@ -0,0 +1,122 @@
+package dao;
+
+import util.ConnectionPool;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Виконавець блокуючих викликів DAO
+ * Кожен виклик іде на окремий віртуальний потік, тож тисячі одночасних
+ * запитів не тримають тисячі потоків ОС. Одночасно до БД допускається не
+ * більше maxConcurrency викликів (семафор, зазвичай = розміру пулу): решта
+ * чекає на семафорі, а не в пулі підключень, і не отримує тайм-аут пулу.
+ */
+public class DAOExecutor implements AutoCloseable {
+
+    private final ExecutorService executor;
+    private final Semaphore permits;
+    private final int maxConcurrency;
+
+    private final LongAdder completed = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+
+    /**
+     * Виконавець на віртуальних потоках з обмеженням за розміром пулу
+     */
+    public DAOExecutor(ConnectionPool pool) {
+        this(pool.getStats().getMaxSize());
+    }
+
+    /**
+     * Виконавець на віртуальних потоках
+     * @param maxConcurrency - скільки викликів можуть одночасно працювати з БД
+     */
+    public DAOExecutor(int maxConcurrency) {
+        this(Executors.newVirtualThreadPerTaskExecutor(), maxConcurrency);
+    }
+
+    /**
+     * Виконавець поверх довільного ExecutorService (напр. пулу звичайних потоків)
+     * @param executor - на чому виконуються виклики; закривається разом з DAOExecutor
+     * @param maxConcurrency - скільки викликів можуть одночасно працювати з БД
+     */
+    public DAOExecutor(ExecutorService executor, int maxConcurrency) {
+        if (maxConcurrency <= 0) {
+            throw new IllegalArgumentException("Кількість одночасних викликів має бути додатною: " + maxConcurrency);
+        }
+        this.executor = executor;
+        this.maxConcurrency = maxConcurrency;
+        this.permits = new Semaphore(maxConcurrency, true);
+    }
+
+    /**
+     * Виконати виклик асинхронно
+     * @param call - блокуючий виклик DAO
+     * @return результат виклику; виняток виклику завершує future з помилкою
+     */
+    public <T> CompletableFuture<T> submit(Supplier<T> call) {
+        return CompletableFuture.supplyAsync(() -> {
+            permits.acquireUninterruptibly();
+            try {
+                T result = call.get();
+                completed.increment();
+                return result;
+            } catch (RuntimeException e) {
+                failed.increment();
+                throw e;
+            } finally {
+                permits.release();
+            }
+        }, executor);
+    }
+
+    /**
+     * Кількість викликів, що зараз працюють з БД
+     */
+    public int getActive() {
+        return maxConcurrency - permits.availablePermits();
+    }
+
+    /**
+     * Кількість викликів, що чекають на дозвіл семафора
+     */
+    public int getWaiting() {
+        return permits.getQueueLength();
+    }
+
+    public long getCompleted() {
+        return completed.sum();
+    }
+
+    public long getFailed() {
+        return failed.sum();
+    }
+
+    /**
+     * Дочекатися вже прийнятих викликів і зупинити виконавця
+     */
+    @Override
+    public void close() {
+        executor.shutdown();
+        try {
+            while (!executor.awaitTermination(1, TimeUnit.SECONDS)) {
+                // чекаємо, поки допрацюють прийняті виклики
+            }
+        } catch (InterruptedException e) {
+            executor.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @Override
+    public String toString() {
+        return String.format("DAOExecutor{працюють=%d/%d, чекають=%d, виконано=%d, помилок=%d}",
+                getActive(), maxConcurrency, getWaiting(), getCompleted(), getFailed());
+    }
+}
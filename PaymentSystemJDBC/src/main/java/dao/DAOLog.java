@@ -0,0 +1,68 @@
+package dao;
+
+import java.util.function.Supplier;
+
+/**
+ * Консольні повідомлення DAO ("✅ ...", "❌ ...")
+ * Вивід можна вимкнути (-Dpayment.dao.console=false або setConsoleEnabled) -
+ * тоді на гарячому шляху не будуються рядки і не береться блокування
+ * System.out. Помилки при цьому все одно рахуються в метриках InstrumentedDAO.
+ */
+public final class DAOLog {
+
+    private static volatile boolean consoleEnabled =
+            Boolean.parseBoolean(System.getProperty("payment.dao.console", "true"));
+
+    private DAOLog() {
+    }
+
+    public static boolean isConsoleEnabled() {
+        return consoleEnabled;
+    }
+
+    /**
+     * Увімкнути чи вимкнути консольний вивід DAO
+     */
+    public static void setConsoleEnabled(boolean enabled) {
+        consoleEnabled = enabled;
+    }
+
+    /**
+     * Повідомлення про успішну операцію (рядок будується лише при увімкненому виводі)
+     */
+    static void info(Supplier<String> message) {
+        if (consoleEnabled) {
+            System.out.println(message.get());
+        }
+    }
+
+    /**
+     * Помилка операції без винятку (некоректні дані, брак коштів тощо)
+     */
+    static void error(String message) {
+        InstrumentedDAO.markFailed();
+        if (consoleEnabled) {
+            System.err.println("❌ " + message);
+        }
+    }
+
+    /**
+     * Збій, який не робить поточну операцію невдалою (слухачі змін, фонові задачі, закриття ресурсів)
+     */
+    static void warn(String message) {
+        if (consoleEnabled) {
+            System.err.println("⚠️ " + message);
+        }
+    }
+
+    /**
+     * Помилка операції з винятком: повідомлення і стек
+     */
+    static void error(String message, Exception e) {
+        InstrumentedDAO.markFailed();
+        if (consoleEnabled) {
+            System.err.println("❌ " + message + ": " + e.getMessage());
+            e.printStackTrace();
+        }
+    }
+}
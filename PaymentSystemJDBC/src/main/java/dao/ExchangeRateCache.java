@@ -0,0 +1,197 @@
+package dao;
+
+import model.Money;
+import model.MoneyTotals;
+import util.ConnectionPool;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Collections;
+import java.util.Currency;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Кеш курсів валют (таблиця exchange_rates) для перерахунку сум у валюту звітності
+ * Курс - скільки одиниць базової валюти (UAH) коштує одиниця валюти.
+ * Таблиця завантажується при старті і періодично перечитується; перерахунок
+ * не звертається до БД і виконує по одному множенню BigDecimal на валюту
+ * підсумку, а не на кожен платіж.
+ */
+public final class ExchangeRateCache implements AutoCloseable {
+
+    private static final String RATES_SQL = "SELECT currency, rate FROM exchange_rates";
+
+    private static final String UPSERT_RATE_SQL = "INSERT INTO exchange_rates (currency, rate) VALUES (?, ?) " +
+            "ON DUPLICATE KEY UPDATE rate = VALUES(rate), updated_at = CURRENT_TIMESTAMP";
+
+    private final ConnectionPool pool;
+    private final ScheduledExecutorService refresher;
+    // Незмінна таблиця валюта -> курс; підмінюється цілком
+    private volatile Map<Currency, BigDecimal> rates = Collections.emptyMap();
+
+    private ExchangeRateCache(ConnectionPool pool, long refreshIntervalMillis) {
+        this.pool = pool;
+        this.refresher = refreshIntervalMillis > 0
+                ? Executors.newSingleThreadScheduledExecutor(r -> {
+                    Thread thread = new Thread(r, "exchange-rate-refresher");
+                    thread.setDaemon(true);
+                    return thread;
+                })
+                : null;
+    }
+
+    /**
+     * Створити кеш, завантажити курси і запустити періодичне перечитування
+     * Конструктор не звертається до БД і не передає this планувальнику -
+     * це робиться тут, коли об'єкт уже повністю створено.
+     * @param pool - пул підключень
+     * @param refreshIntervalMillis - період перечитування курсів (0 - без перечитування)
+     */
+    public static ExchangeRateCache load(ConnectionPool pool, long refreshIntervalMillis) {
+        ExchangeRateCache cache = new ExchangeRateCache(pool, refreshIntervalMillis);
+        cache.reload();
+        if (cache.refresher != null) {
+            cache.refresher.scheduleAtFixedRate(cache::refresh, refreshIntervalMillis,
+                    refreshIntervalMillis, TimeUnit.MILLISECONDS);
+        }
+        return cache;
+    }
+
+    /**
+     * Курс валюти до базової
+     * @return курс або null, якщо його немає в таблиці
+     */
+    public BigDecimal getRate(Currency currency) {
+        return rates.get(currency);
+    }
+
+    /**
+     * Перерахувати суму у валюту target (округлення до копійки, HALF_EVEN)
+     * @return сума у target або null, якщо курсу однієї з валют немає
+     */
+    public Money convert(Money money, Currency target) {
+        if (money.getCurrency() == target) {
+            return money;
+        }
+        Map<Currency, BigDecimal> current = rates;
+        BigDecimal sourceRate = current.get(money.getCurrency());
+        BigDecimal targetRate = current.get(target);
+        if (sourceRate == null || targetRate == null) {
+            return null;
+        }
+        return toTarget(money.toBigDecimal().multiply(sourceRate), targetRate, target);
+    }
+
+    /**
+     * Загальна сума підсумків за валютами у валюті target
+     * Добутки складаються точно, округлення - один раз для всієї суми
+     * @return сума у target або null, якщо курсу якоїсь із валют немає
+     */
+    public Money total(MoneyTotals totals, Currency target) {
+        Map<Currency, BigDecimal> current = rates;
+        BigDecimal targetRate = current.get(target);
+        if (targetRate == null) {
+            return null;
+        }
+        BigDecimal base = BigDecimal.ZERO;
+        for (Money money : totals.toList()) {
+            BigDecimal rate = money.getCurrency() == target ? targetRate : current.get(money.getCurrency());
+            if (rate == null) {
+                return null;
+            }
+            base = base.add(money.toBigDecimal().multiply(rate));
+        }
+        return toTarget(base, targetRate, target);
+    }
+
+    private static Money toTarget(BigDecimal base, BigDecimal targetRate, Currency target) {
+        return Money.of(base.divide(targetRate, Money.SCALE, RoundingMode.HALF_EVEN), target);
+    }
+
+    /**
+     * Записати курс валюти і одразу перечитати таблицю
+     * @param rate - одиниць базової валюти за одиницю currency (більше нуля)
+     * @return true якщо успішно
+     */
+    public boolean setRate(Currency currency, BigDecimal rate) {
+        if (rate.signum() <= 0) {
+            DAOLog.error("Курс " + currency + " має бути більшим за нуль: " + rate);
+            return false;
+        }
+        try (Connection connection = pool.getConnection();
+             PreparedStatement stmt = connection.prepareStatement(UPSERT_RATE_SQL)) {
+            stmt.setString(1, currency.getCurrencyCode());
+            stmt.setBigDecimal(2, rate);
+            stmt.executeUpdate();
+        } catch (SQLException e) {
+            DAOLog.error("Помилка при збереженні курсу валюти", e);
+            return false;
+        }
+        return reload();
+    }
+
+    /**
+     * Перечитати таблицю курсів і атомарно підмінити поточну
+     * @return true якщо завантаження вдалося
+     */
+    public synchronized boolean reload() {
+        Map<Currency, BigDecimal> fresh = new HashMap<>();
+        try (Connection connection = pool.getConnection();
+             Statement stmt = connection.createStatement();
+             ResultSet rs = stmt.executeQuery(RATES_SQL)) {
+            while (rs.next()) {
+                String code = rs.getString("currency");
+                BigDecimal rate = rs.getBigDecimal("rate");
+                Currency currency;
+                try {
+                    currency = Money.currency(code);
+                } catch (IllegalArgumentException e) {
+                    // Один хибний рядок не має лишати без курсів решту валют
+                    DAOLog.error("Пропущено курс невідомої валюти: " + code);
+                    continue;
+                }
+                if (rate == null || rate.signum() <= 0) {
+                    DAOLog.error("Пропущено некоректний курс " + code + ": " + rate);
+                    continue;
+                }
+                fresh.put(currency, rate);
+            }
+        } catch (SQLException e) {
+            DAOLog.error("Помилка при завантаженні курсів валют", e);
+            return false;
+        }
+        rates = Collections.unmodifiableMap(fresh);
+        return true;
+    }
+
+    /**
+     * Періодичне перечитування: виняток з задачі scheduleAtFixedRate
+     * мовчки скасував би всі наступні запуски
+     */
+    private void refresh() {
+        try {
+            reload();
+        } catch (RuntimeException e) {
+            DAOLog.error("Помилка при перечитуванні курсів валют", e);
+        }
+    }
+
+    /**
+     * Зупинити періодичне перечитування
+     */
+    @Override
+    public void close() {
+        if (refresher != null) {
+            refresher.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,108 @@
+package dao;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.function.IntUnaryOperator;
+
+/**
+ * Ключ групування для PaymentAggregation
+ */
+public enum GroupKey {
+
+    // Користувач-відправник
+    USER {
+        @Override
+        int of(PaymentColumns columns, int row) {
+            return columns.getSenderUserId(row);
+        }
+    },
+
+    // Рахунок відправника
+    ACCOUNT {
+        @Override
+        int of(PaymentColumns columns, int row) {
+            return columns.getSenderAccountId(row);
+        }
+    },
+
+    CATEGORY {
+        @Override
+        int of(PaymentColumns columns, int row) {
+            return columns.getCategoryId(row);
+        }
+    },
+
+    STATUS {
+        @Override
+        int of(PaymentColumns columns, int row) {
+            return columns.getStatusId(row);
+        }
+    },
+
+    // Код валюти у словнику знімка (назва - PaymentColumns.getCurrencyName)
+    CURRENCY {
+        @Override
+        int of(PaymentColumns columns, int row) {
+            return columns.getCurrencyCode(row);
+        }
+    },
+
+    // День платежу в часовому поясі агрегації (PaymentAggregation.zone, за замовчуванням -
+    // пояс JVM, у якому JDBC читає payment_date): кількість днів від 1970-01-01 (LocalDate.ofEpochDay)
+    DAY {
+        @Override
+        int of(PaymentColumns columns, int row) {
+            return (int) Instant.ofEpochMilli(columns.getPaymentDate(row))
+                    .atZone(ZoneId.systemDefault()).toLocalDate().toEpochDay();
+        }
+
+        @Override
+        IntUnaryOperator reader(PaymentColumns columns, ZoneId zone) {
+            return new DayReader(columns, zone);
+        }
+    };
+
+    /**
+     * Значення ключа для рядка знімка
+     */
+    abstract int of(PaymentColumns columns, int row);
+
+    /**
+     * Читач ключа для однієї задачі агрегації; може тримати стан між рядками
+     * @param zone - часовий пояс для DAY
+     */
+    IntUnaryOperator reader(PaymentColumns columns, ZoneId zone) {
+        return row -> of(columns, row);
+    }
+
+    /**
+     * День платежу з кешем меж поточного дня: рядки знімка йдуть за зростанням
+     * payment_date, тож межі (з урахуванням переходу на літній час) перераховуються
+     * лише на першому рядку наступного дня
+     */
+    private static final class DayReader implements IntUnaryOperator {
+        private final PaymentColumns columns;
+        private final ZoneId zone;
+        private long dayStart = Long.MAX_VALUE;
+        private long dayEnd = Long.MIN_VALUE;
+        private int day;
+
+        DayReader(PaymentColumns columns, ZoneId zone) {
+            this.columns = columns;
+            this.zone = zone;
+        }
+
+        @Override
+        public int applyAsInt(int row) {
+            long paymentDate = columns.getPaymentDate(row);
+            if (paymentDate < dayStart || paymentDate >= dayEnd) {
+                LocalDate date = Instant.ofEpochMilli(paymentDate).atZone(zone).toLocalDate();
+                day = (int) date.toEpochDay();
+                dayStart = date.atStartOfDay(zone).toInstant().toEpochMilli();
+                dayEnd = date.plusDays(1).atStartOfDay(zone).toInstant().toEpochMilli();
+            }
+            return day;
+        }
+    }
+}
@@ -0,0 +1,74 @@
+package dao;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * Результат агрегації однієї групи: кількість, сума, мінімум, максимум і
+ * (якщо їх запитано) точні перцентилі; суми в мінорних одиницях валюти групи
+ */
+public final class GroupStats {
+
+    private final long count;
+    private final long sum;
+    private final long min;
+    private final long max;
+    // Відсортовані суми групи або null, якщо перцентилі не запитано
+    private final long[] sortedAmounts;
+
+    GroupStats(long count, long sum, long min, long max, long[] sortedAmounts) {
+        this.count = count;
+        this.sum = sum;
+        this.min = min;
+        this.max = max;
+        this.sortedAmounts = sortedAmounts;
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    public long getSum() {
+        return sum;
+    }
+
+    public long getMin() {
+        return min;
+    }
+
+    public long getMax() {
+        return max;
+    }
+
+    public BigDecimal getTotal() {
+        return BigDecimal.valueOf(sum, PaymentColumns.AMOUNT_SCALE);
+    }
+
+    public BigDecimal getAverage() {
+        return count == 0 ? BigDecimal.ZERO
+                : getTotal().divide(BigDecimal.valueOf(count), PaymentColumns.AMOUNT_SCALE, RoundingMode.HALF_UP);
+    }
+
+    /**
+     * Перцентиль суми за найближчим рангом
+     * @param percentile - від 0 до 100
+     * @return сума в мінорних одиницях
+     */
+    public long percentile(double percentile) {
+        if (sortedAmounts == null) {
+            throw new IllegalStateException("Перцентилі не запитано (PaymentAggregation.withPercentiles)");
+        }
+        if (sortedAmounts.length == 0) {
+            return 0;
+        }
+        int rank = (int) Math.ceil(percentile / 100 * sortedAmounts.length);
+        return sortedAmounts[Math.max(0, Math.min(rank, sortedAmounts.length) - 1)];
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%d платежів, сума %s, мін %s, макс %s", count, getTotal(),
+                BigDecimal.valueOf(min, PaymentColumns.AMOUNT_SCALE),
+                BigDecimal.valueOf(max, PaymentColumns.AMOUNT_SCALE));
+    }
+}
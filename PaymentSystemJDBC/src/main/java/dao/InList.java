@@ -0,0 +1,55 @@
+package dao;
+
+/**
+ * Запити з умовою IN (?, ?, ...) фіксованої довжини
+ * Кожна довжина списку - окремий текст SQL, а отже окремий запис у кеші
+ * підготовлених запитів підключення (StatementCache). Щоб довільні списки
+ * не витісняли звідти постійні запити, кількість параметрів округлюється
+ * вгору до однієї з кількох довжин, а зайві місця заповнюються повтором
+ * останнього значення - на результат IN це не впливає.
+ */
+final class InList {
+
+    // Допустимі довжини списку; найбільша - максимум значень на один запит
+    private static final int[] SIZES = {1, 8, 32, 128, 1024};
+
+    static final int MAX_SIZE = SIZES[SIZES.length - 1];
+
+    private InList() {
+    }
+
+    /**
+     * Тексти запиту для кожної допустимої довжини: prefix (?, ?, ...) suffix
+     */
+    static String[] variants(String prefix, String suffix) {
+        String[] variants = new String[SIZES.length];
+        for (int v = 0; v < SIZES.length; v++) {
+            StringBuilder sql = new StringBuilder(prefix.length() + suffix.length() + SIZES[v] * 3 + 2);
+            sql.append(prefix).append('(');
+            for (int i = 0; i < SIZES[v]; i++) {
+                sql.append(i == 0 ? "?" : ", ?");
+            }
+            variants[v] = sql.append(')').append(suffix).toString();
+        }
+        return variants;
+    }
+
+    /**
+     * Номер варіанта для count значень (1..MAX_SIZE)
+     */
+    static int variant(int count) {
+        for (int v = 0; v < SIZES.length; v++) {
+            if (count <= SIZES[v]) {
+                return v;
+            }
+        }
+        throw new IllegalArgumentException("Забагато значень для одного запиту: " + count);
+    }
+
+    /**
+     * Кількість параметрів у варіанті
+     */
+    static int size(int variant) {
+        return SIZES[variant];
+    }
+}
@@ -0,0 +1,123 @@
+package dao;
+
+import util.MethodMetrics;
+import util.MetricsRegistry;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Stream;
+
+/**
+ * Інструментування DAO: кожен метод інтерфейсу отримує метрики в MetricsRegistry
+ * Обгортка - динамічний проксі, тож нові методи PaymentDAO/UserDAO
+ * потрапляють у метрики без змін тут. Для кожного виклику записуються
+ * тривалість, помилка і кількість повернутих рядків:
+ * розмір колекції, мапи чи сторінки, кількість імпортованих, 1 для знайденого
+ * об'єкта, числа чи успішного запису (true); рядки потоку рахуються по мірі
+ * читання, а тривалість потоку - це лише його відкриття.
+ *
+ * Помилкою вважається виняток або помилка, про яку реалізація повідомила
+ * через DAOLog.error (DAO перехоплюють SQLException і повертають false/null).
+ */
+public final class InstrumentedDAO implements InvocationHandler {
+
+    // Виклик, що виконується в поточному потоці (для DAOLog.error)
+    private static final ThreadLocal<Call> CURRENT = new ThreadLocal<>();
+
+    private final Object delegate;
+    private final String prefix;
+    private final MetricsRegistry registry;
+    private final Map<Method, MethodMetrics> metricsByMethod = new ConcurrentHashMap<>();
+
+    private InstrumentedDAO(Object delegate, String prefix, MetricsRegistry registry) {
+        this.delegate = delegate;
+        this.prefix = prefix;
+        this.registry = registry;
+    }
+
+    /**
+     * Обгорнути DAO
+     * @param type - інтерфейс DAO (PaymentDAO.class, UserDAO.class)
+     * @param delegate - реалізація
+     * @param registry - куди писати метрики
+     * @return DAO з тим самим інтерфейсом, що записує метрики кожного виклику
+     */
+    public static <T> T wrap(Class<T> type, T delegate, MetricsRegistry registry) {
+        return type.cast(Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type},
+                new InstrumentedDAO(delegate, type.getSimpleName() + ".", registry)));
+    }
+
+    /**
+     * Позначити поточний виклик як помилковий (викликає DAOLog.error)
+     */
+    static void markFailed() {
+        Call call = CURRENT.get();
+        if (call != null) {
+            call.failed = true;
+        }
+    }
+
+    @Override
+    public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+        if (method.getDeclaringClass() == Object.class) {
+            return method.invoke(delegate, args);
+        }
+        MethodMetrics metrics = metricsByMethod.computeIfAbsent(method,
+                m -> registry.metrics(prefix + m.getName()));
+
+        Call outer = CURRENT.get();
+        Call call = new Call();
+        CURRENT.set(call);
+        long started = System.nanoTime();
+        boolean failed = true;
+        try {
+            Object result = method.invoke(delegate, args);
+            failed = call.failed;
+            if (result instanceof Stream) {
+                return ((Stream<?>) result).peek(row -> metrics.addRows(1));
+            }
+            metrics.addRows(rowsOf(result));
+            return result;
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        } finally {
+            metrics.record(System.nanoTime() - started, failed);
+            if (outer != null) {
+                CURRENT.set(outer);
+            } else {
+                CURRENT.remove();
+            }
+        }
+    }
+
+    private static long rowsOf(Object result) {
+        if (result == null || Boolean.FALSE.equals(result)) {
+            return 0;
+        }
+        if (result instanceof Collection) {
+            return ((Collection<?>) result).size();
+        }
+        if (result instanceof Map) {
+            return ((Map<?, ?>) result).size();
+        }
+        if (result instanceof PaymentPage) {
+            return ((PaymentPage) result).getPayments().size();
+        }
+        if (result instanceof PaymentColumns) {
+            return ((PaymentColumns) result).size();
+        }
+        if (result instanceof UserImportResult) {
+            return ((UserImportResult) result).getInsertedCount();
+        }
+        return 1;
+    }
+
+    private static final class Call {
+        boolean failed;
+    }
+}
@@ -0,0 +1,10 @@
+package dao;
+
+/**
+ * Спосіб порівняння фрагмента з іменем при пошуку користувачів
+ * Порівняння без урахування регістру.
+ */
+public enum NameMatch {
+    PREFIX,      // ім'я чи прізвище починається з фрагмента
+    SUBSTRING    // фрагмент будь-де в імені чи прізвищі
+}
@@ -0,0 +1,56 @@
+package dao;
+
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+import java.util.Base64;
+
+/**
+ * Токен продовження для keyset-пагінації платежів
+ * Містить ключ останнього рядка сторінки (payment_date, payment_id);
+ * для клієнта це непрозорий рядок
+ */
+final class PageToken {
+
+    final Timestamp paymentDate;
+    final int paymentId;
+
+    private PageToken(Timestamp paymentDate, int paymentId) {
+        this.paymentDate = paymentDate;
+        this.paymentId = paymentId;
+    }
+
+    /**
+     * Сформувати токен з ключа останнього платежу сторінки
+     */
+    static String encode(Timestamp paymentDate, int paymentId) {
+        long seconds = Math.floorDiv(paymentDate.getTime(), 1000L);
+        String raw = seconds + ":" + paymentDate.getNanos() + ":" + paymentId;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.US_ASCII));
+    }
+
+    /**
+     * Розібрати токен, отриманий від клієнта
+     * @throws IllegalArgumentException якщо токен пошкоджено
+     */
+    static PageToken decode(String token) {
+        String raw;
+        try {
+            raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.US_ASCII);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Невірний токен сторінки: " + token, e);
+        }
+
+        String[] parts = raw.split(":");
+        if (parts.length != 3) {
+            throw new IllegalArgumentException("Невірний токен сторінки: " + token);
+        }
+        try {
+            Timestamp paymentDate = new Timestamp(Long.parseLong(parts[0]) * 1000L);
+            paymentDate.setNanos(Integer.parseInt(parts[1]));
+            return new PageToken(paymentDate, Integer.parseInt(parts[2]));
+        } catch (IllegalArgumentException e) {
+            // NumberFormatException або nanos поза межами
+            throw new IllegalArgumentException("Невірний токен сторінки: " + token, e);
+        }
+    }
+}
@@ -0,0 +1,344 @@
+package dao;
+
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.IntConsumer;
+import java.util.function.IntUnaryOperator;
+
+/**
+ * Паралельне групування платежів знімка PaymentColumns (fork-join)
+ * Група - пара (значення ключа, валюта): суми різних валют не складаються,
+ * тож кожна група має власні суму, мінімум, максимум і перцентилі у своїй валюті.
+ * Три фази, кожна - незалежні задачі без спільного стану і блокувань:
+ * 1) рядки діляться на діапазони; кожен діапазон рахує кількість, суму,
+ *    мінімум і максимум у власних таблицях, по одній на розділ ключів
+ *    (розділ - за хешем ключа);
+ * 2) розділ p зливає таблиці розділу p з усіх діапазонів;
+ * 3) розділи перетворюються на GroupStats.
+ * Злиття теж паралельне, тож навіть групування за користувачем (десятки
+ * тисяч груп) масштабується майже пропорційно кількості ядер.
+ *
+ * Перцентилі точні: якщо їх запитано, суми кожної групи збираються і
+ * сортуються у фазі 3, що коштує помітно більше пам'яті і часу, ніж самі агрегати.
+ *
+ * Приклад: PaymentAggregation.by(GroupKey.USER)
+ *         .filter(PaymentColumns.Filter.all().status(3))
+ *         .run(columns)
+ */
+public final class PaymentAggregation {
+
+    // Менші діапазони не діляться - ціна задачі переважила б виграш
+    private static final int MIN_LEAF_ROWS = 16 * 1024;
+    // Діапазонів на потік: запас, щоб потоки, що звільнились раніше, крали роботу
+    private static final int LEAVES_PER_THREAD = 4;
+    // Розділів ключів на потік
+    private static final int PARTITIONS_PER_THREAD = 2;
+
+    private final GroupKey key;
+    private PaymentColumns.Filter filter = PaymentColumns.Filter.all();
+    private boolean percentiles;
+    private ZoneId zone = ZoneId.systemDefault();
+
+    private PaymentAggregation(GroupKey key) {
+        this.key = key;
+    }
+
+    /**
+     * Групування за ключем
+     */
+    public static PaymentAggregation by(GroupKey key) {
+        return new PaymentAggregation(key);
+    }
+
+    /**
+     * Враховувати лише рядки, що проходять фільтр
+     */
+    public PaymentAggregation filter(PaymentColumns.Filter filter) {
+        this.filter = filter;
+        return this;
+    }
+
+    /**
+     * Зберігати суми груп для GroupStats.percentile
+     */
+    public PaymentAggregation withPercentiles() {
+        this.percentiles = true;
+        return this;
+    }
+
+    /**
+     * Часовий пояс, у якому GroupKey.DAY визначає день платежу
+     * (за замовчуванням - пояс JVM, у якому JDBC читає payment_date)
+     */
+    public PaymentAggregation zone(ZoneId zone) {
+        this.zone = zone;
+        return this;
+    }
+
+    /**
+     * Виконати у спільному ForkJoinPool
+     * @return значення ключа -> код валюти -> агрегат групи, за зростанням ключа
+     */
+    public Map<Integer, Map<String, GroupStats>> run(PaymentColumns columns) {
+        return run(columns, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Виконати у заданому пулі (його паралелізм - кількість потоків)
+     * @return значення ключа -> код валюти -> агрегат групи, за зростанням ключа
+     */
+    public Map<Integer, Map<String, GroupStats>> run(PaymentColumns columns, ForkJoinPool pool) {
+        PaymentColumns.Scan scan = columns.scan(filter);
+        int rows = scan.to - scan.from;
+        int threads = pool.getParallelism();
+        int leaves = Math.max(1, Math.min(threads * LEAVES_PER_THREAD, rows / MIN_LEAF_ROWS));
+        int partitions = threads == 1 ? 1 : threads * PARTITIONS_PER_THREAD;
+
+        // Фаза 1: діапазон рядків -> таблиці за розділами
+        GroupTable[][] leafTables = new GroupTable[leaves][];
+        pool.invoke(new ForEachTask(0, leaves, leaf -> {
+            GroupTable[] tables = new GroupTable[partitions];
+            for (int p = 0; p < partitions; p++) {
+                tables[p] = new GroupTable(percentiles);
+            }
+            int from = scan.from + (int) ((long) rows * leaf / leaves);
+            int to = scan.from + (int) ((long) rows * (leaf + 1) / leaves);
+            IntUnaryOperator keyOf = key.reader(columns, zone);
+            for (int row = from; row < to; row++) {
+                if (scan.matches(row)) {
+                    int value = keyOf.applyAsInt(row);
+                    tables[partition(value, partitions)].add(group(value, columns.getCurrencyCode(row)),
+                            columns.getAmount(row));
+                }
+            }
+            leafTables[leaf] = tables;
+        }));
+
+        // Фази 2 і 3: злиття розділу з усіх діапазонів і перетворення на GroupStats
+        // (розділ визначає лише значення ключа, тож усі валюти значення - в одному розділі)
+        List<Map<Integer, Map<String, GroupStats>>> partitionResults = new ArrayList<>(partitions);
+        for (int p = 0; p < partitions; p++) {
+            partitionResults.add(null);
+        }
+        pool.invoke(new ForEachTask(0, partitions, p -> {
+            GroupTable merged = leafTables[0][p];
+            for (int leaf = 1; leaf < leaves; leaf++) {
+                merged.merge(leafTables[leaf][p]);
+            }
+            partitionResults.set(p, merged.toMap(columns));
+        }));
+
+        Map<Integer, Map<String, GroupStats>> result = new TreeMap<>();
+        for (Map<Integer, Map<String, GroupStats>> partitionResult : partitionResults) {
+            result.putAll(partitionResult);
+        }
+        return result;
+    }
+
+    /**
+     * Група (значення ключа, код валюти знімка) як один long
+     */
+    private static long group(int value, int currencyCode) {
+        return (long) value << 16 | currencyCode;
+    }
+
+    private static int partition(int value, int partitions) {
+        if (partitions == 1) {
+            return 0;
+        }
+        // Інше перемішування, ніж у GroupTable.hash, - інакше розділ займав би лише частину слотів
+        int h = value * 0x85EBCA6B;
+        return Integer.remainderUnsigned(h ^ (h >>> 13), partitions);
+    }
+
+    /**
+     * Виконати body для кожного індексу [from, to), ділячи діапазон навпіл
+     */
+    private static final class ForEachTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final int from;
+        private final int to;
+        private final transient IntConsumer body;
+
+        ForEachTask(int from, int to, IntConsumer body) {
+            this.from = from;
+            this.to = to;
+            this.body = body;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from == 1) {
+                body.accept(from);
+                return;
+            }
+            if (to <= from) {
+                return;
+            }
+            int middle = (from + to) >>> 1;
+            invokeAll(new ForEachTask(from, middle, body), new ForEachTask(middle, to, body));
+        }
+    }
+
+    /**
+     * Таблиця груп з відкритою адресацією: група long -> лічильники в паралельних масивах
+     * Належить одній задачі, тому без синхронізації
+     */
+    private static final class GroupTable {
+        private final boolean keepAmounts;
+        private int size;
+        private int mask;
+        private long[] keys;
+        private boolean[] used;
+        private long[] counts;
+        private long[] sums;
+        private long[] mins;
+        private long[] maxs;
+        private long[][] amounts;
+
+        GroupTable(boolean keepAmounts) {
+            this.keepAmounts = keepAmounts;
+            allocate(16);
+        }
+
+        private void allocate(int capacity) {
+            mask = capacity - 1;
+            keys = new long[capacity];
+            used = new boolean[capacity];
+            counts = new long[capacity];
+            sums = new long[capacity];
+            mins = new long[capacity];
+            maxs = new long[capacity];
+            amounts = keepAmounts ? new long[capacity][] : null;
+        }
+
+        void add(long key, long amount) {
+            int slot = slot(key);
+            long count = counts[slot]++;
+            sums[slot] += amount;
+            if (count == 0) {
+                mins[slot] = amount;
+                maxs[slot] = amount;
+            } else {
+                if (amount < mins[slot]) {
+                    mins[slot] = amount;
+                }
+                if (amount > maxs[slot]) {
+                    maxs[slot] = amount;
+                }
+            }
+            if (keepAmounts) {
+                long[] values = amounts[slot];
+                if (values == null) {
+                    values = new long[8];
+                    amounts[slot] = values;
+                } else if (count == values.length) {
+                    values = Arrays.copyOf(values, values.length * 2);
+                    amounts[slot] = values;
+                }
+                values[(int) count] = amount;
+            }
+        }
+
+        void merge(GroupTable other) {
+            for (int j = 0; j <= other.mask; j++) {
+                if (!other.used[j]) {
+                    continue;
+                }
+                int slot = slot(other.keys[j]);
+                long count = counts[slot];
+                long otherCount = other.counts[j];
+                counts[slot] = count + otherCount;
+                sums[slot] += other.sums[j];
+                mins[slot] = count == 0 ? other.mins[j] : Math.min(mins[slot], other.mins[j]);
+                maxs[slot] = count == 0 ? other.maxs[j] : Math.max(maxs[slot], other.maxs[j]);
+                if (keepAmounts) {
+                    long[] values = amounts[slot];
+                    long total = count + otherCount;
+                    if (values == null || values.length < total) {
+                        values = values == null ? new long[(int) total] : Arrays.copyOf(values, (int) total);
+                        amounts[slot] = values;
+                    }
+                    System.arraycopy(other.amounts[j], 0, values, (int) count, (int) otherCount);
+                }
+            }
+        }
+
+        /**
+         * Слот ключа; відсутній ключ додається з нульовими лічильниками
+         */
+        private int slot(long key) {
+            int slot = hash(key) & mask;
+            while (used[slot]) {
+                if (keys[slot] == key) {
+                    return slot;
+                }
+                slot = (slot + 1) & mask;
+            }
+            if ((size + 1) * 2 > mask + 1) {
+                grow();
+                return slot(key);
+            }
+            used[slot] = true;
+            keys[slot] = key;
+            size++;
+            return slot;
+        }
+
+        private void grow() {
+            long[] oldKeys = keys;
+            boolean[] oldUsed = used;
+            long[] oldCounts = counts;
+            long[] oldSums = sums;
+            long[] oldMins = mins;
+            long[] oldMaxs = maxs;
+            long[][] oldAmounts = amounts;
+            allocate((mask + 1) * 2);
+            size = 0;
+            for (int j = 0; j < oldKeys.length; j++) {
+                if (oldUsed[j]) {
+                    int slot = slot(oldKeys[j]);
+                    counts[slot] = oldCounts[j];
+                    sums[slot] = oldSums[j];
+                    mins[slot] = oldMins[j];
+                    maxs[slot] = oldMaxs[j];
+                    if (keepAmounts) {
+                        amounts[slot] = oldAmounts[j];
+                    }
+                }
+            }
+        }
+
+        private static int hash(long key) {
+            long h = key * 0x9E3779B97F4A7C15L;
+            return (int) (h ^ (h >>> 32));
+        }
+
+        Map<Integer, Map<String, GroupStats>> toMap(PaymentColumns columns) {
+            Map<Integer, Map<String, GroupStats>> result = new HashMap<>(size * 2);
+            for (int j = 0; j <= mask; j++) {
+                if (!used[j]) {
+                    continue;
+                }
+                long[] sorted = null;
+                if (keepAmounts) {
+                    sorted = Arrays.copyOf(amounts[j], (int) counts[j]);
+                    Arrays.sort(sorted);
+                }
+                int value = (int) (keys[j] >> 16);
+                String currency = columns.getCurrencyName((int) (keys[j] & 0xFFFF));
+                result.computeIfAbsent(value, key -> new TreeMap<>())
+                        .put(currency, new GroupStats(counts[j], sums[j], mins[j], maxs[j], sorted));
+            }
+            return result;
+        }
+    }
+}
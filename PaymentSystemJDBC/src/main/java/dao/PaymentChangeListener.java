@@ -0,0 +1,25 @@
+package dao;
+
+import model.Payment;
+
+/**
+ * Слухач змін платежів, про які повідомляє PaymentDAOImpl
+ * Викликається після commit у потоці, що виконав запис, тому має бути
+ * швидким і потокобезпечним. Зміни, зроблені в обхід цього DAO (інший
+ * процес, ручний SQL), слухач не побачить.
+ */
+public interface PaymentChangeListener {
+
+    /**
+     * Платіж збережено
+     * @param payment - збережений платіж (ID, статус і дата створення вже заповнені)
+     */
+    void paymentCreated(Payment payment);
+
+    /**
+     * Статус платежу змінено
+     * @param payment - платіж з новим статусом, категорією, сумою і датою
+     * @param oldStatusId - попередній статус
+     */
+    void paymentStatusChanged(Payment payment, int oldStatusId);
+}
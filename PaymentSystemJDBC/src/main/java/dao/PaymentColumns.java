@@ -0,0 +1,586 @@
+package dao;
+
+import model.Money;
+import model.MoneyTotals;
+import model.Payment;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.ArrayList;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Колонковий знімок таблиці payments для аналітики (лише для читання)
+ * Кожне поле - окремий масив примітивів, рядок - індекс у масивах:
+ * ID - int, суми - long у копійках, дати - мілісекунди epoch, а валюта,
+ * категорія і статус закодовані словником у short. Опис, референс та
+ * імена не зберігаються. Мільйон платежів займає ~55 МБ замість сотень
+ * МБ для List<Payment>, а сканування з фільтром проходить суцільні масиви
+ * без об'єктів і розпакування.
+ *
+ * Рядки впорядковано за (payment_date, payment_id), тож фільтр за
+ * періодом знаходить межі двійковим пошуком і сканує лише їх.
+ * Знімок не оновлюється - для свіжих даних треба завантажити новий.
+ */
+public final class PaymentColumns {
+
+    // Суми зберігаються в мінорних одиницях (DECIMAL(15, 2))
+    public static final int AMOUNT_SCALE = Money.SCALE;
+    // Порожня дата (completion_date NULL)
+    public static final long NO_DATE = Long.MIN_VALUE;
+    // Порожній рахунок одержувача (recipient_account_id NULL)
+    public static final int NO_ACCOUNT = 0;
+    // Код значення, якого немає в словнику
+    private static final int NO_MATCH = -1;
+
+    private final int size;
+    private final int[] paymentIds;
+    private final int[] senderAccountIds;
+    // Власник рахунку відправника
+    private final int[] senderUserIds;
+    private final int[] recipientAccountIds;
+    private final short[] categoryCodes;
+    private final short[] statusCodes;
+    private final short[] currencyCodes;
+    private final long[] amounts;
+    private final long[] commissions;
+    private final long[] paymentDates;
+    private final long[] completionDates;
+
+    // Словники: код -> значення
+    private final int[] categoryIds;
+    private final int[] statusIds;
+    private final String[] currencies;
+
+    private final long loadedAt;
+
+    private PaymentColumns(Builder builder) {
+        size = builder.size;
+        paymentIds = Arrays.copyOf(builder.paymentIds, size);
+        senderAccountIds = Arrays.copyOf(builder.senderAccountIds, size);
+        senderUserIds = Arrays.copyOf(builder.senderUserIds, size);
+        recipientAccountIds = Arrays.copyOf(builder.recipientAccountIds, size);
+        categoryCodes = Arrays.copyOf(builder.categoryCodes, size);
+        statusCodes = Arrays.copyOf(builder.statusCodes, size);
+        currencyCodes = Arrays.copyOf(builder.currencyCodes, size);
+        amounts = Arrays.copyOf(builder.amounts, size);
+        commissions = Arrays.copyOf(builder.commissions, size);
+        paymentDates = Arrays.copyOf(builder.paymentDates, size);
+        completionDates = Arrays.copyOf(builder.completionDates, size);
+        categoryIds = builder.categories.values();
+        statusIds = builder.statuses.values();
+        currencies = builder.currencies.toArray(new String[0]);
+        loadedAt = System.currentTimeMillis();
+    }
+
+    /**
+     * Кількість платежів у знімку
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Коли знімок завантажено (мілісекунди epoch)
+     */
+    public long getLoadedAt() {
+        return loadedAt;
+    }
+
+    /**
+     * Кількість платежів, що проходять фільтр
+     */
+    public int count(Filter filter) {
+        Scan scan = scan(filter);
+        int count = 0;
+        for (int row = scan.from; row < scan.to; row++) {
+            if (scan.matches(row)) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Сума платежів, що проходять фільтр, у мінорних одиницях
+     * Валюти не розрізняються - для кількох валют див. totalsByCurrency
+     */
+    public long sumAmount(Filter filter) {
+        Scan scan = scan(filter);
+        long sum = 0;
+        for (int row = scan.from; row < scan.to; row++) {
+            if (scan.matches(row)) {
+                sum += amounts[row];
+            }
+        }
+        return sum;
+    }
+
+    /**
+     * Сума платежів, що проходять фільтр
+     */
+    public BigDecimal totalAmount(Filter filter) {
+        return BigDecimal.valueOf(sumAmount(filter), AMOUNT_SCALE);
+    }
+
+    /**
+     * Суми платежів, що проходять фільтр, окремо за валютами
+     * Сканування складає long у масив за кодом валюти знімка, Money
+     * створюються лише для підсумку.
+     */
+    public MoneyTotals totalsByCurrency(Filter filter) {
+        Scan scan = scan(filter);
+        long[] sums = new long[currencies.length];
+        for (int row = scan.from; row < scan.to; row++) {
+            if (scan.matches(row)) {
+                sums[currencyCodes[row]] += amounts[row];
+            }
+        }
+        MoneyTotals totals = new MoneyTotals();
+        for (int code = 0; code < sums.length; code++) {
+            if (sums[code] != 0) {
+                totals.add(Money.currency(currencies[code]), sums[code]);
+            }
+        }
+        return totals;
+    }
+
+    /**
+     * Кількість, сума, мінімум і максимум за категоріями, окремо за валютами
+     * @return ID категорії -> код валюти -> агрегат (лише категорії з платежами)
+     */
+    public Map<Integer, Map<String, Aggregate>> aggregateByCategory(Filter filter) {
+        return aggregateBy(filter, categoryCodes, categoryIds);
+    }
+
+    /**
+     * Кількість, сума, мінімум і максимум за статусами, окремо за валютами
+     * @return ID статусу -> код валюти -> агрегат (лише статуси з платежами)
+     */
+    public Map<Integer, Map<String, Aggregate>> aggregateByStatus(Filter filter) {
+        return aggregateBy(filter, statusCodes, statusIds);
+    }
+
+    /**
+     * Групи - пари (значення, валюта): суми різних валют не складаються
+     */
+    private Map<Integer, Map<String, Aggregate>> aggregateBy(Filter filter, short[] codes, int[] dictionary) {
+        Aggregate[][] byCode = new Aggregate[dictionary.length][currencies.length];
+        Scan scan = scan(filter);
+        for (int row = scan.from; row < scan.to; row++) {
+            if (scan.matches(row)) {
+                Aggregate[] byCurrency = byCode[codes[row]];
+                int currencyCode = currencyCodes[row];
+                Aggregate aggregate = byCurrency[currencyCode];
+                if (aggregate == null) {
+                    aggregate = new Aggregate();
+                    byCurrency[currencyCode] = aggregate;
+                }
+                aggregate.add(amounts[row]);
+            }
+        }
+        Map<Integer, Map<String, Aggregate>> result = new TreeMap<>();
+        for (int code = 0; code < byCode.length; code++) {
+            for (int currencyCode = 0; currencyCode < currencies.length; currencyCode++) {
+                Aggregate aggregate = byCode[code][currencyCode];
+                if (aggregate != null) {
+                    result.computeIfAbsent(dictionary[code], key -> new TreeMap<>())
+                            .put(currencies[currencyCode], aggregate);
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Номери рядків, що проходять фільтр (за зростанням дати)
+     */
+    public int[] rows(Filter filter) {
+        Scan scan = scan(filter);
+        int[] rows = new int[Math.min(scan.to - scan.from, 1024)];
+        int count = 0;
+        for (int row = scan.from; row < scan.to; row++) {
+            if (scan.matches(row)) {
+                if (count == rows.length) {
+                    rows = Arrays.copyOf(rows, Math.min(scan.to - scan.from, rows.length * 2));
+                }
+                rows[count++] = row;
+            }
+        }
+        return Arrays.copyOf(rows, count);
+    }
+
+    /**
+     * Платежі, що проходять фільтр, як об'єкти (без опису, референса та назв)
+     */
+    public List<Payment> select(Filter filter) {
+        int[] rows = rows(filter);
+        List<Payment> payments = new ArrayList<>(rows.length);
+        for (int row : rows) {
+            payments.add(toPayment(row));
+        }
+        return payments;
+    }
+
+    /**
+     * Відновити платіж з рядка (без опису, референса та назв)
+     */
+    public Payment toPayment(int row) {
+        return new Payment(paymentIds[row], senderAccountIds[row],
+                recipientAccountIds[row] != NO_ACCOUNT ? recipientAccountIds[row] : null,
+                categoryIds[categoryCodes[row]], statusIds[statusCodes[row]],
+                BigDecimal.valueOf(amounts[row], AMOUNT_SCALE), currencies[currencyCodes[row]], null,
+                timestamp(paymentDates[row]), timestamp(completionDates[row]),
+                BigDecimal.valueOf(commissions[row], AMOUNT_SCALE), null);
+    }
+
+    public int getPaymentId(int row) {
+        return paymentIds[row];
+    }
+
+    public int getSenderAccountId(int row) {
+        return senderAccountIds[row];
+    }
+
+    public int getSenderUserId(int row) {
+        return senderUserIds[row];
+    }
+
+    public int getCategoryId(int row) {
+        return categoryIds[categoryCodes[row]];
+    }
+
+    public int getStatusId(int row) {
+        return statusIds[statusCodes[row]];
+    }
+
+    /**
+     * Сума платежу в мінорних одиницях
+     */
+    public long getAmount(int row) {
+        return amounts[row];
+    }
+
+    public String getCurrency(int row) {
+        return currencies[currencyCodes[row]];
+    }
+
+    /**
+     * Код валюти рядка у словнику знімка (назва - getCurrencyName)
+     */
+    public int getCurrencyCode(int row) {
+        return currencyCodes[row];
+    }
+
+    public String getCurrencyName(int currencyCode) {
+        return currencies[currencyCode];
+    }
+
+    public long getPaymentDate(int row) {
+        return paymentDates[row];
+    }
+
+    /**
+     * Розмір масивів знімка в байтах (без заголовків об'єктів)
+     */
+    public long estimatedBytes() {
+        long perRow = 4L * Integer.BYTES + 3L * Short.BYTES + 4L * Long.BYTES;
+        long dictionaries = (long) (categoryIds.length + statusIds.length) * Integer.BYTES
+                + (long) currencies.length * 64;
+        return perRow * size + dictionaries;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("PaymentColumns{платежів=%d, категорій=%d, статусів=%d, валют=%d, ~%d КБ}",
+                size, categoryIds.length, statusIds.length, currencies.length, estimatedBytes() / 1024);
+    }
+
+    private static Timestamp timestamp(long millis) {
+        return millis != NO_DATE ? new Timestamp(millis) : null;
+    }
+
+    /**
+     * Перекласти фільтр у коди словників і межі рядків за датою
+     */
+    Scan scan(Filter filter) {
+        Scan scan = new Scan();
+        scan.from = lowerBound(filter.fromMillis);
+        scan.to = lowerBound(filter.toMillis);
+        scan.status = code(filter.statusId, statusIds);
+        scan.category = code(filter.categoryId, categoryIds);
+        scan.currency = Filter.ANY;
+        if (filter.currency != null) {
+            scan.currency = Arrays.asList(currencies).indexOf(filter.currency);
+        }
+        scan.senderAccountId = filter.senderAccountId;
+        // Значення, якого немає в словнику, не збігається з жодним рядком
+        if (scan.status == NO_MATCH || scan.category == NO_MATCH || scan.currency == NO_MATCH) {
+            scan.to = scan.from;
+        }
+        return scan;
+    }
+
+    private static int code(int value, int[] dictionary) {
+        if (value == Filter.ANY) {
+            return Filter.ANY;
+        }
+        for (int code = 0; code < dictionary.length; code++) {
+            if (dictionary[code] == value) {
+                return code;
+            }
+        }
+        return NO_MATCH;
+    }
+
+    /**
+     * Перший рядок з датою не раніше millis
+     */
+    private int lowerBound(long millis) {
+        int low = 0;
+        int high = size;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (paymentDates[middle] < millis) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Фільтр, переведений у коди і межі рядків [from, to)
+     */
+    final class Scan {
+        int from;
+        int to;
+        int status;
+        int category;
+        int currency;
+        int senderAccountId;
+
+        boolean matches(int row) {
+            return (status == Filter.ANY || statusCodes[row] == status)
+                    && (category == Filter.ANY || categoryCodes[row] == category)
+                    && (currency == Filter.ANY || currencyCodes[row] == currency)
+                    && (senderAccountId == Filter.ANY || senderAccountIds[row] == senderAccountId);
+        }
+    }
+
+    /**
+     * Умови сканування; не задана умова пропускає всі рядки
+     */
+    public static final class Filter {
+
+        static final int ANY = Integer.MIN_VALUE;
+
+        private int statusId = ANY;
+        private int categoryId = ANY;
+        private int senderAccountId = ANY;
+        private String currency;
+        private long fromMillis = Long.MIN_VALUE;
+        private long toMillis = Long.MAX_VALUE;
+
+        /**
+         * Фільтр без умов (усі платежі)
+         */
+        public static Filter all() {
+            return new Filter();
+        }
+
+        public Filter status(int statusId) {
+            this.statusId = statusId;
+            return this;
+        }
+
+        public Filter category(int categoryId) {
+            this.categoryId = categoryId;
+            return this;
+        }
+
+        /**
+         * Рахунок відправника
+         */
+        public Filter senderAccount(int accountId) {
+            this.senderAccountId = accountId;
+            return this;
+        }
+
+        public Filter currency(String currency) {
+            this.currency = currency;
+            return this;
+        }
+
+        /**
+         * Період за датою платежу
+         * @param from - початок включно або null
+         * @param to - кінець не включно або null
+         */
+        public Filter between(Timestamp from, Timestamp to) {
+            this.fromMillis = from != null ? from.getTime() : Long.MIN_VALUE;
+            this.toMillis = to != null ? to.getTime() : Long.MAX_VALUE;
+            return this;
+        }
+    }
+
+    /**
+     * Кількість, сума, мінімум і максимум групи в одній валюті (суми в мінорних одиницях)
+     */
+    public static final class Aggregate {
+        private int count;
+        private long sum;
+        private long min = Long.MAX_VALUE;
+        private long max = Long.MIN_VALUE;
+
+        void add(long amount) {
+            count++;
+            sum += amount;
+            min = Math.min(min, amount);
+            max = Math.max(max, amount);
+        }
+
+        public int getCount() {
+            return count;
+        }
+
+        public long getSum() {
+            return sum;
+        }
+
+        public long getMin() {
+            return min;
+        }
+
+        public long getMax() {
+            return max;
+        }
+
+        public BigDecimal getTotal() {
+            return BigDecimal.valueOf(sum, AMOUNT_SCALE);
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%d платежів, сума %s, мін %s, макс %s", count, getTotal(),
+                    BigDecimal.valueOf(min, AMOUNT_SCALE), BigDecimal.valueOf(max, AMOUNT_SCALE));
+        }
+    }
+
+    /**
+     * Побудова знімка рядок за рядком (рядки - за зростанням payment_date)
+     */
+    static final class Builder {
+        private int size;
+        private int[] paymentIds = new int[1024];
+        private int[] senderAccountIds = new int[1024];
+        private int[] senderUserIds = new int[1024];
+        private int[] recipientAccountIds = new int[1024];
+        private short[] categoryCodes = new short[1024];
+        private short[] statusCodes = new short[1024];
+        private short[] currencyCodes = new short[1024];
+        private long[] amounts = new long[1024];
+        private long[] commissions = new long[1024];
+        private long[] paymentDates = new long[1024];
+        private long[] completionDates = new long[1024];
+
+        private final IntDictionary categories = new IntDictionary();
+        private final IntDictionary statuses = new IntDictionary();
+        private final List<String> currencies = new ArrayList<>();
+        private final Map<String, Short> currencyCodesByName = new HashMap<>();
+
+        /**
+         * @param recipientAccountId - рахунок одержувача або NO_ACCOUNT
+         * @param completionDate - дата виконання або NO_DATE
+         */
+        void add(int paymentId, int senderAccountId, int senderUserId, int recipientAccountId,
+                 int categoryId, int statusId,
+                 BigDecimal amount, String currency, long paymentDate, long completionDate,
+                 BigDecimal commission) {
+            if (size == paymentIds.length) {
+                grow();
+            }
+            if (size > 0 && paymentDate < paymentDates[size - 1]) {
+                throw new IllegalArgumentException("Рядки мають надходити за зростанням payment_date");
+            }
+            paymentIds[size] = paymentId;
+            senderAccountIds[size] = senderAccountId;
+            senderUserIds[size] = senderUserId;
+            recipientAccountIds[size] = recipientAccountId;
+            categoryCodes[size] = categories.code(categoryId);
+            statusCodes[size] = statuses.code(statusId);
+            currencyCodes[size] = currencyCode(currency);
+            amounts[size] = Money.toMinor(amount);
+            commissions[size] = commission != null ? Money.toMinor(commission) : 0;
+            paymentDates[size] = paymentDate;
+            completionDates[size] = completionDate;
+            size++;
+        }
+
+        PaymentColumns build() {
+            return new PaymentColumns(this);
+        }
+
+        private short currencyCode(String currency) {
+            Short code = currencyCodesByName.get(currency);
+            if (code == null) {
+                code = checkedCode(currencies.size());
+                currencies.add(currency);
+                currencyCodesByName.put(currency, code);
+            }
+            return code;
+        }
+
+        private void grow() {
+            int capacity = paymentIds.length + (paymentIds.length >> 1);
+            paymentIds = Arrays.copyOf(paymentIds, capacity);
+            senderAccountIds = Arrays.copyOf(senderAccountIds, capacity);
+            senderUserIds = Arrays.copyOf(senderUserIds, capacity);
+            recipientAccountIds = Arrays.copyOf(recipientAccountIds, capacity);
+            categoryCodes = Arrays.copyOf(categoryCodes, capacity);
+            statusCodes = Arrays.copyOf(statusCodes, capacity);
+            currencyCodes = Arrays.copyOf(currencyCodes, capacity);
+            amounts = Arrays.copyOf(amounts, capacity);
+            commissions = Arrays.copyOf(commissions, capacity);
+            paymentDates = Arrays.copyOf(paymentDates, capacity);
+            completionDates = Arrays.copyOf(completionDates, capacity);
+        }
+
+        private static short checkedCode(int code) {
+            if (code > Short.MAX_VALUE) {
+                throw new IllegalStateException("Забагато різних значень для словника: " + code);
+            }
+            return (short) code;
+        }
+    }
+
+    /**
+     * Словник int-значень (ID категорій, статусів) у послідовні коди
+     */
+    private static final class IntDictionary {
+        private final Map<Integer, Short> codes = new HashMap<>();
+        private int[] values = new int[16];
+
+        short code(int value) {
+            Short code = codes.get(value);
+            if (code == null) {
+                code = Builder.checkedCode(codes.size());
+                if (code == values.length) {
+                    values = Arrays.copyOf(values, values.length * 2);
+                }
+                values[code] = value;
+                codes.put(value, code);
+            }
+            return code;
+        }
+
+        int[] values() {
+            return Arrays.copyOf(values, codes.size());
+        }
+    }
+}
@@ -1,8 +1,12 @@
 package dao;
 
+import model.CategoryStatistics;
 import model.Payment;
 import java.math.BigDecimal;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
 
 /**
  * Інтерфейс PaymentDAO - визначає методи для роботи з платежами
@@ -15,6 +19,32 @@ public interface PaymentDAO {
      * @return true якщо успішно
      */
     boolean createPayment(Payment payment);
+
+    /**
+     * Створити платежі пакетом (розмір пакета за замовчуванням)
+     * @param payments - платежі для збереження; ID та референси записуються в них
+     * @return кількість збережених платежів
+     */
+    int createPayments(Collection<Payment> payments);
+
+    /**
+     * Створити платежі пакетами заданого розміру, кожен пакет - окрема транзакція
+     * Якщо пакет не вдалося зберегти, він відкочується, а обробка зупиняється
+     * Платежі без суми, з невідомою валютою чи більш ніж 2 знаками після коми пропускаються
+     * @param payments - платежі для збереження; ID та референси записуються в них
+     * @param batchSize - кількість платежів в одному пакеті
+     * @return кількість збережених платежів
+     */
+    int createPayments(Collection<Payment> payments, int batchSize);
+
+    /**
+     * Переказ коштів однією транзакцією: списати суму і комісію з рахунку
+     * відправника, зарахувати суму одержувачу, зберегти платіж як виконаний
+     * Якщо коштів недостатньо або рахунку немає - нічого не змінюється
+     * @param payment - платіж з рахунком одержувача; ID, референс і статус записуються в нього
+     * @return true якщо переказ виконано
+     */
+    boolean transfer(Payment payment);
     
     /**
      * Отримати платіж за ID
@@ -28,13 +58,53 @@ public interface PaymentDAO {
      * @return список всіх платежів
      */
     List<Payment> getAllPayments();
+
+    /**
+     * Отримати всі платежі потоково, без завантаження всього списку в пам'ять
+     * Stream треба закрити (try-with-resources) - тоді звільняється підключення
+     * @return потік платежів
+     */
+    Stream<Payment> streamAllPayments();
+
+    /**
+     * Отримати сторінку всіх платежів (від найновіших)
+     * Кожна сторінка коштує однаково, незалежно від її номера
+     * @param pageSize - кількість платежів на сторінці
+     * @param pageToken - токен з попередньої сторінки або null для першої
+     * @return сторінка платежів з токеном наступної
+     */
+    PaymentPage getAllPaymentsPage(int pageSize, String pageToken);
     
+    /**
+     * Завантажити колонковий знімок усіх платежів для аналітики
+     * Займає в рази менше пам'яті, ніж getAllPayments, і підтримує швидкі
+     * фільтри та агрегати (див. PaymentColumns); опису, референса й імен не містить
+     * @return знімок або null при помилці
+     */
+    PaymentColumns getPaymentColumns();
+
     /**
      * Отримати платежі за статусом
      * @param statusId - ID статусу
      * @return список платежів
      */
     List<Payment> getPaymentsByStatus(int statusId);
+
+    /**
+     * Отримати платежі за статусом потоково (Stream треба закрити)
+     * @param statusId - ID статусу
+     * @return потік платежів
+     */
+    Stream<Payment> streamPaymentsByStatus(int statusId);
+
+    /**
+     * Отримати сторінку платежів за статусом
+     * @param statusId - ID статусу
+     * @param pageSize - кількість платежів на сторінці
+     * @param pageToken - токен з попередньої сторінки або null для першої
+     * @return сторінка платежів
+     */
+    PaymentPage getPaymentsByStatusPage(int statusId, int pageSize, String pageToken);
     
     /**
      * Отримати платежі користувача (як відправника)
@@ -42,6 +112,15 @@ public interface PaymentDAO {
      * @return список платежів
      */
     List<Payment> getPaymentsByUser(int userId);
+
+    /**
+     * Отримати сторінку платежів користувача
+     * @param userId - ID користувача
+     * @param pageSize - кількість платежів на сторінці
+     * @param pageToken - токен з попередньої сторінки або null для першої
+     * @return сторінка платежів
+     */
+    PaymentPage getPaymentsByUserPage(int userId, int pageSize, String pageToken);
     
     /**
      * Отримати платежі з рахунку
@@ -49,6 +128,15 @@ public interface PaymentDAO {
      * @return список платежів
      */
     List<Payment> getPaymentsByAccount(int accountId);
+
+    /**
+     * Отримати сторінку платежів з рахунку
+     * @param accountId - ID рахунку
+     * @param pageSize - кількість платежів на сторінці
+     * @param pageToken - токен з попередньої сторінки або null для першої
+     * @return сторінка платежів
+     */
+    PaymentPage getPaymentsByAccountPage(int accountId, int pageSize, String pageToken);
     
     /**
      * Отримати платежі за категорією
@@ -56,6 +144,22 @@ public interface PaymentDAO {
      * @return список платежів
      */
     List<Payment> getPaymentsByCategory(int categoryId);
+
+    /**
+     * Отримати платежі за категорією потоково (Stream треба закрити)
+     * @param categoryId - ID категорії
+     * @return потік платежів
+     */
+    Stream<Payment> streamPaymentsByCategory(int categoryId);
+
+    /**
+     * Отримати сторінку платежів за категорією
+     * @param categoryId - ID категорії
+     * @param pageSize - кількість платежів на сторінці
+     * @param pageToken - токен з попередньої сторінки або null для першої
+     * @return сторінка платежів
+     */
+    PaymentPage getPaymentsByCategoryPage(int categoryId, int pageSize, String pageToken);
     
     /**
      * Оновити статус платежу
@@ -73,17 +177,46 @@ public interface PaymentDAO {
     boolean cancelPayment(int paymentId);
     
     /**
-     * Отримати загальну суму платежів користувача
+     * Отримати загальну суму виконаних платежів користувача (як відправника)
+     * Читає накопичену суму, тож не залежить від довжини історії
      * @param userId - ID користувача
      * @return сума платежів
      */
     BigDecimal getTotalPaymentsByUser(int userId);
+
+    /**
+     * Отримати загальну суму виконаних платежів з рахунку
+     * @param accountId - ID рахунку
+     * @return сума платежів
+     */
+    BigDecimal getTotalPaymentsByAccount(int accountId);
+
+    /**
+     * Перерахувати накопичені суми з таблиці payments
+     * (після ручних змін у БД або якщо verifyPaymentTotals знайшов розбіжності)
+     * @return true якщо успішно
+     */
+    boolean rebuildPaymentTotals();
+
+    /**
+     * Звірити накопичені суми з таблицею payments
+     * @return список розбіжностей (порожній - усе узгоджено) або null при помилці
+     */
+    List<String> verifyPaymentTotals();
     
     /**
      * Отримати статистику платежів за категоріями
      * @return список з даними статистики
      */
     List<String> getPaymentStatisticsByCategory();
+
+    /**
+     * Отримати статистику виконаних платежів за категоріями
+     * Відповідь береться з агрегату в пам'яті, без запиту до БД
+     * @param window - часове вікно за датою платежу
+     * @return статистика кожної категорії окремо за валютами, від найбільшої суми у валюті звітності
+     */
+    List<CategoryStatistics> getCategoryStatistics(StatisticsWindow window);
     
     /**
      * Підрахувати кількість платежів за статусом
@@ -91,4 +224,10 @@ public interface PaymentDAO {
      * @return кількість платежів
      */
     int countPaymentsByStatus(int statusId);
+
+    /**
+     * Підрахувати платежі всіх статусів одним запитом
+     * @return ID статусу -> кількість платежів (статуси без платежів - з нулем)
+     */
+    Map<Integer, Integer> countPaymentsByAllStatuses();
 }
\ No newline at end of file
@@ -1,110 +1,555 @@
 package dao;
 
+import model.CategoryStatistics;
+import model.Money;
+import model.MoneyTotals;
 import model.Payment;
+import util.ConnectionPool;
 import util.DatabaseConnection;
 
 import java.sql.*;
+import java.util.Collection;
+import java.util.Currency;
 import java.util.List;
 import java.util.ArrayList;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.BooleanSupplier;
+import java.util.stream.Stream;
 import java.math.BigDecimal;
-import java.time.LocalDateTime;
-import java.time.format.DateTimeFormatter;
 
 /**
  * Реалізація інтерфейсу PaymentDAO
+ * Потокобезпечна: кожна операція бере власне підключення з пулу, а спільний
+ * стан (кеші, слухачі змін) потокобезпечний, тому один екземпляр можна
+ * ділити між потоками.
  */
 public class PaymentDAOImpl implements PaymentDAO {
 
-    private Connection connection;
+    // Кількість платежів в одному пакеті за замовчуванням
+    private static final int DEFAULT_BATCH_SIZE = 500;
+
+    private static final String INSERT_PAYMENT_SQL = "INSERT INTO payments (sender_account_id, recipient_account_id, " +
+            "category_id, status_id, amount, currency, description, commission, reference_number, payment_date) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    // Статус "Виконано"
+    private static final int STATUS_COMPLETED = 3;
+
+    // Переказ, що впав на взаємоблокуванні, повторюється до цієї кількості спроб
+    private static final int TRANSFER_MAX_ATTEMPTS = 3;
+    private static final String DEADLOCK_SQL_STATE = "40001";
+
+    private static final String LOCK_ACCOUNT_SQL = "SELECT balance, currency FROM accounts " +
+            "WHERE account_id = ? FOR UPDATE";
+
+    private static final String UPDATE_BALANCE_SQL = "UPDATE accounts SET balance = balance + ? " +
+            "WHERE account_id = ?";
+
+    private static final String LOCK_PAYMENT_SQL = "SELECT status_id, sender_account_id, category_id, amount, currency, " +
+            "payment_date FROM payments WHERE payment_id = ? FOR UPDATE";
+
+    private static final String UPDATE_STATUS_SQL = "UPDATE payments SET status_id = ? WHERE payment_id = ?";
+
+    // Накопичені суми виконаних платежів (оновлюються разом зі статусами, див. PaymentTotals)
+    private static final String USER_TOTAL_SQL = "SELECT completed_total FROM user_payment_totals WHERE user_id = ?";
+
+    private static final String ACCOUNT_TOTAL_SQL = "SELECT completed_total FROM account_payment_totals " +
+            "WHERE account_id = ?";
+
+    private static final String COUNT_BY_STATUS_SQL = "SELECT COUNT(*) FROM payments WHERE status_id = ?";
+
+    private static final String COUNT_BY_ALL_STATUSES_SQL = "SELECT status_id, COUNT(*) AS cnt " +
+            "FROM payments GROUP BY status_id";
+
+    private static final String INSERT_COMPLETED_PAYMENT_SQL = "INSERT INTO payments (sender_account_id, " +
+            "recipient_account_id, category_id, status_id, amount, currency, description, commission, " +
+            "reference_number, payment_date, completion_date) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, CURRENT_TIMESTAMP)";
+
+    // Період оновлення кешу довідників категорій і статусів
+    private static final long REFERENCE_DATA_REFRESH_MILLIS = 5 * 60 * 1000;
+
+    // Період повного перерахунку статистики за категоріями з БД
+    private static final long CATEGORY_STATISTICS_REFRESH_MILLIS = 10 * 60 * 1000;
+
+    // Період перечитування курсів валют
+    private static final long EXCHANGE_RATES_REFRESH_MILLIS = 60 * 60 * 1000;
+
+    // Валюта, в яку перераховуються підсумки статистики
+    private static final Currency REPORTING_CURRENCY = Money.UAH;
+
+    // Назви категорій і статусів не JOIN-имо - вони беруться з ReferenceDataCache
+
+    // Лише колонки, які читає PaymentMapper
+    private static final String PAYMENT_COLUMNS = "p.payment_id, p.sender_account_id, p.recipient_account_id, " +
+            "p.category_id, p.status_id, p.amount, p.currency, p.description, p.payment_date, " +
+            "p.completion_date, p.commission, p.reference_number";
+
+    // Платіж з іменами відправника й одержувача
+    private static final String PAYMENT_DETAILS_SELECT = "SELECT " + PAYMENT_COLUMNS + ", " +
+            "CONCAT(u1.first_name, ' ', u1.last_name) AS sender_name, " +
+            "CONCAT(u2.first_name, ' ', u2.last_name) AS recipient_name " +
+            "FROM payments p " +
+            "JOIN accounts a1 ON p.sender_account_id = a1.account_id " +
+            "JOIN users u1 ON a1.user_id = u1.user_id " +
+            "LEFT JOIN accounts a2 ON p.recipient_account_id = a2.account_id " +
+            "LEFT JOIN users u2 ON a2.user_id = u2.user_id ";
+
+    private static final String ALL_PAYMENTS_SQL = PAYMENT_DETAILS_SELECT +
+            "ORDER BY p.payment_date DESC, p.payment_id DESC";
+
+    private static final String PAYMENT_BY_ID_SQL = PAYMENT_DETAILS_SELECT +
+            "WHERE p.payment_id = ?";
+
+    private static final String PAYMENTS_BY_STATUS_SQL = PAYMENT_DETAILS_SELECT +
+            "WHERE p.status_id = ? " +
+            "ORDER BY p.payment_date DESC, p.payment_id DESC";
+
+    // Платіж без JOIN-ів
+    private static final String PAYMENT_SELECT = "SELECT " + PAYMENT_COLUMNS + " FROM payments p ";
+
+    private static final String PAYMENTS_BY_USER_SQL = PAYMENT_DETAILS_SELECT +
+            "WHERE a1.user_id = ? " +
+            "ORDER BY p.payment_date DESC, p.payment_id DESC";
+
+    private static final String PAYMENTS_BY_ACCOUNT_SQL = PAYMENT_SELECT +
+            "WHERE p.sender_account_id = ? " +
+            "ORDER BY p.payment_date DESC, p.payment_id DESC";
+
+    private static final String PAYMENTS_BY_CATEGORY_SQL = PAYMENT_SELECT +
+            "WHERE p.category_id = ? " +
+            "ORDER BY p.payment_date DESC, p.payment_id DESC";
+
+    // Колонки для PaymentColumns; порядок за датою дає знімку двійковий пошук за періодом
+    private static final String PAYMENT_COLUMNS_SQL = "SELECT p.payment_id, p.sender_account_id, a.user_id, " +
+            "p.recipient_account_id, p.category_id, p.status_id, p.amount, p.currency, p.payment_date, " +
+            "p.completion_date, p.commission FROM payments p " +
+            "JOIN accounts a ON p.sender_account_id = a.account_id " +
+            "ORDER BY p.payment_date, p.payment_id";
+
+    // Номери колонок PAYMENT_COLUMNS_SQL: знімок читає всі рядки таблиці,
+    // і пошук колонки за іменем на кожне поле помітний у профілі
+    private static final int SNAPSHOT_PAYMENT_ID = 1;
+    private static final int SNAPSHOT_SENDER_ACCOUNT_ID = 2;
+    private static final int SNAPSHOT_SENDER_USER_ID = 3;
+    private static final int SNAPSHOT_RECIPIENT_ACCOUNT_ID = 4;
+    private static final int SNAPSHOT_CATEGORY_ID = 5;
+    private static final int SNAPSHOT_STATUS_ID = 6;
+    private static final int SNAPSHOT_AMOUNT = 7;
+    private static final int SNAPSHOT_CURRENCY = 8;
+    private static final int SNAPSHOT_PAYMENT_DATE = 9;
+    private static final int SNAPSHOT_COMPLETION_DATE = 10;
+    private static final int SNAPSHOT_COMMISSION = 11;
+
+    private final ConnectionPool pool;
+    private final ReferenceDataCache referenceData;
+    private final ReferenceNumberGenerator referenceNumbers;
+    private final PaymentMapper paymentMapper;
+    private final List<PaymentChangeListener> listeners = new CopyOnWriteArrayList<>();
+    // Записи з повідомленням слухачів - під readLock; writeLock дає знімок без записів "у польоті"
+    private final ReentrantReadWriteLock changeGate = new ReentrantReadWriteLock();
+    private volatile StatusCounters statusCounters;
+    private volatile RecentPaymentsCache recentPayments;
+    // Будується при першому запиті статистики
+    private volatile CategoryStatisticsCache categoryStatistics;
+    // Завантажується при першому перерахунку у валюту звітності
+    private volatile ExchangeRateCache exchangeRates;
 
     public PaymentDAOImpl() {
-        try {
-            this.connection = DatabaseConnection.getConnection();
-        } catch (SQLException e) {
-            throw new RuntimeException("❌ Помилка підключення до БД", e);
-        }
+        this(defaultPool());
     }
 
     /**
-     * Генерація унікального референс-номера для платежу
-     * Формат: PAY-YYYYMMDD-HHMMSS-XXX (XXX - випадкове число)
+     * Створити DAO поверх заданого пулу підключень
+     * @param pool - пул, з якого кожна операція бере підключення
      */
-    private String generateReferenceNumber() {
-        DateTimeFormatter formatter = DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss");
-        String timestamp = LocalDateTime.now().format(formatter);
-        int random = (int) (Math.random() * 1000);
-        return String.format("PAY-%s-%03d", timestamp, random);
+    public PaymentDAOImpl(ConnectionPool pool) {
+        this(pool, new ReferenceDataCache(pool, REFERENCE_DATA_REFRESH_MILLIS));
     }
 
-    @Override
-    public boolean createPayment(Payment payment) {
-        // Генерація унікального референс-номера
-        String referenceNumber = generateReferenceNumber();
+    /**
+     * Створити DAO зі спільним кешем довідників
+     * @param pool - пул, з якого кожна операція бере підключення
+     * @param referenceData - кеш назв категорій і статусів
+     */
+    public PaymentDAOImpl(ConnectionPool pool, ReferenceDataCache referenceData) {
+        this(pool, referenceData, TimeOrderedReferenceNumberGenerator.getDefault());
+    }
 
-        String sql = "INSERT INTO payments (sender_account_id, recipient_account_id, " +
-                "category_id, status_id, amount, currency, description, commission, reference_number) " +
-                "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)";
+    /**
+     * Створити DAO з власним генератором референс-номерів
+     * @param pool - пул, з якого кожна операція бере підключення
+     * @param referenceData - кеш назв категорій і статусів
+     * @param referenceNumbers - генератор референс-номерів нових платежів
+     */
+    public PaymentDAOImpl(ConnectionPool pool, ReferenceDataCache referenceData,
+                          ReferenceNumberGenerator referenceNumbers) {
+        this.pool = pool;
+        this.referenceData = referenceData;
+        this.referenceNumbers = referenceNumbers;
+        this.paymentMapper = new PaymentMapper(referenceData);
+    }
 
-        try (PreparedStatement stmt = connection.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
-            stmt.setInt(1, payment.getSenderAccountId());
+    private static ConnectionPool defaultPool() {
+        try {
+            return DatabaseConnection.getPool();
+        } catch (SQLException e) {
+            throw new RuntimeException("❌ Помилка підключення до БД", e);
+        }
+    }
 
-            if (payment.getRecipientAccountId() != null) {
-                stmt.setInt(2, payment.getRecipientAccountId());
-            } else {
-                stmt.setNull(2, Types.INTEGER);
-            }
+    @Override
+    public boolean createPayment(Payment payment) {
+        return whileChangesAllowed(() -> insertPayment(payment));
+    }
 
-            stmt.setInt(3, payment.getCategoryId());
-            stmt.setInt(4, payment.getStatusId());
-            stmt.setBigDecimal(5, payment.getAmount());
-            stmt.setString(6, payment.getCurrency());
-            stmt.setString(7, payment.getDescription());
-            stmt.setBigDecimal(8, payment.getCommission());
-            stmt.setString(9, referenceNumber);  // Встановлюємо згенерований референс
+    private boolean insertPayment(Payment payment) {
+        if (!hasValidMoney(payment)) {
+            return false;
+        }
+        // Генерація унікального референс-номера
+        String referenceNumber = referenceNumbers.nextReferenceNumber();
+        Timestamp paymentDate = creationDate();
+        // Одразу виконаний платіж змінює накопичені суми - тоді потрібна транзакція
+        boolean completed = payment.getStatusId() == STATUS_COMPLETED;
 
-            int rowsAffected = stmt.executeUpdate();
+        try (Connection connection = pool.getConnection();
+             PreparedStatement stmt = connection.prepareStatement(INSERT_PAYMENT_SQL, Statement.RETURN_GENERATED_KEYS)) {
+            bindPayment(stmt, payment, referenceNumber, paymentDate);
+            if (completed) {
+                connection.setAutoCommit(false);
+            }
 
-            if (rowsAffected > 0) {
+            int rowsAffected;
+            int paymentId = 0;
+            try {
+                rowsAffected = stmt.executeUpdate();
                 ResultSet rs = stmt.getGeneratedKeys();
                 if (rs.next()) {
-                    payment.setPaymentId(rs.getInt(1));
+                    paymentId = rs.getInt(1);
+                }
+                if (completed) {
+                    PaymentTotals totals = new PaymentTotals();
+                    totals.add(payment.getSenderAccountId(), payment.getAmount(), 1);
+                    totals.apply(connection);
+                    connection.commit();
+                }
+            } catch (SQLException e) {
+                if (completed) {
+                    connection.rollback();
+                }
+                throw e;
+            }
+
+            if (rowsAffected > 0) {
+                if (paymentId > 0) {
+                    payment.setPaymentId(paymentId);
                     payment.setReferenceNumber(referenceNumber);  // Зберігаємо в об'єкт
+                    payment.setPaymentDate(paymentDate);
                 }
-                System.out.println("✅ Платіж створено (ID: " + payment.getPaymentId() +
+                DAOLog.info(() -> "✅ Платіж створено (ID: " + payment.getPaymentId() +
                         ", Референс: " + referenceNumber + ")");
+                firePaymentCreated(payment);
                 return true;
             }
         } catch (SQLException e) {
-            System.err.println("❌ Помилка при створенні платежу: " + e.getMessage());
-            e.printStackTrace();
+            DAOLog.error("Помилка при створенні платежу", e);
         }
         return false;
     }
 
+    @Override
+    public int createPayments(Collection<Payment> payments) {
+        return createPayments(payments, DEFAULT_BATCH_SIZE);
+    }
+
+    @Override
+    public int createPayments(Collection<Payment> payments, int batchSize) {
+        if (batchSize <= 0) {
+            throw new IllegalArgumentException("Розмір пакета має бути додатним: " + batchSize);
+        }
+        Lock gate = changeGate.readLock();
+        gate.lock();
+        try {
+            return insertPayments(payments, batchSize);
+        } finally {
+            gate.unlock();
+        }
+    }
+
+    private int insertPayments(Collection<Payment> payments, int batchSize) {
+        int created = 0;
+        List<Payment> chunk = new ArrayList<>(Math.min(batchSize, payments.size()));
+
+        try (Connection connection = pool.getConnection();
+             PreparedStatement stmt = connection.prepareStatement(INSERT_PAYMENT_SQL, Statement.RETURN_GENERATED_KEYS)) {
+            connection.setAutoCommit(false);
+
+            for (Payment payment : payments) {
+                if (!hasValidMoney(payment)) {
+                    continue;
+                }
+                chunk.add(payment);
+                if (chunk.size() == batchSize) {
+                    created += insertChunk(connection, stmt, chunk);
+                    chunk.clear();
+                }
+            }
+            if (!chunk.isEmpty()) {
+                created += insertChunk(connection, stmt, chunk);
+            }
+            int total = created;
+            DAOLog.info(() -> "✅ Створено платежів пакетами: " + total);
+
+        } catch (SQLException e) {
+            DAOLog.error("Помилка при пакетному створенні платежів (збережено " + created + ")", e);
+        }
+        return created;
+    }
+
+    /**
+     * Зберегти один пакет платежів в окремій транзакції
+     * ID та референси записуються в платежі лише після успішного commit
+     */
+    private int insertChunk(Connection connection, PreparedStatement stmt, List<Payment> chunk) throws SQLException {
+        int size = chunk.size();
+        String[] references = new String[size];
+        int[] ids = new int[size];
+        Timestamp paymentDate = creationDate();
+
+        PaymentTotals totals = new PaymentTotals();
+
+        try {
+            for (int i = 0; i < size; i++) {
+                Payment payment = chunk.get(i);
+                references[i] = referenceNumbers.nextReferenceNumber();
+                bindPayment(stmt, payment, references[i], paymentDate);
+                stmt.addBatch();
+                if (payment.getStatusId() == STATUS_COMPLETED) {
+                    totals.add(payment.getSenderAccountId(), payment.getAmount(), 1);
+                }
+            }
+            stmt.executeBatch();
+
+            try (ResultSet keys = stmt.getGeneratedKeys()) {
+                for (int i = 0; i < size && keys.next(); i++) {
+                    ids[i] = keys.getInt(1);
+                }
+            }
+            totals.apply(connection);
+            connection.commit();
+        } catch (SQLException e) {
+            stmt.clearBatch();
+            connection.rollback();
+            throw e;
+        }
+
+        for (int i = 0; i < size; i++) {
+            Payment payment = chunk.get(i);
+            payment.setPaymentId(ids[i]);
+            payment.setReferenceNumber(references[i]);
+            payment.setPaymentDate(paymentDate);
+            firePaymentCreated(payment);
+        }
+        return size;
+    }
+
+    /**
+     * Сума з не більше ніж 2 знаками після коми і відома валюта ISO 4217
+     * Інакше платіж не зберігається: статистика й агрегати не змогли б його врахувати
+     */
+    private static boolean hasValidMoney(Payment payment) {
+        if (payment.getAmount() == null) {
+            DAOLog.error("Платіж без суми");
+            return false;
+        }
+        try {
+            payment.getMoney();
+            return true;
+        } catch (IllegalArgumentException | ArithmeticException e) {
+            DAOLog.error("Некоректна сума чи валюта платежу: " + payment.getAmount() + " " + payment.getCurrency());
+            return false;
+        }
+    }
+
+    /**
+     * Заповнити параметри INSERT-запиту даними платежу
+     */
+    private void bindPayment(PreparedStatement stmt, Payment payment, String referenceNumber,
+                             Timestamp paymentDate) throws SQLException {
+        stmt.setInt(1, payment.getSenderAccountId());
+
+        if (payment.getRecipientAccountId() != null) {
+            stmt.setInt(2, payment.getRecipientAccountId());
+        } else {
+            stmt.setNull(2, Types.INTEGER);
+        }
+
+        stmt.setInt(3, payment.getCategoryId());
+        stmt.setInt(4, payment.getStatusId());
+        stmt.setBigDecimal(5, payment.getAmount());
+        stmt.setString(6, payment.getCurrency());
+        stmt.setString(7, payment.getDescription());
+        stmt.setBigDecimal(8, payment.getCommission());
+        stmt.setString(9, referenceNumber);  // Встановлюємо згенерований референс
+        stmt.setTimestamp(10, paymentDate);
+    }
+
+    /**
+     * Дата створення платежу - задається тут, а не DEFAULT CURRENT_TIMESTAMP,
+     * щоб збережений платіж (і слухачі змін) знали її без повторного читання.
+     * Округлюється до секунд, як зберігає колонка TIMESTAMP
+     */
+    private static Timestamp creationDate() {
+        return new Timestamp(System.currentTimeMillis() / 1000 * 1000);
+    }
+
+    @Override
+    public boolean transfer(Payment payment) {
+        return whileChangesAllowed(() -> executeTransfer(payment));
+    }
+
+    private boolean executeTransfer(Payment payment) {
+        Integer recipientAccountId = payment.getRecipientAccountId();
+        if (recipientAccountId == null || recipientAccountId == payment.getSenderAccountId()) {
+            DAOLog.error("Переказ потребує рахунку одержувача, відмінного від рахунку відправника");
+            return false;
+        }
+        BigDecimal commission = payment.getCommission() != null ? payment.getCommission() : BigDecimal.ZERO;
+        if (payment.getAmount() == null || payment.getAmount().signum() <= 0 || commission.signum() < 0) {
+            DAOLog.error("Некоректна сума переказу: " + payment.getAmount());
+            return false;
+        }
+        if (payment.getCurrency() == null) {
+            DAOLog.error("Переказ потребує валюти");
+            return false;
+        }
+        if (!hasValidMoney(payment)) {
+            return false;
+        }
+        String referenceNumber = referenceNumbers.nextReferenceNumber();
+        Timestamp paymentDate = creationDate();
+
+        for (int attempt = 1; ; attempt++) {
+            try (Connection connection = pool.getConnection()) {
+                connection.setAutoCommit(false);
+                int paymentId;
+                try {
+                    paymentId = transferInTransaction(connection, payment, recipientAccountId, commission,
+                            referenceNumber, paymentDate);
+                    if (paymentId == 0) {
+                        connection.rollback();
+                        return false;
+                    }
+                    connection.commit();
+                } catch (SQLException e) {
+                    connection.rollback();
+                    throw e;
+                }
+
+                payment.setPaymentId(paymentId);
+                payment.setReferenceNumber(referenceNumber);
+                payment.setCommission(commission);
+                payment.setPaymentDate(paymentDate);
+                payment.setStatusId(STATUS_COMPLETED);
+                DAOLog.info(() -> "✅ Переказ виконано (ID: " + paymentId + ", Референс: " + referenceNumber + ")");
+                firePaymentCreated(payment);
+                return true;
+
+            } catch (SQLException e) {
+                if (DEADLOCK_SQL_STATE.equals(e.getSQLState()) && attempt < TRANSFER_MAX_ATTEMPTS) {
+                    continue;
+                }
+                DAOLog.error("Помилка при виконанні переказу", e);
+                return false;
+            }
+        }
+    }
+
+    /**
+     * Тіло переказу в уже відкритій транзакції
+     * Рядки обох рахунків блокуються в порядку зростання ID, тож зустрічні
+     * перекази між тими самими рахунками не блокують один одного навхрест.
+     * @return ID створеного платежу або 0, якщо переказ неможливий
+     */
+    private int transferInTransaction(Connection connection, Payment payment, int recipientAccountId,
+                                BigDecimal commission, String referenceNumber,
+                                Timestamp paymentDate) throws SQLException {
+        int senderAccountId = payment.getSenderAccountId();
+        BigDecimal senderBalance = null;
+
+        try (PreparedStatement lock = connection.prepareStatement(LOCK_ACCOUNT_SQL)) {
+            int[] lockOrder = {Math.min(senderAccountId, recipientAccountId),
+                    Math.max(senderAccountId, recipientAccountId)};
+            for (int accountId : lockOrder) {
+                lock.setInt(1, accountId);
+                try (ResultSet rs = lock.executeQuery()) {
+                    if (!rs.next()) {
+                        DAOLog.error("Рахунок не знайдено (ID: " + accountId + ")");
+                        return 0;
+                    }
+                    if (!payment.getCurrency().equals(rs.getString("currency"))) {
+                        DAOLog.error("Валюта рахунку " + accountId + " не збігається з валютою переказу");
+                        return 0;
+                    }
+                    if (accountId == senderAccountId) {
+                        senderBalance = rs.getBigDecimal("balance");
+                    }
+                }
+            }
+        }
+
+        BigDecimal debit = payment.getAmount().add(commission);
+        if (senderBalance.compareTo(debit) < 0) {
+            DAOLog.error("Недостатньо коштів на рахунку (ID: " + senderAccountId + ")");
+            return 0;
+        }
+
+        try (PreparedStatement update = connection.prepareStatement(UPDATE_BALANCE_SQL)) {
+            // Комісія списується з відправника разом із сумою
+            update.setBigDecimal(1, debit.negate());
+            update.setInt(2, senderAccountId);
+            update.addBatch();
+            update.setBigDecimal(1, payment.getAmount());
+            update.setInt(2, recipientAccountId);
+            update.addBatch();
+            update.executeBatch();
+        }
+
+        try (PreparedStatement insert = connection.prepareStatement(INSERT_COMPLETED_PAYMENT_SQL,
+                Statement.RETURN_GENERATED_KEYS)) {
+            bindPayment(insert, payment, referenceNumber, paymentDate);
+            insert.setInt(4, STATUS_COMPLETED);
+            insert.setBigDecimal(8, commission);
+            insert.executeUpdate();
+            try (ResultSet keys = insert.getGeneratedKeys()) {
+                if (!keys.next()) {
+                    return 0;
+                }
+                PaymentTotals totals = new PaymentTotals();
+                totals.add(senderAccountId, payment.getAmount(), 1);
+                totals.apply(connection);
+                return keys.getInt(1);
+            }
+        }
+    }
+
     @Override
     public Payment getPaymentById(int paymentId) {
-        String sql = "SELECT p.*, pc.category_name, ps.status_name, " +
-                "CONCAT(u1.first_name, ' ', u1.last_name) AS sender_name, " +
-                "CONCAT(u2.first_name, ' ', u2.last_name) AS recipient_name " +
-                "FROM payments p " +
-                "JOIN payment_categories pc ON p.category_id = pc.category_id " +
-                "JOIN payment_statuses ps ON p.status_id = ps.status_id " +
-                "JOIN accounts a1 ON p.sender_account_id = a1.account_id " +
-                "JOIN users u1 ON a1.user_id = u1.user_id " +
-                "LEFT JOIN accounts a2 ON p.recipient_account_id = a2.account_id " +
-                "LEFT JOIN users u2 ON a2.user_id = u2.user_id " +
-                "WHERE p.payment_id = ?";
-
-        try (PreparedStatement stmt = connection.prepareStatement(sql)) {
+        try (Connection connection = pool.getConnection();
+             PreparedStatement stmt = connection.prepareStatement(PAYMENT_BY_ID_SQL)) {
             stmt.setInt(1, paymentId);
             ResultSet rs = stmt.executeQuery();
 
             if (rs.next()) {
-                return extractPaymentFromResultSet(rs);
+                return paymentMapper.mapRow(PAYMENT_BY_ID_SQL, rs);
             }
         } catch (SQLException e) {
-            System.err.println("❌ Помилка при отриманні платежу: " + e.getMessage());
-            e.printStackTrace();
+            DAOLog.error("Помилка при отриманні платежу", e);
         }
         return null;
     }
@@ -112,184 +557,394 @@ public class PaymentDAOImpl implements PaymentDAO {
     @Override
     public List<Payment> getAllPayments() {
         List<Payment> payments = new ArrayList<>();
-        String sql = "SELECT p.*, pc.category_name, ps.status_name, " +
-                "CONCAT(u1.first_name, ' ', u1.last_name) AS sender_name, " +
-                "CONCAT(u2.first_name, ' ', u2.last_name) AS recipient_name " +
-                "FROM payments p " +
-                "JOIN payment_categories pc ON p.category_id = pc.category_id " +
-                "JOIN payment_statuses ps ON p.status_id = ps.status_id " +
-                "JOIN accounts a1 ON p.sender_account_id = a1.account_id " +
-                "JOIN users u1 ON a1.user_id = u1.user_id " +
-                "LEFT JOIN accounts a2 ON p.recipient_account_id = a2.account_id " +
-                "LEFT JOIN users u2 ON a2.user_id = u2.user_id " +
-                "ORDER BY p.payment_date DESC";
-
-        try (Statement stmt = connection.createStatement();
-             ResultSet rs = stmt.executeQuery(sql)) {
 
+        try (Connection connection = pool.getConnection();
+             Statement stmt = connection.createStatement();
+             ResultSet rs = stmt.executeQuery(ALL_PAYMENTS_SQL)) {
+
+            ResultSetStreams.RowMapper<Payment> mapper = paymentMapper.bind(ALL_PAYMENTS_SQL, rs);
             while (rs.next()) {
-                payments.add(extractPaymentFromResultSet(rs));
+                payments.add(mapper.map(rs));
             }
-            System.out.println("✅ Знайдено платежів: " + payments.size());
+            DAOLog.info(() -> "✅ Знайдено платежів: " + payments.size());
 
         } catch (SQLException e) {
-            System.err.println("❌ Помилка при отриманні всіх платежів: " + e.getMessage());
-            e.printStackTrace();
+            DAOLog.error("Помилка при отриманні всіх платежів", e);
         }
         return payments;
     }
 
+    @Override
+    public Stream<Payment> streamAllPayments() {
+        return streamPayments(ALL_PAYMENTS_SQL, ResultSetStreams.StatementBinder.NONE);
+    }
+
+    @Override
+    public PaymentPage getAllPaymentsPage(int pageSize, String pageToken) {
+        return queryPage(PAYMENT_DETAILS_SELECT, null, 0, pageSize, pageToken);
+    }
+
+    @Override
+    public PaymentColumns getPaymentColumns() {
+        PaymentColumns.Builder columns = new PaymentColumns.Builder();
+
+        try (Connection connection = pool.getConnection();
+             PreparedStatement stmt = connection.prepareStatement(PAYMENT_COLUMNS_SQL,
+                     ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY)) {
+            stmt.setFetchSize(ResultSetStreams.FETCH_SIZE);
+            ResultSet rs = stmt.executeQuery();
+
+            while (rs.next()) {
+                int recipientId = rs.getInt(SNAPSHOT_RECIPIENT_ACCOUNT_ID);
+                if (rs.wasNull()) {
+                    recipientId = PaymentColumns.NO_ACCOUNT;
+                }
+                Timestamp completionDate = rs.getTimestamp(SNAPSHOT_COMPLETION_DATE);
+                columns.add(rs.getInt(SNAPSHOT_PAYMENT_ID), rs.getInt(SNAPSHOT_SENDER_ACCOUNT_ID),
+                        rs.getInt(SNAPSHOT_SENDER_USER_ID), recipientId,
+                        rs.getInt(SNAPSHOT_CATEGORY_ID), rs.getInt(SNAPSHOT_STATUS_ID),
+                        rs.getBigDecimal(SNAPSHOT_AMOUNT), rs.getString(SNAPSHOT_CURRENCY),
+                        rs.getTimestamp(SNAPSHOT_PAYMENT_DATE).getTime(),
+                        completionDate != null ? completionDate.getTime() : PaymentColumns.NO_DATE,
+                        rs.getBigDecimal(SNAPSHOT_COMMISSION));
+            }
+
+        } catch (SQLException e) {
+            DAOLog.error("Помилка при завантаженні знімка платежів", e);
+            return null;
+        }
+        PaymentColumns snapshot = columns.build();
+        DAOLog.info(() -> "✅ Завантажено знімок платежів: " + snapshot);
+        return snapshot;
+    }
+
     @Override
     public List<Payment> getPaymentsByStatus(int statusId) {
         List<Payment> payments = new ArrayList<>();
-        String sql = "SELECT p.*, pc.category_name, ps.status_name, " +
-                "CONCAT(u1.first_name, ' ', u1.last_name) AS sender_name, " +
-                "CONCAT(u2.first_name, ' ', u2.last_name) AS recipient_name " +
-                "FROM payments p " +
-                "JOIN payment_categories pc ON p.category_id = pc.category_id " +
-                "JOIN payment_statuses ps ON p.status_id = ps.status_id " +
-                "JOIN accounts a1 ON p.sender_account_id = a1.account_id " +
-                "JOIN users u1 ON a1.user_id = u1.user_id " +
-                "LEFT JOIN accounts a2 ON p.recipient_account_id = a2.account_id " +
-                "LEFT JOIN users u2 ON a2.user_id = u2.user_id " +
-                "WHERE p.status_id = ? " +
-                "ORDER BY p.payment_date DESC";
-
-        try (PreparedStatement stmt = connection.prepareStatement(sql)) {
+
+        try (Connection connection = pool.getConnection();
+             PreparedStatement stmt = connection.prepareStatement(PAYMENTS_BY_STATUS_SQL)) {
             stmt.setInt(1, statusId);
             ResultSet rs = stmt.executeQuery();
 
+            ResultSetStreams.RowMapper<Payment> mapper = paymentMapper.bind(PAYMENTS_BY_STATUS_SQL, rs);
             while (rs.next()) {
-                payments.add(extractPaymentFromResultSet(rs));
+                payments.add(mapper.map(rs));
             }
-            System.out.println("✅ Знайдено платежів зі статусом " + statusId + ": " + payments.size());
+            DAOLog.info(() -> "✅ Знайдено платежів зі статусом " + statusId + ": " + payments.size());
 
         } catch (SQLException e) {
-            System.err.println("❌ Помилка при отриманні платежів за статусом: " + e.getMessage());
-            e.printStackTrace();
+            DAOLog.error("Помилка при отриманні платежів за статусом", e);
         }
         return payments;
     }
 
+    @Override
+    public Stream<Payment> streamPaymentsByStatus(int statusId) {
+        return streamPayments(PAYMENTS_BY_STATUS_SQL, stmt -> stmt.setInt(1, statusId));
+    }
+
+    @Override
+    public PaymentPage getPaymentsByStatusPage(int statusId, int pageSize, String pageToken) {
+        return queryPage(PAYMENT_DETAILS_SELECT, "p.status_id", statusId, pageSize, pageToken);
+    }
+
     @Override
     public List<Payment> getPaymentsByUser(int userId) {
         List<Payment> payments = new ArrayList<>();
-        String sql = "SELECT p.*, pc.category_name, ps.status_name, " +
-                "CONCAT(u1.first_name, ' ', u1.last_name) AS sender_name, " +
-                "CONCAT(u2.first_name, ' ', u2.last_name) AS recipient_name " +
-                "FROM payments p " +
-                "JOIN payment_categories pc ON p.category_id = pc.category_id " +
-                "JOIN payment_statuses ps ON p.status_id = ps.status_id " +
-                "JOIN accounts a1 ON p.sender_account_id = a1.account_id " +
-                "JOIN users u1 ON a1.user_id = u1.user_id " +
-                "LEFT JOIN accounts a2 ON p.recipient_account_id = a2.account_id " +
-                "LEFT JOIN users u2 ON a2.user_id = u2.user_id " +
-                "WHERE a1.user_id = ? " +
-                "ORDER BY p.payment_date DESC";
-
-        try (PreparedStatement stmt = connection.prepareStatement(sql)) {
+
+        try (Connection connection = pool.getConnection();
+             PreparedStatement stmt = connection.prepareStatement(PAYMENTS_BY_USER_SQL)) {
             stmt.setInt(1, userId);
             ResultSet rs = stmt.executeQuery();
 
+            ResultSetStreams.RowMapper<Payment> mapper = paymentMapper.bind(PAYMENTS_BY_USER_SQL, rs);
             while (rs.next()) {
-                payments.add(extractPaymentFromResultSet(rs));
+                payments.add(mapper.map(rs));
             }
 
         } catch (SQLException e) {
-            System.err.println("❌ Помилка при отриманні платежів користувача: " + e.getMessage());
-            e.printStackTrace();
+            DAOLog.error("Помилка при отриманні платежів користувача", e);
         }
         return payments;
     }
 
+    @Override
+    public PaymentPage getPaymentsByUserPage(int userId, int pageSize, String pageToken) {
+        return queryPage(PAYMENT_DETAILS_SELECT, "a1.user_id", userId, pageSize, pageToken);
+    }
+
     @Override
     public List<Payment> getPaymentsByAccount(int accountId) {
+        RecentPaymentsCache recent = recentPayments;
+        if (recent != null) {
+            List<Payment> cached = recent.getAll(accountId);
+            if (cached != null) {
+                return cached;
+            }
+        }
+        long epoch = recent != null ? recent.epoch(accountId) : 0;
         List<Payment> payments = new ArrayList<>();
-        String sql = "SELECT p.*, pc.category_name, ps.status_name " +
-                "FROM payments p " +
-                "JOIN payment_categories pc ON p.category_id = pc.category_id " +
-                "JOIN payment_statuses ps ON p.status_id = ps.status_id " +
-                "WHERE p.sender_account_id = ? " +
-                "ORDER BY p.payment_date DESC";
-
-        try (PreparedStatement stmt = connection.prepareStatement(sql)) {
+
+        try (Connection connection = pool.getConnection();
+             PreparedStatement stmt = connection.prepareStatement(PAYMENTS_BY_ACCOUNT_SQL)) {
             stmt.setInt(1, accountId);
             ResultSet rs = stmt.executeQuery();
 
+            ResultSetStreams.RowMapper<Payment> mapper = paymentMapper.bind(PAYMENTS_BY_ACCOUNT_SQL, rs);
             while (rs.next()) {
-                Payment payment = new Payment();
-                payment.setPaymentId(rs.getInt("payment_id"));
-                payment.setSenderAccountId(rs.getInt("sender_account_id"));
-                payment.setAmount(rs.getBigDecimal("amount"));
-                payment.setCurrency(rs.getString("currency"));
-                payment.setDescription(rs.getString("description"));
-                payment.setPaymentDate(rs.getTimestamp("payment_date"));
-                payment.setCategoryName(rs.getString("category_name"));
-                payment.setStatusName(rs.getString("status_name"));
-                payment.setReferenceNumber(rs.getString("reference_number"));
-                payments.add(payment);
+                payments.add(mapper.map(rs));
             }
 
         } catch (SQLException e) {
-            System.err.println("❌ Помилка при отриманні платежів рахунку: " + e.getMessage());
-            e.printStackTrace();
+            DAOLog.error("Помилка при отриманні платежів рахунку", e);
+            return payments;
+        }
+        if (recent != null) {
+            recent.remember(accountId, payments, true, epoch);
         }
         return payments;
     }
 
+    @Override
+    public PaymentPage getPaymentsByAccountPage(int accountId, int pageSize, String pageToken) {
+        RecentPaymentsCache recent = recentPayments;
+        if (recent != null) {
+            checkPageSize(pageSize);
+            try {
+                PaymentPage page = recent.page(accountId, pageSize,
+                        pageToken != null ? PageToken.decode(pageToken) : null);
+                if (page != null) {
+                    return page;
+                }
+            } catch (SQLException e) {
+                DAOLog.error("Помилка при отриманні сторінки платежів", e);
+                return new PaymentPage(new ArrayList<>(), null);
+            }
+        }
+        return queryPage(PAYMENT_SELECT, "p.sender_account_id", accountId, pageSize, pageToken);
+    }
+
     @Override
     public List<Payment> getPaymentsByCategory(int categoryId) {
         List<Payment> payments = new ArrayList<>();
-        String sql = "SELECT p.*, pc.category_name, ps.status_name " +
-                "FROM payments p " +
-                "JOIN payment_categories pc ON p.category_id = pc.category_id " +
-                "JOIN payment_statuses ps ON p.status_id = ps.status_id " +
-                "WHERE p.category_id = ? " +
-                "ORDER BY p.payment_date DESC";
-
-        try (PreparedStatement stmt = connection.prepareStatement(sql)) {
+
+        try (Connection connection = pool.getConnection();
+             PreparedStatement stmt = connection.prepareStatement(PAYMENTS_BY_CATEGORY_SQL)) {
             stmt.setInt(1, categoryId);
             ResultSet rs = stmt.executeQuery();
 
+            ResultSetStreams.RowMapper<Payment> mapper = paymentMapper.bind(PAYMENTS_BY_CATEGORY_SQL, rs);
             while (rs.next()) {
-                Payment payment = new Payment();
-                payment.setPaymentId(rs.getInt("payment_id"));
-                payment.setAmount(rs.getBigDecimal("amount"));
-                payment.setDescription(rs.getString("description"));
-                payment.setPaymentDate(rs.getTimestamp("payment_date"));
-                payment.setCategoryName(rs.getString("category_name"));
-                payment.setStatusName(rs.getString("status_name"));
-                payment.setReferenceNumber(rs.getString("reference_number"));
-                payments.add(payment);
+                payments.add(mapper.map(rs));
             }
 
         } catch (SQLException e) {
-            System.err.println("❌ Помилка при отриманні платежів за категорією: " + e.getMessage());
-            e.printStackTrace();
+            DAOLog.error("Помилка при отриманні платежів за категорією", e);
         }
         return payments;
     }
 
     @Override
-    public boolean updatePaymentStatus(int paymentId, int newStatusId) {
-        String sql = "UPDATE payments SET status_id = ? WHERE payment_id = ?";
+    public PaymentPage getPaymentsByCategoryPage(int categoryId, int pageSize, String pageToken) {
+        return queryPage(PAYMENT_SELECT, "p.category_id", categoryId, pageSize, pageToken);
+    }
 
-        try (PreparedStatement stmt = connection.prepareStatement(sql)) {
-            stmt.setInt(1, newStatusId);
-            stmt.setInt(2, paymentId);
+    /**
+     * Keyset-пагінація: замість OFFSET продовжуємо після ключа
+     * (payment_date, payment_id) останнього рядка попередньої сторінки,
+     * тому глибока сторінка читає з індексу стільки ж рядків, скільки перша
+     * @param select - SELECT ... FROM ... JOIN ... без WHERE
+     * @param filterColumn - колонка фільтра або null без фільтра
+     * @param filterValue - значення фільтра
+     */
+    private PaymentPage queryPage(String select, String filterColumn, int filterValue,
+                                  int pageSize, String pageToken) {
+        checkPageSize(pageSize);
+        PageToken after = pageToken != null ? PageToken.decode(pageToken) : null;
+        try {
+            return fetchPage(select, filterColumn, filterValue, pageSize, after);
+        } catch (SQLException e) {
+            DAOLog.error("Помилка при отриманні сторінки платежів", e);
+            return new PaymentPage(new ArrayList<>(), null);
+        }
+    }
 
-            int rowsAffected = stmt.executeUpdate();
-            if (rowsAffected > 0) {
-                System.out.println("✅ Статус платежу оновлено (ID: " + paymentId + ")");
-                return true;
+    private static void checkPageSize(int pageSize) {
+        if (pageSize <= 0) {
+            throw new IllegalArgumentException("Розмір сторінки має бути додатним: " + pageSize);
+        }
+    }
+
+    /**
+     * Сторінка з БД без перехоплення помилок (також завантажує RecentPaymentsCache)
+     */
+    private PaymentPage fetchPage(String select, String filterColumn, int filterValue,
+                                  int pageSize, PageToken after) throws SQLException {
+        String sql = pageSql(select, filterColumn, after != null);
+
+        List<Payment> payments = new ArrayList<>(pageSize + 1);
+        try (Connection connection = pool.getConnection();
+             PreparedStatement stmt = connection.prepareStatement(sql)) {
+            int index = 1;
+            if (filterColumn != null) {
+                stmt.setInt(index++, filterValue);
+            }
+            if (after != null) {
+                stmt.setTimestamp(index++, after.paymentDate);
+                stmt.setTimestamp(index++, after.paymentDate);
+                stmt.setInt(index++, after.paymentId);
+            }
+            stmt.setInt(index, pageSize + 1);
+            ResultSet rs = stmt.executeQuery();
+
+            ResultSetStreams.RowMapper<Payment> mapper = paymentMapper.bind(sql, rs);
+            while (rs.next()) {
+                payments.add(mapper.map(rs));
+            }
+        }
+
+        String nextPageToken = null;
+        if (payments.size() > pageSize) {
+            payments.remove(pageSize);
+            Payment last = payments.get(pageSize - 1);
+            nextPageToken = PageToken.encode(last.getPaymentDate(), last.getPaymentId());
+        }
+        return new PaymentPage(payments, nextPageToken);
+    }
+
+    /**
+     * SQL сторінки: [фільтр = ?] [після ключа (?, ?, ?)] LIMIT ?
+     */
+    private static String pageSql(String select, String filterColumn, boolean afterKey) {
+        StringBuilder sql = new StringBuilder(select);
+        String keyword = "WHERE ";
+        if (filterColumn != null) {
+            sql.append(keyword).append(filterColumn).append(" = ? ");
+            keyword = "AND ";
+        }
+        if (afterKey) {
+            sql.append(keyword).append("(p.payment_date < ? OR (p.payment_date = ? AND p.payment_id < ?)) ");
+        }
+        // Беремо на один рядок більше, щоб знати, чи є наступна сторінка
+        sql.append("ORDER BY p.payment_date DESC, p.payment_id DESC LIMIT ?");
+        return sql.toString();
+    }
+
+    /**
+     * Запити з фільтром і зразкові параметри для QueryPlanCheck
+     * Новий шлях доступу до платежів варто додати і сюди.
+     */
+    static List<QueryPlanCheck.PlannedQuery> plannedQueries() {
+        Timestamp now = new Timestamp(System.currentTimeMillis());
+        return List.of(
+                new QueryPlanCheck.PlannedQuery("getPaymentById", PAYMENT_BY_ID_SQL, 1),
+                new QueryPlanCheck.PlannedQuery("getPaymentsByStatus", PAYMENTS_BY_STATUS_SQL, STATUS_COMPLETED),
+                new QueryPlanCheck.PlannedQuery("getPaymentsByUser", PAYMENTS_BY_USER_SQL, 1),
+                new QueryPlanCheck.PlannedQuery("getPaymentsByAccount", PAYMENTS_BY_ACCOUNT_SQL, 1),
+                new QueryPlanCheck.PlannedQuery("getPaymentsByCategory", PAYMENTS_BY_CATEGORY_SQL, 1),
+                new QueryPlanCheck.PlannedQuery("getPaymentsByStatusPage",
+                        pageSql(PAYMENT_DETAILS_SELECT, "p.status_id", true), STATUS_COMPLETED, now, now, 1, 51),
+                new QueryPlanCheck.PlannedQuery("getPaymentsByUserPage",
+                        pageSql(PAYMENT_DETAILS_SELECT, "a1.user_id", true), 1, now, now, 1, 51),
+                new QueryPlanCheck.PlannedQuery("getPaymentsByAccountPage",
+                        pageSql(PAYMENT_SELECT, "p.sender_account_id", true), 1, now, now, 1, 51),
+                new QueryPlanCheck.PlannedQuery("getPaymentsByCategoryPage",
+                        pageSql(PAYMENT_SELECT, "p.category_id", true), 1, now, now, 1, 51),
+                new QueryPlanCheck.PlannedQuery("countPaymentsByStatus", COUNT_BY_STATUS_SQL, STATUS_COMPLETED),
+                new QueryPlanCheck.PlannedQuery("getTotalPaymentsByUser", USER_TOTAL_SQL, 1),
+                new QueryPlanCheck.PlannedQuery("getTotalPaymentsByAccount", ACCOUNT_TOTAL_SQL, 1));
+    }
+
+    @Override
+    public Stream<Payment> streamPaymentsByCategory(int categoryId) {
+        return streamPayments(PAYMENTS_BY_CATEGORY_SQL, stmt -> stmt.setInt(1, categoryId));
+    }
+
+    /**
+     * Відкрити потоковий курсор по платежах
+     * При помилці відкриття повертає порожній потік, як списки повертають порожній список
+     */
+    private Stream<Payment> streamPayments(String sql, ResultSetStreams.StatementBinder binder) {
+        try {
+            return ResultSetStreams.stream(pool, sql, binder, paymentMapper);
+        } catch (SQLException e) {
+            DAOLog.error("Помилка при відкритті потоку платежів", e);
+            return Stream.empty();
+        }
+    }
+
+    @Override
+    public boolean updatePaymentStatus(int paymentId, int newStatusId) {
+        return whileChangesAllowed(() -> executeStatusUpdate(paymentId, newStatusId));
+    }
+
+    private boolean executeStatusUpdate(int paymentId, int newStatusId) {
+        try (Connection connection = pool.getConnection()) {
+            connection.setAutoCommit(false);
+            try {
+                Payment payment = changeStatus(connection, paymentId, newStatusId);
+                connection.commit();
+                if (payment != null) {
+                    DAOLog.info(() -> "✅ Статус платежу оновлено (ID: " + paymentId + ")");
+                    int oldStatusId = payment.getStatusId();
+                    payment.setStatusId(newStatusId);
+                    fireStatusChanged(payment, oldStatusId);
+                    return true;
+                }
+            } catch (SQLException e) {
+                connection.rollback();
+                throw e;
             }
         } catch (SQLException e) {
-            System.err.println("❌ Помилка при оновленні статусу платежу: " + e.getMessage());
-            e.printStackTrace();
+            DAOLog.error("Помилка при оновленні статусу платежу", e);
         }
         return false;
     }
 
+    /**
+     * Змінити статус у поточній транзакції разом із накопиченими сумами
+     * Рядок платежу блокується, тож паралельна зміна статусу того самого
+     * платежу не порахує перехід у "Виконано" двічі.
+     * @return платіж з попереднім статусом або null, якщо платежу немає
+     */
+    private Payment changeStatus(Connection connection, int paymentId, int newStatusId) throws SQLException {
+        Payment payment = new Payment();
+        payment.setPaymentId(paymentId);
+        try (PreparedStatement lock = connection.prepareStatement(LOCK_PAYMENT_SQL)) {
+            lock.setInt(1, paymentId);
+            try (ResultSet rs = lock.executeQuery()) {
+                if (!rs.next()) {
+                    return null;
+                }
+                payment.setStatusId(rs.getInt("status_id"));
+                payment.setSenderAccountId(rs.getInt("sender_account_id"));
+                payment.setCategoryId(rs.getInt("category_id"));
+                payment.setAmount(rs.getBigDecimal("amount"));
+                payment.setCurrency(rs.getString("currency"));
+                payment.setPaymentDate(rs.getTimestamp("payment_date"));
+            }
+        }
+        int oldStatusId = payment.getStatusId();
+        int senderAccountId = payment.getSenderAccountId();
+        BigDecimal amount = payment.getAmount();
+
+        try (PreparedStatement stmt = connection.prepareStatement(UPDATE_STATUS_SQL)) {
+            stmt.setInt(1, newStatusId);
+            stmt.setInt(2, paymentId);
+            stmt.executeUpdate();
+        }
+
+        PaymentTotals totals = new PaymentTotals();
+        if (oldStatusId != STATUS_COMPLETED && newStatusId == STATUS_COMPLETED) {
+            totals.add(senderAccountId, amount, 1);
+        } else if (oldStatusId == STATUS_COMPLETED && newStatusId != STATUS_COMPLETED) {
+            totals.add(senderAccountId, amount.negate(), -1);
+        }
+        totals.apply(connection);
+        return payment;
+    }
+
     @Override
     public boolean cancelPayment(int paymentId) {
         // Статус "Скасовано" має ID = 4
@@ -298,59 +953,162 @@ public class PaymentDAOImpl implements PaymentDAO {
 
     @Override
     public BigDecimal getTotalPaymentsByUser(int userId) {
-        String sql = "SELECT SUM(p.amount) AS total " +
-                "FROM payments p " +
-                "JOIN accounts a ON p.sender_account_id = a.account_id " +
-                "WHERE a.user_id = ? AND p.status_id = 3"; // Тільки виконані
+        return readTotal(USER_TOTAL_SQL, userId);
+    }
 
-        try (PreparedStatement stmt = connection.prepareStatement(sql)) {
-            stmt.setInt(1, userId);
+    @Override
+    public BigDecimal getTotalPaymentsByAccount(int accountId) {
+        return readTotal(ACCOUNT_TOTAL_SQL, accountId);
+    }
+
+    private BigDecimal readTotal(String sql, int id) {
+        try (Connection connection = pool.getConnection();
+             PreparedStatement stmt = connection.prepareStatement(sql)) {
+            stmt.setInt(1, id);
             ResultSet rs = stmt.executeQuery();
 
             if (rs.next()) {
-                BigDecimal total = rs.getBigDecimal("total");
-                return total != null ? total : BigDecimal.ZERO;
+                return rs.getBigDecimal("completed_total");
             }
         } catch (SQLException e) {
-            System.err.println("❌ Помилка при підрахунку суми платежів: " + e.getMessage());
-            e.printStackTrace();
+            DAOLog.error("Помилка при підрахунку суми платежів", e);
         }
         return BigDecimal.ZERO;
     }
 
+    @Override
+    public boolean rebuildPaymentTotals() {
+        try (Connection connection = pool.getConnection()) {
+            connection.setAutoCommit(false);
+            try {
+                PaymentTotals.rebuild(connection);
+                connection.commit();
+            } catch (SQLException e) {
+                connection.rollback();
+                throw e;
+            }
+            DAOLog.info(() -> "✅ Суми виконаних платежів перераховано");
+            return true;
+        } catch (SQLException e) {
+            DAOLog.error("Помилка при перерахунку сум платежів", e);
+        }
+        return false;
+    }
+
+    @Override
+    public List<String> verifyPaymentTotals() {
+        try (Connection connection = pool.getConnection()) {
+            // Обидва підсумки читаються з одного знімка даних
+            connection.setAutoCommit(false);
+            connection.setReadOnly(true);
+            List<String> mismatches = PaymentTotals.verify(connection);
+            connection.commit();
+            return mismatches;
+        } catch (SQLException e) {
+            DAOLog.error("Помилка при перевірці сум платежів", e);
+        }
+        return null;
+    }
+
     @Override
     public List<String> getPaymentStatisticsByCategory() {
         List<String> stats = new ArrayList<>();
-        String sql = "SELECT pc.category_name, COUNT(p.payment_id) AS count, " +
-                "SUM(p.amount) AS total " +
-                "FROM payment_categories pc " +
-                "LEFT JOIN payments p ON pc.category_id = p.category_id AND p.status_id = 3 " +
-                "GROUP BY pc.category_id, pc.category_name " +
-                "ORDER BY total DESC";
+        for (CategoryStatistics category : getCategoryStatistics(StatisticsWindow.ALL_TIME)) {
+            MoneyTotals totals = category.getTotalsByCurrency();
+            String line = String.format("%s: %d платежів, сума: %s",
+                    category.getCategoryName(), category.getCount(), totals);
+            // Кілька валют або не валюта звітності - додаємо перерахунок за курсом
+            List<Money> byCurrency = totals.toList();
+            if (byCurrency.size() > 1
+                    || (byCurrency.size() == 1 && byCurrency.get(0).getCurrency() != REPORTING_CURRENCY)) {
+                Money reported = category.getReportedTotal();
+                line += reported != null ? " (≈ " + reported + ")" : " (курс невідомий)";
+            }
+            stats.add(line);
+        }
+        return stats;
+    }
 
-        try (Statement stmt = connection.createStatement();
-             ResultSet rs = stmt.executeQuery(sql)) {
+    @Override
+    public List<CategoryStatistics> getCategoryStatistics(StatisticsWindow window) {
+        return categoryStatistics().getStatistics(window);
+    }
 
-            while (rs.next()) {
-                String stat = String.format("%s: %d платежів, сума: %.2f UAH",
-                        rs.getString("category_name"),
-                        rs.getInt("count"),
-                        rs.getBigDecimal("total") != null ? rs.getBigDecimal("total") : BigDecimal.ZERO);
-                stats.add(stat);
+    private CategoryStatisticsCache categoryStatistics() {
+        CategoryStatisticsCache cache = categoryStatistics;
+        if (cache == null) {
+            synchronized (this) {
+                cache = categoryStatistics;
+                if (cache == null) {
+                    cache = new CategoryStatisticsCache(pool, referenceData, getExchangeRates(), REPORTING_CURRENCY,
+                            changeGate.writeLock(), CATEGORY_STATISTICS_REFRESH_MILLIS);
+                    // Спершу підписка, потім побудова - записи між ними не загубляться
+                    addChangeListener(cache);
+                    cache.start();
+                    categoryStatistics = cache;
+                }
             }
+        }
+        return cache;
+    }
 
-        } catch (SQLException e) {
-            System.err.println("❌ Помилка при отриманні статистики: " + e.getMessage());
-            e.printStackTrace();
+    /**
+     * Кеш курсів валют (таблиця exchange_rates), створюється при першому зверненні
+     */
+    public ExchangeRateCache getExchangeRates() {
+        ExchangeRateCache cache = exchangeRates;
+        if (cache == null) {
+            synchronized (this) {
+                cache = exchangeRates;
+                if (cache == null) {
+                    cache = ExchangeRateCache.load(pool, EXCHANGE_RATES_REFRESH_MILLIS);
+                    exchangeRates = cache;
+                }
+            }
+        }
+        return cache;
+    }
+
+    /**
+     * Підписатися на зміни платежів, зроблені через цей DAO
+     */
+    public void addChangeListener(PaymentChangeListener listener) {
+        listeners.add(listener);
+    }
+
+    public void removeChangeListener(PaymentChangeListener listener) {
+        listeners.remove(listener);
+    }
+
+    private void firePaymentCreated(Payment payment) {
+        for (PaymentChangeListener listener : listeners) {
+            try {
+                listener.paymentCreated(payment);
+            } catch (RuntimeException e) {
+                // Платіж уже збережено - помилка слухача не має впливати на результат
+                DAOLog.warn("Помилка слухача змін платежів: " + e.getMessage());
+            }
+        }
+    }
+
+    private void fireStatusChanged(Payment payment, int oldStatusId) {
+        for (PaymentChangeListener listener : listeners) {
+            try {
+                listener.paymentStatusChanged(payment, oldStatusId);
+            } catch (RuntimeException e) {
+                DAOLog.warn("Помилка слухача змін платежів: " + e.getMessage());
+            }
         }
-        return stats;
     }
 
     @Override
     public int countPaymentsByStatus(int statusId) {
-        String sql = "SELECT COUNT(*) FROM payments WHERE status_id = ?";
-
-        try (PreparedStatement stmt = connection.prepareStatement(sql)) {
+        StatusCounters counters = statusCounters;
+        if (counters != null) {
+            return counters.get(statusId);
+        }
+        try (Connection connection = pool.getConnection();
+             PreparedStatement stmt = connection.prepareStatement(COUNT_BY_STATUS_SQL)) {
             stmt.setInt(1, statusId);
             ResultSet rs = stmt.executeQuery();
 
@@ -358,44 +1116,171 @@ public class PaymentDAOImpl implements PaymentDAO {
                 return rs.getInt(1);
             }
         } catch (SQLException e) {
-            System.err.println("❌ Помилка при підрахунку платежів: " + e.getMessage());
-            e.printStackTrace();
+            DAOLog.error("Помилка при підрахунку платежів", e);
         }
         return 0;
     }
 
+    @Override
+    public Map<Integer, Integer> countPaymentsByAllStatuses() {
+        StatusCounters counters = statusCounters;
+        if (counters != null) {
+            return counters.snapshot();
+        }
+        try (Connection connection = pool.getConnection()) {
+            return loadStatusCounts(connection);
+        } catch (SQLException e) {
+            DAOLog.error("Помилка при підрахунку платежів", e);
+        }
+        return new TreeMap<>();
+    }
+
     /**
-     * Допоміжний метод для витягування платежу з ResultSet
+     * Кількість платежів кожного статусу одним GROUP BY; статуси без платежів - з нулем
      */
-    private Payment extractPaymentFromResultSet(ResultSet rs) throws SQLException {
-        Payment payment = new Payment();
-        payment.setPaymentId(rs.getInt("payment_id"));
-        payment.setSenderAccountId(rs.getInt("sender_account_id"));
-
-        int recipientId = rs.getInt("recipient_account_id");
-        payment.setRecipientAccountId(rs.wasNull() ? null : recipientId);
-
-        payment.setCategoryId(rs.getInt("category_id"));
-        payment.setStatusId(rs.getInt("status_id"));
-        payment.setAmount(rs.getBigDecimal("amount"));
-        payment.setCurrency(rs.getString("currency"));
-        payment.setDescription(rs.getString("description"));
-        payment.setPaymentDate(rs.getTimestamp("payment_date"));
-        payment.setCompletionDate(rs.getTimestamp("completion_date"));
-        payment.setCommission(rs.getBigDecimal("commission"));
-        payment.setReferenceNumber(rs.getString("reference_number"));
-
-        // Додаткові поля
-        payment.setCategoryName(rs.getString("category_name"));
-        payment.setStatusName(rs.getString("status_name"));
+    private Map<Integer, Integer> loadStatusCounts(Connection connection) throws SQLException {
+        Map<Integer, Integer> counts = new TreeMap<>();
+        for (int statusId : referenceData.getStatusIds()) {
+            counts.put(statusId, 0);
+        }
+        try (PreparedStatement stmt = connection.prepareStatement(COUNT_BY_ALL_STATUSES_SQL);
+             ResultSet rs = stmt.executeQuery()) {
+            while (rs.next()) {
+                counts.put(rs.getInt("status_id"), rs.getInt("cnt"));
+            }
+        }
+        return counts;
+    }
 
+    /**
+     * Увімкнути лічильники платежів за статусами в пам'яті
+     * Після цього countPaymentsByStatus і countPaymentsByAllStatuses не звертаються
+     * до БД. Лічильники точні щодо записів через цей DAO; зміни в обхід нього
+     * (інший процес, ручний SQL) потребують повторного виклику цього методу.
+     * @return лічильники
+     */
+    public StatusCounters enableStatusCounters() {
+        synchronized (this) {
+            StatusCounters counters = statusCounters;
+            if (counters == null) {
+                counters = new StatusCounters();
+                addChangeListener(counters);
+            }
+            // Поки триває підрахунок, жоден запис не комітиться і не повідомляє слухачів.
+            // Записи беруть readLock до підключення, тож тут порядок той самий: спершу блокування
+            Lock gate = changeGate.writeLock();
+            gate.lock();
+            try (Connection connection = pool.getConnection()) {
+                counters.reset(loadStatusCounts(connection));
+            } catch (SQLException e) {
+                removeChangeListener(counters);
+                statusCounters = null;
+                throw new RuntimeException("❌ Помилка при підрахунку платежів за статусами", e);
+            } finally {
+                gate.unlock();
+            }
+            statusCounters = counters;
+            return counters;
+        }
+    }
+
+    /**
+     * Увімкнути історію останніх платежів активних рахунків у пам'яті
+     * Після цього getPaymentsByAccountPage віддає свіжі сторінки без БД (до SQL
+     * ідуть лише сторінки, старші за буфер), а getPaymentsByAccount - коли вся
+     * історія рахунку вміщується в буфер. Повторний виклик повертає той самий кеш.
+     * @param maxAccounts - максимальна кількість рахунків у пам'яті
+     * @param capacity - кількість останніх платежів на рахунок
+     * @param ttlMillis - через скільки буфер рахунку перечитується з БД
+     * @return кеш (метрики - getStats)
+     */
+    public RecentPaymentsCache enableRecentPayments(int maxAccounts, int capacity, long ttlMillis) {
+        synchronized (this) {
+            RecentPaymentsCache recent = recentPayments;
+            if (recent == null) {
+                recent = new RecentPaymentsCache((accountId, limit) ->
+                        fetchPage(PAYMENT_SELECT, "p.sender_account_id", accountId, limit, null),
+                        referenceData, maxAccounts, capacity, ttlMillis);
+                addChangeListener(recent);
+                recentPayments = recent;
+            }
+            return recent;
+        }
+    }
+
+    /**
+     * Виконати запис під readLock змін (див. enableStatusCounters)
+     */
+    private boolean whileChangesAllowed(BooleanSupplier write) {
+        Lock gate = changeGate.readLock();
+        gate.lock();
         try {
-            payment.setSenderName(rs.getString("sender_name"));
-            payment.setRecipientName(rs.getString("recipient_name"));
-        } catch (SQLException e) {
-            // Ігноруємо, якщо поля не існують у запиті
+            return write.getAsBoolean();
+        } finally {
+            gate.unlock();
         }
+    }
 
-        return payment;
+    /**
+     * Платіж з рядка ResultSet за індексами колонок
+     * Імена відправника й одержувача є лише в запитах з PAYMENT_DETAILS_SELECT
+     */
+    private static final class PaymentMapper extends ColumnMapper<Payment> {
+        private static final int PAYMENT_ID = 0;
+        private static final int SENDER_ACCOUNT_ID = 1;
+        private static final int RECIPIENT_ACCOUNT_ID = 2;
+        private static final int CATEGORY_ID = 3;
+        private static final int STATUS_ID = 4;
+        private static final int AMOUNT = 5;
+        private static final int CURRENCY = 6;
+        private static final int DESCRIPTION = 7;
+        private static final int PAYMENT_DATE = 8;
+        private static final int COMPLETION_DATE = 9;
+        private static final int COMMISSION = 10;
+        private static final int REFERENCE_NUMBER = 11;
+        private static final int SENDER_NAME = 12;
+        private static final int RECIPIENT_NAME = 13;
+
+        private final ReferenceDataCache referenceData;
+
+        PaymentMapper(ReferenceDataCache referenceData) {
+            super(new String[]{"payment_id", "sender_account_id", "recipient_account_id", "category_id",
+                            "status_id", "amount", "currency", "description", "payment_date",
+                            "completion_date", "commission", "reference_number"},
+                    "sender_name", "recipient_name");
+            this.referenceData = referenceData;
+        }
+
+        @Override
+        Payment map(ResultSet rs, int[] columns) throws SQLException {
+            Payment payment = new Payment();
+            payment.setPaymentId(rs.getInt(columns[PAYMENT_ID]));
+            payment.setSenderAccountId(rs.getInt(columns[SENDER_ACCOUNT_ID]));
+
+            int recipientId = rs.getInt(columns[RECIPIENT_ACCOUNT_ID]);
+            payment.setRecipientAccountId(rs.wasNull() ? null : recipientId);
+
+            payment.setCategoryId(rs.getInt(columns[CATEGORY_ID]));
+            payment.setStatusId(rs.getInt(columns[STATUS_ID]));
+            payment.setAmount(rs.getBigDecimal(columns[AMOUNT]));
+            payment.setCurrency(rs.getString(columns[CURRENCY]));
+            payment.setDescription(rs.getString(columns[DESCRIPTION]));
+            payment.setPaymentDate(rs.getTimestamp(columns[PAYMENT_DATE]));
+            payment.setCompletionDate(rs.getTimestamp(columns[COMPLETION_DATE]));
+            payment.setCommission(rs.getBigDecimal(columns[COMMISSION]));
+            payment.setReferenceNumber(rs.getString(columns[REFERENCE_NUMBER]));
+
+            // Додаткові поля
+            payment.setCategoryName(referenceData.getCategoryName(payment.getCategoryId()));
+            payment.setStatusName(referenceData.getStatusName(payment.getStatusId()));
+
+            if (columns[SENDER_NAME] != ABSENT) {
+                payment.setSenderName(rs.getString(columns[SENDER_NAME]));
+            }
+            if (columns[RECIPIENT_NAME] != ABSENT) {
+                payment.setRecipientName(rs.getString(columns[RECIPIENT_NAME]));
+            }
+            return payment;
+        }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,358 @@
+package dao;
+
+import model.Payment;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Асинхронний прийом платежів з груповим commit-ом
+ * Викликачі кладуть платежі в обмежену чергу й одразу отримують
+ * CompletableFuture з ID платежу. Потоки-записувачі забирають платежі
+ * пакетами (до batchSize штук або поки не мине maxDelay від першого платежу
+ * пакета) і зберігають кожен пакет однією транзакцією через
+ * PaymentDAO.createPayments - один commit на пакет замість одного на платіж.
+ *
+ * Черга - ConcurrentLinkedQueue без блокувань; місткість і кількість
+ * готових елементів рахують два семафори. Коли черга повна, submit()
+ * чекає на вільне місце (зворотний тиск), offer() - лише заданий час.
+ */
+public class PaymentIngestionQueue implements AutoCloseable {
+
+    // Як часто записувач без роботи перевіряє, чи черга не закривається
+    private static final long IDLE_POLL_MILLIS = 100;
+
+    private final PaymentDAO delegate;
+    private final int batchSize;
+    private final long maxDelayNanos;
+    private final int capacity;
+
+    private final Queue<Entry> queue = new ConcurrentLinkedQueue<>();
+    private final Semaphore freeSlots;
+    private final Semaphore readyEntries = new Semaphore(0);
+    private final Thread[] writers;
+
+    private volatile boolean closed;
+    // Викликачі, що вже пройшли перевірку closed, але ще не поклали платіж у чергу
+    private final AtomicInteger submitting = new AtomicInteger();
+
+    private final LongAdder submitted = new LongAdder();
+    private final LongAdder committed = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+    private final LongAdder batches = new LongAdder();
+    private final LongAdder fallbackBatches = new LongAdder();
+    private final LongAdder backpressureWaits = new LongAdder();
+    private final LongAccumulator maxBatchSize = new LongAccumulator(Math::max, 0);
+    private final LongAccumulator maxDepth = new LongAccumulator(Math::max, 0);
+
+    /**
+     * @param delegate - DAO, яким зберігаються пакети
+     * @param capacity - максимальна кількість платежів у черзі
+     * @param batchSize - максимальний розмір пакета (одна транзакція)
+     * @param maxDelayMillis - скільки пакет може добирати платежі після першого
+     * @param writerThreads - кількість потоків-записувачів (кожен займає одне підключення)
+     */
+    public PaymentIngestionQueue(PaymentDAO delegate, int capacity, int batchSize,
+                                 long maxDelayMillis, int writerThreads) {
+        if (capacity <= 0 || batchSize <= 0 || maxDelayMillis < 0 || writerThreads <= 0) {
+            throw new IllegalArgumentException("Некоректні параметри черги: capacity=" + capacity +
+                    ", batchSize=" + batchSize + ", maxDelayMillis=" + maxDelayMillis +
+                    ", writerThreads=" + writerThreads);
+        }
+        this.delegate = delegate;
+        this.capacity = capacity;
+        this.batchSize = batchSize;
+        this.maxDelayNanos = TimeUnit.MILLISECONDS.toNanos(maxDelayMillis);
+        this.freeSlots = new Semaphore(capacity);
+
+        this.writers = new Thread[writerThreads];
+        for (int i = 0; i < writerThreads; i++) {
+            writers[i] = new Thread(this::runWriter, "payment-ingestion-writer-" + i);
+            writers[i].setDaemon(true);
+            writers[i].start();
+        }
+    }
+
+    /**
+     * Поставити платіж у чергу; якщо черга повна - чекати на вільне місце
+     * @param payment - новий платіж; ID і референс записуються в нього після commit
+     * @return ID збереженого платежу або помилка, якщо платіж не збережено
+     * @throws RejectedExecutionException якщо черга закрита
+     */
+    public CompletableFuture<Integer> submit(Payment payment) throws InterruptedException {
+        submitting.incrementAndGet();
+        try {
+            ensureOpen();
+            if (!freeSlots.tryAcquire()) {
+                backpressureWaits.increment();
+                freeSlots.acquire();
+            }
+            return enqueue(payment);
+        } finally {
+            submitting.decrementAndGet();
+        }
+    }
+
+    /**
+     * Поставити платіж у чергу, чекаючи на вільне місце не довше timeout
+     * @return ID збереженого платежу; якщо місце не звільнилось - помилка RejectedExecutionException
+     */
+    public CompletableFuture<Integer> offer(Payment payment, long timeout, TimeUnit unit) throws InterruptedException {
+        submitting.incrementAndGet();
+        try {
+            ensureOpen();
+            if (!freeSlots.tryAcquire()) {
+                backpressureWaits.increment();
+                if (!freeSlots.tryAcquire(timeout, unit)) {
+                    return CompletableFuture.failedFuture(
+                            new RejectedExecutionException("Черга платежів заповнена (" + capacity + ")"));
+                }
+            }
+            return enqueue(payment);
+        } finally {
+            submitting.decrementAndGet();
+        }
+    }
+
+    private void ensureOpen() {
+        if (closed) {
+            throw new RejectedExecutionException("Черга платежів закрита");
+        }
+    }
+
+    private CompletableFuture<Integer> enqueue(Payment payment) {
+        Entry entry = new Entry(payment);
+        queue.offer(entry);
+        readyEntries.release();
+        submitted.increment();
+        maxDepth.accumulate(capacity - freeSlots.availablePermits());
+        return entry.future;
+    }
+
+    private void runWriter() {
+        List<Entry> batch = new ArrayList<>(batchSize);
+        while (true) {
+            try {
+                if (!readyEntries.tryAcquire(IDLE_POLL_MILLIS, TimeUnit.MILLISECONDS)) {
+                    if (closed && submitting.get() == 0 && readyEntries.availablePermits() == 0) {
+                        return;
+                    }
+                    continue;
+                }
+                batch.add(queue.poll());
+
+                long deadline = System.nanoTime() + maxDelayNanos;
+                while (batch.size() < batchSize) {
+                    long remaining = deadline - System.nanoTime();
+                    boolean acquired = remaining > 0
+                            ? readyEntries.tryAcquire(remaining, TimeUnit.NANOSECONDS)
+                            : readyEntries.tryAcquire();
+                    if (!acquired) {
+                        break;
+                    }
+                    batch.add(queue.poll());
+                }
+            } catch (InterruptedException e) {
+                // Записувачами керує лише close(); переривання лише прискорює запис зібраного пакета
+            }
+
+            if (!batch.isEmpty()) {
+                freeSlots.release(batch.size());
+                flush(batch);
+                batch.clear();
+            }
+        }
+    }
+
+    /**
+     * Зберегти пакет однією транзакцією; якщо пакет не пройшов - кожен платіж
+     * окремо, щоб помилку отримали лише проблемні платежі
+     */
+    private void flush(List<Entry> batch) {
+        List<Payment> payments = new ArrayList<>(batch.size());
+        for (Entry entry : batch) {
+            payments.add(entry.payment);
+        }
+
+        int saved;
+        try {
+            saved = delegate.createPayments(payments, payments.size());
+        } catch (RuntimeException e) {
+            saved = 0;
+        }
+        batches.increment();
+        maxBatchSize.accumulate(batch.size());
+
+        if (saved == batch.size()) {
+            for (Entry entry : batch) {
+                complete(entry);
+            }
+            return;
+        }
+
+        fallbackBatches.increment();
+        for (Entry entry : batch) {
+            boolean created;
+            try {
+                created = delegate.createPayment(entry.payment);
+            } catch (RuntimeException e) {
+                failed.increment();
+                entry.future.completeExceptionally(e);
+                continue;
+            }
+            if (created) {
+                complete(entry);
+            } else {
+                failed.increment();
+                entry.future.completeExceptionally(new IllegalStateException("Платіж не збережено"));
+            }
+        }
+    }
+
+    private void complete(Entry entry) {
+        committed.increment();
+        entry.future.complete(entry.payment.getPaymentId());
+    }
+
+    /**
+     * Кількість платежів, що чекають на запис
+     */
+    public int getDepth() {
+        return capacity - freeSlots.availablePermits();
+    }
+
+    /**
+     * Поточні показники черги
+     */
+    public Stats getStats() {
+        return new Stats(getDepth(), capacity, maxDepth.get(), submitted.sum(), committed.sum(),
+                failed.sum(), batches.sum(), fallbackBatches.sum(), maxBatchSize.get(),
+                backpressureWaits.sum());
+    }
+
+    /**
+     * Припинити прийом платежів, дописати все, що вже в черзі, і зупинити записувачів
+     */
+    @Override
+    public void close() {
+        closed = true;
+        boolean interrupted = false;
+        for (Thread writer : writers) {
+            while (writer.isAlive()) {
+                try {
+                    writer.join();
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                }
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+        DAOLog.info(() -> "✅ Чергу платежів закрито: " + getStats());
+    }
+
+    private static final class Entry {
+        final Payment payment;
+        final CompletableFuture<Integer> future = new CompletableFuture<>();
+
+        Entry(Payment payment) {
+            this.payment = payment;
+        }
+    }
+
+    /**
+     * Знімок показників черги
+     */
+    public static final class Stats {
+        private final int depth;
+        private final int capacity;
+        private final long maxDepth;
+        private final long submitted;
+        private final long committed;
+        private final long failed;
+        private final long batches;
+        private final long fallbackBatches;
+        private final long maxBatchSize;
+        private final long backpressureWaits;
+
+        Stats(int depth, int capacity, long maxDepth, long submitted, long committed, long failed,
+              long batches, long fallbackBatches, long maxBatchSize, long backpressureWaits) {
+            this.depth = depth;
+            this.capacity = capacity;
+            this.maxDepth = maxDepth;
+            this.submitted = submitted;
+            this.committed = committed;
+            this.failed = failed;
+            this.batches = batches;
+            this.fallbackBatches = fallbackBatches;
+            this.maxBatchSize = maxBatchSize;
+            this.backpressureWaits = backpressureWaits;
+        }
+
+        public int getDepth() {
+            return depth;
+        }
+
+        public int getCapacity() {
+            return capacity;
+        }
+
+        public long getMaxDepth() {
+            return maxDepth;
+        }
+
+        public long getSubmitted() {
+            return submitted;
+        }
+
+        public long getCommitted() {
+            return committed;
+        }
+
+        public long getFailed() {
+            return failed;
+        }
+
+        public long getBatches() {
+            return batches;
+        }
+
+        public long getFallbackBatches() {
+            return fallbackBatches;
+        }
+
+        public long getMaxBatchSize() {
+            return maxBatchSize;
+        }
+
+        public long getBackpressureWaits() {
+            return backpressureWaits;
+        }
+
+        /**
+         * Середній розмір пакета (платежів на commit)
+         */
+        public double getAverageBatchSize() {
+            return batches == 0 ? 0 : (double) (committed + failed) / batches;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("Ingestion{у черзі=%d/%d, макс.=%d, прийнято=%d, збережено=%d, " +
+                            "помилок=%d, пакетів=%d (поодинці=%d), сер. пакет=%.1f, макс. пакет=%d, " +
+                            "очікувань місця=%d}",
+                    depth, capacity, maxDepth, submitted, committed, failed, batches, fallbackBatches,
+                    getAverageBatchSize(), maxBatchSize, backpressureWaits);
+        }
+    }
+}
@@ -0,0 +1,43 @@
+package dao;
+
+import model.Payment;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Сторінка платежів для посторінкового перегляду
+ * Наступна сторінка запитується з токеном getNextPageToken()
+ */
+public class PaymentPage {
+
+    private final List<Payment> payments;
+    private final String nextPageToken;
+
+    public PaymentPage(List<Payment> payments, String nextPageToken) {
+        this.payments = Collections.unmodifiableList(payments);
+        this.nextPageToken = nextPageToken;
+    }
+
+    public List<Payment> getPayments() {
+        return payments;
+    }
+
+    /**
+     * Токен продовження для наступної сторінки
+     * @return токен або null, якщо це остання сторінка
+     */
+    public String getNextPageToken() {
+        return nextPageToken;
+    }
+
+    public boolean hasNextPage() {
+        return nextPageToken != null;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("PaymentPage{платежів=%d, є наступна=%s}",
+                payments.size(), hasNextPage() ? "Так" : "Ні");
+    }
+}
@@ -0,0 +1,178 @@
+package dao;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Накопичені суми виконаних платежів (таблиці account_payment_totals і user_payment_totals)
+ * Екземпляр збирає зміни однієї транзакції, apply() записує їх тим самим
+ * підключенням - до commit, тож суми завжди узгоджені з таблицею payments.
+ * Рядки оновлюються в порядку зростання ID (спершу рахунки, потім користувачі),
+ * щоб паралельні транзакції не блокували одна одну навхрест.
+ */
+final class PaymentTotals {
+
+    private static final String UPSERT_ACCOUNT_SQL = "INSERT INTO account_payment_totals " +
+            "(account_id, completed_total, completed_count) VALUES (?, ?, ?) " +
+            "ON DUPLICATE KEY UPDATE completed_total = completed_total + VALUES(completed_total), " +
+            "completed_count = completed_count + VALUES(completed_count)";
+
+    private static final String UPSERT_USER_SQL = "INSERT INTO user_payment_totals " +
+            "(user_id, completed_total, completed_count) VALUES (?, ?, ?) " +
+            "ON DUPLICATE KEY UPDATE completed_total = completed_total + VALUES(completed_total), " +
+            "completed_count = completed_count + VALUES(completed_count)";
+
+    private static final String ACCOUNT_OWNER_SQL = "SELECT user_id FROM accounts WHERE account_id = ?";
+
+    private static final String EXPECTED_ACCOUNT_TOTALS_SQL = "SELECT sender_account_id AS id, " +
+            "SUM(amount) AS total, COUNT(*) AS cnt FROM payments WHERE status_id = 3 " +
+            "GROUP BY sender_account_id";
+
+    private static final String EXPECTED_USER_TOTALS_SQL = "SELECT a.user_id AS id, " +
+            "SUM(p.amount) AS total, COUNT(*) AS cnt FROM payments p " +
+            "JOIN accounts a ON p.sender_account_id = a.account_id " +
+            "WHERE p.status_id = 3 GROUP BY a.user_id";
+
+    private final TreeMap<Integer, Delta> accounts = new TreeMap<>();
+
+    /**
+     * Врахувати зміну суми виконаних платежів рахунку відправника
+     * @param accountId - рахунок відправника
+     * @param amount - сума (від'ємна, якщо платіж перестав бути виконаним)
+     * @param count - +1 або -1
+     */
+    void add(int accountId, BigDecimal amount, int count) {
+        accounts.computeIfAbsent(accountId, id -> new Delta()).add(amount, count);
+    }
+
+    boolean isEmpty() {
+        return accounts.isEmpty();
+    }
+
+    /**
+     * Записати накопичені зміни в поточній транзакції
+     */
+    void apply(Connection connection) throws SQLException {
+        if (accounts.isEmpty()) {
+            return;
+        }
+        TreeMap<Integer, Delta> users = new TreeMap<>();
+
+        try (PreparedStatement owner = connection.prepareStatement(ACCOUNT_OWNER_SQL);
+             PreparedStatement upsert = connection.prepareStatement(UPSERT_ACCOUNT_SQL)) {
+            for (Map.Entry<Integer, Delta> entry : accounts.entrySet()) {
+                Delta delta = entry.getValue();
+                owner.setInt(1, entry.getKey());
+                try (ResultSet rs = owner.executeQuery()) {
+                    if (rs.next()) {
+                        users.computeIfAbsent(rs.getInt("user_id"), id -> new Delta()).add(delta.amount, delta.count);
+                    }
+                }
+                upsert.setInt(1, entry.getKey());
+                upsert.setBigDecimal(2, delta.amount);
+                upsert.setInt(3, delta.count);
+                upsert.executeUpdate();
+            }
+        }
+
+        try (PreparedStatement upsert = connection.prepareStatement(UPSERT_USER_SQL)) {
+            for (Map.Entry<Integer, Delta> entry : users.entrySet()) {
+                upsert.setInt(1, entry.getKey());
+                upsert.setBigDecimal(2, entry.getValue().amount);
+                upsert.setInt(3, entry.getValue().count);
+                upsert.executeUpdate();
+            }
+        }
+        accounts.clear();
+    }
+
+    /**
+     * Перерахувати всі суми з таблиці payments (в поточній транзакції)
+     */
+    static void rebuild(Connection connection) throws SQLException {
+        try (Statement stmt = connection.createStatement()) {
+            stmt.executeUpdate("DELETE FROM account_payment_totals");
+            stmt.executeUpdate("DELETE FROM user_payment_totals");
+            stmt.executeUpdate("INSERT INTO account_payment_totals (account_id, completed_total, completed_count) " +
+                    EXPECTED_ACCOUNT_TOTALS_SQL);
+            stmt.executeUpdate("INSERT INTO user_payment_totals (user_id, completed_total, completed_count) " +
+                    EXPECTED_USER_TOTALS_SQL);
+        }
+    }
+
+    /**
+     * Порівняти збережені суми з перерахованими з таблиці payments
+     * @return опис кожної розбіжності; порожній список - суми узгоджені
+     */
+    static List<String> verify(Connection connection) throws SQLException {
+        List<String> mismatches = new ArrayList<>();
+        compare(connection, "Рахунок", EXPECTED_ACCOUNT_TOTALS_SQL,
+                "SELECT account_id AS id, completed_total AS total, completed_count AS cnt FROM account_payment_totals",
+                mismatches);
+        compare(connection, "Користувач", EXPECTED_USER_TOTALS_SQL,
+                "SELECT user_id AS id, completed_total AS total, completed_count AS cnt FROM user_payment_totals",
+                mismatches);
+        return mismatches;
+    }
+
+    private static void compare(Connection connection, String label, String expectedSql, String storedSql,
+                                List<String> mismatches) throws SQLException {
+        Map<Integer, Delta> expected = load(connection, expectedSql);
+        Map<Integer, Delta> stored = load(connection, storedSql);
+
+        for (Map.Entry<Integer, Delta> entry : expected.entrySet()) {
+            Delta actual = stored.remove(entry.getKey());
+            if (actual == null || !actual.matches(entry.getValue())) {
+                mismatches.add(label + " " + entry.getKey() + ": очікується " + entry.getValue() +
+                        ", збережено " + (actual != null ? actual : "нічого"));
+            }
+        }
+        // Залишились збережені суми без жодного виконаного платежу - мають бути нульовими
+        for (Map.Entry<Integer, Delta> entry : stored.entrySet()) {
+            if (!entry.getValue().matches(new Delta())) {
+                mismatches.add(label + " " + entry.getKey() + ": очікується 0.00 (0), збережено " + entry.getValue());
+            }
+        }
+    }
+
+    private static Map<Integer, Delta> load(Connection connection, String sql) throws SQLException {
+        Map<Integer, Delta> totals = new HashMap<>();
+        try (Statement stmt = connection.createStatement();
+             ResultSet rs = stmt.executeQuery(sql)) {
+            while (rs.next()) {
+                totals.put(rs.getInt("id"), new Delta().add(rs.getBigDecimal("total"), rs.getInt("cnt")));
+            }
+        }
+        return totals;
+    }
+
+    private static final class Delta {
+        BigDecimal amount = BigDecimal.ZERO;
+        int count;
+
+        Delta add(BigDecimal amount, int count) {
+            this.amount = this.amount.add(amount);
+            this.count += count;
+            return this;
+        }
+
+        boolean matches(Delta other) {
+            return amount.compareTo(other.amount) == 0 && count == other.count;
+        }
+
+        @Override
+        public String toString() {
+            return amount.setScale(2, RoundingMode.HALF_UP) + " (" + count + ")";
+        }
+    }
+}
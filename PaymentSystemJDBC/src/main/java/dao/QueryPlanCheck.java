@@ -0,0 +1,127 @@
+package dao;
+
+import util.ConnectionPool;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Перевірка планів виконання запитів DAO на старті
+ * Для кожного запиту з фільтром виконується EXPLAIN і виводиться попередження,
+ * якщо якусь таблицю буде прочитано повністю через відсутність придатного індексу.
+ * Розуміє EXPLAIN MySQL (type = ALL без possible_keys) і H2 (tableScan), на якій
+ * працюють бенчмарки. Якщо індекс є, але на майже порожній таблиці оптимізатор
+ * обрав повний перегляд, попередження немає - це не вада схеми.
+ * Запити без фільтра (getAllPayments, getActiveUsers) читають усе за визначенням
+ * і не перевіряються.
+ */
+public final class QueryPlanCheck {
+
+    private static final Pattern H2_TABLE_SCAN = Pattern.compile("/\\*\\s*([\\w.\"]+)\\.tableScan",
+            Pattern.CASE_INSENSITIVE);
+
+    private QueryPlanCheck() {
+    }
+
+    /**
+     * Виконати EXPLAIN для всіх запитів DAO з фільтром
+     * @param pool - пул підключень до БД
+     * @return попередження (порожній список - повних переглядів немає)
+     */
+    public static List<String> run(ConnectionPool pool) {
+        List<PlannedQuery> queries = new ArrayList<>();
+        queries.addAll(PaymentDAOImpl.plannedQueries());
+        queries.addAll(CategoryStatisticsCache.plannedQueries());
+        queries.addAll(UserDAOImpl.plannedQueries());
+
+        List<String> warnings = new ArrayList<>();
+        try (Connection connection = pool.getConnection()) {
+            for (PlannedQuery query : queries) {
+                try {
+                    for (String table : fullScans(connection, query)) {
+                        warnings.add(query.name + ": повний перегляд таблиці " + table);
+                    }
+                } catch (SQLException e) {
+                    warnings.add(query.name + ": EXPLAIN не вдався - " + e.getMessage());
+                }
+            }
+        } catch (SQLException e) {
+            DAOLog.error("Помилка при перевірці планів запитів", e);
+            return warnings;
+        }
+
+        for (String warning : warnings) {
+            DAOLog.warn(warning);
+        }
+        if (warnings.isEmpty()) {
+            DAOLog.info(() -> "✅ Плани " + queries.size() + " запитів перевірено: повних переглядів немає");
+        }
+        return warnings;
+    }
+
+    /**
+     * Таблиці, які запит прочитає повністю
+     */
+    private static List<String> fullScans(Connection connection, PlannedQuery query) throws SQLException {
+        List<String> tables = new ArrayList<>();
+        try (PreparedStatement stmt = connection.prepareStatement("EXPLAIN " + query.sql)) {
+            for (int i = 0; i < query.parameters.length; i++) {
+                stmt.setObject(i + 1, query.parameters[i]);
+            }
+            try (ResultSet rs = stmt.executeQuery()) {
+                int typeColumn = columnIndex(rs.getMetaData(), "type");
+                if (typeColumn > 0) {
+                    // MySQL: рядок на кожну таблицю запиту
+                    int tableColumn = columnIndex(rs.getMetaData(), "table");
+                    int keysColumn = columnIndex(rs.getMetaData(), "possible_keys");
+                    while (rs.next()) {
+                        if ("ALL".equalsIgnoreCase(rs.getString(typeColumn)) && rs.getString(keysColumn) == null) {
+                            tables.add(rs.getString(tableColumn));
+                        }
+                    }
+                } else {
+                    // H2: план одним текстом, повний перегляд позначено /* SCHEMA.TABLE.tableScan */
+                    while (rs.next()) {
+                        Matcher matcher = H2_TABLE_SCAN.matcher(rs.getString(1));
+                        while (matcher.find()) {
+                            String name = matcher.group(1).replace("\"", "");
+                            tables.add(name.substring(name.lastIndexOf('.') + 1));
+                        }
+                    }
+                }
+            }
+        }
+        return tables;
+    }
+
+    private static int columnIndex(ResultSetMetaData metaData, String label) throws SQLException {
+        for (int i = 1; i <= metaData.getColumnCount(); i++) {
+            if (label.equalsIgnoreCase(metaData.getColumnLabel(i))) {
+                return i;
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * Запит DAO зі зразковими параметрами для EXPLAIN
+     */
+    static final class PlannedQuery {
+        final String name;
+        final String sql;
+        final Object[] parameters;
+
+        PlannedQuery(String name, String sql, Object... parameters) {
+            this.name = name;
+            this.sql = sql;
+            this.parameters = parameters;
+        }
+    }
+}
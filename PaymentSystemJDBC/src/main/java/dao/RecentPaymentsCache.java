@@ -0,0 +1,453 @@
+package dao;
+
+import model.Payment;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Останні платежі активних рахунків у пам'яті
+ * Для кожного рахунку (як відправника) тримається кільцевий буфер з
+ * останніх capacity платежів, від нових до старих. Буфер завантажується
+ * при першому зверненні до першої сторінки і далі доповнюється подіями
+ * PaymentChangeListener, тож перегляд свіжої історії не звертається до БД;
+ * до SQL ідуть лише сторінки, старші за буфер.
+ *
+ * Пам'ять обмежена: не більше maxAccounts рахунків (витіснення CLOCK через
+ * ClockCache, як у CachingUserDAO) по capacity платежів. Буфер живе ttl - після цього
+ * перечитується з БД, що підхоплює зміни, зроблені в обхід DAO.
+ */
+public class RecentPaymentsCache implements PaymentChangeListener {
+
+    // Смуги лічильників записів (за ID рахунку)
+    private static final int EPOCH_STRIPES = 64;
+
+    /**
+     * Завантаження останніх платежів рахунку, від нових до старих
+     */
+    interface Loader {
+        /**
+         * @param accountId - рахунок відправника
+         * @param limit - скільки платежів завантажити
+         * @return сторінка; nextPageToken == null означає, що це вся історія рахунку
+         */
+        PaymentPage load(int accountId, int limit) throws SQLException;
+    }
+
+    private final Loader loader;
+    private final ReferenceDataCache referenceData;
+    private final int capacity;
+
+    // Буфери за ID рахунку з витісненням CLOCK
+    private final ClockCache<Integer, History> histories;
+    // Збільшується при кожній зміні рахунку: завантаження, що перетнулось із записом, не кешується
+    private final AtomicLongArray writeEpochs = new AtomicLongArray(EPOCH_STRIPES);
+
+    // Метрики
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder olderPages = new LongAdder();
+    private final LongAdder loads = new LongAdder();
+
+    /**
+     * @param loader - завантаження останніх платежів рахунку з БД
+     * @param referenceData - назви категорій і статусів для платежів з подій
+     * @param maxAccounts - максимальна кількість рахунків у пам'яті
+     * @param capacity - кількість останніх платежів на рахунок
+     * @param ttlMillis - час життя буфера рахунку
+     */
+    RecentPaymentsCache(Loader loader, ReferenceDataCache referenceData,
+                        int maxAccounts, int capacity, long ttlMillis) {
+        if (maxAccounts <= 0 || capacity <= 0) {
+            throw new IllegalArgumentException("Розміри кешу мають бути додатними: " +
+                    maxAccounts + " x " + capacity);
+        }
+        this.loader = loader;
+        this.referenceData = referenceData;
+        this.capacity = capacity;
+        this.histories = new ClockCache<>(maxAccounts, ttlMillis, null);
+    }
+
+    /**
+     * Сторінка платежів рахунку з пам'яті
+     * Першу сторінку рахунку, якого ще немає в кеші, завантажено буде разом
+     * з усім буфером (один запит на capacity рядків).
+     * @param after - ключ останнього рядка попередньої сторінки або null
+     * @return сторінка або null, якщо її треба читати з БД
+     */
+    PaymentPage page(int accountId, int pageSize, PageToken after) throws SQLException {
+        if (pageSize > capacity) {
+            misses.increment();
+            return null;
+        }
+        History history = lookup(accountId);
+        if (history == null) {
+            misses.increment();
+            if (after != null) {
+                return null;
+            }
+            history = load(accountId);
+            return history.page(null, pageSize);
+        }
+        PaymentPage page = history.page(after, pageSize);
+        if (page != null) {
+            hits.increment();
+        } else {
+            olderPages.increment();
+        }
+        return page;
+    }
+
+    /**
+     * Уся історія рахунку з пам'яті
+     * @return платежі від нових до старих або null, якщо буфер не вміщує всієї історії
+     */
+    List<Payment> getAll(int accountId) {
+        History history = lookup(accountId);
+        List<Payment> payments = history != null ? history.all() : null;
+        if (payments != null) {
+            hits.increment();
+        } else {
+            misses.increment();
+        }
+        return payments;
+    }
+
+    /**
+     * Поточне значення лічильника записів рахунку (брати до читання з БД)
+     */
+    long epoch(int accountId) {
+        return writeEpochs.get(stripe(accountId));
+    }
+
+    /**
+     * Запам'ятати платежі рахунку, прочитані з БД
+     * @param newestFirst - платежі від нових до старих, починаючи з найновішого
+     * @param complete - це вся історія рахунку
+     * @param epoch - значення epoch(accountId) до читання
+     */
+    void remember(int accountId, List<Payment> newestFirst, boolean complete, long epoch) {
+        int count = Math.min(newestFirst.size(), capacity);
+        List<Payment> copies = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            copies.add(copy(newestFirst.get(i)));
+        }
+        // Сторінки буфера йдуть за ключем (payment_date DESC, payment_id DESC); дати
+        // платежів однієї пачки збігаються, тож порядок рівних дат задаємо явно
+        copies.sort((a, b) -> newer(a, b) ? -1 : newer(b, a) ? 1 : 0);
+        store(accountId, new History(copies, complete && count == newestFirst.size()), epoch);
+    }
+
+    @Override
+    public void paymentCreated(Payment payment) {
+        int accountId = payment.getSenderAccountId();
+        writeEpochs.incrementAndGet(stripe(accountId));
+        History history = histories.peek(accountId);
+        if (history == null) {
+            return;
+        }
+        if (payment.getPaymentDate() == null || !history.add(snapshot(payment))) {
+            // Дата невідома або старша за найновіший платіж - простіше перечитати буфер
+            histories.remove(accountId, history);
+        }
+    }
+
+    @Override
+    public void paymentStatusChanged(Payment payment, int oldStatusId) {
+        int accountId = payment.getSenderAccountId();
+        writeEpochs.incrementAndGet(stripe(accountId));
+        History history = histories.peek(accountId);
+        if (history != null) {
+            history.changeStatus(payment.getPaymentId(), payment.getStatusId(),
+                    referenceData.getStatusName(payment.getStatusId()));
+        }
+    }
+
+    /**
+     * Скинути буфер рахунку (після змін в обхід DAO)
+     */
+    public void invalidate(int accountId) {
+        writeEpochs.incrementAndGet(stripe(accountId));
+        histories.remove(accountId);
+    }
+
+    /**
+     * Скинути всі буфери
+     */
+    public void clear() {
+        for (int i = 0; i < EPOCH_STRIPES; i++) {
+            writeEpochs.incrementAndGet(i);
+        }
+        histories.clear();
+    }
+
+    /**
+     * Отримати метрики кешу
+     * @return знімок метрик
+     */
+    public Stats getStats() {
+        long payments = 0;
+        for (History history : histories.values()) {
+            payments += history.size();
+        }
+        return new Stats(histories.size(), histories.maxSize(), payments, capacity, hits.sum(), misses.sum(),
+                olderPages.sum(), loads.sum(), histories.evictions(), histories.expirations());
+    }
+
+    /**
+     * Скільки буферів кеш тримає в пам'яті (не більше maxAccounts за будь-якої
+     * кількості скидань і перезавантажень)
+     */
+    int retainedAccounts() {
+        return histories.retained();
+    }
+
+    private History lookup(int accountId) {
+        return histories.get(accountId);
+    }
+
+    private History load(int accountId) throws SQLException {
+        long epoch = epoch(accountId);
+        PaymentPage loaded = loader.load(accountId, capacity);
+        loads.increment();
+        History history = new History(loaded.getPayments(), loaded.getNextPageToken() == null);
+        store(accountId, history, epoch);
+        // Навіть якщо не збережено - це узгоджений знімок, з нього можна віддати сторінку
+        return history;
+    }
+
+    private void store(int accountId, History history, long epoch) {
+        histories.put(accountId, history);
+        // Якщо під час завантаження рахунок змінився - дані могли застаріти
+        if (writeEpochs.get(stripe(accountId)) != epoch) {
+            histories.remove(accountId, history);
+        }
+    }
+
+    private static int stripe(int accountId) {
+        return accountId & (EPOCH_STRIPES - 1);
+    }
+
+    /**
+     * Копія платежу з події для буфера (викликач може змінювати свій об'єкт)
+     */
+    private Payment snapshot(Payment payment) {
+        Payment copy = copy(payment);
+        copy.setCategoryName(referenceData.getCategoryName(payment.getCategoryId()));
+        copy.setStatusName(referenceData.getStatusName(payment.getStatusId()));
+        return copy;
+    }
+
+    /**
+     * Кеш віддає копії, щоб зміни об'єкта викликачем не псували буфер
+     */
+    private static Payment copy(Payment payment) {
+        Payment copy = new Payment(payment.getPaymentId(), payment.getSenderAccountId(),
+                payment.getRecipientAccountId(), payment.getCategoryId(), payment.getStatusId(),
+                payment.getAmount(), payment.getCurrency(), payment.getDescription(),
+                payment.getPaymentDate(), payment.getCompletionDate(), payment.getCommission(),
+                payment.getReferenceNumber());
+        copy.setCategoryName(payment.getCategoryName());
+        copy.setStatusName(payment.getStatusName());
+        copy.setSenderName(payment.getSenderName());
+        copy.setRecipientName(payment.getRecipientName());
+        return copy;
+    }
+
+    /**
+     * Платіж a новіший за b у порядку сторінок (payment_date DESC, payment_id DESC)
+     */
+    private static boolean newer(Payment a, Payment b) {
+        int byDate = a.getPaymentDate().compareTo(b.getPaymentDate());
+        return byDate > 0 || (byDate == 0 && a.getPaymentId() > b.getPaymentId());
+    }
+
+    /**
+     * Кільцевий буфер останніх платежів рахунку; стан захищено this
+     */
+    private final class History {
+        private final Payment[] ring = new Payment[capacity];
+        private int newest = -1;
+        private int size;
+        // Буфер містить усю історію рахунку
+        private boolean complete;
+
+        History(List<Payment> newestFirst, boolean complete) {
+            for (int i = newestFirst.size() - 1; i >= 0; i--) {
+                append(newestFirst.get(i));
+            }
+            this.complete = complete;
+        }
+
+        // i-й платіж від найновішого
+        private Payment at(int i) {
+            return ring[Math.floorMod(newest - i, capacity)];
+        }
+
+        private void append(Payment payment) {
+            newest = (newest + 1) % capacity;
+            if (size == capacity) {
+                complete = false;   // Найстаріший платіж витіснено
+            } else {
+                size++;
+            }
+            ring[newest] = payment;
+        }
+
+        synchronized int size() {
+            return size;
+        }
+
+        /**
+         * Додати новий платіж
+         * @return false, якщо платіж старший за найновіший у буфері
+         */
+        synchronized boolean add(Payment payment) {
+            if (size > 0 && !newer(payment, at(0))) {
+                return false;
+            }
+            append(payment);
+            return true;
+        }
+
+        synchronized void changeStatus(int paymentId, int statusId, String statusName) {
+            for (int i = 0; i < size; i++) {
+                Payment payment = at(i);
+                if (payment.getPaymentId() == paymentId) {
+                    Payment changed = copy(payment);
+                    changed.setStatusId(statusId);
+                    changed.setStatusName(statusName);
+                    ring[Math.floorMod(newest - i, capacity)] = changed;
+                    return;
+                }
+            }
+        }
+
+        synchronized List<Payment> all() {
+            if (!complete) {
+                return null;
+            }
+            List<Payment> payments = new ArrayList<>(size);
+            for (int i = 0; i < size; i++) {
+                payments.add(copy(at(i)));
+            }
+            return payments;
+        }
+
+        /**
+         * Сторінка після ключа або null, якщо буфер її не вміщує
+         */
+        synchronized PaymentPage page(PageToken after, int pageSize) {
+            int i = 0;
+            if (after != null) {
+                while (i < size && !olderThan(at(i), after)) {
+                    i++;
+                }
+            }
+            List<Payment> payments = new ArrayList<>(pageSize + 1);
+            while (i < size && payments.size() <= pageSize) {
+                payments.add(copy(at(i++)));
+            }
+            if (payments.size() <= pageSize && !complete) {
+                return null;
+            }
+            String nextPageToken = null;
+            if (payments.size() > pageSize) {
+                payments.remove(pageSize);
+                Payment last = payments.get(pageSize - 1);
+                nextPageToken = PageToken.encode(last.getPaymentDate(), last.getPaymentId());
+            }
+            return new PaymentPage(payments, nextPageToken);
+        }
+
+        private boolean olderThan(Payment payment, PageToken after) {
+            int byDate = payment.getPaymentDate().compareTo(after.paymentDate);
+            return byDate < 0 || (byDate == 0 && payment.getPaymentId() < after.paymentId);
+        }
+    }
+
+    /**
+     * Знімок метрик кешу
+     */
+    public static final class Stats {
+        private final int accounts;
+        private final int maxAccounts;
+        private final long payments;
+        private final int capacity;
+        private final long hits;
+        private final long misses;
+        private final long olderPages;
+        private final long loads;
+        private final long evictions;
+        private final long expirations;
+
+        Stats(int accounts, int maxAccounts, long payments, int capacity, long hits, long misses,
+              long olderPages, long loads, long evictions, long expirations) {
+            this.accounts = accounts;
+            this.maxAccounts = maxAccounts;
+            this.payments = payments;
+            this.capacity = capacity;
+            this.hits = hits;
+            this.misses = misses;
+            this.olderPages = olderPages;
+            this.loads = loads;
+            this.evictions = evictions;
+            this.expirations = expirations;
+        }
+
+        public int getAccounts() {
+            return accounts;
+        }
+
+        public long getPayments() {
+            return payments;
+        }
+
+        public long getHits() {
+            return hits;
+        }
+
+        public long getMisses() {
+            return misses;
+        }
+
+        /**
+         * Сторінки старші за буфер, прочитані з БД
+         */
+        public long getOlderPages() {
+            return olderPages;
+        }
+
+        public long getLoads() {
+            return loads;
+        }
+
+        public long getEvictions() {
+            return evictions;
+        }
+
+        public long getExpirations() {
+            return expirations;
+        }
+
+        /**
+         * Частка читань, обслужених з пам'яті (сторінки, старші за буфер, - теж промах)
+         */
+        public double getHitRatio() {
+            long total = hits + misses + olderPages;
+            return total == 0 ? 0 : (double) hits / total;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("RecentPayments{рахунків=%d/%d, платежів=%d (до %d на рахунок), " +
+                            "влучань=%d (%.1f%%), промахів=%d, старших сторінок=%d, завантажень=%d, " +
+                            "витіснено=%d, прострочено=%d}",
+                    accounts, maxAccounts, payments, capacity, hits, getHitRatio() * 100, misses,
+                    olderPages, loads, evictions, expirations);
+        }
+    }
+}
@@ -0,0 +1,223 @@
+package dao;
+
+import util.ConnectionPool;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Кеш довідників payment_categories та payment_statuses
+ * Довідники майже не змінюються, тому завантажуються один раз при старті,
+ * періодично перечитуються і можуть бути скинуті вручну через invalidate().
+ * Завдяки цьому запити платежів не JOIN-ять ці таблиці лише заради назв.
+ */
+public class ReferenceDataCache implements AutoCloseable {
+
+    // Невідомий ID перечитує довідники не частіше, ніж раз на цей інтервал
+    private static final long MISS_RELOAD_INTERVAL_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+    private final ConnectionPool pool;
+    private final ScheduledExecutorService refresher;
+    private volatile Snapshot snapshot = Snapshot.EMPTY;
+
+    /**
+     * Створити кеш і одразу завантажити довідники
+     * @param pool - пул підключень
+     * @param refreshIntervalMillis - період автоматичного оновлення (0 - без оновлення)
+     */
+    public ReferenceDataCache(ConnectionPool pool, long refreshIntervalMillis) {
+        this.pool = pool;
+        reload();
+
+        if (refreshIntervalMillis > 0) {
+            this.refresher = Executors.newSingleThreadScheduledExecutor(r -> {
+                Thread thread = new Thread(r, "reference-data-refresher");
+                thread.setDaemon(true);
+                return thread;
+            });
+            refresher.scheduleAtFixedRate(this::reload, refreshIntervalMillis,
+                    refreshIntervalMillis, TimeUnit.MILLISECONDS);
+        } else {
+            this.refresher = null;
+        }
+    }
+
+    /**
+     * Отримати назву категорії
+     * @param categoryId - ID категорії
+     * @return назва або null, якщо такої категорії немає
+     */
+    public String getCategoryName(int categoryId) {
+        String name = snapshot.categories.get(categoryId);
+        if (name == null && reloadOnMiss()) {
+            name = snapshot.categories.get(categoryId);
+        }
+        return name;
+    }
+
+    /**
+     * Отримати назву статусу
+     * @param statusId - ID статусу
+     * @return назва або null, якщо такого статусу немає
+     */
+    public String getStatusName(int statusId) {
+        String name = snapshot.statuses.get(statusId);
+        if (name == null && reloadOnMiss()) {
+            name = snapshot.statuses.get(statusId);
+        }
+        return name;
+    }
+
+    /**
+     * ID усіх відомих категорій у порядку зростання
+     */
+    public int[] getCategoryIds() {
+        return snapshot.categories.ids.clone();
+    }
+
+    /**
+     * ID усіх відомих статусів у порядку зростання
+     */
+    public int[] getStatusIds() {
+        return snapshot.statuses.ids.clone();
+    }
+
+    /**
+     * Скинути кеш і одразу перечитати довідники (після зміни таблиць)
+     */
+    public void invalidate() {
+        reload();
+    }
+
+    /**
+     * Невідомий ID може означати, що довідник доповнили після останнього оновлення
+     */
+    private boolean reloadOnMiss() {
+        if (System.nanoTime() - snapshot.loadedAt < MISS_RELOAD_INTERVAL_NANOS) {
+            return false;
+        }
+        return reload();
+    }
+
+    /**
+     * Перечитати обидва довідники і атомарно підмінити знімок
+     * @return true якщо завантаження вдалося
+     */
+    private synchronized boolean reload() {
+        try (Connection connection = pool.getConnection();
+             Statement stmt = connection.createStatement()) {
+            NameTable categories = loadTable(stmt,
+                    "SELECT category_id, category_name FROM payment_categories");
+            NameTable statuses = loadTable(stmt,
+                    "SELECT status_id, status_name FROM payment_statuses");
+            snapshot = new Snapshot(categories, statuses, System.nanoTime());
+            return true;
+        } catch (SQLException e) {
+            DAOLog.warn("Помилка при завантаженні довідників: " + e.getMessage());
+            // Не повторюємо невдале завантаження на кожному промаху
+            Snapshot current = snapshot;
+            snapshot = new Snapshot(current.categories, current.statuses, System.nanoTime());
+            return false;
+        }
+    }
+
+    private static NameTable loadTable(Statement stmt, String sql) throws SQLException {
+        List<Integer> ids = new ArrayList<>();
+        List<String> names = new ArrayList<>();
+        try (ResultSet rs = stmt.executeQuery(sql)) {
+            while (rs.next()) {
+                ids.add(rs.getInt(1));
+                names.add(rs.getString(2));
+            }
+        }
+        return NameTable.of(ids, names);
+    }
+
+    /**
+     * Зупинити періодичне оновлення
+     */
+    @Override
+    public void close() {
+        if (refresher != null) {
+            refresher.shutdownNow();
+        }
+    }
+
+    private static final class Snapshot {
+        static final Snapshot EMPTY = new Snapshot(NameTable.EMPTY, NameTable.EMPTY, Long.MIN_VALUE / 2);
+
+        final NameTable categories;
+        final NameTable statuses;
+        final long loadedAt;
+
+        Snapshot(NameTable categories, NameTable statuses, long loadedAt) {
+            this.categories = categories;
+            this.statuses = statuses;
+            this.loadedAt = loadedAt;
+        }
+    }
+
+    /**
+     * Незмінна таблиця int ID -> назва без упаковки ключів
+     * Невеликі ID (звичайний випадок для довідників) індексують масив напряму,
+     * розріджені - шукаються бінарним пошуком у відсортованому масиві
+     */
+    private static final class NameTable {
+        private static final int MAX_DIRECT_ID = 1024;
+        static final NameTable EMPTY = new NameTable(new int[0], new String[0], new String[0]);
+
+        private final int[] ids;
+        private final String[] names;
+        private final String[] direct;
+
+        private NameTable(int[] ids, String[] names, String[] direct) {
+            this.ids = ids;
+            this.names = names;
+            this.direct = direct;
+        }
+
+        static NameTable of(List<Integer> idList, List<String> nameList) {
+            int size = idList.size();
+            Integer[] order = new Integer[size];
+            for (int i = 0; i < size; i++) {
+                order[i] = i;
+            }
+            Arrays.sort(order, (a, b) -> Integer.compare(idList.get(a), idList.get(b)));
+
+            int[] ids = new int[size];
+            String[] names = new String[size];
+            for (int i = 0; i < size; i++) {
+                ids[i] = idList.get(order[i]);
+                names[i] = nameList.get(order[i]);
+            }
+
+            String[] direct = new String[0];
+            if (size > 0 && ids[0] >= 0 && ids[size - 1] <= MAX_DIRECT_ID) {
+                direct = new String[ids[size - 1] + 1];
+                for (int i = 0; i < size; i++) {
+                    direct[ids[i]] = names[i];
+                }
+            }
+            return new NameTable(ids, names, direct);
+        }
+
+        String get(int id) {
+            if (id >= 0 && id < direct.length) {
+                return direct[id];
+            }
+            if (direct.length > 0) {
+                return null;
+            }
+            int index = Arrays.binarySearch(ids, id);
+            return index >= 0 ? names[index] : null;
+        }
+    }
+}
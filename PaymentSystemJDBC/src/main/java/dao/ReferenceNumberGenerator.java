@@ -0,0 +1,14 @@
+package dao;
+
+/**
+ * Генератор референс-номерів платежів
+ * Реалізація має бути потокобезпечною: один генератор ділять усі DAO процесу.
+ */
+public interface ReferenceNumberGenerator {
+
+    /**
+     * Отримати наступний унікальний референс-номер
+     * @return номер з префіксом "PAY-"
+     */
+    String nextReferenceNumber();
+}
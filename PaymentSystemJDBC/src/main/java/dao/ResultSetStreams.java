@@ -0,0 +1,112 @@
+package dao;
+
+import util.ConnectionPool;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Допоміжний клас для потокового читання результатів запиту
+ * Рядки читаються з курсора по одному (порціями fetch size), тож пам'ять
+ * не залежить від розміру результату. Підключення, запит і ResultSet
+ * закриваються при закритті Stream.
+ */
+final class ResultSetStreams {
+
+    // Скільки рядків драйвер підтягує з сервера за один раз
+    static final int FETCH_SIZE = 500;
+
+    /**
+     * Заповнення параметрів запиту
+     */
+    @FunctionalInterface
+    interface StatementBinder {
+        StatementBinder NONE = stmt -> { };
+
+        void bind(PreparedStatement stmt) throws SQLException;
+    }
+
+    /**
+     * Перетворення поточного рядка ResultSet в об'єкт
+     */
+    @FunctionalInterface
+    interface RowMapper<T> {
+        T map(ResultSet rs) throws SQLException;
+    }
+
+    private ResultSetStreams() {
+    }
+
+    /**
+     * Виконати запит і повернути його результат як Stream
+     * Stream обов'язково треба закрити (try-with-resources), інакше підключення не повернеться до пулу
+     */
+    static <T> Stream<T> stream(ConnectionPool pool, String sql, StatementBinder binder,
+                                ColumnMapper<T> mapper) throws SQLException {
+        Connection connection = pool.getConnection();
+        PreparedStatement stmt = null;
+        try {
+            stmt = connection.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            stmt.setFetchSize(FETCH_SIZE);
+            binder.bind(stmt);
+            ResultSet rs = stmt.executeQuery();
+
+            PreparedStatement openStmt = stmt;
+            return StreamSupport.stream(new RowSpliterator<>(rs, mapper.bind(sql, rs)), false)
+                    .onClose(() -> closeAll(rs, openStmt, connection));
+        } catch (SQLException | RuntimeException e) {
+            closeAll(null, stmt, connection);
+            throw e;
+        }
+    }
+
+    private static void closeAll(ResultSet rs, PreparedStatement stmt, Connection connection) {
+        try {
+            if (rs != null) {
+                rs.close();
+            }
+            if (stmt != null) {
+                stmt.close();
+            }
+        } catch (SQLException e) {
+            DAOLog.warn("Помилка при закритті курсора: " + e.getMessage());
+        } finally {
+            try {
+                connection.close();
+            } catch (SQLException e) {
+                DAOLog.warn("Помилка при поверненні підключення: " + e.getMessage());
+            }
+        }
+    }
+
+    private static final class RowSpliterator<T> extends Spliterators.AbstractSpliterator<T> {
+        private final ResultSet rs;
+        private final RowMapper<T> mapper;
+
+        RowSpliterator(ResultSet rs, RowMapper<T> mapper) {
+            super(Long.MAX_VALUE, Spliterator.ORDERED | Spliterator.NONNULL);
+            this.rs = rs;
+            this.mapper = mapper;
+        }
+
+        @Override
+        public boolean tryAdvance(Consumer<? super T> action) {
+            try {
+                if (!rs.next()) {
+                    return false;
+                }
+                action.accept(mapper.map(rs));
+                return true;
+            } catch (SQLException e) {
+                throw new RuntimeException("❌ Помилка при читанні рядка з БД", e);
+            }
+        }
+    }
+}
@@ -0,0 +1,12 @@
+package dao;
+
+/**
+ * Часове вікно статистики платежів (за датою платежу)
+ * Межа вікна округлюється до хвилини (LAST_HOUR) або години (LAST_DAY, LAST_MONTH).
+ */
+public enum StatisticsWindow {
+    LAST_HOUR,
+    LAST_DAY,
+    LAST_MONTH,   // останні 30 днів
+    ALL_TIME
+}
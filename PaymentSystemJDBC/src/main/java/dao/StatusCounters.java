@@ -0,0 +1,64 @@
+package dao;
+
+import model.Payment;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Лічильники платежів за статусами в пам'яті
+ * Заповнюються одним GROUP BY (PaymentDAOImpl.enableStatusCounters) і далі
+ * змінюються подіями записів DAO, тож читання - це лише читання атомарного лічильника.
+ */
+public class StatusCounters implements PaymentChangeListener {
+
+    private final ConcurrentHashMap<Integer, AtomicInteger> counts = new ConcurrentHashMap<>();
+
+    StatusCounters() {
+    }
+
+    /**
+     * Кількість платежів зі статусом
+     */
+    public int get(int statusId) {
+        AtomicInteger count = counts.get(statusId);
+        return count != null ? count.get() : 0;
+    }
+
+    /**
+     * Знімок усіх лічильників
+     * @return ID статусу -> кількість платежів
+     */
+    public Map<Integer, Integer> snapshot() {
+        Map<Integer, Integer> result = new TreeMap<>();
+        counts.forEach((statusId, count) -> result.put(statusId, count.get()));
+        return result;
+    }
+
+    /**
+     * Встановити лічильники з результату підрахунку в БД
+     */
+    void reset(Map<Integer, Integer> loaded) {
+        counts.keySet().retainAll(loaded.keySet());
+        loaded.forEach((statusId, count) -> counter(statusId).set(count));
+    }
+
+    private AtomicInteger counter(int statusId) {
+        return counts.computeIfAbsent(statusId, id -> new AtomicInteger());
+    }
+
+    @Override
+    public void paymentCreated(Payment payment) {
+        counter(payment.getStatusId()).incrementAndGet();
+    }
+
+    @Override
+    public void paymentStatusChanged(Payment payment, int oldStatusId) {
+        if (payment.getStatusId() != oldStatusId) {
+            counter(oldStatusId).decrementAndGet();
+            counter(payment.getStatusId()).incrementAndGet();
+        }
+    }
+}
@@ -0,0 +1,89 @@
+package dao;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Генератор референс-номерів за схемою "час / вузол / лічильник"
+ * 63-бітний ідентифікатор: 41 біт - мілісекунди від 2025-01-01,
+ * 10 біт - номер вузла (0..1023), 12 біт - лічильник у межах мілісекунди.
+ * Вузли з різними номерами ніколи не перетинаються, тож координація між
+ * ними не потрібна. Номер кодується Crockford base32 фіксованої довжини:
+ * PAY-XXXXXXXXXXXXX, рядки сортуються в порядку створення.
+ *
+ * Без блокувань: стан (час + лічильник) оновлюється одним CAS. Переповнення
+ * лічильника переносить одиницю в біти часу - генератор "позичає" наступну
+ * мілісекунду замість очікування, а відкат системного годинника не повертає
+ * час назад, тому номери монотонні і не повторюються.
+ */
+public final class TimeOrderedReferenceNumberGenerator implements ReferenceNumberGenerator {
+
+    // Системна властивість з номером вузла, напр. -Dpayment.node.id=3
+    public static final String NODE_ID_PROPERTY = "payment.node.id";
+
+    public static final int MAX_NODE_ID = 1023;
+
+    // 2025-01-01T00:00:00Z
+    private static final long EPOCH_MILLIS = 1_735_689_600_000L;
+
+    private static final int SEQUENCE_BITS = 12;
+    private static final int NODE_BITS = 10;
+    private static final int ENCODED_LENGTH = 13;   // ceil(63 / 5)
+    private static final byte[] PREFIX = {'P', 'A', 'Y', '-'};
+    private static final byte[] ALPHABET = "0123456789ABCDEFGHJKMNPQRSTVWXYZ".getBytes(StandardCharsets.US_ASCII);
+
+    private final long nodeBits;
+    // (мілісекунди від EPOCH << SEQUENCE_BITS) | лічильник останнього виданого номера
+    private final AtomicLong state = new AtomicLong();
+
+    /**
+     * @param nodeId - номер вузла 0..1023, унікальний серед усіх процесів, що пишуть у БД
+     */
+    public TimeOrderedReferenceNumberGenerator(int nodeId) {
+        if (nodeId < 0 || nodeId > MAX_NODE_ID) {
+            throw new IllegalArgumentException("Номер вузла має бути в межах 0.." + MAX_NODE_ID + ": " + nodeId);
+        }
+        this.nodeBits = (long) nodeId << SEQUENCE_BITS;
+    }
+
+    /**
+     * Спільний генератор процесу; номер вузла - з властивості payment.node.id (за замовчуванням 0)
+     * Усі DAO одного процесу мають брати саме його: два генератори з однаковим
+     * номером вузла можуть видати однакові номери.
+     */
+    public static TimeOrderedReferenceNumberGenerator getDefault() {
+        return Holder.INSTANCE;
+    }
+
+    @Override
+    public String nextReferenceNumber() {
+        long next = nextState();
+        long id = ((next >>> SEQUENCE_BITS) << (NODE_BITS + SEQUENCE_BITS))
+                | nodeBits
+                | (next & ((1L << SEQUENCE_BITS) - 1));
+
+        byte[] chars = new byte[PREFIX.length + ENCODED_LENGTH];
+        System.arraycopy(PREFIX, 0, chars, 0, PREFIX.length);
+        for (int i = chars.length - 1; i >= PREFIX.length; i--) {
+            chars[i] = ALPHABET[(int) (id & 31)];
+            id >>>= 5;
+        }
+        return new String(chars, StandardCharsets.ISO_8859_1);
+    }
+
+    private long nextState() {
+        while (true) {
+            long prev = state.get();
+            long now = (System.currentTimeMillis() - EPOCH_MILLIS) << SEQUENCE_BITS;
+            long next = now > prev ? now : prev + 1;
+            if (state.compareAndSet(prev, next)) {
+                return next;
+            }
+        }
+    }
+
+    private static final class Holder {
+        static final TimeOrderedReferenceNumberGenerator INSTANCE =
+                new TimeOrderedReferenceNumberGenerator(Integer.getInteger(NODE_ID_PROPERTY, 0));
+    }
+}
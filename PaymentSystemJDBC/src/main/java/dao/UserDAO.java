@@ -2,6 +2,7 @@ package dao;
 
 import model.User;
 import java.util.List;
+import java.util.stream.Stream;
 
 /**
  * Інтерфейс UserDAO - визначає методи для роботи з користувачами
@@ -15,6 +16,15 @@ public interface UserDAO {
      * @return true якщо успішно, false якщо помилка
      */
     boolean addUser(User user);
+
+    /**
+     * Масово додати користувачів пакетами
+     * Записи з уже зайнятим email відхиляються, решта імпорту продовжується;
+     * згенеровані ID записуються в об'єкти User
+     * @param users - користувачі для додавання (читаються потоково)
+     * @return результат імпорту з кількістю доданих та відхиленими записами
+     */
+    UserImportResult addUsers(Iterable<User> users);
     
     /**
      * Отримати користувача за ID
@@ -35,6 +45,12 @@ public interface UserDAO {
      * @return список всіх користувачів
      */
     List<User> getAllUsers();
+
+    /**
+     * Отримати всіх користувачів потоково (Stream треба закрити)
+     * @return потік користувачів
+     */
+    Stream<User> streamAllUsers();
     
     /**
      * Отримати тільки активних користувачів
@@ -69,6 +85,15 @@ public interface UserDAO {
      * @return список знайдених користувачів
      */
     List<User> searchByLastName(String lastName);
+
+    /**
+     * Пошук користувачів за фрагментом імені або прізвища
+     * @param text - фрагмент (без урахування регістру)
+     * @param match - з початку імені чи будь-де
+     * @param limit - максимум результатів (перші за ID)
+     * @return знайдені користувачі, відсортовані за прізвищем та ім'ям
+     */
+    List<User> searchByName(String text, NameMatch match, int limit);
     
     /**
      * Підрахувати загальну кількість користувачів
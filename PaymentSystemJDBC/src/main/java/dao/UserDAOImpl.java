@@ -1,42 +1,88 @@
 package dao;
 
 import model.User;
+import util.ConnectionPool;
 import util.DatabaseConnection;
 import java.sql.*;
+import java.text.Collator;
 import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.stream.Stream;
 
 /**
  * Реалізація інтерфейсу UserDAO
  * Виконує всі операції з користувачами в базі даних
+ * Потокобезпечна: кожна операція бере власне підключення з пулу, тому один
+ * екземпляр можна ділити між потоками. Пошук за іменами може обслуговувати
+ * індекс у пам'яті (enableNameIndex), який DAO оновлює при кожному записі.
  */
 public class UserDAOImpl implements UserDAO {
 
-    private Connection connection;
+    // Розмір пакета при масовому імпорті
+    private static final int IMPORT_BATCH_SIZE = 1000;
+
+    private static final String INSERT_USER_SQL = "INSERT INTO users (first_name, last_name, email, phone, " +
+            "password_hash, date_of_birth, is_active) VALUES (?, ?, ?, ?, ?, ?, ?)";
+
+    private static final String USER_BY_ID_SQL = "SELECT * FROM users WHERE user_id = ?";
+
+    private static final String USER_BY_EMAIL_SQL = "SELECT * FROM users WHERE email = ?";
+
+    private static final String USERS_BY_LAST_NAME_SQL = "SELECT * FROM users WHERE last_name LIKE ? ORDER BY last_name";
+
+    private static final String USERS_BY_NAME_SQL = "SELECT * FROM users " +
+            "WHERE first_name LIKE ? OR last_name LIKE ? ORDER BY user_id LIMIT ?";
+
+    private static final String USER_NAMES_SQL = "SELECT user_id, first_name, last_name FROM users";
+
+    // Списки IN (...) фіксованих довжин, щоб не засмічувати кеш підготовлених запитів
+    private static final String[] EXISTING_EMAILS_SQL = InList.variants("SELECT email FROM users WHERE email IN ", "");
+
+    private static final String[] USERS_BY_IDS_SQL = InList.variants("SELECT * FROM users WHERE user_id IN ", "");
+
+    // Скільки ID підставляти в один запит WHERE user_id IN (...)
+    private static final int LOAD_BY_IDS_CHUNK = InList.MAX_SIZE;
+
+    private static final UserMapper USER_MAPPER = new UserMapper();
+
+    // Українська абетка без огляду на регістр (compareTo ставить "Є", "І", "Ї" після "Я", а малі літери після великих)
+    private static final Comparator<String> NAME_ORDER = Comparator.nullsFirst(nameCollator()::compare);
+
+    private static final Comparator<User> BY_NAME = Comparator
+            .comparing(User::getLastName, NAME_ORDER)
+            .thenComparing(User::getFirstName, NAME_ORDER)
+            .thenComparingInt(User::getUserId);
+
+    private final ConnectionPool pool;
+    private volatile UserNameIndex nameIndex;
 
     public UserDAOImpl() {
         try {
-            this.connection = DatabaseConnection.getConnection();
+            this.pool = DatabaseConnection.getPool();
         } catch (SQLException e) {
             throw new RuntimeException("❌ Помилка підключення до БД", e);
         }
     }
 
+    /**
+     * Створити DAO поверх заданого пулу підключень
+     * @param pool - пул, з якого кожна операція бере підключення
+     */
+    public UserDAOImpl(ConnectionPool pool) {
+        this.pool = pool;
+    }
+
 
 
     @Override
     public boolean addUser(User user) {
-        String sql = "INSERT INTO users (first_name, last_name, email, phone, " +
-                     "password_hash, date_of_birth, is_active) VALUES (?, ?, ?, ?, ?, ?, ?)";
-        
-        try (PreparedStatement stmt = connection.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
-            stmt.setString(1, user.getFirstName());
-            stmt.setString(2, user.getLastName());
-            stmt.setString(3, user.getEmail());
-            stmt.setString(4, user.getPhone());
-            stmt.setString(5, user.getPasswordHash() != null ? user.getPasswordHash() : "default_hash");
-            stmt.setDate(6, user.getDateOfBirth());
-            stmt.setBoolean(7, user.isActive());
+        try (Connection connection = pool.getConnection();
+             PreparedStatement stmt = connection.prepareStatement(INSERT_USER_SQL, Statement.RETURN_GENERATED_KEYS)) {
+            bindUser(stmt, user);
             
             int rowsAffected = stmt.executeUpdate();
             
@@ -46,48 +92,206 @@ public class UserDAOImpl implements UserDAO {
                 if (rs.next()) {
                     user.setUserId(rs.getInt(1));
                 }
-                System.out.println("✅ Користувача додано: " + user.getFullName());
+                indexUser(user);
+                DAOLog.info(() -> "✅ Користувача додано: " + user.getFullName());
                 return true;
             }
         } catch (SQLException e) {
-            System.err.println("❌ Помилка при додаванні користувача: " + e.getMessage());
-            e.printStackTrace();
+            DAOLog.error("Помилка при додаванні користувача", e);
         }
         return false;
     }
 
+    @Override
+    public UserImportResult addUsers(Iterable<User> users) {
+        UserImportResult result = new UserImportResult();
+        List<User> chunk = new ArrayList<>(IMPORT_BATCH_SIZE);
+
+        try (Connection connection = pool.getConnection();
+             PreparedStatement stmt = connection.prepareStatement(INSERT_USER_SQL, Statement.RETURN_GENERATED_KEYS)) {
+            connection.setAutoCommit(false);
+
+            // В пам'яті тримаємо не більше одного пакета
+            for (User user : users) {
+                chunk.add(user);
+                if (chunk.size() == IMPORT_BATCH_SIZE) {
+                    importChunk(connection, stmt, chunk, result);
+                    chunk.clear();
+                }
+            }
+            if (!chunk.isEmpty()) {
+                importChunk(connection, stmt, chunk, result);
+            }
+            DAOLog.info(() -> "✅ Імпортовано користувачів: " + result.getInsertedCount() +
+                    ", відхилено: " + result.getRejectedCount());
+
+        } catch (SQLException e) {
+            DAOLog.error("Помилка при імпорті користувачів (додано " + result.getInsertedCount() + ")", e);
+        }
+        return result;
+    }
+
+    /**
+     * Імпортувати один пакет: відсіяти конфлікти email одним запитом,
+     * решту вставити пакетом в окремій транзакції
+     */
+    private void importChunk(Connection connection, PreparedStatement stmt,
+                             List<User> chunk, UserImportResult result) throws SQLException {
+        Set<String> takenEmails = findExistingEmails(connection, chunk);
+        List<User> accepted = new ArrayList<>(chunk.size());
+
+        for (User user : chunk) {
+            String email = user.getEmail();
+            if (email == null || email.isBlank()) {
+                result.reject(user, "email не вказано");
+            } else if (!takenEmails.add(email.toLowerCase(Locale.ROOT))) {
+                // Зайнятий у БД або повторюється в межах пакета
+                result.reject(user, "email вже використовується");
+            } else {
+                accepted.add(user);
+            }
+        }
+        if (accepted.isEmpty()) {
+            return;
+        }
+
+        int[] ids = new int[accepted.size()];
+        try {
+            for (User user : accepted) {
+                bindUser(stmt, user);
+                stmt.addBatch();
+            }
+            stmt.executeBatch();
+
+            try (ResultSet keys = stmt.getGeneratedKeys()) {
+                for (int i = 0; i < ids.length && keys.next(); i++) {
+                    ids[i] = keys.getInt(1);
+                }
+            }
+            connection.commit();
+        } catch (BatchUpdateException e) {
+            // Конфлікт з'явився між перевіркою та вставкою (паралельний запис) -
+            // відкочуємо пакет і вставляємо поодинці, щоб відхилити лише проблемні рядки
+            stmt.clearBatch();
+            connection.rollback();
+            insertOneByOne(connection, stmt, accepted, result);
+            return;
+        } catch (SQLException e) {
+            stmt.clearBatch();
+            connection.rollback();
+            throw e;
+        }
+
+        for (int i = 0; i < ids.length; i++) {
+            accepted.get(i).setUserId(ids[i]);
+            indexUser(accepted.get(i));
+            result.inserted();
+        }
+    }
+
+    private void insertOneByOne(Connection connection, PreparedStatement stmt,
+                                List<User> users, UserImportResult result) throws SQLException {
+        for (User user : users) {
+            try {
+                bindUser(stmt, user);
+                stmt.executeUpdate();
+                try (ResultSet keys = stmt.getGeneratedKeys()) {
+                    if (keys.next()) {
+                        user.setUserId(keys.getInt(1));
+                    }
+                }
+                connection.commit();
+                indexUser(user);
+                result.inserted();
+            } catch (SQLException e) {
+                connection.rollback();
+                result.reject(user, e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Знайти email-и пакета, які вже є в таблиці users (один запит на пакет)
+     * @return множина знайдених email-ів у нижньому регістрі
+     */
+    private Set<String> findExistingEmails(Connection connection, List<User> chunk) throws SQLException {
+        List<String> emails = new ArrayList<>(chunk.size());
+        for (User user : chunk) {
+            if (user.getEmail() != null && !user.getEmail().isBlank()) {
+                emails.add(user.getEmail());
+            }
+        }
+        Set<String> existing = new HashSet<>();
+        if (emails.isEmpty()) {
+            return existing;
+        }
+
+        int variant = InList.variant(emails.size());
+        try (PreparedStatement stmt = connection.prepareStatement(EXISTING_EMAILS_SQL[variant])) {
+            // Зайві місця списку - повтор останнього email
+            for (int i = 0; i < InList.size(variant); i++) {
+                stmt.setString(i + 1, emails.get(Math.min(i, emails.size() - 1)));
+            }
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    existing.add(rs.getString(1).toLowerCase(Locale.ROOT));
+                }
+            }
+        }
+        return existing;
+    }
+
+    /**
+     * Заповнити параметри INSERT-запиту даними користувача
+     */
+    private void bindUser(PreparedStatement stmt, User user) throws SQLException {
+        stmt.setString(1, user.getFirstName());
+        stmt.setString(2, user.getLastName());
+        stmt.setString(3, user.getEmail());
+        stmt.setString(4, user.getPhone());
+        stmt.setString(5, user.getPasswordHash() != null ? user.getPasswordHash() : "default_hash");
+        stmt.setDate(6, user.getDateOfBirth());
+        stmt.setBoolean(7, user.isActive());
+    }
+
+    /**
+     * Запити з фільтром і зразкові параметри для QueryPlanCheck
+     */
+    static List<QueryPlanCheck.PlannedQuery> plannedQueries() {
+        return List.of(
+                new QueryPlanCheck.PlannedQuery("getUserById", USER_BY_ID_SQL, 1),
+                new QueryPlanCheck.PlannedQuery("getUserByEmail", USER_BY_EMAIL_SQL, "user@example.com"),
+                new QueryPlanCheck.PlannedQuery("searchByLastName", USERS_BY_LAST_NAME_SQL, "%енко%"));
+    }
+
     @Override
     public User getUserById(int userId) {
-        String sql = "SELECT * FROM users WHERE user_id = ?";
-        
-        try (PreparedStatement stmt = connection.prepareStatement(sql)) {
+        try (Connection connection = pool.getConnection();
+             PreparedStatement stmt = connection.prepareStatement(USER_BY_ID_SQL)) {
             stmt.setInt(1, userId);
             ResultSet rs = stmt.executeQuery();
             
             if (rs.next()) {
-                return extractUserFromResultSet(rs);
+                return USER_MAPPER.mapRow(USER_BY_ID_SQL, rs);
             }
         } catch (SQLException e) {
-            System.err.println("❌ Помилка при отриманні користувача: " + e.getMessage());
-            e.printStackTrace();
+            DAOLog.error("Помилка при отриманні користувача", e);
         }
         return null;
     }
 
     @Override
     public User getUserByEmail(String email) {
-        String sql = "SELECT * FROM users WHERE email = ?";
-        
-        try (PreparedStatement stmt = connection.prepareStatement(sql)) {
+        try (Connection connection = pool.getConnection();
+             PreparedStatement stmt = connection.prepareStatement(USER_BY_EMAIL_SQL)) {
             stmt.setString(1, email);
             ResultSet rs = stmt.executeQuery();
             
             if (rs.next()) {
-                return extractUserFromResultSet(rs);
+                return USER_MAPPER.mapRow(USER_BY_EMAIL_SQL, rs);
             }
         } catch (SQLException e) {
-            System.err.println("❌ Помилка при пошуку користувача за email: " + e.getMessage());
-            e.printStackTrace();
+            DAOLog.error("Помилка при пошуку користувача за email", e);
         }
         return null;
     }
@@ -97,37 +301,50 @@ public class UserDAOImpl implements UserDAO {
         List<User> users = new ArrayList<>();
         String sql = "SELECT * FROM users ORDER BY user_id";
         
-        try (Statement stmt = connection.createStatement();
+        try (Connection connection = pool.getConnection();
+             Statement stmt = connection.createStatement();
              ResultSet rs = stmt.executeQuery(sql)) {
             
+            ResultSetStreams.RowMapper<User> mapper = USER_MAPPER.bind(sql, rs);
             while (rs.next()) {
-                users.add(extractUserFromResultSet(rs));
+                users.add(mapper.map(rs));
             }
-            System.out.println("✅ Знайдено користувачів: " + users.size());
+            DAOLog.info(() -> "✅ Знайдено користувачів: " + users.size());
             
         } catch (SQLException e) {
-            System.err.println("❌ Помилка при отриманні всіх користувачів: " + e.getMessage());
-            e.printStackTrace();
+            DAOLog.error("Помилка при отриманні всіх користувачів", e);
         }
         return users;
     }
 
+    @Override
+    public Stream<User> streamAllUsers() {
+        try {
+            return ResultSetStreams.stream(pool, "SELECT * FROM users ORDER BY user_id",
+                    ResultSetStreams.StatementBinder.NONE, USER_MAPPER);
+        } catch (SQLException e) {
+            DAOLog.error("Помилка при відкритті потоку користувачів", e);
+            return Stream.empty();
+        }
+    }
+
     @Override
     public List<User> getActiveUsers() {
         List<User> users = new ArrayList<>();
         String sql = "SELECT * FROM users WHERE is_active = TRUE ORDER BY last_name";
         
-        try (Statement stmt = connection.createStatement();
+        try (Connection connection = pool.getConnection();
+             Statement stmt = connection.createStatement();
              ResultSet rs = stmt.executeQuery(sql)) {
             
+            ResultSetStreams.RowMapper<User> mapper = USER_MAPPER.bind(sql, rs);
             while (rs.next()) {
-                users.add(extractUserFromResultSet(rs));
+                users.add(mapper.map(rs));
             }
-            System.out.println("✅ Знайдено активних користувачів: " + users.size());
+            DAOLog.info(() -> "✅ Знайдено активних користувачів: " + users.size());
             
         } catch (SQLException e) {
-            System.err.println("❌ Помилка при отриманні активних користувачів: " + e.getMessage());
-            e.printStackTrace();
+            DAOLog.error("Помилка при отриманні активних користувачів", e);
         }
         return users;
     }
@@ -137,7 +354,8 @@ public class UserDAOImpl implements UserDAO {
         String sql = "UPDATE users SET first_name = ?, last_name = ?, email = ?, " +
                      "phone = ?, date_of_birth = ?, is_active = ? WHERE user_id = ?";
         
-        try (PreparedStatement stmt = connection.prepareStatement(sql)) {
+        try (Connection connection = pool.getConnection();
+             PreparedStatement stmt = connection.prepareStatement(sql)) {
             stmt.setString(1, user.getFirstName());
             stmt.setString(2, user.getLastName());
             stmt.setString(3, user.getEmail());
@@ -148,12 +366,12 @@ public class UserDAOImpl implements UserDAO {
             
             int rowsAffected = stmt.executeUpdate();
             if (rowsAffected > 0) {
-                System.out.println("✅ Дані користувача оновлено: " + user.getFullName());
+                indexUser(user);
+                DAOLog.info(() -> "✅ Дані користувача оновлено: " + user.getFullName());
                 return true;
             }
         } catch (SQLException e) {
-            System.err.println("❌ Помилка при оновленні користувача: " + e.getMessage());
-            e.printStackTrace();
+            DAOLog.error("Помилка при оновленні користувача", e);
         }
         return false;
     }
@@ -162,17 +380,21 @@ public class UserDAOImpl implements UserDAO {
     public boolean deleteUser(int userId) {
         String sql = "DELETE FROM users WHERE user_id = ?";
         
-        try (PreparedStatement stmt = connection.prepareStatement(sql)) {
+        try (Connection connection = pool.getConnection();
+             PreparedStatement stmt = connection.prepareStatement(sql)) {
             stmt.setInt(1, userId);
             
             int rowsAffected = stmt.executeUpdate();
             if (rowsAffected > 0) {
-                System.out.println("✅ Користувача видалено (ID: " + userId + ")");
+                UserNameIndex index = nameIndex;
+                if (index != null) {
+                    index.remove(userId);
+                }
+                DAOLog.info(() -> "✅ Користувача видалено (ID: " + userId + ")");
                 return true;
             }
         } catch (SQLException e) {
-            System.err.println("❌ Помилка при видаленні користувача: " + e.getMessage());
-            e.printStackTrace();
+            DAOLog.error("Помилка при видаленні користувача", e);
         }
         return false;
     }
@@ -181,39 +403,153 @@ public class UserDAOImpl implements UserDAO {
     public boolean deactivateUser(int userId) {
         String sql = "UPDATE users SET is_active = FALSE WHERE user_id = ?";
         
-        try (PreparedStatement stmt = connection.prepareStatement(sql)) {
+        try (Connection connection = pool.getConnection();
+             PreparedStatement stmt = connection.prepareStatement(sql)) {
             stmt.setInt(1, userId);
             
             int rowsAffected = stmt.executeUpdate();
             if (rowsAffected > 0) {
-                System.out.println("✅ Користувача деактивовано (ID: " + userId + ")");
+                DAOLog.info(() -> "✅ Користувача деактивовано (ID: " + userId + ")");
                 return true;
             }
         } catch (SQLException e) {
-            System.err.println("❌ Помилка при деактивації користувача: " + e.getMessage());
-            e.printStackTrace();
+            DAOLog.error("Помилка при деактивації користувача", e);
         }
         return false;
     }
 
     @Override
     public List<User> searchByLastName(String lastName) {
+        UserNameIndex index = nameIndex;
+        if (index != null) {
+            List<User> users = searchIndex(index, lastName, true, NameMatch.SUBSTRING, Integer.MAX_VALUE);
+            DAOLog.info(() -> "✅ Знайдено користувачів з прізвищем '" + lastName + "': " + users.size());
+            return users;
+        }
+
         List<User> users = new ArrayList<>();
-        String sql = "SELECT * FROM users WHERE last_name LIKE ? ORDER BY last_name";
-        
-        try (PreparedStatement stmt = connection.prepareStatement(sql)) {
+        try (Connection connection = pool.getConnection();
+             PreparedStatement stmt = connection.prepareStatement(USERS_BY_LAST_NAME_SQL)) {
             stmt.setString(1, "%" + lastName + "%");
             ResultSet rs = stmt.executeQuery();
             
+            ResultSetStreams.RowMapper<User> mapper = USER_MAPPER.bind(USERS_BY_LAST_NAME_SQL, rs);
             while (rs.next()) {
-                users.add(extractUserFromResultSet(rs));
+                users.add(mapper.map(rs));
             }
-            System.out.println("✅ Знайдено користувачів з прізвищем '" + lastName + "': " + users.size());
+            DAOLog.info(() -> "✅ Знайдено користувачів з прізвищем '" + lastName + "': " + users.size());
             
         } catch (SQLException e) {
-            System.err.println("❌ Помилка при пошуку користувачів: " + e.getMessage());
-            e.printStackTrace();
+            DAOLog.error("Помилка при пошуку користувачів", e);
+        }
+        return users;
+    }
+
+    @Override
+    public List<User> searchByName(String text, NameMatch match, int limit) {
+        if (limit <= 0) {
+            throw new IllegalArgumentException("Ліміт має бути додатним: " + limit);
+        }
+        UserNameIndex index = nameIndex;
+        if (index != null) {
+            return searchIndex(index, text, false, match, limit);
+        }
+
+        String escaped = text.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+        String pattern = match == NameMatch.PREFIX ? escaped + "%" : "%" + escaped + "%";
+        List<User> users = new ArrayList<>();
+        try (Connection connection = pool.getConnection();
+             PreparedStatement stmt = connection.prepareStatement(USERS_BY_NAME_SQL)) {
+            stmt.setString(1, pattern);
+            stmt.setString(2, pattern);
+            stmt.setInt(3, limit);
+            try (ResultSet rs = stmt.executeQuery()) {
+                ResultSetStreams.RowMapper<User> mapper = USER_MAPPER.bind(USERS_BY_NAME_SQL, rs);
+                while (rs.next()) {
+                    users.add(mapper.map(rs));
+                }
+            }
+        } catch (SQLException e) {
+            DAOLog.error("Помилка при пошуку користувачів за іменем", e);
         }
+        users.sort(BY_NAME);
+        return users;
+    }
+
+    /**
+     * Увімкнути індекс імен у пам'яті для searchByLastName і searchByName
+     * Індекс будується одним проходом по users і далі оновлюється записами
+     * цього DAO. Зміни в обхід DAO індекс не побачить; повторний виклик
+     * будує його заново. Знайдені рядки читаються з БД і перевіряються ще раз,
+     * тож застарілий індекс може пропустити користувача, але не видасть зайвого.
+     * @return індекс або null, якщо побудувати не вдалося
+     */
+    public UserNameIndex enableNameIndex() {
+        UserNameIndex index = new UserNameIndex();
+        // Вмикаємо до завантаження, щоб записи під час побудови теж потрапили в індекс
+        UserNameIndex previous = nameIndex;
+        nameIndex = index;
+
+        try (Connection connection = pool.getConnection();
+             PreparedStatement stmt = connection.prepareStatement(USER_NAMES_SQL)) {
+            stmt.setFetchSize(ResultSetStreams.FETCH_SIZE);
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    index.putIfAbsent(rs.getInt("user_id"), rs.getString("first_name"), rs.getString("last_name"));
+                }
+            }
+        } catch (SQLException e) {
+            DAOLog.error("Помилка при побудові індексу імен", e);
+            nameIndex = previous;
+            return null;
+        }
+        DAOLog.info(() -> "✅ Індекс імен побудовано: " + index.size() + " користувачів");
+        return index;
+    }
+
+    private void indexUser(User user) {
+        UserNameIndex index = nameIndex;
+        if (index != null) {
+            index.put(user.getUserId(), user.getFirstName(), user.getLastName());
+        }
+    }
+
+    /**
+     * Пошук за індексом: ID з пам'яті, рядки - з БД пакетами за первинним ключем
+     */
+    private List<User> searchIndex(UserNameIndex index, String text, boolean lastNameOnly,
+                                   NameMatch match, int limit) {
+        int[] ids = index.search(text, lastNameOnly, match, limit);
+        List<User> users = new ArrayList<>(ids.length);
+
+        try (Connection connection = pool.getConnection()) {
+            for (int from = 0; from < ids.length; from += LOAD_BY_IDS_CHUNK) {
+                int to = Math.min(ids.length, from + LOAD_BY_IDS_CHUNK);
+                int variant = InList.variant(to - from);
+
+                try (PreparedStatement stmt = connection.prepareStatement(USERS_BY_IDS_SQL[variant])) {
+                    // Зайві місця списку - повтор останнього ID
+                    for (int i = 0; i < InList.size(variant); i++) {
+                        stmt.setInt(i + 1, ids[Math.min(from + i, to - 1)]);
+                    }
+                    try (ResultSet rs = stmt.executeQuery()) {
+                        // Набір колонок той самий для будь-якої довжини IN (...) - один ключ
+                        ResultSetStreams.RowMapper<User> mapper = USER_MAPPER.bind(USER_BY_ID_SQL, rs);
+                        while (rs.next()) {
+                            User user = mapper.map(rs);
+                            // Індекс міг відстати від БД - лишаємо тільки справжні збіги
+                            if (UserNameIndex.matches(user, text, lastNameOnly, match)) {
+                                users.add(user);
+                            }
+                        }
+                    }
+                }
+            }
+        } catch (SQLException e) {
+            DAOLog.error("Помилка при пошуку користувачів за індексом", e);
+            return new ArrayList<>();
+        }
+        users.sort(BY_NAME);
         return users;
     }
 
@@ -221,34 +557,62 @@ public class UserDAOImpl implements UserDAO {
     public int countUsers() {
         String sql = "SELECT COUNT(*) FROM users";
         
-        try (Statement stmt = connection.createStatement();
+        try (Connection connection = pool.getConnection();
+             Statement stmt = connection.createStatement();
              ResultSet rs = stmt.executeQuery(sql)) {
             
             if (rs.next()) {
                 return rs.getInt(1);
             }
         } catch (SQLException e) {
-            System.err.println("❌ Помилка при підрахунку користувачів: " + e.getMessage());
-            e.printStackTrace();
+            DAOLog.error("Помилка при підрахунку користувачів", e);
         }
         return 0;
     }
 
     /**
-     * Допоміжний метод для витягування користувача з ResultSet
+     * Порівняння імен за українською абеткою; регістр не враховується
+     */
+    private static Collator nameCollator() {
+        Collator collator = Collator.getInstance(Locale.forLanguageTag("uk"));
+        collator.setStrength(Collator.SECONDARY);
+        return collator;
+    }
+
+    /**
+     * Користувач з рядка ResultSet за індексами колонок
      */
-    private User extractUserFromResultSet(ResultSet rs) throws SQLException {
-        User user = new User();
-        user.setUserId(rs.getInt("user_id"));
-        user.setFirstName(rs.getString("first_name"));
-        user.setLastName(rs.getString("last_name"));
-        user.setEmail(rs.getString("email"));
-        user.setPhone(rs.getString("phone"));
-        user.setPasswordHash(rs.getString("password_hash"));
-        user.setDateOfBirth(rs.getDate("date_of_birth"));
-        user.setRegistrationDate(rs.getTimestamp("registration_date"));
-        user.setLastLogin(rs.getTimestamp("last_login"));
-        user.setActive(rs.getBoolean("is_active"));
-        return user;
-    }
-}
\ No newline at end of file
+    private static final class UserMapper extends ColumnMapper<User> {
+        private static final int USER_ID = 0;
+        private static final int FIRST_NAME = 1;
+        private static final int LAST_NAME = 2;
+        private static final int EMAIL = 3;
+        private static final int PHONE = 4;
+        private static final int PASSWORD_HASH = 5;
+        private static final int DATE_OF_BIRTH = 6;
+        private static final int REGISTRATION_DATE = 7;
+        private static final int LAST_LOGIN = 8;
+        private static final int IS_ACTIVE = 9;
+
+        UserMapper() {
+            super(new String[]{"user_id", "first_name", "last_name", "email", "phone", "password_hash",
+                    "date_of_birth", "registration_date", "last_login", "is_active"});
+        }
+
+        @Override
+        User map(ResultSet rs, int[] columns) throws SQLException {
+            User user = new User();
+            user.setUserId(rs.getInt(columns[USER_ID]));
+            user.setFirstName(rs.getString(columns[FIRST_NAME]));
+            user.setLastName(rs.getString(columns[LAST_NAME]));
+            user.setEmail(rs.getString(columns[EMAIL]));
+            user.setPhone(rs.getString(columns[PHONE]));
+            user.setPasswordHash(rs.getString(columns[PASSWORD_HASH]));
+            user.setDateOfBirth(rs.getDate(columns[DATE_OF_BIRTH]));
+            user.setRegistrationDate(rs.getTimestamp(columns[REGISTRATION_DATE]));
+            user.setLastLogin(rs.getTimestamp(columns[LAST_LOGIN]));
+            user.setActive(rs.getBoolean(columns[IS_ACTIVE]));
+            return user;
+        }
+    }
+}
@@ -0,0 +1,84 @@
+package dao;
+
+import model.User;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Результат масового імпорту користувачів
+ * Згенеровані ID записуються прямо в об'єкти User, тут зберігаються
+ * лише лічильники доданих і відхилених та перші відхилені записи з причиною.
+ * Вибірка обмежена, щоб імпорт великого файлу з масою дублікатів
+ * не тримав у пам'яті всі відхилені об'єкти.
+ */
+public class UserImportResult {
+
+    // Скільки відхилених записів зберігати з причиною
+    public static final int MAX_REJECTED_SAMPLE = 100;
+
+    private int insertedCount;
+    private int rejectedCount;
+    private final List<Rejected> rejected = new ArrayList<>();
+
+    void inserted() {
+        insertedCount++;
+    }
+
+    void reject(User user, String reason) {
+        rejectedCount++;
+        if (rejected.size() < MAX_REJECTED_SAMPLE) {
+            rejected.add(new Rejected(user, reason));
+        }
+    }
+
+    public int getInsertedCount() {
+        return insertedCount;
+    }
+
+    /**
+     * Скільки записів відхилено загалом
+     */
+    public int getRejectedCount() {
+        return rejectedCount;
+    }
+
+    /**
+     * Перші відхилені записи (не більше MAX_REJECTED_SAMPLE); загальна кількість - getRejectedCount()
+     */
+    public List<Rejected> getRejected() {
+        return Collections.unmodifiableList(rejected);
+    }
+
+    @Override
+    public String toString() {
+        return String.format("UserImportResult{додано=%d, відхилено=%d}", insertedCount, rejectedCount);
+    }
+
+    /**
+     * Відхилений запис та причина відхилення
+     */
+    public static final class Rejected {
+        private final User user;
+        private final String reason;
+
+        Rejected(User user, String reason) {
+            this.user = user;
+            this.reason = reason;
+        }
+
+        public User getUser() {
+            return user;
+        }
+
+        public String getReason() {
+            return reason;
+        }
+
+        @Override
+        public String toString() {
+            return user.getEmail() + " - " + reason;
+        }
+    }
+}
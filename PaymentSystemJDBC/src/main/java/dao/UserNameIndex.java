@@ -0,0 +1,319 @@
+package dao;
+
+import model.User;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Триграмний індекс імен і прізвищ користувачів у пам'яті
+ * Для кожної трійки символів зберігається відсортований масив ID користувачів,
+ * у чиїх іменах вона трапляється. Пошук бере найкоротший такий масив серед
+ * трійок фрагмента і перевіряє лише його кандидатів, тож LIKE '%x%' не
+ * переглядає всіх користувачів. Перед іменем ставиться маркер початку, тому
+ * пошук за префіксом - це пошук фрагмента "маркер + префікс". Фрагменти,
+ * коротші за трійку символів, перевіряються перебором.
+ *
+ * Імена зберігаються в масивах за ID (ID - AUTO_INCREMENT, тож масиви майже щільні).
+ * Пошуки йдуть паралельно, зміни - під блокуванням запису.
+ */
+public class UserNameIndex {
+
+    private static final char WORD_START = '\u0002';
+    private static final int GRAM = 3;
+    // Біт поля в ключі трійки: імена і прізвища індексуються окремо
+    private static final long LAST_NAME_FIELD = 1L << 48;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<Long, Postings> postings = new HashMap<>();
+    // Нормалізовані імена з маркером початку за ID; null - користувача в індексі немає
+    private String[] firstNames = new String[1024];
+    private String[] lastNames = new String[1024];
+    private int size;
+
+    UserNameIndex() {
+    }
+
+    /**
+     * Додати користувача або оновити його імена
+     */
+    void put(int userId, String firstName, String lastName) {
+        lock.writeLock().lock();
+        try {
+            putLocked(userId, firstName, lastName);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Додати користувача, якого ще немає в індексі
+     * Для початкового завантаження: не затирає новіші дані паралельного запису
+     */
+    void putIfAbsent(int userId, String firstName, String lastName) {
+        lock.writeLock().lock();
+        try {
+            if (userId >= lastNames.length || lastNames[userId] == null) {
+                putLocked(userId, firstName, lastName);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Прибрати користувача з індексу
+     */
+    void remove(int userId) {
+        lock.writeLock().lock();
+        try {
+            if (userId > 0 && userId < lastNames.length && lastNames[userId] != null) {
+                unindex(userId, firstNames[userId], 0);
+                unindex(userId, lastNames[userId], LAST_NAME_FIELD);
+                firstNames[userId] = null;
+                lastNames[userId] = null;
+                size--;
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void putLocked(int userId, String firstName, String lastName) {
+        if (userId <= 0) {
+            return;
+        }
+        ensureCapacity(userId);
+        String first = normalize(firstName);
+        String last = normalize(lastName);
+
+        if (lastNames[userId] == null) {
+            size++;
+        }
+        if (!first.equals(firstNames[userId])) {
+            if (firstNames[userId] != null) {
+                unindex(userId, firstNames[userId], 0);
+            }
+            index(userId, first, 0);
+            firstNames[userId] = first;
+        }
+        if (!last.equals(lastNames[userId])) {
+            if (lastNames[userId] != null) {
+                unindex(userId, lastNames[userId], LAST_NAME_FIELD);
+            }
+            index(userId, last, LAST_NAME_FIELD);
+            lastNames[userId] = last;
+        }
+    }
+
+    private void ensureCapacity(int userId) {
+        if (userId >= lastNames.length) {
+            int capacity = Math.max(userId + 1, lastNames.length * 2);
+            firstNames = Arrays.copyOf(firstNames, capacity);
+            lastNames = Arrays.copyOf(lastNames, capacity);
+        }
+    }
+
+    private void index(int userId, String name, long field) {
+        for (long gram : grams(name, field)) {
+            postings.computeIfAbsent(gram, key -> new Postings()).add(userId);
+        }
+    }
+
+    private void unindex(int userId, String name, long field) {
+        for (long gram : grams(name, field)) {
+            Postings ids = postings.get(gram);
+            if (ids != null && ids.remove(userId) && ids.size == 0) {
+                postings.remove(gram);
+            }
+        }
+    }
+
+    /**
+     * Знайти користувачів, чиє ім'я або прізвище відповідає фрагменту
+     * @param text - фрагмент (без урахування регістру)
+     * @param lastNameOnly - шукати лише в прізвищах
+     * @param match - префікс чи будь-де
+     * @param limit - максимум результатів
+     * @return ID за зростанням (перші limit збігів)
+     */
+    int[] search(String text, boolean lastNameOnly, NameMatch match, int limit) {
+        String key = searchKey(text, match);
+        lock.readLock().lock();
+        try {
+            int[] byLastName = searchField(key, LAST_NAME_FIELD, lastNames, limit);
+            if (lastNameOnly) {
+                return byLastName;
+            }
+            return union(searchField(key, 0, firstNames, limit), byLastName, limit);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private int[] searchField(String key, long field, String[] names, int limit) {
+        int[] result = new int[Math.min(limit, 64)];
+        int count = 0;
+
+        if (key.length() < GRAM) {
+            // Коротший за трійку фрагмент - перебір усіх імен
+            for (int userId = 1; userId < names.length && count < limit; userId++) {
+                if (names[userId] != null && names[userId].contains(key)) {
+                    result = append(result, count++, userId);
+                }
+            }
+            return Arrays.copyOf(result, count);
+        }
+
+        Postings candidates = null;
+        for (long gram : grams(key, field)) {
+            Postings ids = postings.get(gram);
+            if (ids == null) {
+                return new int[0];
+            }
+            if (candidates == null || ids.size < candidates.size) {
+                candidates = ids;
+            }
+        }
+        for (int i = 0; i < candidates.size && count < limit; i++) {
+            int userId = candidates.ids[i];
+            if (names[userId].contains(key)) {
+                result = append(result, count++, userId);
+            }
+        }
+        return Arrays.copyOf(result, count);
+    }
+
+    private static int[] append(int[] array, int index, int value) {
+        if (index == array.length) {
+            array = Arrays.copyOf(array, Math.max(1, array.length * 2));
+        }
+        array[index] = value;
+        return array;
+    }
+
+    /**
+     * Об'єднання двох відсортованих масивів ID без повторів
+     */
+    private static int[] union(int[] a, int[] b, int limit) {
+        int[] result = new int[Math.min(limit, a.length + b.length)];
+        int i = 0;
+        int j = 0;
+        int count = 0;
+        while (count < result.length && (i < a.length || j < b.length)) {
+            int next;
+            if (j == b.length || (i < a.length && a[i] < b[j])) {
+                next = a[i++];
+            } else if (i == a.length || b[j] < a[i]) {
+                next = b[j++];
+            } else {
+                next = a[i++];
+                j++;
+            }
+            result[count++] = next;
+        }
+        return Arrays.copyOf(result, count);
+    }
+
+    /**
+     * Кількість користувачів в індексі
+     */
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return size;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Чи відповідає користувач фрагменту - так само, як у пошуку за індексом
+     * (для перевірки рядків, прочитаних з БД)
+     */
+    static boolean matches(User user, String text, boolean lastNameOnly, NameMatch match) {
+        String key = searchKey(text, match);
+        return normalize(user.getLastName()).contains(key)
+                || (!lastNameOnly && normalize(user.getFirstName()).contains(key));
+    }
+
+    private static String searchKey(String text, NameMatch match) {
+        String key = text != null ? text.toLowerCase(Locale.ROOT) : "";
+        return match == NameMatch.PREFIX ? WORD_START + key : key;
+    }
+
+    private static String normalize(String name) {
+        return WORD_START + (name != null ? name.toLowerCase(Locale.ROOT) : "");
+    }
+
+    /**
+     * Унікальні трійки символів рядка з бітом поля
+     */
+    private static long[] grams(String name, long field) {
+        int count = Math.max(0, name.length() - GRAM + 1);
+        long[] grams = new long[count];
+        for (int i = 0; i < count; i++) {
+            grams[i] = ((long) name.charAt(i) << 32) | ((long) name.charAt(i + 1) << 16) | name.charAt(i + 2) | field;
+        }
+        Arrays.sort(grams);
+        int unique = 0;
+        for (int i = 0; i < count; i++) {
+            if (unique == 0 || grams[unique - 1] != grams[i]) {
+                grams[unique++] = grams[i];
+            }
+        }
+        return Arrays.copyOf(grams, unique);
+    }
+
+    @Override
+    public String toString() {
+        lock.readLock().lock();
+        try {
+            long positions = 0;
+            for (Postings ids : postings.values()) {
+                positions += ids.size;
+            }
+            return String.format("UserNameIndex{користувачів=%d, трійок=%d, позицій=%d}",
+                    size, postings.size(), positions);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Відсортований масив ID користувачів однієї трійки
+     */
+    private static final class Postings {
+        int[] ids = new int[4];
+        int size;
+
+        void add(int userId) {
+            // ID нових користувачів зростають - зазвичай це дописування в кінець
+            int position = size == 0 || ids[size - 1] < userId ? size : Arrays.binarySearch(ids, 0, size, userId);
+            if (position < 0) {
+                position = -position - 1;
+            } else if (position < size) {
+                return;   // Вже є
+            }
+            if (size == ids.length) {
+                ids = Arrays.copyOf(ids, size * 2);
+            }
+            System.arraycopy(ids, position, ids, position + 1, size - position);
+            ids[position] = userId;
+            size++;
+        }
+
+        boolean remove(int userId) {
+            int position = Arrays.binarySearch(ids, 0, size, userId);
+            if (position < 0) {
+                return false;
+            }
+            System.arraycopy(ids, position + 1, ids, position, size - position - 1);
+            size--;
+            return true;
+        }
+    }
+}
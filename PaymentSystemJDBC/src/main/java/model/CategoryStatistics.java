@@ -0,0 +1,150 @@
+package model;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Currency;
+import java.util.List;
+
+/**
+ * Статистика виконаних платежів однієї категорії
+ * Суми різних валют не складаються: кількість, сума, мінімум, максимум і
+ * середнє рахуються окремо за валютами (getByCurrency), а загальна сума
+ * категорії - перерахунок за курсом у валюту звітності (getReportedTotal).
+ */
+public class CategoryStatistics {
+    private final int categoryId;
+    private final String categoryName;
+    private final long count;
+    private final List<CurrencyStatistics> byCurrency;
+    private final Money reportedTotal;   // null, якщо курсу якоїсь із валют немає
+
+    /**
+     * @param byCurrency - статистика за валютами (порожня, якщо платежів немає)
+     * @param reportedTotal - сума всіх валют у валюті звітності або null
+     */
+    public CategoryStatistics(int categoryId, String categoryName,
+                              List<CurrencyStatistics> byCurrency, Money reportedTotal) {
+        this.categoryId = categoryId;
+        this.categoryName = categoryName;
+        this.byCurrency = Collections.unmodifiableList(new ArrayList<>(byCurrency));
+        this.reportedTotal = reportedTotal;
+        long total = 0;
+        for (CurrencyStatistics statistics : byCurrency) {
+            total += statistics.getCount();
+        }
+        this.count = total;
+    }
+
+    public int getCategoryId() {
+        return categoryId;
+    }
+
+    public String getCategoryName() {
+        return categoryName;
+    }
+
+    /**
+     * Кількість платежів у всіх валютах
+     */
+    public long getCount() {
+        return count;
+    }
+
+    /**
+     * Статистика окремо за валютами, у порядку кодів
+     */
+    public List<CurrencyStatistics> getByCurrency() {
+        return byCurrency;
+    }
+
+    /**
+     * Суми окремо за валютами (копія)
+     */
+    public MoneyTotals getTotalsByCurrency() {
+        MoneyTotals totals = new MoneyTotals();
+        for (CurrencyStatistics statistics : byCurrency) {
+            totals.add(statistics.getTotal());
+        }
+        return totals;
+    }
+
+    /**
+     * Сума всіх валют, перерахована за курсом у валюту звітності
+     * @return сума або null, якщо курсу якоїсь із валют немає
+     */
+    public Money getReportedTotal() {
+        return reportedTotal;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder text = new StringBuilder();
+        text.append(categoryName).append(": ").append(count).append(" платежів, сума: ")
+                .append(getTotalsByCurrency());
+        if (reportedTotal != null && (byCurrency.size() > 1
+                || (byCurrency.size() == 1 && byCurrency.get(0).getCurrency() != reportedTotal.getCurrency()))) {
+            text.append(" (≈ ").append(reportedTotal).append(')');
+        }
+        for (CurrencyStatistics statistics : byCurrency) {
+            text.append("; ").append(statistics);
+        }
+        return text.toString();
+    }
+
+    /**
+     * Кількість, сума, мінімум і максимум платежів категорії в одній валюті
+     */
+    public static final class CurrencyStatistics {
+        private final long count;
+        private final Money total;
+        private final Money minAmount;
+        private final Money maxAmount;
+
+        public CurrencyStatistics(long count, Money total, Money minAmount, Money maxAmount) {
+            this.count = count;
+            this.total = total;
+            this.minAmount = minAmount;
+            this.maxAmount = maxAmount;
+        }
+
+        public Currency getCurrency() {
+            return total.getCurrency();
+        }
+
+        public long getCount() {
+            return count;
+        }
+
+        public Money getTotal() {
+            return total;
+        }
+
+        public Money getMinAmount() {
+            return minAmount;
+        }
+
+        public Money getMaxAmount() {
+            return maxAmount;
+        }
+
+        /**
+         * Середня сума платежу (0, якщо платежів немає)
+         */
+        public Money getAverageAmount() {
+            if (count == 0) {
+                return Money.zero(getCurrency());
+            }
+            BigDecimal average = total.toBigDecimal().divide(BigDecimal.valueOf(count), Money.SCALE, RoundingMode.HALF_UP);
+            return Money.of(average, getCurrency());
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%s: %d платежів, мін.: %s, макс.: %s, сер.: %s",
+                    getCurrency().getCurrencyCode(), count, minAmount.toBigDecimal(),
+                    maxAmount.toBigDecimal(), getAverageAmount().toBigDecimal());
+        }
+    }
+}
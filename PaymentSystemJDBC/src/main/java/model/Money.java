@@ -0,0 +1,142 @@
+package model;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.Currency;
+
+/**
+ * Сума у валюті: long у мінорних одиницях (копійках) і валюта
+ * Масштаб фіксований - 2 знаки, як у колонках amount/commission (DECIMAL(.., 2)),
+ * тож додавання - це додавання long без створення BigDecimal.
+ * Валюта - java.util.Currency: JDK тримає один екземпляр на код, тому
+ * валюти порівнюються за посиланням.
+ */
+public final class Money implements Comparable<Money> {
+
+    // Знаків після коми в мінорних одиницях
+    public static final int SCALE = 2;
+
+    // Валюта платежу за замовчуванням (DEFAULT 'UAH' у таблиці payments)
+    public static final Currency UAH = Currency.getInstance("UAH");
+
+    private final long minorUnits;
+    private final Currency currency;
+
+    private Money(long minorUnits, Currency currency) {
+        if (currency == null) {
+            throw new IllegalArgumentException("Валюта суми не задана");
+        }
+        this.minorUnits = minorUnits;
+        this.currency = currency;
+    }
+
+    /**
+     * Сума з мінорних одиниць
+     */
+    public static Money ofMinor(long minorUnits, Currency currency) {
+        return new Money(minorUnits, currency);
+    }
+
+    /**
+     * Сума з BigDecimal (не більше 2 знаків після коми)
+     * @throws ArithmeticException якщо знаків більше або сума не вміщується в long
+     */
+    public static Money of(BigDecimal amount, Currency currency) {
+        return new Money(toMinor(amount), currency);
+    }
+
+    /**
+     * Сума з BigDecimal і коду валюти ("UAH", "USD")
+     */
+    public static Money of(BigDecimal amount, String currencyCode) {
+        return of(amount, currency(currencyCode));
+    }
+
+    /**
+     * Нуль у валюті
+     */
+    public static Money zero(Currency currency) {
+        return new Money(0, currency);
+    }
+
+    /**
+     * Валюта за кодом ISO 4217; null - валюта за замовчуванням (UAH)
+     */
+    public static Currency currency(String code) {
+        return code != null ? Currency.getInstance(code) : UAH;
+    }
+
+    /**
+     * BigDecimal -> мінорні одиниці
+     */
+    public static long toMinor(BigDecimal amount) {
+        return amount.setScale(SCALE, RoundingMode.UNNECESSARY).unscaledValue().longValueExact();
+    }
+
+    public long getMinorUnits() {
+        return minorUnits;
+    }
+
+    public Currency getCurrency() {
+        return currency;
+    }
+
+    public BigDecimal toBigDecimal() {
+        return BigDecimal.valueOf(minorUnits, SCALE);
+    }
+
+    public Money plus(Money other) {
+        checkSameCurrency(other);
+        return new Money(Math.addExact(minorUnits, other.minorUnits), currency);
+    }
+
+    public Money minus(Money other) {
+        checkSameCurrency(other);
+        return new Money(Math.subtractExact(minorUnits, other.minorUnits), currency);
+    }
+
+    public Money negate() {
+        return new Money(Math.negateExact(minorUnits), currency);
+    }
+
+    public int signum() {
+        return Long.signum(minorUnits);
+    }
+
+    private void checkSameCurrency(Money other) {
+        if (other.currency != currency) {
+            throw new IllegalArgumentException("Різні валюти: " + currency + " і " + other.currency);
+        }
+    }
+
+    /**
+     * Порівняння сум однієї валюти
+     */
+    @Override
+    public int compareTo(Money other) {
+        checkSameCurrency(other);
+        return Long.compare(minorUnits, other.minorUnits);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof Money)) {
+            return false;
+        }
+        Money other = (Money) o;
+        return minorUnits == other.minorUnits && currency == other.currency;
+    }
+
+    @Override
+    public int hashCode() {
+        return Long.hashCode(minorUnits) * 31 + currency.hashCode();
+    }
+
+    @Override
+    public String toString() {
+        return toBigDecimal().toPlainString() + " " + currency.getCurrencyCode();
+    }
+}
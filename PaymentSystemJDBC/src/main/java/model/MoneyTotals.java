@@ -0,0 +1,123 @@
+package model;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Currency;
+import java.util.List;
+
+/**
+ * Суми окремо за валютами (не потокобезпечно)
+ * Валют зазвичай кілька, тож вони лежать у маленькому масиві й шукаються
+ * порівнянням посилань; додавання не створює об'єктів.
+ */
+public final class MoneyTotals {
+
+    private Currency[] currencies = new Currency[4];
+    private long[] sums = new long[4];
+    private int size;
+
+    /**
+     * Додати суму в мінорних одиницях
+     */
+    public void add(Currency currency, long minorUnits) {
+        int index = indexOf(currency);
+        sums[index] = Math.addExact(sums[index], minorUnits);
+    }
+
+    public void add(Money money) {
+        add(money.getCurrency(), money.getMinorUnits());
+    }
+
+    /**
+     * Додати суму з BigDecimal (шлях для даних, що вже є в BigDecimal)
+     */
+    public void add(String currencyCode, BigDecimal amount) {
+        add(Money.currency(currencyCode), Money.toMinor(amount));
+    }
+
+    public void subtract(Currency currency, long minorUnits) {
+        add(currency, Math.negateExact(minorUnits));
+    }
+
+    public void addAll(MoneyTotals other) {
+        for (int i = 0; i < other.size; i++) {
+            add(other.currencies[i], other.sums[i]);
+        }
+    }
+
+    /**
+     * Сума у валюті (нуль, якщо такої валюти не було)
+     */
+    public Money get(Currency currency) {
+        for (int i = 0; i < size; i++) {
+            if (currencies[i] == currency) {
+                return Money.ofMinor(sums[i], currency);
+            }
+        }
+        return Money.zero(currency);
+    }
+
+    /**
+     * Суми за валютами в порядку кодів; валюти з нульовою сумою пропускаються
+     */
+    public List<Money> toList() {
+        List<Money> result = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            if (sums[i] != 0) {
+                result.add(Money.ofMinor(sums[i], currencies[i]));
+            }
+        }
+        result.sort(Comparator.comparing(money -> money.getCurrency().getCurrencyCode()));
+        return result;
+    }
+
+    public boolean isEmpty() {
+        return toList().isEmpty();
+    }
+
+    public MoneyTotals copy() {
+        MoneyTotals copy = new MoneyTotals();
+        copy.currencies = Arrays.copyOf(currencies, currencies.length);
+        copy.sums = Arrays.copyOf(sums, sums.length);
+        copy.size = size;
+        return copy;
+    }
+
+    private int indexOf(Currency currency) {
+        for (int i = 0; i < size; i++) {
+            if (currencies[i] == currency) {
+                return i;
+            }
+        }
+        if (currency == null) {
+            throw new IllegalArgumentException("Валюта суми не задана");
+        }
+        if (size == currencies.length) {
+            currencies = Arrays.copyOf(currencies, size * 2);
+            sums = Arrays.copyOf(sums, size * 2);
+        }
+        currencies[size] = currency;
+        return size++;
+    }
+
+    /**
+     * "120.00 UAH + 15.50 USD"; без сум - "0.00"
+     */
+    @Override
+    public String toString() {
+        List<Money> totals = toList();
+        if (totals.isEmpty()) {
+            return "0.00";
+        }
+        StringBuilder text = new StringBuilder();
+        for (Money money : totals) {
+            if (text.length() > 0) {
+                text.append(" + ");
+            }
+            text.append(money);
+        }
+        return text.toString();
+    }
+}
@@ -119,6 +119,13 @@ public class Payment {
         this.currency = currency;
     }
 
+    /**
+     * Сума платежу в мінорних одиницях разом із валютою
+     */
+    public Money getMoney() {
+        return Money.of(amount, currency);
+    }
+
     public String getDescription() {
         return description;
     }
@@ -1,9 +1,12 @@
 import dao.*;
 import model.*;
 import util.DatabaseConnection;
+import util.MetricsRegistry;
 import java.math.BigDecimal;
 import java.sql.Date;
+import java.sql.SQLException;
 import java.util.List;
+import java.util.Map;
 import java.util.Scanner;
 
 /**
@@ -12,8 +15,14 @@ import java.util.Scanner;
 public class Main {
 
     private static Scanner scanner = new Scanner(System.in);
-    private static UserDAO userDAO = new UserDAOImpl();
-    private static PaymentDAO paymentDAO = new PaymentDAOImpl();
+    private static UserDAOImpl userStore = new UserDAOImpl();
+    // Виклики DAO записуються в метрики (JMX і пункт меню "Метрики DAO")
+    private static UserDAO userDAO = InstrumentedDAO.wrap(UserDAO.class, userStore,
+            MetricsRegistry.getDefault());
+    private static PaymentDAOImpl paymentStore = new PaymentDAOImpl();
+    private static PaymentDAO paymentDAO = InstrumentedDAO.wrap(PaymentDAO.class, paymentStore,
+            MetricsRegistry.getDefault());
+    private static RecentPaymentsCache recentPayments;
 
     public static void main(String[] args) {
         System.out.println("╔═══════════════════════════════════════════════════╗");
@@ -28,6 +37,15 @@ public class Main {
             return;
         }
 
+        // Крок 2: Перевірка індексів під запити DAO
+        checkQueryPlans();
+
+        // Крок 3: Індекс пошуку користувачів за іменами
+        userStore.enableNameIndex();
+
+        // Крок 4: Останні платежі активних рахунків у пам'яті
+        recentPayments = paymentStore.enableRecentPayments(5000, 100, 10 * 60 * 1000);
+
         // Головне меню
         boolean running = true;
         while (running) {
@@ -62,6 +80,9 @@ public class Main {
                 case 9:
                     testCreatePayment();
                     break;
+                case 10:
+                    showMetrics();
+                    break;
                 case 0:
                     running = false;
                     break;
@@ -76,6 +97,7 @@ public class Main {
         }
 
         // Закриття з'єднання
+        DatabaseConnection.shutdown();
         System.out.println("\n✅ Програма завершена. До побачення!");
     }
 
@@ -95,6 +117,7 @@ public class Main {
         System.out.println("7. 📈 Статистика платежів");
         System.out.println("8. ➕ Додати нового користувача");
         System.out.println("9. ➕ Створити новий платіж");
+        System.out.println("10. ⏱ Метрики DAO");
         System.out.println("0. 🚪 Вихід");
         System.out.println("=".repeat(60));
     }
@@ -108,6 +131,19 @@ public class Main {
         return DatabaseConnection.testConnection();
     }
 
+    /**
+     * Перевірка планів запитів DAO (EXPLAIN) - попередження про повний перегляд таблиць
+     */
+    private static void checkQueryPlans() {
+        System.out.println("\n🔍 КРОК 2: Перевірка планів запитів...");
+        System.out.println("-".repeat(60));
+        try {
+            QueryPlanCheck.run(DatabaseConnection.getPool());
+        } catch (SQLException e) {
+            System.err.println("❌ Не вдалося перевірити плани запитів: " + e.getMessage());
+        }
+    }
+
     /**
      * Тестування операцій з користувачами
      */
@@ -306,6 +342,19 @@ public class Main {
         }
     }
 
+    /**
+     * Показати метрики викликів DAO і пулу підключень
+     */
+    private static void showMetrics() {
+        System.out.println("\n⏱ МЕТРИКИ DAO (час у мс)");
+        System.out.println("=".repeat(60));
+        System.out.print(MetricsRegistry.getDefault().dump());
+        if (recentPayments != null) {
+            System.out.println(recentPayments.getStats());
+        }
+        System.out.println(DatabaseConnection.getPoolStats());
+    }
+
     /**
      * Показати статистику
      */
@@ -320,9 +369,9 @@ public class Main {
         // Кількість платежів за статусами
         System.out.println("\n💰 Платежі за статусами:");
         String[] statuses = {"Очікує", "В обробці", "Виконано", "Скасовано", "Відхилено"};
+        Map<Integer, Integer> counts = paymentDAO.countPaymentsByAllStatuses();  // один запит на всі статуси
         for (int i = 1; i <= 5; i++) {
-            int count = paymentDAO.countPaymentsByStatus(i);
-            System.out.printf("   %s: %d%n", statuses[i-1], count);
+            System.out.printf("   %s: %d%n", statuses[i-1], counts.getOrDefault(i, 0));
         }
 
         // Статистика по категоріях
@@ -0,0 +1,541 @@
+package util;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.SQLTimeoutException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Обмежений пул підключень до бази даних.
+ * Підключення видаються в оренду через getConnection() і повертаються
+ * до пулу викликом close() (зручно з try-with-resources).
+ * Перед видачею підключення перевіряється, а ті, що довго простоюють, закриваються.
+ * Пул потокобезпечний; кожне підключення одночасно належить лише одному орендарю.
+ * Кожне підключення кешує свої підготовлені запити (див. StatementCache).
+ */
+public class ConnectionPool implements AutoCloseable {
+
+    // Підключення, яке використовувалось нещодавно, не перевіряємо повторно
+    private static final long VALIDATION_BYPASS_NANOS = TimeUnit.MILLISECONDS.toNanos(500);
+
+    // Скільки підготовлених запитів кешувати на одне підключення за замовчуванням
+    public static final int DEFAULT_STATEMENT_CACHE_SIZE = 64;
+
+    private final String url;
+    private final String user;
+    private final String password;
+    private final int maxSize;
+    private final long maxWaitNanos;
+    private final long idleTimeoutNanos;
+    private final int validationTimeoutSeconds;
+    private final int statementCacheSize;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition available = lock.newCondition();
+    private final Deque<PhysicalConnection> idle = new ArrayDeque<>();
+    private int totalConnections;   // видані + вільні + ті, що саме відкриваються
+    private int activeConnections;
+    private int waiters;
+    private boolean closed;
+
+    // Метрики
+    private final LongAdder borrowCount = new LongAdder();
+    private final LongAdder borrowTimeNanos = new LongAdder();
+    private final LongAccumulator maxBorrowTimeNanos = new LongAccumulator(Math::max, 0);
+    private final LongAdder timeoutCount = new LongAdder();
+    private final LongAdder statementCacheHits = new LongAdder();
+    private final LongAdder statementCacheMisses = new LongAdder();
+
+    private final ScheduledExecutorService evictor;
+
+    /**
+     * Створити пул
+     * @param url - JDBC URL бази даних
+     * @param user - логін
+     * @param password - пароль
+     * @param maxSize - максимальна кількість підключень
+     * @param maxWaitMillis - скільки чекати на вільне підключення
+     * @param idleTimeoutMillis - через скільки закривати невикористане підключення
+     * @param validationTimeoutSeconds - тайм-аут перевірки підключення
+     */
+    public ConnectionPool(String url, String user, String password, int maxSize,
+                          long maxWaitMillis, long idleTimeoutMillis, int validationTimeoutSeconds) {
+        this(url, user, password, maxSize, maxWaitMillis, idleTimeoutMillis, validationTimeoutSeconds,
+                DEFAULT_STATEMENT_CACHE_SIZE);
+    }
+
+    /**
+     * Створити пул з кешем підготовлених запитів заданого розміру
+     * @param statementCacheSize - кількість запитів у кеші кожного підключення (0 - без кешу)
+     */
+    public ConnectionPool(String url, String user, String password, int maxSize,
+                          long maxWaitMillis, long idleTimeoutMillis, int validationTimeoutSeconds,
+                          int statementCacheSize) {
+        if (maxSize <= 0) {
+            throw new IllegalArgumentException("Розмір пулу має бути додатним: " + maxSize);
+        }
+        this.url = url;
+        this.user = user;
+        this.password = password;
+        this.maxSize = maxSize;
+        this.maxWaitNanos = TimeUnit.MILLISECONDS.toNanos(maxWaitMillis);
+        this.idleTimeoutNanos = TimeUnit.MILLISECONDS.toNanos(idleTimeoutMillis);
+        this.validationTimeoutSeconds = validationTimeoutSeconds;
+        this.statementCacheSize = statementCacheSize;
+
+        this.evictor = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "connection-pool-evictor");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long period = Math.max(1000, idleTimeoutMillis / 2);
+        evictor.scheduleAtFixedRate(this::evictIdle, period, period, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Взяти підключення з пулу
+     * Якщо вільних немає і пул заповнений - чекає не довше maxWait
+     * @return Connection - підключення, яке треба закрити (повернути) після використання
+     * @throws SQLException якщо не вдалося отримати підключення
+     */
+    public Connection getConnection() throws SQLException {
+        long start = System.nanoTime();
+        long deadline = start + maxWaitNanos;
+
+        while (true) {
+            PhysicalConnection entry = null;
+
+            lock.lock();
+            try {
+                while (true) {
+                    if (closed) {
+                        throw new SQLException("Пул підключень закрито");
+                    }
+                    entry = idle.pollFirst();
+                    if (entry != null) {
+                        break;
+                    }
+                    if (totalConnections < maxSize) {
+                        totalConnections++;
+                        break;
+                    }
+                    long remaining = deadline - System.nanoTime();
+                    if (remaining <= 0) {
+                        timeoutCount.increment();
+                        throw new SQLTimeoutException("Немає вільних підключень протягом " +
+                                TimeUnit.NANOSECONDS.toMillis(maxWaitNanos) + " мс");
+                    }
+                    waiters++;
+                    try {
+                        available.awaitNanos(remaining);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        throw new SQLException("Очікування підключення перервано", e);
+                    } finally {
+                        waiters--;
+                    }
+                }
+                activeConnections++;
+            } finally {
+                lock.unlock();
+            }
+
+            if (entry == null) {
+                try {
+                    entry = open();
+                } catch (SQLException e) {
+                    discard(null);
+                    throw e;
+                }
+            } else if (!isValid(entry)) {
+                // Підключення "померло", поки лежало в пулі - пробуємо інше
+                discard(entry);
+                continue;
+            }
+
+            long elapsed = System.nanoTime() - start;
+            borrowCount.increment();
+            borrowTimeNanos.add(elapsed);
+            maxBorrowTimeNanos.accumulate(elapsed);
+            return wrap(entry);
+        }
+    }
+
+    private PhysicalConnection open() throws SQLException {
+        Connection raw = DriverManager.getConnection(url, user, password);
+        StatementCache statements = statementCacheSize > 0
+                ? new StatementCache(statementCacheSize, statementCacheHits, statementCacheMisses)
+                : null;
+        return new PhysicalConnection(raw, statements);
+    }
+
+    /**
+     * Повернути підключення до пулу (викликається з close() обгортки)
+     */
+    private void release(LeasedConnection lease) {
+        PhysicalConnection physical = lease.physical;
+        if (!resetState(lease)) {
+            discard(physical);
+            return;
+        }
+
+        boolean closeNow = false;
+        lock.lock();
+        try {
+            activeConnections--;
+            if (closed) {
+                totalConnections--;
+                closeNow = true;
+            } else {
+                physical.releasedAt = System.nanoTime();
+                idle.addFirst(physical);
+                available.signal();
+            }
+        } finally {
+            lock.unlock();
+        }
+        if (closeNow) {
+            closeQuietly(physical);
+        }
+    }
+
+    /**
+     * Повернути підключення до початкового стану, щоб наступний потік
+     * не отримав чужу незавершену транзакцію чи змінені налаштування
+     * @return false якщо підключення непридатне до повторного використання
+     */
+    private boolean resetState(LeasedConnection lease) {
+        Connection raw = lease.physical.raw;
+        try {
+            if (raw.isClosed()) {
+                return false;
+            }
+            if (lease.autoCommitChanged && !raw.getAutoCommit()) {
+                raw.rollback();
+                raw.setAutoCommit(true);
+            }
+            if (lease.readOnlyChanged) {
+                raw.setReadOnly(false);
+            }
+            if (lease.originalIsolation != -1) {
+                raw.setTransactionIsolation(lease.originalIsolation);
+            }
+            raw.clearWarnings();
+            if (lease.physical.statements != null) {
+                lease.physical.statements.releaseAll();
+            }
+            return true;
+        } catch (SQLException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Прибрати видане підключення з обліку (зламане або не відкрилось)
+     */
+    private void discard(PhysicalConnection physical) {
+        lock.lock();
+        try {
+            activeConnections--;
+            totalConnections--;
+            available.signal();
+        } finally {
+            lock.unlock();
+        }
+        if (physical != null) {
+            closeQuietly(physical);
+        }
+    }
+
+    private boolean isValid(PhysicalConnection entry) {
+        if (System.nanoTime() - entry.releasedAt < VALIDATION_BYPASS_NANOS) {
+            return true;
+        }
+        try {
+            return entry.raw.isValid(validationTimeoutSeconds);
+        } catch (SQLException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Закрити підключення, які простоювали довше idleTimeout
+     */
+    private void evictIdle() {
+        List<PhysicalConnection> expired = new ArrayList<>();
+        long now = System.nanoTime();
+
+        lock.lock();
+        try {
+            // Найстаріші підключення - в кінці черги
+            Iterator<PhysicalConnection> it = idle.descendingIterator();
+            while (it.hasNext()) {
+                PhysicalConnection entry = it.next();
+                if (now - entry.releasedAt < idleTimeoutNanos) {
+                    break;
+                }
+                it.remove();
+                totalConnections--;
+                expired.add(entry);
+            }
+        } finally {
+            lock.unlock();
+        }
+
+        for (PhysicalConnection connection : expired) {
+            closeQuietly(connection);
+        }
+    }
+
+    /**
+     * Отримати поточні метрики пулу
+     * @return знімок метрик
+     */
+    public Stats getStats() {
+        lock.lock();
+        try {
+            return new Stats(activeConnections, idle.size(), totalConnections, maxSize, waiters,
+                    borrowCount.sum(), borrowTimeNanos.sum(), maxBorrowTimeNanos.get(),
+                    timeoutCount.sum(), statementCacheHits.sum(), statementCacheMisses.sum());
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Закрити пул: вільні підключення закриваються одразу, видані - при поверненні
+     */
+    @Override
+    public void close() {
+        List<PhysicalConnection> toClose;
+        lock.lock();
+        try {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            toClose = new ArrayList<>(idle);
+            totalConnections -= idle.size();
+            idle.clear();
+            available.signalAll();
+        } finally {
+            lock.unlock();
+        }
+        evictor.shutdownNow();
+        for (PhysicalConnection entry : toClose) {
+            closeQuietly(entry);
+        }
+    }
+
+    private static void closeQuietly(PhysicalConnection connection) {
+        if (connection.statements != null) {
+            connection.statements.closeAll();
+        }
+        try {
+            connection.raw.close();
+        } catch (SQLException e) {
+            System.err.println("❌ Помилка при закритті підключення: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Обгортка над справжнім підключенням: close() повертає його до пулу
+     */
+    private Connection wrap(PhysicalConnection physical) {
+        LeasedConnection lease = new LeasedConnection(physical);
+        Connection proxy = (Connection) Proxy.newProxyInstance(
+                ConnectionPool.class.getClassLoader(),
+                new Class<?>[]{Connection.class},
+                lease);
+        lease.proxy = proxy;
+        return proxy;
+    }
+
+    private final class LeasedConnection implements InvocationHandler {
+        private final PhysicalConnection physical;
+        private final Connection raw;
+        private Connection proxy;
+        private final AtomicBoolean returned = new AtomicBoolean();
+        // Що орендар змінив у підключенні - це відновлюється при поверненні
+        private boolean autoCommitChanged;
+        private boolean readOnlyChanged;
+        private int originalIsolation = -1;
+
+        LeasedConnection(PhysicalConnection physical) {
+            this.physical = physical;
+            this.raw = physical.raw;
+        }
+
+        @Override
+        public Object invoke(Object proxyObject, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "close":
+                    // Повторний close() (в т.ч. з іншого потоку) не повертає підключення двічі
+                    if (returned.compareAndSet(false, true)) {
+                        release(this);
+                    }
+                    return null;
+                case "isClosed":
+                    return returned.get() || raw.isClosed();
+                case "equals":
+                    return proxyObject == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxyObject);
+                case "toString":
+                    return "PooledConnection[" + raw + "]";
+                default:
+                    break;
+            }
+            if (returned.get()) {
+                throw new SQLException("Підключення вже повернуто до пулу");
+            }
+            switch (method.getName()) {
+                case "setAutoCommit":
+                    autoCommitChanged = true;
+                    break;
+                case "setReadOnly":
+                    readOnlyChanged = true;
+                    break;
+                case "setTransactionIsolation":
+                    if (originalIsolation == -1) {
+                        originalIsolation = raw.getTransactionIsolation();
+                    }
+                    break;
+                default:
+                    break;
+            }
+            if (physical.statements != null && StatementCache.isCacheable(method)) {
+                return physical.statements.prepare(raw, proxy, method, args);
+            }
+            try {
+                return method.invoke(raw, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+        }
+    }
+
+    /**
+     * Фізичне підключення разом з його кешем запитів
+     */
+    private static final class PhysicalConnection {
+        final Connection raw;
+        final StatementCache statements;
+        long releasedAt;   // змінюється лише під lock
+
+        PhysicalConnection(Connection raw, StatementCache statements) {
+            this.raw = raw;
+            this.statements = statements;
+        }
+    }
+
+    /**
+     * Знімок метрик пулу
+     */
+    public static final class Stats {
+        private final int active;
+        private final int idle;
+        private final int total;
+        private final int maxSize;
+        private final int waiters;
+        private final long borrowCount;
+        private final long borrowTimeNanos;
+        private final long maxBorrowTimeNanos;
+        private final long timeouts;
+        private final long statementCacheHits;
+        private final long statementCacheMisses;
+
+        Stats(int active, int idle, int total, int maxSize, int waiters, long borrowCount,
+              long borrowTimeNanos, long maxBorrowTimeNanos, long timeouts,
+              long statementCacheHits, long statementCacheMisses) {
+            this.active = active;
+            this.idle = idle;
+            this.total = total;
+            this.maxSize = maxSize;
+            this.waiters = waiters;
+            this.borrowCount = borrowCount;
+            this.borrowTimeNanos = borrowTimeNanos;
+            this.maxBorrowTimeNanos = maxBorrowTimeNanos;
+            this.timeouts = timeouts;
+            this.statementCacheHits = statementCacheHits;
+            this.statementCacheMisses = statementCacheMisses;
+        }
+
+        public int getActive() {
+            return active;
+        }
+
+        public int getIdle() {
+            return idle;
+        }
+
+        public int getTotal() {
+            return total;
+        }
+
+        public int getMaxSize() {
+            return maxSize;
+        }
+
+        public int getWaiters() {
+            return waiters;
+        }
+
+        public long getBorrowCount() {
+            return borrowCount;
+        }
+
+        public long getTimeouts() {
+            return timeouts;
+        }
+
+        public long getStatementCacheHits() {
+            return statementCacheHits;
+        }
+
+        public long getStatementCacheMisses() {
+            return statementCacheMisses;
+        }
+
+        /**
+         * Середній час отримання підключення, мкс
+         */
+        public double getAverageBorrowMicros() {
+            return borrowCount == 0 ? 0 : borrowTimeNanos / 1000.0 / borrowCount;
+        }
+
+        /**
+         * Найдовший час отримання підключення, мкс
+         */
+        public double getMaxBorrowMicros() {
+            return maxBorrowTimeNanos / 1000.0;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("Pool{активні=%d, вільні=%d, всього=%d/%d, очікують=%d, " +
+                            "видач=%d, сер. очікування=%.1f мкс, макс.=%.1f мкс, тайм-аутів=%d, " +
+                            "кеш запитів: влучань=%d, промахів=%d}",
+                    active, idle, total, maxSize, waiters, borrowCount,
+                    getAverageBorrowMicros(), getMaxBorrowMicros(), timeouts,
+                    statementCacheHits, statementCacheMisses);
+        }
+    }
+}
@@ -1,7 +1,6 @@
 package util;
 
 import java.sql.Connection;
-import java.sql.DriverManager;
 import java.sql.SQLException;
 
 /**
@@ -11,30 +10,75 @@ public class DatabaseConnection {
 
     // Параметри підключення до бази даних
     // ⚠️ ВАЖЛИВО: Змініть ці значення на свої!
-    private static final String URL = "jdbc:mysql://localhost:3306/payment_system";
+    // rewriteBatchedStatements - драйвер склеює пакет INSERT-ів в один запит
+    // useCursorFetch - запити з fetch size читаються серверним курсором порціями
+    private static final String URL = "jdbc:mysql://localhost:3306/payment_system" +
+            "?rewriteBatchedStatements=true&useCursorFetch=true";
     private static final String USER = "root";  // Ваш логін MySQL
     private static final String PASSWORD = "19810707";  // Ваш пароль MySQL
 
+    // Параметри пулу підключень
+    private static final int POOL_MAX_SIZE = 10;
+    private static final long POOL_MAX_WAIT_MILLIS = 30_000;
+    private static final long POOL_IDLE_TIMEOUT_MILLIS = 600_000;
+    private static final int POOL_VALIDATION_TIMEOUT_SECONDS = 2;
+
+    private static volatile ConnectionPool pool;
+
     /**
-     * Метод для отримання підключення до бази даних
-     * @return Connection - об'єкт підключення
-     * @throws SQLException якщо не вдалося підключитися
+     * Отримати спільний пул підключень (створюється при першому зверненні)
+     * Під час створення застосовуються ще не застосовані міграції схеми (SchemaMigrator)
+     * @return ConnectionPool - пул підключень
+     * @throws SQLException якщо драйвер MySQL не знайдено або міграція не вдалася
      */
-    public static Connection getConnection() throws SQLException {
+    public static ConnectionPool getPool() throws SQLException {
+        ConnectionPool current = pool;
+        if (current == null) {
+            synchronized (DatabaseConnection.class) {
+                current = pool;
+                if (current == null) {
+                    current = createPool();
+                    pool = current;
+                }
+            }
+        }
+        return current;
+    }
+
+    private static ConnectionPool createPool() throws SQLException {
         try {
             // Завантаження драйвера MySQL (для старіших версій JDBC)
             Class.forName("com.mysql.cj.jdbc.Driver");
-
-            // Створення підключення
-            Connection connection = DriverManager.getConnection(URL, USER, PASSWORD);
-
-            System.out.println("✅ Підключення до бази даних успішне!");
-            return connection;
-
         } catch (ClassNotFoundException e) {
             System.err.println("❌ Драйвер MySQL не знайдено!");
             System.err.println("Перевірте, чи додано mysql-connector-java.jar до проекту");
             throw new SQLException("Драйвер не знайдено", e);
+        }
+
+        ConnectionPool created = new ConnectionPool(URL, USER, PASSWORD, POOL_MAX_SIZE,
+                POOL_MAX_WAIT_MILLIS, POOL_IDLE_TIMEOUT_MILLIS, POOL_VALIDATION_TIMEOUT_SECONDS);
+        System.out.println("✅ Пул підключень створено (максимум " + POOL_MAX_SIZE + " підключень)");
+
+        // Схема доводиться до актуальної версії до першого запиту DAO
+        try {
+            SchemaMigrator.migrate(created);
+        } catch (SQLException e) {
+            System.err.println("❌ Помилка міграції схеми БД: " + e.getMessage());
+            created.close();
+            throw e;
+        }
+        return created;
+    }
+
+    /**
+     * Метод для отримання підключення до бази даних
+     * Підключення береться з пулу; close() повертає його назад
+     * @return Connection - об'єкт підключення
+     * @throws SQLException якщо не вдалося підключитися
+     */
+    public static Connection getConnection() throws SQLException {
+        try {
+            return getPool().getConnection();
         } catch (SQLException e) {
             System.err.println("❌ Помилка підключення до бази даних!");
             System.err.println("Перевірте:");
@@ -46,14 +90,13 @@ public class DatabaseConnection {
     }
 
     /**
-     * Метод для закриття підключення
+     * Метод для закриття підключення (повертає його до пулу)
      * @param connection - підключення для закриття
      */
     public static void closeConnection(Connection connection) {
         if (connection != null) {
             try {
                 connection.close();
-                System.out.println("✅ Підключення закрито");
             } catch (SQLException e) {
                 System.err.println("❌ Помилка при закритті підключення: " + e.getMessage());
             }
@@ -77,4 +120,26 @@ public class DatabaseConnection {
         }
         return false;
     }
-}
\ No newline at end of file
+
+    /**
+     * Отримати метрики пулу підключень
+     * @return метрики або null, якщо пул ще не створено
+     */
+    public static ConnectionPool.Stats getPoolStats() {
+        ConnectionPool current = pool;
+        return current != null ? current.getStats() : null;
+    }
+
+    /**
+     * Закрити пул підключень (викликається при завершенні програми)
+     */
+    public static void shutdown() {
+        synchronized (DatabaseConnection.class) {
+            if (pool != null) {
+                pool.close();
+                pool = null;
+                System.out.println("✅ Пул підключень закрито");
+            }
+        }
+    }
+}
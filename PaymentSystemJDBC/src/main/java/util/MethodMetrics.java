@@ -0,0 +1,124 @@
+package util;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Метрики одного методу: виклики, помилки, рядки і гістограма затримок
+ * Запис не блокує: лічильники - LongAdder, гістограма - атомарні кошики.
+ */
+public final class MethodMetrics implements MethodMetricsMXBean {
+
+    private static final double NANOS_PER_MILLI = TimeUnit.MILLISECONDS.toNanos(1);
+
+    private final String name;
+    private final LongAdder calls = new LongAdder();
+    private final LongAdder errors = new LongAdder();
+    private final LongAdder rows = new LongAdder();
+    private final LongAdder totalNanos = new LongAdder();
+    private final LongAccumulator maxNanos = new LongAccumulator(Math::max, 0);
+    private final LatencyHistogram latency = new LatencyHistogram();
+
+    MethodMetrics(String name) {
+        this.name = name;
+    }
+
+    /**
+     * Записати завершений виклик
+     * @param nanos - тривалість виклику
+     * @param failed - виклик завершився помилкою
+     */
+    public void record(long nanos, boolean failed) {
+        calls.increment();
+        if (failed) {
+            errors.increment();
+        }
+        totalNanos.add(nanos);
+        maxNanos.accumulate(nanos);
+        latency.record(nanos);
+    }
+
+    /**
+     * Додати повернуті рядки (для потоків - по мірі читання)
+     */
+    public void addRows(long count) {
+        rows.add(count);
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public long getCalls() {
+        return calls.sum();
+    }
+
+    @Override
+    public long getErrors() {
+        return errors.sum();
+    }
+
+    @Override
+    public long getRows() {
+        return rows.sum();
+    }
+
+    @Override
+    public double getMeanMillis() {
+        long count = calls.sum();
+        return count == 0 ? 0 : totalNanos.sum() / NANOS_PER_MILLI / count;
+    }
+
+    @Override
+    public double getP50Millis() {
+        return latency.snapshot().percentileMillis(50);
+    }
+
+    @Override
+    public double getP90Millis() {
+        return latency.snapshot().percentileMillis(90);
+    }
+
+    @Override
+    public double getP99Millis() {
+        return latency.snapshot().percentileMillis(99);
+    }
+
+    @Override
+    public double getP999Millis() {
+        return latency.snapshot().percentileMillis(99.9);
+    }
+
+    @Override
+    public double getMaxMillis() {
+        return maxNanos.get() / NANOS_PER_MILLI;
+    }
+
+    /**
+     * Знімок гістограми затримок (для довільних перцентилів)
+     */
+    public LatencyHistogram.Snapshot getLatency() {
+        return latency.snapshot();
+    }
+
+    @Override
+    public void reset() {
+        calls.reset();
+        errors.reset();
+        rows.reset();
+        totalNanos.reset();
+        maxNanos.reset();
+        latency.reset();
+    }
+
+    @Override
+    public String toString() {
+        LatencyHistogram.Snapshot snapshot = latency.snapshot();
+        return String.format("%-44s %9d %7d %10d %9.3f %9.3f %9.3f %9.3f %9.3f %9.3f",
+                name, getCalls(), getErrors(), getRows(), getMeanMillis(),
+                snapshot.percentileMillis(50), snapshot.percentileMillis(90),
+                snapshot.percentileMillis(99), snapshot.percentileMillis(99.9), getMaxMillis());
+    }
+}
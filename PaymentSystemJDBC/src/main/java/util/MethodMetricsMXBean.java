@@ -0,0 +1,27 @@
+package util;
+
+/**
+ * JMX-представлення метрик одного методу DAO
+ */
+public interface MethodMetricsMXBean {
+
+    long getCalls();
+
+    long getErrors();
+
+    long getRows();
+
+    double getMeanMillis();
+
+    double getP50Millis();
+
+    double getP90Millis();
+
+    double getP99Millis();
+
+    double getP999Millis();
+
+    double getMaxMillis();
+
+    void reset();
+}
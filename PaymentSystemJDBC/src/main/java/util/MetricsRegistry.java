@@ -0,0 +1,108 @@
+package util;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Реєстр метрик методів DAO
+ * Метрики створюються при першому зверненні за назвою ("PaymentDAO.getPaymentById").
+ * Реєстр з JMX-доменом публікує себе і кожен метод як MXBean
+ * ({домен}:type=DAOMetrics,name=...), тож їх видно в JConsole / VisualVM;
+ * текстова таблиця - dump().
+ */
+public final class MetricsRegistry implements MetricsRegistryMXBean {
+
+    private static final String DEFAULT_JMX_DOMAIN = "paymentsystem";
+
+    private final ConcurrentHashMap<String, MethodMetrics> methods = new ConcurrentHashMap<>();
+    private final String jmxDomain;
+
+    /**
+     * Створити реєстр
+     * @param jmxDomain - домен JMX або null без публікації в JMX
+     */
+    public MetricsRegistry(String jmxDomain) {
+        this.jmxDomain = jmxDomain;
+        if (jmxDomain != null) {
+            register(this, "type=DAOMetrics,name=registry");
+        }
+    }
+
+    /**
+     * Спільний реєстр застосунку (публікується в JMX)
+     */
+    public static MetricsRegistry getDefault() {
+        return DefaultHolder.INSTANCE;
+    }
+
+    private static final class DefaultHolder {
+        static final MetricsRegistry INSTANCE = new MetricsRegistry(DEFAULT_JMX_DOMAIN);
+    }
+
+    /**
+     * Метрики методу (створюються при першому зверненні)
+     * @param name - назва, зазвичай "Інтерфейс.метод"
+     */
+    public MethodMetrics metrics(String name) {
+        MethodMetrics existing = methods.get(name);
+        if (existing != null) {
+            return existing;
+        }
+        MethodMetrics created = new MethodMetrics(name);
+        existing = methods.putIfAbsent(name, created);
+        if (existing != null) {
+            return existing;
+        }
+        if (jmxDomain != null) {
+            register(created, "type=DAOMetrics,name=" + ObjectName.quote(name));
+        }
+        return created;
+    }
+
+    /**
+     * Метрики всіх методів, за назвою
+     */
+    public List<MethodMetrics> getAll() {
+        List<MethodMetrics> all = new ArrayList<>(methods.values());
+        all.sort(Comparator.comparing(MethodMetrics::getName));
+        return all;
+    }
+
+    @Override
+    public String dump() {
+        StringBuilder text = new StringBuilder();
+        text.append(String.format("%-44s %9s %7s %10s %9s %9s %9s %9s %9s %9s%n",
+                "метод", "викликів", "помилок", "рядків", "сер.,мс", "p50", "p90", "p99", "p99.9", "макс"));
+        for (MethodMetrics metrics : getAll()) {
+            if (metrics.getCalls() > 0) {
+                text.append(metrics).append(System.lineSeparator());
+            }
+        }
+        return text.toString();
+    }
+
+    @Override
+    public void reset() {
+        for (MethodMetrics metrics : methods.values()) {
+            metrics.reset();
+        }
+    }
+
+    private void register(Object mbean, String properties) {
+        try {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            ObjectName objectName = new ObjectName(jmxDomain + ":" + properties);
+            if (!server.isRegistered(objectName)) {
+                server.registerMBean(mbean, objectName);
+            }
+        } catch (JMException e) {
+            System.err.println("❌ Не вдалося зареєструвати метрики в JMX: " + e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,14 @@
+package util;
+
+/**
+ * JMX-представлення реєстру метрик DAO
+ */
+public interface MetricsRegistryMXBean {
+
+    /**
+     * Текстова таблиця метрик усіх методів
+     */
+    String dump();
+
+    void reset();
+}
@@ -0,0 +1,175 @@
+package util;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.CRC32;
+
+/**
+ * Версійні міграції схеми payment_system
+ * Скрипти db/migration/V<версія>__<опис>.sql з classpath виконуються по черзі,
+ * а застосовані версії записуються в таблицю schema_version, тож кожен скрипт
+ * виконується рівно один раз. Застосований скрипт не змінюють - додають новий
+ * з більшою версією (змінену контрольну суму буде виведено як попередження).
+ *
+ * DDL у MySQL не відкочується: якщо скрипт упав посередині, версія не
+ * записується, і частково застосовані зміни доведеться прибрати вручну.
+ */
+public final class SchemaMigrator {
+
+    private static final String LOCATION = "db/migration/";
+
+    // Нову міграцію додавати в кінець
+    private static final String[] MIGRATIONS = {
+            "V1__base_schema.sql",
+            "V2__payment_totals.sql",
+            "V3__access_path_indexes.sql",
+            "V4__exchange_rates.sql"
+    };
+
+    private static final String CREATE_HISTORY_SQL = "CREATE TABLE IF NOT EXISTS schema_version (" +
+            "version INT NOT NULL PRIMARY KEY, " +
+            "description VARCHAR(200) NOT NULL, " +
+            "checksum BIGINT NOT NULL, " +
+            "installed_on TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP)";
+
+    private static final String APPLIED_SQL = "SELECT version, checksum FROM schema_version";
+
+    private static final String RECORD_SQL = "INSERT INTO schema_version (version, description, checksum) " +
+            "VALUES (?, ?, ?)";
+
+    private SchemaMigrator() {
+    }
+
+    /**
+     * Застосувати всі ще не застосовані міграції
+     * @param pool - пул підключень до БД
+     * @return кількість застосованих міграцій (0 - схема актуальна)
+     * @throws SQLException якщо міграція не вдалася або скрипт не знайдено
+     */
+    public static int migrate(ConnectionPool pool) throws SQLException {
+        try (Connection connection = pool.getConnection()) {
+            try (Statement stmt = connection.createStatement()) {
+                stmt.execute(CREATE_HISTORY_SQL);
+            }
+            Map<Integer, Long> applied = loadApplied(connection);
+
+            int count = 0;
+            for (String name : MIGRATIONS) {
+                int version = versionOf(name);
+                String script = readScript(name);
+                long checksum = checksum(script);
+
+                Long appliedChecksum = applied.get(version);
+                if (appliedChecksum != null) {
+                    if (appliedChecksum != checksum) {
+                        System.err.println("⚠️ Міграцію " + name + " змінено після застосування");
+                    }
+                    continue;
+                }
+
+                apply(connection, version, descriptionOf(name), checksum, script);
+                System.out.println("✅ Міграцію " + name + " застосовано");
+                count++;
+            }
+            return count;
+        }
+    }
+
+    private static Map<Integer, Long> loadApplied(Connection connection) throws SQLException {
+        Map<Integer, Long> applied = new HashMap<>();
+        try (Statement stmt = connection.createStatement();
+             ResultSet rs = stmt.executeQuery(APPLIED_SQL)) {
+            while (rs.next()) {
+                applied.put(rs.getInt("version"), rs.getLong("checksum"));
+            }
+        }
+        return applied;
+    }
+
+    private static void apply(Connection connection, int version, String description,
+                              long checksum, String script) throws SQLException {
+        connection.setAutoCommit(false);
+        try {
+            try (Statement stmt = connection.createStatement()) {
+                for (String sql : splitStatements(script)) {
+                    stmt.execute(sql);
+                }
+            }
+            try (PreparedStatement stmt = connection.prepareStatement(RECORD_SQL)) {
+                stmt.setInt(1, version);
+                stmt.setString(2, description);
+                stmt.setLong(3, checksum);
+                stmt.executeUpdate();
+            }
+            connection.commit();
+        } catch (SQLException e) {
+            connection.rollback();
+            throw new SQLException("Міграція V" + version + " (" + description + ") не вдалася: " +
+                    e.getMessage(), e.getSQLState(), e);
+        } finally {
+            connection.setAutoCommit(true);
+        }
+    }
+
+    /**
+     * Розбити скрипт на запити: запит закінчується ';' у кінці рядка,
+     * рядки-коментарі '--' пропускаються
+     */
+    private static List<String> splitStatements(String script) {
+        List<String> statements = new ArrayList<>();
+        StringBuilder current = new StringBuilder();
+        for (String line : script.split("\\R")) {
+            String trimmed = line.trim();
+            if (trimmed.isEmpty() || trimmed.startsWith("--")) {
+                continue;
+            }
+            if (trimmed.endsWith(";")) {
+                current.append(trimmed, 0, trimmed.length() - 1);
+                statements.add(current.toString());
+                current.setLength(0);
+            } else {
+                current.append(trimmed).append('\n');
+            }
+        }
+        if (!current.toString().isBlank()) {
+            statements.add(current.toString());
+        }
+        return statements;
+    }
+
+    private static String readScript(String name) throws SQLException {
+        try (InputStream in = SchemaMigrator.class.getClassLoader().getResourceAsStream(LOCATION + name)) {
+            if (in == null) {
+                throw new SQLException("Скрипт міграції не знайдено: " + LOCATION + name);
+            }
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            throw new SQLException("Не вдалося прочитати скрипт міграції " + name, e);
+        }
+    }
+
+    // Переноси рядків нормалізуються, щоб checkout з CRLF не виглядав зміною
+    private static long checksum(String script) {
+        CRC32 crc = new CRC32();
+        crc.update(script.replace("\r\n", "\n").getBytes(StandardCharsets.UTF_8));
+        return crc.getValue();
+    }
+
+    private static int versionOf(String name) {
+        return Integer.parseInt(name.substring(1, name.indexOf("__")));
+    }
+
+    private static String descriptionOf(String name) {
+        return name.substring(name.indexOf("__") + 2, name.lastIndexOf('.')).replace('_', ' ');
+    }
+}
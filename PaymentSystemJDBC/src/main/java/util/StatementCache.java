@@ -0,0 +1,324 @@
+package util;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Кеш підготовлених запитів одного фізичного підключення
+ * Ключ - текст SQL та параметри prepareStatement. close() такого запиту
+ * не закриває його, а повертає в кеш, тож повторний виклик з тим самим SQL
+ * не розбирає і не готує запит знову. Змінені викликачем налаштування
+ * (fetch size, max rows, тайм-аут тощо) повертаються до початкових значень.
+ * Підключення одночасно належить одному потоку, тому синхронізація не потрібна.
+ */
+final class StatementCache {
+
+    private final int maxSize;
+    private final LongAdder hits;
+    private final LongAdder misses;
+    private final LinkedHashMap<Key, CachedStatement> statements;
+
+    StatementCache(int maxSize, LongAdder hits, LongAdder misses) {
+        this.maxSize = maxSize;
+        this.hits = hits;
+        this.misses = misses;
+        // Порядок доступу: найдавніше використаний запит - першим на витіснення
+        this.statements = new LinkedHashMap<>(16, 0.75f, true);
+    }
+
+    /**
+     * Чи можна кешувати результат цього варіанта prepareStatement
+     */
+    static boolean isCacheable(Method method) {
+        if (!"prepareStatement".equals(method.getName())) {
+            return false;
+        }
+        Class<?>[] types = method.getParameterTypes();
+        for (int i = 1; i < types.length; i++) {
+            if (types[i] != int.class) {
+                return false;   // варіанти з масивами колонок не кешуємо
+            }
+        }
+        return types.length <= 3;
+    }
+
+    /**
+     * Отримати запит з кешу або підготувати новий
+     * @param raw - фізичне підключення
+     * @param logical - підключення, яке бачить викликач (для getConnection())
+     */
+    PreparedStatement prepare(Connection raw, Connection logical, Method method, Object[] args)
+            throws Throwable {
+        Key key = new Key(args);
+        CachedStatement cached = statements.get(key);
+        if (cached != null && !cached.inUse) {
+            hits.increment();
+            cached.inUse = true;
+            return cached.proxy;
+        }
+        misses.increment();
+
+        PreparedStatement real = (PreparedStatement) invoke(raw, method, args);
+        if (cached != null) {
+            // Той самий SQL вже відкритий у цій же оренді - віддаємо некешований запит
+            return real;
+        }
+
+        cached = new CachedStatement(key, real, logical);
+        cached.inUse = true;
+        statements.put(key, cached);
+        evictIfNeeded();
+        return cached.proxy;
+    }
+
+    private void evictIfNeeded() {
+        Iterator<CachedStatement> it = statements.values().iterator();
+        while (statements.size() > maxSize && it.hasNext()) {
+            CachedStatement eldest = it.next();
+            it.remove();
+            if (eldest.inUse) {
+                eldest.evicted = true;   // закриється, коли викликач його закриє
+            } else {
+                closeQuietly(eldest.real);
+            }
+        }
+    }
+
+    /**
+     * Повернути в кеш запити, які орендар забув закрити (підключення повертається до пулу)
+     */
+    void releaseAll() throws SQLException {
+        for (CachedStatement cached : statements.values().toArray(new CachedStatement[0])) {
+            cached.giveBack();
+        }
+    }
+
+    /**
+     * Закрити всі закешовані запити (підключення закривається)
+     */
+    void closeAll() {
+        for (CachedStatement cached : statements.values()) {
+            closeQuietly(cached.real);
+        }
+        statements.clear();
+    }
+
+    private static void closeQuietly(PreparedStatement stmt) {
+        try {
+            stmt.close();
+        } catch (SQLException e) {
+            // Підключення однаково закривається або запит вже непотрібний
+        }
+    }
+
+    private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+
+    /**
+     * Запит у кеші; обгортка перехоплює close()
+     */
+    private final class CachedStatement implements InvocationHandler {
+        final Key key;
+        final PreparedStatement real;
+        final Connection logical;
+        final PreparedStatement proxy;
+        boolean inUse;
+        boolean evicted;
+        // Викликач змінив те, що не відкотити (курсор, closeOnCompletion) - такий запит не повертаємо в кеш
+        boolean dirty;
+        // Початкові значення налаштувань, які змінив викликач; відновлюються при поверненні в кеш
+        Map<String, Object> changedSettings;
+
+        CachedStatement(Key key, PreparedStatement real, Connection logical) {
+            this.key = key;
+            this.real = real;
+            this.logical = logical;
+            this.proxy = (PreparedStatement) Proxy.newProxyInstance(
+                    StatementCache.class.getClassLoader(),
+                    new Class<?>[]{PreparedStatement.class},
+                    this);
+        }
+
+        @Override
+        public Object invoke(Object proxyObject, Method method, Object[] args) throws Throwable {
+            String setting = null;
+            switch (method.getName()) {
+                case "close":
+                    giveBack();
+                    return null;
+                case "isClosed":
+                    return !inUse || real.isClosed();
+                case "getConnection":
+                    return logical;
+                case "equals":
+                    return proxyObject == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxyObject);
+                case "toString":
+                    return "CachedStatement[" + real + "]";
+                case "setFetchSize":
+                case "setFetchDirection":
+                case "setMaxRows":
+                case "setMaxFieldSize":
+                case "setQueryTimeout":
+                case "setEscapeProcessing":
+                case "setPoolable":
+                    setting = method.getName().substring(3);
+                    break;
+                case "setLargeMaxRows":
+                    setting = "MaxRows";
+                    break;
+                case "setCursorName":
+                case "closeOnCompletion":
+                    dirty = true;
+                    break;
+                default:
+                    break;
+            }
+            if (!inUse) {
+                throw new SQLException("Запит вже закрито");
+            }
+            if (setting != null) {
+                rememberSetting(setting);
+            }
+            return StatementCache.invoke(real, method, args);
+        }
+
+        /**
+         * Запам'ятати значення налаштування до першої зміни за цю оренду
+         */
+        private void rememberSetting(String setting) throws SQLException {
+            if (changedSettings == null) {
+                changedSettings = new LinkedHashMap<>();
+            } else if (changedSettings.containsKey(setting)) {
+                return;
+            }
+            Object value;
+            switch (setting) {
+                case "FetchSize":
+                    value = real.getFetchSize();
+                    break;
+                case "FetchDirection":
+                    value = real.getFetchDirection();
+                    break;
+                case "MaxRows":
+                    value = real.getMaxRows();
+                    break;
+                case "MaxFieldSize":
+                    value = real.getMaxFieldSize();
+                    break;
+                case "QueryTimeout":
+                    value = real.getQueryTimeout();
+                    break;
+                case "Poolable":
+                    value = real.isPoolable();
+                    break;
+                default:
+                    // EscapeProcessing: геттера немає, за JDBC обробка escape-послідовностей увімкнена
+                    value = Boolean.TRUE;
+                    break;
+            }
+            changedSettings.put(setting, value);
+        }
+
+        private void restoreSettings() throws SQLException {
+            if (changedSettings == null) {
+                return;
+            }
+            for (Map.Entry<String, Object> entry : changedSettings.entrySet()) {
+                Object value = entry.getValue();
+                switch (entry.getKey()) {
+                    case "FetchSize":
+                        real.setFetchSize((Integer) value);
+                        break;
+                    case "FetchDirection":
+                        real.setFetchDirection((Integer) value);
+                        break;
+                    case "MaxRows":
+                        real.setMaxRows((Integer) value);
+                        break;
+                    case "MaxFieldSize":
+                        real.setMaxFieldSize((Integer) value);
+                        break;
+                    case "QueryTimeout":
+                        real.setQueryTimeout((Integer) value);
+                        break;
+                    case "Poolable":
+                        real.setPoolable((Boolean) value);
+                        break;
+                    default:
+                        real.setEscapeProcessing((Boolean) value);
+                        break;
+                }
+            }
+            changedSettings = null;
+        }
+
+        private void giveBack() throws SQLException {
+            if (!inUse) {
+                return;
+            }
+            inUse = false;
+            if (evicted || dirty) {
+                if (statements.get(key) == this) {
+                    statements.remove(key);
+                }
+                real.close();
+                return;
+            }
+            try {
+                // Закриваємо незакритий результат і готуємо запит до наступного використання
+                ResultSet rs = real.getResultSet();
+                if (rs != null) {
+                    rs.close();
+                }
+                real.clearParameters();
+                real.clearBatch();
+                real.clearWarnings();
+                restoreSettings();
+            } catch (SQLException e) {
+                statements.remove(key);
+                real.close();
+            }
+        }
+    }
+
+    /**
+     * Ключ кешу: SQL і додаткові int-параметри prepareStatement
+     */
+    private static final class Key {
+        private final Object[] args;
+        private final int hash;
+
+        Key(Object[] args) {
+            this.args = args;
+            this.hash = Arrays.hashCode(args);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof Key && Arrays.equals(args, ((Key) o).args);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+}
@@ -0,0 +1,62 @@
+-- Базова схема payment_system.
+-- IF NOT EXISTS - щоб міграцію можна було застосувати і до бази, створеної
+-- вручну до появи міграцій: наявні таблиці лишаються як є.
+
+CREATE TABLE IF NOT EXISTS users (
+    user_id           INT          NOT NULL AUTO_INCREMENT PRIMARY KEY,
+    first_name        VARCHAR(50)  NOT NULL,
+    last_name         VARCHAR(50)  NOT NULL,
+    email             VARCHAR(100) NOT NULL UNIQUE,
+    phone             VARCHAR(20),
+    password_hash     VARCHAR(255) NOT NULL,
+    date_of_birth     DATE,
+    registration_date TIMESTAMP    DEFAULT CURRENT_TIMESTAMP,
+    last_login        TIMESTAMP    NULL,
+    is_active         BOOLEAN      DEFAULT TRUE
+);
+
+CREATE TABLE IF NOT EXISTS accounts (
+    account_id     INT            NOT NULL AUTO_INCREMENT PRIMARY KEY,
+    user_id        INT            NOT NULL,
+    account_number VARCHAR(34)    NOT NULL UNIQUE,
+    balance        DECIMAL(15, 2) NOT NULL DEFAULT 0,
+    currency       VARCHAR(3)     NOT NULL DEFAULT 'UAH',
+    FOREIGN KEY (user_id) REFERENCES users (user_id) ON DELETE CASCADE
+);
+
+CREATE TABLE IF NOT EXISTS payment_categories (
+    category_id   INT          NOT NULL PRIMARY KEY,
+    category_name VARCHAR(100) NOT NULL
+);
+
+CREATE TABLE IF NOT EXISTS payment_statuses (
+    status_id   INT         NOT NULL PRIMARY KEY,
+    status_name VARCHAR(50) NOT NULL
+);
+
+CREATE TABLE IF NOT EXISTS payments (
+    payment_id           INT            NOT NULL AUTO_INCREMENT PRIMARY KEY,
+    sender_account_id    INT            NOT NULL,
+    recipient_account_id INT            NULL,
+    category_id          INT            NOT NULL,
+    status_id            INT            NOT NULL,
+    amount               DECIMAL(15, 2) NOT NULL,
+    currency             VARCHAR(3)     NOT NULL DEFAULT 'UAH',
+    description          VARCHAR(255),
+    payment_date         TIMESTAMP      NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    completion_date      TIMESTAMP      NULL,
+    commission           DECIMAL(10, 2) NOT NULL DEFAULT 0,
+    reference_number     VARCHAR(50)    UNIQUE,
+    FOREIGN KEY (sender_account_id) REFERENCES accounts (account_id),
+    FOREIGN KEY (recipient_account_id) REFERENCES accounts (account_id),
+    FOREIGN KEY (category_id) REFERENCES payment_categories (category_id),
+    FOREIGN KEY (status_id) REFERENCES payment_statuses (status_id)
+);
+
+-- Статуси, на ID яких спирається код (3 - "Виконано" тощо)
+INSERT IGNORE INTO payment_statuses (status_id, status_name) VALUES
+    (1, 'Очікує'),
+    (2, 'В обробці'),
+    (3, 'Виконано'),
+    (4, 'Скасовано'),
+    (5, 'Відхилено');
@@ -0,0 +1,35 @@
+-- Накопичені суми виконаних платежів (status_id = 3) за рахунком і користувачем відправника.
+-- Оновлюються PaymentDAOImpl у тій самій транзакції, що й статус платежу;
+-- звірка і перерахунок - PaymentDAO.verifyPaymentTotals() / rebuildPaymentTotals().
+
+CREATE TABLE IF NOT EXISTS account_payment_totals (
+    account_id      INT            NOT NULL PRIMARY KEY,
+    completed_total DECIMAL(17, 2) NOT NULL DEFAULT 0,
+    completed_count INT            NOT NULL DEFAULT 0,
+    FOREIGN KEY (account_id) REFERENCES accounts (account_id) ON DELETE CASCADE
+);
+
+CREATE TABLE IF NOT EXISTS user_payment_totals (
+    user_id         INT            NOT NULL PRIMARY KEY,
+    completed_total DECIMAL(17, 2) NOT NULL DEFAULT 0,
+    completed_count INT            NOT NULL DEFAULT 0,
+    FOREIGN KEY (user_id) REFERENCES users (user_id) ON DELETE CASCADE
+);
+
+-- Початкове заповнення з наявних платежів (з нуля - якщо таблиці вже
+-- створювали вручну до появи міграцій)
+DELETE FROM account_payment_totals;
+DELETE FROM user_payment_totals;
+
+INSERT INTO account_payment_totals (account_id, completed_total, completed_count)
+SELECT sender_account_id, SUM(amount), COUNT(*)
+FROM payments
+WHERE status_id = 3
+GROUP BY sender_account_id;
+
+INSERT INTO user_payment_totals (user_id, completed_total, completed_count)
+SELECT a.user_id, SUM(p.amount), COUNT(*)
+FROM payments p
+JOIN accounts a ON p.sender_account_id = a.account_id
+WHERE p.status_id = 3
+GROUP BY a.user_id;
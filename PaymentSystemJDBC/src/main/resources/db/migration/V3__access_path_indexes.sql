@@ -0,0 +1,25 @@
+-- Індекси під шляхи доступу PaymentDAO і UserDAO.
+-- Фільтр + ORDER BY payment_date DESC читаються з індексу (фільтр, payment_date)
+-- без сортування. InnoDB дописує первинний ключ у кінець кожного вторинного
+-- індексу, тож такий індекс уже впорядкований і за payment_id, як того
+-- вимагають сторінки (ORDER BY p.payment_date DESC, p.payment_id DESC).
+-- Чи користуються запити індексами, перевіряє dao.QueryPlanCheck.
+
+-- getPaymentsByAccount*, а через accounts - getPaymentsByUser*
+CREATE INDEX idx_payments_sender_date ON payments (sender_account_id, payment_date);
+
+-- getPaymentsByStatus*, countPaymentsByStatus(es),
+-- статистика за категоріями (status_id = 3 AND payment_date >= ?)
+CREATE INDEX idx_payments_status_date ON payments (status_id, payment_date);
+
+-- getPaymentsByCategory*, streamPaymentsByCategory
+CREATE INDEX idx_payments_category_date ON payments (category_id, payment_date);
+
+-- getAllPayments*: лише сортування, без фільтра
+CREATE INDEX idx_payments_date ON payments (payment_date);
+
+-- a1.user_id = ? у getPaymentsByUser*
+CREATE INDEX idx_accounts_user ON accounts (user_id);
+
+-- getActiveUsers (ORDER BY last_name), searchByLastName з префіксом
+CREATE INDEX idx_users_last_name ON users (last_name);
@@ -0,0 +1,11 @@
+-- Курси валют для перерахунку сум у валюту звітності (dao.ExchangeRateCache).
+-- rate - скільки одиниць базової валюти (UAH) коштує одиниця currency;
+-- курс базової валюти завжди 1.
+
+CREATE TABLE IF NOT EXISTS exchange_rates (
+    currency   VARCHAR(3)     NOT NULL PRIMARY KEY,
+    rate       DECIMAL(18, 8) NOT NULL,
+    updated_at TIMESTAMP      NOT NULL DEFAULT CURRENT_TIMESTAMP
+);
+
+INSERT IGNORE INTO exchange_rates (currency, rate) VALUES ('UAH', 1);
@@ -0,0 +1,255 @@
+package dao;
+
+import model.User;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Кешуючий UserDAO: пам'ять обмежена maxSize за будь-якої кількості скидань,
+ * прострочень і перезавантажень, а витіснення CLOCK зберігає записи, які читають
+ */
+class CachingUserDAOTest {
+
+    private static final int MAX_SIZE = 16;
+
+    @Test
+    void invalidateReloadCyclesKeepRetainedEntriesBounded() {
+        InMemoryUserDAO users = new InMemoryUserDAO(100);
+        CachingUserDAO cache = new CachingUserDAO(users, MAX_SIZE, TimeUnit.MINUTES.toMillis(5));
+
+        int cycles = MAX_SIZE * 1000;
+        for (int i = 0; i < cycles; i++) {
+            int userId = i % 100 + 1;
+            User user = cache.getUserById(userId);
+            assertNotNull(user);
+            cache.getUserByEmail(user.getEmail());
+            cache.updateUser(user);
+            assertTrue(cache.retainedEntries() <= MAX_SIZE, "Кеш тримає " + cache.retainedEntries() + " записів");
+        }
+        assertTrue(cache.getStats().getSize() <= MAX_SIZE);
+        assertTrue(cache.retainedEntries() <= MAX_SIZE);
+    }
+
+    @Test
+    void expiredEntriesDoNotAccumulate() {
+        InMemoryUserDAO users = new InMemoryUserDAO(MAX_SIZE / 2);
+        // Нульовий час життя: кожен запис прострочений, щойно потрапив у кеш
+        CachingUserDAO cache = new CachingUserDAO(users, MAX_SIZE, 0);
+
+        for (int i = 0; i < MAX_SIZE * 1000; i++) {
+            cache.getUserById(i % (MAX_SIZE / 2) + 1);
+        }
+        assertTrue(cache.retainedEntries() <= MAX_SIZE);
+        assertEquals(0, cache.getStats().getHits());
+        assertTrue(cache.getStats().getExpirations() > 0);
+    }
+
+    @Test
+    void concurrentInvalidateAndReloadKeepRetainedEntriesBounded() throws Exception {
+        InMemoryUserDAO users = new InMemoryUserDAO(1000);
+        CachingUserDAO cache = new CachingUserDAO(users, MAX_SIZE, TimeUnit.MINUTES.toMillis(5));
+
+        int threads = 8;
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    ThreadLocalRandom random = ThreadLocalRandom.current();
+                    for (int i = 0; i < 20_000; i++) {
+                        int userId = random.nextInt(1000) + 1;
+                        if (random.nextInt(4) == 0) {
+                            cache.deactivateUser(userId);
+                        } else {
+                            assertNotNull(cache.getUserById(userId));
+                        }
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get(60, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        assertTrue(cache.retainedEntries() <= MAX_SIZE, "Кеш тримає " + cache.retainedEntries() + " записів");
+        assertTrue(cache.getStats().getSize() <= MAX_SIZE);
+    }
+
+    /**
+     * Витіснення, що перетинається з додаванням, не лишає в індексі email без запису
+     */
+    @Test
+    void concurrentLoadsByEmailKeepEmailIndexWithinCache() throws Exception {
+        InMemoryUserDAO users = new InMemoryUserDAO(200);
+        CachingUserDAO cache = new CachingUserDAO(users, MAX_SIZE, TimeUnit.MINUTES.toMillis(5));
+
+        int threads = 8;
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    ThreadLocalRandom random = ThreadLocalRandom.current();
+                    for (int i = 0; i < 5_000; i++) {
+                        int userId = random.nextInt(200) + 1;
+                        if (random.nextBoolean()) {
+                            assertNotNull(cache.getUserByEmail("user" + userId + "@test.local"));
+                        } else {
+                            assertNotNull(cache.getUserById(userId));
+                        }
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get(60, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        assertTrue(cache.emailIndexSize() <= cache.getStats().getSize(),
+                "Індекс тримає " + cache.emailIndexSize() + " email на " + cache.getStats().getSize() + " записів");
+    }
+
+    @Test
+    void recentlyReadEntryGetsSecondChance() {
+        InMemoryUserDAO users = new InMemoryUserDAO(10);
+        CachingUserDAO cache = new CachingUserDAO(users, 4, TimeUnit.MINUTES.toMillis(5));
+
+        for (int userId = 1; userId <= 4; userId++) {
+            cache.getUserById(userId);
+        }
+        cache.getUserById(1);              // влучання - запис 1 отримує другий шанс
+        cache.getUserById(5);              // витісняє запис 2
+        int loads = users.loads.get();
+
+        cache.getUserById(1);
+        assertEquals(loads, users.loads.get(), "Запис, який читали, не мав бути витіснений");
+        cache.getUserById(2);
+        assertEquals(loads + 1, users.loads.get());
+        assertEquals(2, cache.getStats().getEvictions());
+    }
+
+    @Test
+    void evictedEntryIsNotServedByEmail() {
+        InMemoryUserDAO users = new InMemoryUserDAO(10);
+        CachingUserDAO cache = new CachingUserDAO(users, 2, TimeUnit.MINUTES.toMillis(5));
+
+        String email = cache.getUserById(1).getEmail();
+        cache.getUserById(2);
+        cache.getUserById(3);              // витісняє запис 1
+        int loads = users.loads.get();
+
+        User user = cache.getUserByEmail(email);
+        assertEquals(1, user.getUserId());
+        assertEquals(loads + 1, users.loads.get());
+    }
+
+    /**
+     * UserDAO у пам'яті: рахує завантаження, решта методів не потрібна кешу
+     */
+    private static final class InMemoryUserDAO implements UserDAO {
+        private final ConcurrentHashMap<Integer, User> users = new ConcurrentHashMap<>();
+        final AtomicInteger loads = new AtomicInteger();
+
+        InMemoryUserDAO(int count) {
+            for (int userId = 1; userId <= count; userId++) {
+                users.put(userId, new User(userId, "Ім'я" + userId, "Прізвище" + userId,
+                        "user" + userId + "@test.local", null, "hash", null, null, null, true));
+            }
+        }
+
+        @Override
+        public User getUserById(int userId) {
+            loads.incrementAndGet();
+            return users.get(userId);
+        }
+
+        @Override
+        public User getUserByEmail(String email) {
+            loads.incrementAndGet();
+            return users.values().stream()
+                    .filter(user -> user.getEmail().equalsIgnoreCase(email))
+                    .findFirst()
+                    .orElse(null);
+        }
+
+        @Override
+        public boolean updateUser(User user) {
+            return users.replace(user.getUserId(), user) != null;
+        }
+
+        @Override
+        public boolean deleteUser(int userId) {
+            return users.remove(userId) != null;
+        }
+
+        @Override
+        public boolean deactivateUser(int userId) {
+            return users.containsKey(userId);
+        }
+
+        @Override
+        public boolean addUser(User user) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public UserImportResult addUsers(Iterable<User> users) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public List<User> getAllUsers() {
+            return new ArrayList<>(users.values());
+        }
+
+        @Override
+        public Stream<User> streamAllUsers() {
+            return users.values().stream();
+        }
+
+        @Override
+        public List<User> getActiveUsers() {
+            return getAllUsers();
+        }
+
+        @Override
+        public List<User> searchByLastName(String lastName) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public List<User> searchByName(String text, NameMatch match, int limit) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public int countUsers() {
+            return users.size();
+        }
+    }
+}
@@ -0,0 +1,113 @@
+package dao;
+
+import model.CategoryStatistics;
+import model.Money;
+import model.Payment;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import util.ConnectionPool;
+import util.TestDatabase;
+
+import java.math.BigDecimal;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Статистика за категоріями: скасування крайньої суми одразу дає точні
+ * мінімум і максимум вікна, без перерахунку з БД; платежі з сумою, яку
+ * статистика не врахує, не зберігаються
+ */
+class CategoryStatisticsCacheTest {
+
+    private static final int CATEGORY_ID = 1;
+
+    private ConnectionPool pool;
+    private ReferenceDataCache referenceData;
+    private PaymentDAOImpl dao;
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        DAOLog.setConsoleEnabled(false);
+        pool = TestDatabase.createPool(4, 30_000);
+        TestDatabase.createSchema(pool);
+        referenceData = new ReferenceDataCache(pool, 0);
+        dao = new PaymentDAOImpl(pool, referenceData);
+    }
+
+    @AfterEach
+    void tearDown() {
+        referenceData.close();
+        TestDatabase.drop(pool);
+        DAOLog.setConsoleEnabled(true);
+    }
+
+    @Test
+    void cancellingExtremeAmountKeepsWindowExact() throws SQLException {
+        int sender = TestDatabase.createAccount(pool, "UAH", new BigDecimal("1000.00"));
+        int recipient = TestDatabase.createAccount(pool, "UAH", BigDecimal.ZERO);
+        List<Payment> payments = new ArrayList<>();
+        for (String amount : new String[]{"10.00", "20.00", "20.00", "30.00"}) {
+            Payment payment = new Payment(sender, recipient, CATEGORY_ID, 1, new BigDecimal(amount), "Переказ");
+            payment.setCommission(BigDecimal.ZERO);
+            assertTrue(dao.transfer(payment));
+            payments.add(payment);
+        }
+        CategoryStatistics.CurrencyStatistics before = uah(StatisticsWindow.LAST_HOUR);
+        assertEquals(4, before.getCount());
+        assertEquals(Money.of(new BigDecimal("10.00"), Money.UAH), before.getMinAmount());
+
+        // Скасовано мінімум і одну з двох однакових сум
+        assertTrue(dao.cancelPayment(payments.get(0).getPaymentId()));
+        assertTrue(dao.cancelPayment(payments.get(1).getPaymentId()));
+        CategoryStatistics.CurrencyStatistics hour = uah(StatisticsWindow.LAST_HOUR);
+        assertEquals(2, hour.getCount());
+        assertEquals(Money.of(new BigDecimal("20.00"), Money.UAH), hour.getMinAmount());
+        assertEquals(Money.of(new BigDecimal("30.00"), Money.UAH), hour.getMaxAmount());
+        assertEquals(hour.getMinAmount(), uah(StatisticsWindow.LAST_DAY).getMinAmount());
+
+        assertTrue(dao.cancelPayment(payments.get(3).getPaymentId()));
+        assertEquals(Money.of(new BigDecimal("20.00"), Money.UAH), uah(StatisticsWindow.LAST_HOUR).getMaxAmount());
+    }
+
+    /**
+     * Платіж, суму якого статистика не змогла б врахувати, не зберігається взагалі
+     */
+    @Test
+    void paymentsStatisticsCannotCountAreRejected() throws SQLException {
+        int sender = TestDatabase.createAccount(pool, "UAH", new BigDecimal("1000.00"));
+        Payment counted = completed(sender, "10.00", "UAH");
+        assertTrue(dao.createPayment(counted));
+
+        assertFalse(dao.createPayment(completed(sender, "10.005", "UAH")));
+        assertFalse(dao.createPayment(completed(sender, "10.00", "XYZ")));
+        assertEquals(1, dao.createPayments(List.of(completed(sender, "1.001", "UAH"),
+                completed(sender, "20.00", "UAH"), completed(sender, "5.00", "ABC"))));
+
+        CategoryStatistics.CurrencyStatistics hour = uah(StatisticsWindow.LAST_HOUR);
+        assertEquals(2, hour.getCount());
+        assertEquals(Money.of(new BigDecimal("30.00"), Money.UAH), hour.getTotal());
+    }
+
+    private static Payment completed(int sender, String amount, String currency) {
+        Payment payment = new Payment(sender, null, CATEGORY_ID, 3, new BigDecimal(amount), "Платіж");
+        payment.setCurrency(currency);
+        payment.setCommission(BigDecimal.ZERO);
+        return payment;
+    }
+
+    private CategoryStatistics.CurrencyStatistics uah(StatisticsWindow window) {
+        for (CategoryStatistics statistics : dao.getCategoryStatistics(window)) {
+            if (statistics.getCategoryId() == CATEGORY_ID) {
+                assertEquals(1, statistics.getByCurrency().size());
+                return statistics.getByCurrency().get(0);
+            }
+        }
+        throw new AssertionError("Немає категорії " + CATEGORY_ID);
+    }
+}
@@ -0,0 +1,244 @@
+package dao;
+
+import model.CategoryStatistics;
+import model.Payment;
+import model.User;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import util.ConnectionPool;
+import util.TestDatabase;
+
+import java.math.BigDecimal;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Кожен метод PaymentDAO і UserDAO з десятків потоків через пул, меншого за
+ * кількість потоків: кожен потік працює зі своїм користувачем і рахунками
+ * і перевіряє, що бачить лише власні дані - результати інших потоків не
+ * підмішуються, а накопичені суми збігаються з платежами
+ */
+class DAOConcurrencyTest {
+
+    private static final int THREADS = 32;
+    private static final int ITERATIONS = 10;
+    private static final int STATUS_PENDING = 1;
+    private static final int STATUS_COMPLETED = 3;
+
+    private ConnectionPool pool;
+    private ReferenceDataCache referenceData;
+    private PaymentDAO payments;
+    private UserDAO users;
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        DAOLog.setConsoleEnabled(false);
+        pool = TestDatabase.createPool(8, 60_000);
+        TestDatabase.createSchema(pool);
+        referenceData = new ReferenceDataCache(pool, 0);
+        payments = new PaymentDAOImpl(pool, referenceData);
+        users = new UserDAOImpl(pool);
+    }
+
+    @AfterEach
+    void tearDown() {
+        referenceData.close();
+        TestDatabase.drop(pool);
+        DAOLog.setConsoleEnabled(true);
+    }
+
+    @Test
+    void concurrentCallersSeeOnlyTheirOwnResults() throws Exception {
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < THREADS; t++) {
+                int worker = t;
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    runWorker(worker);
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get(300, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertTrue(payments.verifyPaymentTotals().isEmpty(), "Накопичені суми розійшлися з платежами");
+        assertEquals(THREADS * ITERATIONS * 5, payments.getAllPayments().size());
+        assertTrue(users.countUsers() >= THREADS);
+    }
+
+    private void runWorker(int worker) throws SQLException {
+        String lastName = "Стрес" + worker + "Прізвище";
+        String email = "stress" + worker + "@test.local";
+
+        User user = user("Потік" + worker, lastName, email);
+        assertTrue(users.addUser(user));
+        int userId = user.getUserId();
+        assertTrue(userId > 0);
+        assertOwnUser(users.getUserById(userId), userId, email);
+        assertOwnUser(users.getUserByEmail(email), userId, email);
+
+        user.setPhone("+38050" + (1000000 + worker));
+        assertTrue(users.updateUser(user));
+        assertEquals(user.getPhone(), users.getUserById(userId).getPhone());
+
+        List<User> byLastName = users.searchByLastName(lastName);
+        assertEquals(1, byLastName.size());
+        assertEquals(userId, byLastName.get(0).getUserId());
+        List<User> byName = users.searchByName(lastName, NameMatch.PREFIX, 10);
+        assertEquals(1, byName.size());
+        assertEquals(userId, byName.get(0).getUserId());
+
+        int account = TestDatabase.createAccount(pool, userId, "UAH", new BigDecimal("1000000.00"));
+        int recipient = TestDatabase.createAccount(pool, userId, "UAH", BigDecimal.ZERO);
+        int category = worker % TestDatabase.CATEGORY_COUNT + 1;
+
+        BigDecimal expectedTotal = BigDecimal.ZERO;
+        int expectedCount = 0;
+        for (int i = 0; i < ITERATIONS; i++) {
+            BigDecimal base = new BigDecimal(worker * 100 + i + 1);
+
+            Payment completed = payment(account, recipient, category, STATUS_COMPLETED, base);
+            assertTrue(payments.createPayment(completed));
+            Payment stored = payments.getPaymentById(completed.getPaymentId());
+            assertEquals(account, stored.getSenderAccountId());
+            assertEquals(0, base.compareTo(stored.getAmount()));
+            assertEquals(completed.getReferenceNumber(), stored.getReferenceNumber());
+
+            List<Payment> batch = new ArrayList<>();
+            for (int j = 0; j < 3; j++) {
+                batch.add(payment(account, recipient, category, STATUS_PENDING, base.add(BigDecimal.valueOf(j))));
+            }
+            assertEquals(3, payments.createPayments(batch, 2));
+            assertTrue(payments.updatePaymentStatus(batch.get(0).getPaymentId(), STATUS_COMPLETED));
+            assertTrue(payments.cancelPayment(batch.get(1).getPaymentId()));
+
+            Payment transfer = payment(account, recipient, category, 1, base);
+            transfer.setCommission(BigDecimal.ZERO);
+            assertTrue(payments.transfer(transfer));
+
+            assertTrue(payments.cancelPayment(completed.getPaymentId()));
+            expectedTotal = expectedTotal.add(batch.get(0).getAmount()).add(base);
+            expectedCount += 5;
+
+            assertOwnPayments(payments.getPaymentsByAccount(account), account, expectedCount);
+            assertOwnPayments(payments.getPaymentsByUser(userId), account, expectedCount);
+            assertOwnPayments(pageThrough(account), account, expectedCount);
+            assertEquals(0, expectedTotal.compareTo(payments.getTotalPaymentsByAccount(account)));
+            assertEquals(0, expectedTotal.compareTo(payments.getTotalPaymentsByUser(userId)));
+
+            for (Payment payment : payments.getPaymentsByCategory(category)) {
+                assertEquals(category, payment.getCategoryId());
+            }
+            for (Payment payment : payments.getPaymentsByCategoryPage(category, 20, null).getPayments()) {
+                assertEquals(category, payment.getCategoryId());
+            }
+            try (Stream<Payment> stream = payments.streamPaymentsByCategory(category)) {
+                assertTrue(stream.allMatch(payment -> payment.getCategoryId() == category));
+            }
+            callSharedReads();
+        }
+
+        // Ще два користувачі пакетом: одного видаляємо, іншого деактивуємо
+        User deleted = user("Тимчасовий" + worker, lastName + "Т", "temp" + worker + "@test.local");
+        User inactive = user("Неактивний" + worker, lastName + "Н", "inactive" + worker + "@test.local");
+        assertEquals(2, users.addUsers(List.of(deleted, inactive)).getInsertedCount());
+        User reloaded = users.getUserByEmail(deleted.getEmail());
+        assertNotNull(reloaded);
+        assertTrue(users.deleteUser(reloaded.getUserId()));
+        assertNull(users.getUserById(reloaded.getUserId()));
+        int inactiveId = users.getUserByEmail(inactive.getEmail()).getUserId();
+        assertTrue(users.deactivateUser(inactiveId));
+        assertFalse(users.getUserById(inactiveId).isActive());
+        for (User active : users.getActiveUsers()) {
+            assertTrue(active.getUserId() != inactiveId);
+        }
+    }
+
+    /**
+     * Методи над усією таблицею: результати не мають містити чужих чи змішаних рядків
+     */
+    private void callSharedReads() {
+        for (Payment payment : payments.getPaymentsByStatus(STATUS_COMPLETED)) {
+            assertEquals(STATUS_COMPLETED, payment.getStatusId());
+        }
+        for (Payment payment : payments.getPaymentsByStatusPage(STATUS_PENDING, 20, null).getPayments()) {
+            assertEquals(STATUS_PENDING, payment.getStatusId());
+        }
+        try (Stream<Payment> stream = payments.streamPaymentsByStatus(STATUS_COMPLETED)) {
+            assertTrue(stream.allMatch(payment -> payment.getStatusId() == STATUS_COMPLETED));
+        }
+        try (Stream<Payment> stream = payments.streamAllPayments()) {
+            assertTrue(stream.count() > 0);
+        }
+        assertNotNull(payments.getAllPaymentsPage(20, null));
+        assertNotNull(payments.getPaymentColumns());
+        assertTrue(payments.countPaymentsByStatus(STATUS_COMPLETED) > 0);
+        Map<Integer, Integer> byStatus = payments.countPaymentsByAllStatuses();
+        assertTrue(byStatus.getOrDefault(STATUS_COMPLETED, 0) > 0);
+        List<CategoryStatistics> statistics = payments.getCategoryStatistics(StatisticsWindow.LAST_HOUR);
+        assertEquals(TestDatabase.CATEGORY_COUNT, statistics.size());
+        assertEquals(TestDatabase.CATEGORY_COUNT, payments.getPaymentStatisticsByCategory().size());
+        assertFalse(users.getAllUsers().isEmpty());
+        try (Stream<User> stream = users.streamAllUsers()) {
+            assertTrue(stream.count() > 0);
+        }
+    }
+
+    private List<Payment> pageThrough(int account) {
+        List<Payment> all = new ArrayList<>();
+        String token = null;
+        do {
+            PaymentPage page = payments.getPaymentsByAccountPage(account, 7, token);
+            all.addAll(page.getPayments());
+            token = page.getNextPageToken();
+        } while (token != null);
+        return all;
+    }
+
+    private static void assertOwnUser(User user, int userId, String email) {
+        assertNotNull(user);
+        assertEquals(userId, user.getUserId());
+        assertEquals(email, user.getEmail());
+    }
+
+    private static void assertOwnPayments(List<Payment> list, int account, int expectedCount) {
+        assertEquals(expectedCount, list.size());
+        for (Payment payment : list) {
+            assertEquals(account, payment.getSenderAccountId(), "Чужий платіж " + payment.getPaymentId());
+        }
+    }
+
+    private static User user(String firstName, String lastName, String email) {
+        User user = new User(firstName, lastName, email, null);
+        user.setPasswordHash("hash");
+        user.setActive(true);
+        return user;
+    }
+
+    private static Payment payment(int sender, int recipient, int category, int statusId, BigDecimal amount) {
+        return new Payment(sender, recipient, category, statusId, amount, "Стрес-тест");
+    }
+}
@@ -0,0 +1,48 @@
+package dao;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Списки IN (...) фіксованих довжин: будь-яка кількість значень дає один із кількох текстів SQL
+ */
+class InListTest {
+
+    @Test
+    void variantFitsAllValues() {
+        for (int count = 1; count <= InList.MAX_SIZE; count++) {
+            int variant = InList.variant(count);
+            assertTrue(InList.size(variant) >= count);
+            assertTrue(variant == 0 || InList.size(variant - 1) < count, "Варіант " + variant + " для " + count);
+        }
+        assertThrows(IllegalArgumentException.class, () -> InList.variant(InList.MAX_SIZE + 1));
+    }
+
+    @Test
+    void anyListLengthMapsToFewStatements() {
+        String[] variants = InList.variants("SELECT email FROM users WHERE email IN ", " ORDER BY email");
+        Set<String> texts = new HashSet<>();
+        for (int count = 1; count <= InList.MAX_SIZE; count++) {
+            texts.add(variants[InList.variant(count)]);
+        }
+        assertEquals(variants.length, texts.size());
+        assertTrue(texts.size() <= 5);
+    }
+
+    @Test
+    void variantHasOnePlaceholderPerValue() {
+        String[] variants = InList.variants("SELECT * FROM users WHERE user_id IN ", "");
+        assertEquals("SELECT * FROM users WHERE user_id IN (?)", variants[0]);
+        for (int v = 0; v < variants.length; v++) {
+            long placeholders = variants[v].chars().filter(c -> c == '?').count();
+            assertEquals(InList.size(v), placeholders);
+            assertTrue(variants[v].endsWith("?)"));
+        }
+    }
+}
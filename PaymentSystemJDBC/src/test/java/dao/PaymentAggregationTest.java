@@ -0,0 +1,75 @@
+package dao;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Групування знімка: групи окремо за валютами і дні за часовим поясом агрегації,
+ * зокрема через перехід на літній час
+ */
+class PaymentAggregationTest {
+
+    private static final ZoneId KYIV = ZoneId.of("Europe/Kyiv");
+
+    @Test
+    void currenciesAreNotSummedTogether() {
+        PaymentColumns.Builder builder = new PaymentColumns.Builder();
+        builder.add(1, 1, 7, PaymentColumns.NO_ACCOUNT, 1, 3, new BigDecimal("100.00"), "UAH", 1, PaymentColumns.NO_DATE, null);
+        builder.add(2, 2, 7, PaymentColumns.NO_ACCOUNT, 1, 3, new BigDecimal("5.00"), "USD", 2, PaymentColumns.NO_DATE, null);
+        builder.add(3, 1, 7, PaymentColumns.NO_ACCOUNT, 2, 3, new BigDecimal("40.00"), "UAH", 3, PaymentColumns.NO_DATE, null);
+        PaymentColumns columns = builder.build();
+
+        Map<String, GroupStats> user = PaymentAggregation.by(GroupKey.USER).withPercentiles().run(columns).get(7);
+        assertEquals(2, user.size());
+        assertEquals(14000, user.get("UAH").getSum());
+        assertEquals(4000, user.get("UAH").getMin());
+        assertEquals(500, user.get("USD").getSum());
+        assertEquals(500, user.get("USD").percentile(50));
+
+        Map<Integer, Map<String, PaymentColumns.Aggregate>> byCategory =
+                columns.aggregateByCategory(PaymentColumns.Filter.all());
+        assertEquals(10000, byCategory.get(1).get("UAH").getSum());
+        assertEquals(500, byCategory.get(1).get("USD").getSum());
+        assertEquals(1, byCategory.get(2).size());
+    }
+
+    @Test
+    void dayFollowsAggregationZone() {
+        PaymentColumns.Builder builder = new PaymentColumns.Builder();
+        // 23:30 і 00:30 за Києвом - різні дні, хоча за UTC обидва платежі 29 березня
+        add(builder, 1, LocalDateTime.of(2025, 3, 29, 23, 30));
+        add(builder, 2, LocalDateTime.of(2025, 3, 30, 0, 30));
+        // Після переходу на літній час (30 березня, 03:00 -> 04:00)
+        add(builder, 3, LocalDateTime.of(2025, 3, 30, 23, 59));
+        add(builder, 4, LocalDateTime.of(2025, 3, 31, 0, 0));
+        PaymentColumns columns = builder.build();
+
+        Map<Integer, Map<String, GroupStats>> kyiv = PaymentAggregation.by(GroupKey.DAY).zone(KYIV).run(columns, new ForkJoinPool(2));
+        assertEquals(3, kyiv.size());
+        assertEquals(1, kyiv.get(day(2025, 3, 29)).get("UAH").getCount());
+        assertEquals(2, kyiv.get(day(2025, 3, 30)).get("UAH").getCount());
+        assertEquals(1, kyiv.get(day(2025, 3, 31)).get("UAH").getCount());
+
+        Map<Integer, Map<String, GroupStats>> utc = PaymentAggregation.by(GroupKey.DAY).zone(ZoneOffset.UTC).run(columns);
+        assertEquals(2, utc.get(day(2025, 3, 29)).get("UAH").getCount());
+        assertEquals(2, utc.get(day(2025, 3, 30)).get("UAH").getCount());
+    }
+
+    private static void add(PaymentColumns.Builder builder, int paymentId, LocalDateTime kyivTime) {
+        builder.add(paymentId, 1, 1, PaymentColumns.NO_ACCOUNT, 1, 3, new BigDecimal("10.00"), "UAH",
+                kyivTime.atZone(KYIV).toInstant().toEpochMilli(), PaymentColumns.NO_DATE, null);
+    }
+
+    private static int day(int year, int month, int dayOfMonth) {
+        return (int) LocalDate.of(year, month, dayOfMonth).toEpochDay();
+    }
+}
@@ -0,0 +1,182 @@
+package dao;
+
+import model.Payment;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import util.ConnectionPool;
+import util.TestDatabase;
+
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Переказ коштів: рух грошей в одній транзакції, відкат при відмові
+ * і збереження загальної суми під зустрічними переказами
+ */
+class PaymentTransferTest {
+
+    private ConnectionPool pool;
+    private ReferenceDataCache referenceData;
+    private PaymentDAO dao;
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        DAOLog.setConsoleEnabled(false);
+        pool = TestDatabase.createPool(8, 30_000);
+        TestDatabase.createSchema(pool);
+        referenceData = new ReferenceDataCache(pool, 0);
+        dao = new PaymentDAOImpl(pool, referenceData);
+    }
+
+    @AfterEach
+    void tearDown() {
+        referenceData.close();
+        TestDatabase.drop(pool);
+        DAOLog.setConsoleEnabled(true);
+    }
+
+    @Test
+    void transferMovesAmountAndCommission() throws SQLException {
+        int sender = TestDatabase.createAccount(pool, "UAH", new BigDecimal("100.00"));
+        int recipient = TestDatabase.createAccount(pool, "UAH", new BigDecimal("5.00"));
+
+        Payment payment = transfer(sender, recipient, "30.00", "0.50");
+        assertTrue(dao.transfer(payment));
+
+        assertTrue(payment.getPaymentId() > 0);
+        assertNotNull(payment.getReferenceNumber());
+        assertEquals(3, payment.getStatusId());
+        assertEquals(0, new BigDecimal("69.50").compareTo(TestDatabase.balance(pool, sender)));
+        assertEquals(0, new BigDecimal("35.00").compareTo(TestDatabase.balance(pool, recipient)));
+
+        Payment stored = dao.getPaymentById(payment.getPaymentId());
+        assertEquals(3, stored.getStatusId());
+        assertNotNull(stored.getCompletionDate());
+        assertEquals(0, new BigDecimal("0.50").compareTo(stored.getCommission()));
+    }
+
+    @Test
+    void insufficientFundsLeaveBalancesUnchanged() throws SQLException {
+        int sender = TestDatabase.createAccount(pool, "UAH", new BigDecimal("10.00"));
+        int recipient = TestDatabase.createAccount(pool, "UAH", BigDecimal.ZERO);
+
+        // Сума вміщується, а разом з комісією - ні
+        assertFalse(dao.transfer(transfer(sender, recipient, "10.00", "0.01")));
+
+        assertEquals(0, new BigDecimal("10.00").compareTo(TestDatabase.balance(pool, sender)));
+        assertEquals(0, BigDecimal.ZERO.compareTo(TestDatabase.balance(pool, recipient)));
+        assertEquals(0, countPayments());
+    }
+
+    @Test
+    void currencyMismatchIsRejected() throws SQLException {
+        int sender = TestDatabase.createAccount(pool, "UAH", new BigDecimal("100.00"));
+        int recipient = TestDatabase.createAccount(pool, "USD", BigDecimal.ZERO);
+
+        assertFalse(dao.transfer(transfer(sender, recipient, "10.00", "0.00")));
+
+        assertEquals(0, new BigDecimal("100.00").compareTo(TestDatabase.balance(pool, sender)));
+        assertEquals(0, countPayments());
+    }
+
+    @Test
+    void invalidTransfersAreRejected() throws SQLException {
+        int sender = TestDatabase.createAccount(pool, "UAH", new BigDecimal("100.00"));
+        int recipient = TestDatabase.createAccount(pool, "UAH", BigDecimal.ZERO);
+
+        assertFalse(dao.transfer(transfer(sender, sender, "10.00", "0.00")));
+        assertFalse(dao.transfer(transfer(sender, recipient + 1000, "10.00", "0.00")));
+        assertFalse(dao.transfer(transfer(sender, recipient, "0.00", "0.00")));
+        assertFalse(dao.transfer(transfer(sender, recipient, "10.00", "-1.00")));
+        Payment noCurrency = transfer(sender, recipient, "10.00", "0.00");
+        noCurrency.setCurrency(null);
+        assertFalse(dao.transfer(noCurrency));
+
+        assertEquals(0, new BigDecimal("100.00").compareTo(TestDatabase.balance(pool, sender)));
+        assertEquals(0, countPayments());
+    }
+
+    /**
+     * Зустрічні перекази між двома рахунками з кількох потоків:
+     * жоден баланс не стає від'ємним, а сума балансів і комісій не змінюється
+     */
+    @Test
+    void concurrentOpposingTransfersConserveMoney() throws Exception {
+        int first = TestDatabase.createAccount(pool, "UAH", new BigDecimal("50.00"));
+        int second = TestDatabase.createAccount(pool, "UAH", new BigDecimal("50.00"));
+        BigDecimal initial = new BigDecimal("100.00");
+
+        int threads = 8;
+        int perThread = 50;
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                boolean forward = t % 2 == 0;
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    for (int i = 0; i < perThread; i++) {
+                        dao.transfer(forward
+                                ? transfer(first, second, "3.00", "0.01")
+                                : transfer(second, first, "3.00", "0.01"));
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get(120, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        BigDecimal firstBalance = TestDatabase.balance(pool, first);
+        BigDecimal secondBalance = TestDatabase.balance(pool, second);
+        assertTrue(firstBalance.signum() >= 0, firstBalance.toString());
+        assertTrue(secondBalance.signum() >= 0, secondBalance.toString());
+        assertEquals(0, initial.compareTo(firstBalance.add(secondBalance).add(totalCommission())),
+                "Баланси " + firstBalance + " + " + secondBalance + ", комісії " + totalCommission());
+        assertTrue(countPayments() > 0);
+    }
+
+    private static Payment transfer(int sender, int recipient, String amount, String commission) {
+        Payment payment = new Payment(sender, recipient, 1, 1, new BigDecimal(amount), "Переказ");
+        payment.setCommission(new BigDecimal(commission));
+        return payment;
+    }
+
+    private long countPayments() throws SQLException {
+        return queryNumber("SELECT COUNT(*) FROM payments").longValue();
+    }
+
+    private BigDecimal totalCommission() throws SQLException {
+        return queryNumber("SELECT COALESCE(SUM(commission), 0) FROM payments");
+    }
+
+    private BigDecimal queryNumber(String sql) throws SQLException {
+        try (Connection connection = pool.getConnection();
+             Statement stmt = connection.createStatement();
+             ResultSet rs = stmt.executeQuery(sql)) {
+            rs.next();
+            return rs.getBigDecimal(1);
+        }
+    }
+}
@@ -0,0 +1,147 @@
+package dao;
+
+import model.Payment;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Буфери останніх платежів: пам'ять обмежена maxAccounts за будь-якої
+ * кількості скидань, подій і перезавантажень
+ */
+class RecentPaymentsCacheTest {
+
+    private static final int MAX_ACCOUNTS = 8;
+    private static final int CAPACITY = 4;
+
+    private final AtomicInteger loads = new AtomicInteger();
+
+    @Test
+    void invalidateReloadCyclesKeepRetainedBuffersBounded() throws Exception {
+        RecentPaymentsCache cache = new RecentPaymentsCache(this::load, null,
+                MAX_ACCOUNTS, CAPACITY, TimeUnit.MINUTES.toMillis(5));
+
+        for (int i = 0; i < MAX_ACCOUNTS * 1000; i++) {
+            int accountId = i % 50 + 1;
+            assertNotNull(cache.page(accountId, 2, null));
+            if (i % 2 == 0) {
+                cache.invalidate(accountId);
+            } else {
+                // Платіж без дати скидає буфер рахунку
+                cache.paymentCreated(payment(accountId * 1000 + i, accountId, null));
+            }
+            assertTrue(cache.retainedAccounts() <= MAX_ACCOUNTS, "Кеш тримає " + cache.retainedAccounts() + " буферів");
+        }
+        assertTrue(cache.getStats().getAccounts() <= MAX_ACCOUNTS);
+    }
+
+    @Test
+    void expiredBuffersDoNotAccumulate() throws Exception {
+        RecentPaymentsCache cache = new RecentPaymentsCache(this::load, null, MAX_ACCOUNTS, CAPACITY, 0);
+
+        for (int i = 0; i < MAX_ACCOUNTS * 1000; i++) {
+            cache.page(i % (MAX_ACCOUNTS / 2) + 1, 2, null);
+        }
+        assertTrue(cache.retainedAccounts() <= MAX_ACCOUNTS);
+        assertEquals(0, cache.getStats().getHits());
+        assertTrue(cache.getStats().getExpirations() > 0);
+    }
+
+    /**
+     * Завантаження, під час якого рахунок змінився, не лишається в пам'яті
+     */
+    @Test
+    void loadOverlappingWriteIsNotRetained() throws Exception {
+        RecentPaymentsCache[] holder = new RecentPaymentsCache[1];
+        RecentPaymentsCache cache = new RecentPaymentsCache((accountId, limit) -> {
+            holder[0].invalidate(accountId);
+            return load(accountId, limit);
+        }, null, MAX_ACCOUNTS, CAPACITY, TimeUnit.MINUTES.toMillis(5));
+        holder[0] = cache;
+
+        for (int accountId = 1; accountId <= MAX_ACCOUNTS * 100; accountId++) {
+            // Узгоджений знімок усе одно віддається викликачу
+            assertEquals(2, cache.page(accountId, 2, null).getPayments().size());
+        }
+        assertEquals(0, cache.retainedAccounts());
+        assertEquals(0, cache.getStats().getAccounts());
+    }
+
+    @Test
+    void loadedBufferServesLaterPagesAndEvictsBeyondLimit() throws Exception {
+        RecentPaymentsCache cache = new RecentPaymentsCache(this::load, null,
+                MAX_ACCOUNTS, CAPACITY, TimeUnit.MINUTES.toMillis(5));
+
+        cache.page(1, 2, null);
+        cache.page(1, 2, null);
+        assertEquals(1, loads.get());
+        assertEquals(1, cache.getStats().getHits());
+
+        for (int accountId = 2; accountId <= MAX_ACCOUNTS * 3; accountId++) {
+            cache.page(accountId, 2, null);
+        }
+        assertEquals(MAX_ACCOUNTS, cache.retainedAccounts());
+        assertTrue(cache.getStats().getEvictions() > 0);
+    }
+
+    /**
+     * Платежі з однаковою датою (одна пачка, дата до секунди) сторінки
+     * віддають усі й по одному разу, навіть якщо їх передано лише за датою
+     */
+    @Test
+    void paymentsSharingTimestampArePagedWithoutGaps() throws Exception {
+        RecentPaymentsCache cache = new RecentPaymentsCache(this::load, null,
+                MAX_ACCOUNTS, CAPACITY * 4, TimeUnit.MINUTES.toMillis(5));
+        Timestamp shared = new Timestamp(1_700_000_000_000L);
+        Timestamp older = new Timestamp(1_699_999_999_000L);
+        List<Payment> byDateOnly = new ArrayList<>();
+        for (int paymentId = 1; paymentId <= 5; paymentId++) {
+            byDateOnly.add(payment(paymentId, 1, shared));
+        }
+        byDateOnly.add(payment(6, 1, older));
+        byDateOnly.add(payment(7, 1, older));
+        cache.remember(1, byDateOnly, true, cache.epoch(1));
+
+        List<Integer> seen = new ArrayList<>();
+        PageToken after = null;
+        do {
+            PaymentPage page = cache.page(1, 2, after);
+            assertNotNull(page);
+            for (Payment payment : page.getPayments()) {
+                seen.add(payment.getPaymentId());
+            }
+            after = page.getNextPageToken() != null ? PageToken.decode(page.getNextPageToken()) : null;
+        } while (after != null);
+        assertEquals(List.of(5, 4, 3, 2, 1, 7, 6), seen);
+        assertEquals(0, loads.get());
+    }
+
+    /**
+     * Уся історія рахунку - CAPACITY платежів, від нових до старих
+     */
+    private PaymentPage load(int accountId, int limit) {
+        loads.incrementAndGet();
+        long now = System.currentTimeMillis();
+        List<Payment> payments = new ArrayList<>(limit);
+        for (int i = 0; i < Math.min(limit, CAPACITY); i++) {
+            payments.add(payment(accountId * 1000 + CAPACITY - i, accountId, new Timestamp(now - i * 1000L)));
+        }
+        return new PaymentPage(payments, null);
+    }
+
+    private static Payment payment(int paymentId, int accountId, Timestamp paymentDate) {
+        Payment payment = new Payment(accountId, null, 1, 3, new BigDecimal("10.00"), "Платіж");
+        payment.setPaymentId(paymentId);
+        payment.setPaymentDate(paymentDate);
+        return payment;
+    }
+}
@@ -0,0 +1,105 @@
+package dao;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Генератор референс-номерів: формат, унікальність під конкуренцією і монотонність
+ */
+class TimeOrderedReferenceNumberGeneratorTest {
+
+    // PAY- і 13 символів Crockford base32 (без I, L, O, U)
+    private static final Pattern FORMAT = Pattern.compile("PAY-[0-9A-HJKMNP-TV-Z]{13}");
+
+    @Test
+    void numbersHaveFixedFormat() {
+        TimeOrderedReferenceNumberGenerator generator = new TimeOrderedReferenceNumberGenerator(7);
+        for (int i = 0; i < 1000; i++) {
+            String number = generator.nextReferenceNumber();
+            assertTrue(FORMAT.matcher(number).matches(), number);
+        }
+    }
+
+    /**
+     * Номери одного генератора строго зростають, зокрема коли за мілісекунду
+     * видається більше номерів, ніж вміщує лічильник (4096)
+     */
+    @Test
+    void numbersAreStrictlyIncreasing() {
+        TimeOrderedReferenceNumberGenerator generator = new TimeOrderedReferenceNumberGenerator(0);
+        String previous = generator.nextReferenceNumber();
+        for (int i = 0; i < 200_000; i++) {
+            String next = generator.nextReferenceNumber();
+            assertTrue(next.compareTo(previous) > 0, previous + " >= " + next);
+            previous = next;
+        }
+    }
+
+    @Test
+    void concurrentCallersNeverGetDuplicates() throws Exception {
+        TimeOrderedReferenceNumberGenerator generator = new TimeOrderedReferenceNumberGenerator(1);
+        int threads = 8;
+        int perThread = 50_000;
+        Set<String> numbers = ConcurrentHashMap.newKeySet();
+
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    String previous = "";
+                    for (int i = 0; i < perThread; i++) {
+                        String number = generator.nextReferenceNumber();
+                        // Кожен потік бачить свої номери в порядку зростання
+                        assertTrue(number.compareTo(previous) > 0, previous + " >= " + number);
+                        numbers.add(number);
+                        previous = number;
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get(60, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        assertEquals(threads * perThread, numbers.size());
+    }
+
+    @Test
+    void differentNodesNeverCollide() {
+        TimeOrderedReferenceNumberGenerator first = new TimeOrderedReferenceNumberGenerator(1);
+        TimeOrderedReferenceNumberGenerator second = new TimeOrderedReferenceNumberGenerator(2);
+        Set<String> numbers = new HashSet<>();
+        for (int i = 0; i < 50_000; i++) {
+            assertTrue(numbers.add(first.nextReferenceNumber()));
+            assertTrue(numbers.add(second.nextReferenceNumber()));
+        }
+    }
+
+    @Test
+    void nodeIdOutOfRangeIsRejected() {
+        assertThrows(IllegalArgumentException.class, () -> new TimeOrderedReferenceNumberGenerator(-1));
+        assertThrows(IllegalArgumentException.class,
+                () -> new TimeOrderedReferenceNumberGenerator(TimeOrderedReferenceNumberGenerator.MAX_NODE_ID + 1));
+    }
+}
@@ -0,0 +1,229 @@
+package util;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.SQLTimeoutException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Пул під конкуренцією: ліміт підключень, відсутність витоків і тайм-аут очікування
+ */
+class ConnectionPoolTest {
+
+    private ConnectionPool pool;
+
+    @AfterEach
+    void tearDown() {
+        if (pool != null) {
+            pool.close();
+        }
+    }
+
+    /**
+     * Багато потоків беруть, використовують і повертають підключення
+     * Одночасно видано не більше maxSize, після прогону всі підключення повернуто
+     */
+    @Test
+    void concurrentBorrowersStayWithinLimitAndReturnEveryConnection() throws Exception {
+        int maxSize = 4;
+        int threads = 32;
+        int iterations = 200;
+        pool = TestDatabase.createPool(maxSize, 30_000);
+
+        AtomicInteger inUse = new AtomicInteger();
+        AtomicInteger maxInUse = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    for (int i = 0; i < iterations; i++) {
+                        try (Connection connection = pool.getConnection()) {
+                            maxInUse.accumulateAndGet(inUse.incrementAndGet(), Math::max);
+                            assertEquals(1, selectOne(connection));
+                            inUse.decrementAndGet();
+                        }
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get(60, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        ConnectionPool.Stats stats = pool.getStats();
+        assertTrue(maxInUse.get() <= maxSize, "Одночасно видано " + maxInUse.get() + " підключень");
+        assertEquals(0, stats.getActive(), "Не всі підключення повернуто: " + stats);
+        assertTrue(stats.getTotal() <= maxSize, stats.toString());
+        assertEquals(stats.getTotal(), stats.getIdle(), stats.toString());
+        assertEquals((long) threads * iterations, stats.getBorrowCount());
+        assertEquals(0, stats.getTimeouts());
+    }
+
+    /**
+     * Коли всі підключення видано, наступний орендар чекає не довше maxWait і отримує тайм-аут
+     */
+    @Test
+    void borrowerTimesOutWhenPoolIsExhausted() throws Exception {
+        long maxWaitMillis = 200;
+        pool = TestDatabase.createPool(2, maxWaitMillis);
+
+        Connection first = pool.getConnection();
+        Connection second = pool.getConnection();
+        long start = System.nanoTime();
+        assertThrows(SQLTimeoutException.class, () -> pool.getConnection());
+        long waitedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+        assertTrue(waitedMillis >= maxWaitMillis - 20, "Чекали лише " + waitedMillis + " мс");
+        assertEquals(1, pool.getStats().getTimeouts());
+        assertEquals(2, pool.getStats().getActive());
+
+        // Повернуте підключення знову видається
+        first.close();
+        try (Connection third = pool.getConnection()) {
+            assertEquals(1, selectOne(third));
+        }
+        second.close();
+        assertEquals(0, pool.getStats().getActive());
+    }
+
+    /**
+     * Орендар, що чекає, отримує підключення, щойно його повернуть
+     */
+    @Test
+    void waitingBorrowerReceivesReturnedConnection() throws Exception {
+        pool = TestDatabase.createPool(1, 10_000);
+        Connection held = pool.getConnection();
+
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<Integer> waiter = executor.submit(() -> {
+                try (Connection connection = pool.getConnection()) {
+                    return selectOne(connection);
+                }
+            });
+            while (pool.getStats().getWaiters() == 0) {
+                Thread.sleep(5);
+            }
+            held.close();
+            assertEquals(1, waiter.get(10, TimeUnit.SECONDS));
+        } finally {
+            executor.shutdownNow();
+        }
+        assertEquals(0, pool.getStats().getActive());
+        assertEquals(0, pool.getStats().getTimeouts());
+    }
+
+    /**
+     * Повторний close() (в т.ч. з різних потоків) повертає підключення лише раз
+     */
+    @Test
+    void repeatedCloseReturnsConnectionOnce() throws Exception {
+        pool = TestDatabase.createPool(2, 1_000);
+        Connection connection = pool.getConnection();
+
+        int threads = 8;
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    connection.close();
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get(10, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        ConnectionPool.Stats stats = pool.getStats();
+        assertEquals(0, stats.getActive(), stats.toString());
+        assertEquals(1, stats.getIdle(), stats.toString());
+        assertEquals(1, stats.getTotal(), stats.toString());
+        assertTrue(connection.isClosed());
+        assertThrows(SQLException.class, connection::createStatement);
+    }
+
+    /**
+     * Орендар, що не повернув автокомміт, не залишає незавершену транзакцію наступному
+     */
+    @Test
+    void returnedConnectionIsResetForNextBorrower() throws Exception {
+        pool = TestDatabase.createPool(1, 1_000);
+        try (Connection connection = pool.getConnection()) {
+            connection.setAutoCommit(false);
+            connection.setReadOnly(true);
+        }
+        try (Connection connection = pool.getConnection()) {
+            assertTrue(connection.getAutoCommit());
+            assertFalse(connection.isReadOnly());
+        }
+        assertEquals(1, pool.getStats().getTotal());
+    }
+
+    /**
+     * Запит зі зміненими fetch size і max rows повертається в кеш з початковими налаштуваннями
+     */
+    @Test
+    void cachedStatementIsReusedWithDefaultSettings() throws Exception {
+        pool = TestDatabase.createPool(1, 1_000);
+        String sql = "SELECT 1";
+        int defaultFetchSize;
+        int defaultMaxRows;
+        try (Connection connection = pool.getConnection()) {
+            try (PreparedStatement stmt = connection.prepareStatement(sql)) {
+                defaultFetchSize = stmt.getFetchSize();
+                defaultMaxRows = stmt.getMaxRows();
+                stmt.setFetchSize(defaultFetchSize + 50);
+                stmt.setMaxRows(1);
+                stmt.setMaxRows(2);
+                stmt.executeQuery().close();
+            }
+        }
+        long hits = pool.getStats().getStatementCacheHits();
+        try (Connection connection = pool.getConnection();
+             PreparedStatement stmt = connection.prepareStatement(sql)) {
+            assertEquals(hits + 1, pool.getStats().getStatementCacheHits());
+            assertEquals(defaultFetchSize, stmt.getFetchSize());
+            assertEquals(defaultMaxRows, stmt.getMaxRows());
+        }
+    }
+
+    private static int selectOne(Connection connection) throws SQLException {
+        try (Statement stmt = connection.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT 1")) {
+            rs.next();
+            return rs.getInt(1);
+        }
+    }
+}
@@ -0,0 +1,127 @@
+package util;
+
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Вбудована БД H2 (режим MySQL) для тестів
+ * Кожен виклик createPool() створює окрему базу в пам'яті, тож тести не заважають один одному.
+ */
+public final class TestDatabase {
+
+    public static final int CATEGORY_COUNT = 3;
+
+    private static final AtomicInteger DATABASE_COUNTER = new AtomicInteger();
+
+    private TestDatabase() {
+    }
+
+    /**
+     * Створити пул до нової порожньої бази в пам'яті
+     * @param poolSize - максимальна кількість підключень
+     * @param maxWaitMillis - скільки чекати на вільне підключення
+     */
+    public static ConnectionPool createPool(int poolSize, long maxWaitMillis) {
+        String url = "jdbc:h2:mem:test" + DATABASE_COUNTER.incrementAndGet() +
+                ";MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1";
+        return new ConnectionPool(url, "sa", "", poolSize, maxWaitMillis, 600_000, 2);
+    }
+
+    /**
+     * Створити схему міграціями застосунку і додати категорії
+     */
+    public static void createSchema(ConnectionPool pool) throws SQLException {
+        SchemaMigrator.migrate(pool);
+        try (Connection connection = pool.getConnection();
+             Statement stmt = connection.createStatement()) {
+            for (int i = 1; i <= CATEGORY_COUNT; i++) {
+                stmt.execute("INSERT INTO payment_categories VALUES (" + i + ", 'Категорія " + i + "')");
+            }
+        }
+    }
+
+    /**
+     * Додати користувача з одним рахунком
+     * @return ID рахунку
+     */
+    public static int createAccount(ConnectionPool pool, String currency, BigDecimal balance) throws SQLException {
+        int number = DATABASE_COUNTER.incrementAndGet();
+        int userId;
+        try (Connection connection = pool.getConnection();
+             PreparedStatement stmt = connection.prepareStatement(
+                     "INSERT INTO users (first_name, last_name, email, password_hash) VALUES (?, ?, ?, ?)",
+                     Statement.RETURN_GENERATED_KEYS)) {
+            stmt.setString(1, "Тест");
+            stmt.setString(2, "Користувач" + number);
+            stmt.setString(3, "user" + number + "@test.local");
+            stmt.setString(4, "hash");
+            stmt.executeUpdate();
+            userId = generatedKey(stmt);
+        }
+        return createAccount(pool, userId, currency, balance);
+    }
+
+    /**
+     * Додати рахунок наявному користувачу
+     * @return ID рахунку
+     */
+    public static int createAccount(ConnectionPool pool, int userId, String currency, BigDecimal balance)
+            throws SQLException {
+        int number = DATABASE_COUNTER.incrementAndGet();
+        try (Connection connection = pool.getConnection();
+             PreparedStatement account = connection.prepareStatement(
+                     "INSERT INTO accounts (user_id, account_number, balance, currency) VALUES (?, ?, ?, ?)",
+                     Statement.RETURN_GENERATED_KEYS)) {
+            account.setInt(1, userId);
+            account.setString(2, "UA" + (100000000L + number));
+            account.setBigDecimal(3, balance);
+            account.setString(4, currency);
+            account.executeUpdate();
+            return generatedKey(account);
+        }
+    }
+
+    /**
+     * Баланс рахунку
+     */
+    public static BigDecimal balance(ConnectionPool pool, int accountId) throws SQLException {
+        try (Connection connection = pool.getConnection();
+             PreparedStatement stmt = connection.prepareStatement(
+                     "SELECT balance FROM accounts WHERE account_id = ?")) {
+            stmt.setInt(1, accountId);
+            try (ResultSet rs = stmt.executeQuery()) {
+                if (!rs.next()) {
+                    throw new SQLException("Рахунок не знайдено (ID: " + accountId + ")");
+                }
+                return rs.getBigDecimal(1);
+            }
+        }
+    }
+
+    /**
+     * Видалити базу і закрити пул
+     */
+    public static void drop(ConnectionPool pool) {
+        try (Connection connection = pool.getConnection();
+             Statement stmt = connection.createStatement()) {
+            stmt.execute("DROP ALL OBJECTS");
+        } catch (SQLException e) {
+            System.err.println("❌ Помилка при видаленні тестової БД: " + e.getMessage());
+        }
+        pool.close();
+    }
+
+    private static int generatedKey(Statement stmt) throws SQLException {
+        try (ResultSet keys = stmt.getGeneratedKeys()) {
+            if (!keys.next()) {
+                throw new SQLException("БД не повернула згенерований ключ");
+            }
+            return keys.getInt(1);
+        }
+    }
+}